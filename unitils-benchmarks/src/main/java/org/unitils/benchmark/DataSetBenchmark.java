@@ -0,0 +1,97 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.dbunit.dataset.IDataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitils.dbunit.util.DataSetAssert;
+import org.unitils.dbunit.util.MultiSchemaDataSet;
+import org.unitils.dbunit.util.MultiSchemaXmlDataSetReader;
+
+/**
+ * Measures the reading of multi-schema xml data sets and the comparison of two data sets.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens", "java.base/java.lang=ALL-UNNAMED", "--add-opens", "java.base/java.util=ALL-UNNAMED"})
+public class DataSetBenchmark {
+
+    /* The nr of rows in each of the tables of the data set */
+    @Param({"10", "1000"})
+    private int nrOfRows;
+
+    /* The data set file */
+    private File dataSetFile;
+
+    /* The expected data set */
+    private IDataSet expectedDataSet;
+
+    /* The actual data set, equal to the expected data set */
+    private IDataSet actualDataSet;
+
+    @Setup
+    public void setUp()
+        throws IOException {
+        dataSetFile = File.createTempFile("dataset", ".xml");
+        try (Writer writer = Files.newBufferedWriter(dataSetFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version='1.0' encoding='UTF-8'?>\n<dataset>\n");
+            for (int i = 0; i < nrOfRows; i++) {
+                writer.write("<person id=\"" + i + "\" name=\"name " + i + "\" birthDate=\"2000-01-01\"/>\n");
+                writer.write("<address id=\"" + i + "\" personId=\"" + i + "\" street=\"street " + i + "\"/>\n");
+            }
+            writer.write("</dataset>\n");
+        }
+        expectedDataSet = readDataSet();
+        actualDataSet = readDataSet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSetFile.delete();
+    }
+
+    @Benchmark
+    public IDataSet readDataSet() {
+        MultiSchemaDataSet multiSchemaDataSet = new MultiSchemaXmlDataSetReader("PUBLIC").readDataSetXml(dataSetFile);
+        return multiSchemaDataSet.getDataSetForSchema("PUBLIC");
+    }
+
+    @Benchmark
+    public void assertEqualDataSets() {
+        new DataSetAssert().assertEqualDbUnitDataSets("PUBLIC", expectedDataSet, actualDataSet);
+    }
+}
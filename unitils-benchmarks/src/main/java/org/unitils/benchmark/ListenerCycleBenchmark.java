@@ -0,0 +1,127 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.benchmark;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitils.core.ConfigurationLoader;
+import org.unitils.core.TestListener;
+import org.unitils.core.Unitils;
+import org.unitils.dbunit.annotation.DataSet;
+
+import static org.unitils.dbunit.datasetfactory.impl.DefaultDataSetResolver.PROPKEY_DATA_SET_PATH_PREFIX;
+
+/**
+ * Measures a complete test listener cycle, as it is executed by the test runners for every test method, on an
+ * in-memory H2 database. The test object has a data set, so every cycle also loads the data set in the database.
+ * <p/>
+ * The configuration is read from the unitils.properties file of this module. Data sets can only be read from files,
+ * so the data set is copied out of the benchmarks jar into a temporary directory.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens", "java.base/java.lang=ALL-UNNAMED", "--add-opens", "java.base/java.util=ALL-UNNAMED"})
+public class ListenerCycleBenchmark {
+
+    /* The test listener of the initialized Unitils instance */
+    private TestListener testListener;
+
+    /* The test method of the sample test */
+    private Method testMethod;
+
+    @Setup
+    public void setUp()
+        throws Exception {
+        // the data set resolver reads the configuration of the Unitils singleton, system properties are part of it
+        System.setProperty(PROPKEY_DATA_SET_PATH_PREFIX, copyDataSetToTempDir().toUri().getPath());
+        Properties configuration = new ConfigurationLoader().loadConfiguration();
+        createTables(configuration);
+
+        Unitils unitils = new Unitils();
+        unitils.init(configuration);
+        testListener = unitils.getTestListener();
+        testMethod = SampleTest.class.getMethod("test");
+        testListener.beforeTestClass(SampleTest.class);
+    }
+
+    @Benchmark
+    public void testCycle() {
+        SampleTest testObject = new SampleTest();
+        testListener.afterCreateTestObject(testObject);
+        testListener.beforeTestSetUp(testObject, testMethod);
+        testListener.beforeTestMethod(testObject, testMethod);
+        if (testListener.shouldInvokeTestMethod(testObject, testMethod)) {
+            testObject.test();
+        }
+        testListener.afterTestMethod(testObject, testMethod, null);
+        testListener.afterTestTearDown(testObject, testMethod);
+    }
+
+    private Path copyDataSetToTempDir()
+        throws Exception {
+        Path tempDir = Files.createTempDirectory("unitils-benchmarks");
+        Path dataSetFile = tempDir.resolve("org/unitils/benchmark/ListenerCycleBenchmark.xml");
+        Files.createDirectories(dataSetFile.getParent());
+        try (InputStream in = ListenerCycleBenchmark.class.getResourceAsStream("ListenerCycleBenchmark.xml")) {
+            Files.copy(in, dataSetFile);
+        }
+        dataSetFile.toFile().deleteOnExit();
+        dataSetFile.getParent().toFile().deleteOnExit();
+        return tempDir;
+    }
+
+    private void createTables(Properties configuration)
+        throws SQLException {
+        String url = configuration.getProperty("database.url");
+        String userName = configuration.getProperty("database.userName");
+        String password = configuration.getProperty("database.password");
+        try (Connection connection = DriverManager.getConnection(url, userName, password); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists person (id integer primary key, name varchar(100))");
+        }
+    }
+
+    /**
+     * The test whose listener cycle is measured.
+     */
+    @DataSet("ListenerCycleBenchmark.xml")
+    public static class SampleTest {
+
+        public void test() {
+        }
+    }
+}
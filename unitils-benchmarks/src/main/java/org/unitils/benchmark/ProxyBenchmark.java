@@ -0,0 +1,80 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitils.core.Unitils;
+import org.unitils.mock.Mock;
+import org.unitils.mock.core.MockObject;
+import org.unitils.mock.core.proxy.ProxyFactory;
+import org.unitils.mock.core.proxy.ProxyInvocation;
+import org.unitils.mock.core.proxy.ProxyInvocationHandler;
+
+/**
+ * Measures the creation of proxies and the dispatching of invocations on a mock.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens", "java.base/java.lang=ALL-UNNAMED", "--add-opens", "java.base/java.util=ALL-UNNAMED"})
+public class ProxyBenchmark {
+
+    /* Handler that does not do anything, so that only the proxy itself is measured */
+    private static final ProxyInvocationHandler NO_OP_HANDLER = new ProxyInvocationHandler() {
+        @Override
+        public Object handleInvocation(ProxyInvocation proxyInvocation) {
+            return null;
+        }
+    };
+
+    /* A mock with behavior defined for one of its methods */
+    private Mock<Service> serviceMock;
+
+    @Setup
+    public void setUp() {
+        Unitils.getInstance();
+        serviceMock = new MockObject<>("serviceMock", Service.class, this);
+        serviceMock.returns("result").getValue(null);
+    }
+
+    @Benchmark
+    public Service createProxy() {
+        return ProxyFactory.createProxy("proxy", NO_OP_HANDLER, Service.class);
+    }
+
+    @Benchmark
+    public Object invokeMock() {
+        return serviceMock.getMock().getValue("key");
+    }
+
+    public interface Service {
+
+        String getValue(String key);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.unitils.reflectionassert.ReflectionAssert.assertLenientEquals;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+
+/**
+ * Measures the comparison of object graphs by the reflection assert, in strict and in lenient mode.
+ * <p/>
+ * The graphs are equal, so the measured time is the time of a successful assertion: every field of every object is
+ * compared. In the lenient variants the right collections are in reverse order, so that the unordered collection
+ * matching is measured as well.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens", "java.base/java.lang=ALL-UNNAMED", "--add-opens", "java.base/java.util=ALL-UNNAMED"})
+public class ReflectionAssertBenchmark {
+
+    /* The nr of orders in the graph, each order has 5 order lines */
+    @Param({"10", "1000"})
+    private int nrOfOrders;
+
+    /* The left graph */
+    private Customer left;
+
+    /* The right graph, equal to the left graph */
+    private Customer right;
+
+    /* The right graph, equal to the left graph but with the collections in reverse order */
+    private Customer reversedRight;
+
+    @Setup
+    public void setUp() {
+        left = createCustomer(nrOfOrders, false);
+        right = createCustomer(nrOfOrders, false);
+        reversedRight = createCustomer(nrOfOrders, true);
+    }
+
+    @Benchmark
+    public void reflectionEquals() {
+        assertReflectionEquals(left, right);
+    }
+
+    @Benchmark
+    public void lenientEquals() {
+        assertLenientEquals(left, reversedRight);
+    }
+
+    private static Customer createCustomer(int nrOfOrders, boolean reversed) {
+        Customer customer = new Customer();
+        customer.name = "customer";
+        for (int i = 0; i < nrOfOrders; i++) {
+            Order order = new Order();
+            order.id = i;
+            order.properties.put("priority", i % 3);
+            for (int j = 0; j < 5; j++) {
+                order.lines.add(new OrderLine("product " + (i * 5 + j), j + 1, 9.95 * j));
+            }
+            if (reversed) {
+                Collections.reverse(order.lines);
+            }
+            customer.orders.add(order);
+        }
+        if (reversed) {
+            Collections.reverse(customer.orders);
+        }
+        return customer;
+    }
+
+    public static class Customer {
+
+        private String name;
+
+        private List<Order> orders = new ArrayList<>();
+    }
+
+    public static class Order {
+
+        private long id;
+
+        private List<OrderLine> lines = new ArrayList<>();
+
+        private Map<String, Object> properties = new HashMap<>();
+    }
+
+    public static class OrderLine {
+
+        private String product;
+
+        private int quantity;
+
+        private double price;
+
+        public OrderLine(String product, int quantity, double price) {
+            this.product = product;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.benchmark;
+
+import java.io.StringReader;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitils.dbmaintainer.script.impl.DefaultScriptParser;
+
+import static org.unitils.dbmaintainer.script.impl.DefaultScriptParser.PROPKEY_BACKSLASH_ESCAPING_ENABLED;
+
+/**
+ * Measures the throughput of the script parser: the nr of scripts per second that are split into statements.
+ * <p/>
+ * The script contains create table statements, inserts with quoted values and comments.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens", "java.base/java.lang=ALL-UNNAMED", "--add-opens", "java.base/java.util=ALL-UNNAMED"})
+public class ScriptParserBenchmark {
+
+    /* The nr of insert statements in the script */
+    @Param({"100", "10000"})
+    private int nrOfStatements;
+
+    /* The configuration of the parser */
+    private Properties configuration;
+
+    /* The content of the script */
+    private String script;
+
+    @Setup
+    public void setUp() {
+        configuration = new Properties();
+        configuration.setProperty(PROPKEY_BACKSLASH_ESCAPING_ENABLED, "true");
+
+        StringBuilder scriptBuilder = new StringBuilder();
+        scriptBuilder.append("-- benchmark script\n");
+        scriptBuilder.append("create table person (id integer, name varchar(100), description varchar(1000));\n");
+        for (int i = 0; i < nrOfStatements; i++) {
+            scriptBuilder.append("/* person ").append(i).append(" */\n");
+            scriptBuilder.append("insert into person (id, name, description) values (").append(i);
+            scriptBuilder.append(", 'name ''").append(i).append("''', 'a description; with \\' quotes');\n");
+        }
+        script = scriptBuilder.toString();
+    }
+
+    @Benchmark
+    public int parseScript() {
+        DefaultScriptParser scriptParser = new DefaultScriptParser();
+        scriptParser.init(configuration, new StringReader(script));
+        int count = 0;
+        while (scriptParser.getNextStatement() != null) {
+            count++;
+        }
+        return count;
+    }
+}
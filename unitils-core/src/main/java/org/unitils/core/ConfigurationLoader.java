@@ -15,9 +15,9 @@ package org.unitils.core;
 import java.util.Properties;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.text.StringSubstitutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.unitils.core.config.ConfigurationProperties;
 import org.unitils.core.util.PropertiesReader;
 import org.unitils.util.PropertyUtils;
 
@@ -49,6 +49,7 @@ import org.unitils.util.PropertyUtils;
  * For example suppose you have a property defined as follows: root.dir=/usr/home
  * Expanding following ${root.dir}/somesubdir
  * will then give following result: /usr/home/somesubdir
+ * The place holders are only expanded when the property is read, see {@link ConfigurationProperties}.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -113,13 +114,12 @@ public class ConfigurationLoader {
      * @return the settings, not null
      */
     public Properties loadConfiguration() {
-        Properties properties = new Properties();
+        Properties properties = new ConfigurationProperties();
 
         loadDefaultConfiguration(properties);
         loadCustomConfiguration(properties);
         loadLocalConfiguration(properties);
         loadSystemProperties(properties);
-        expandPropertyValues(properties);
         return properties;
     }
 
@@ -194,27 +194,6 @@ public class ConfigurationLoader {
         properties.putAll(System.getProperties());
     }
 
-    /**
-     * Expands all property place holders to actual values. For example
-     * suppose you have a property defined as follows: root.dir=/usr/home
-     * Expanding following ${root.dir}/somesubdir
-     * will then give following result: /usr/home/somesubdir
-     *
-     * @param properties
-     *     The properties, not null
-     */
-    protected void expandPropertyValues(Properties properties) {
-        for (Object key : properties.keySet()) {
-            Object value = properties.get(key);
-            try {
-                String expandedValue = StringSubstitutor.replace(value, properties);
-                properties.put(key, expandedValue);
-            } catch (Exception e) {
-                throw new UnitilsException("Unable to load unitils configuration. Could not expand property value for key: " + key + ", value " + value, e);
-            }
-        }
-    }
-
     /**
      * Gets the configuration file name from the system properties or if not defined, from the given loaded properties.
      * An exception is raised if no value is defined.
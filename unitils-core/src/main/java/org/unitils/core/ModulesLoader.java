@@ -21,9 +21,15 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.unitils.core.metrics.ModuleMetrics;
+import org.unitils.core.util.ClassPathIndex;
 
 import static org.unitils.util.PropertyUtils.getBoolean;
 import static org.unitils.util.PropertyUtils.getString;
@@ -52,6 +58,14 @@ import static org.unitils.util.ReflectionUtils.createInstanceOfType;
  * order C, B, A.
  * <p/>
  * If a circular dependency is found in the runAfter configuration, a runtime exception will be thrown.
+ * <p/>
+ * When {@link #PROPKEY_PARALLEL_INIT_ENABLED} is set to true, modules that do not (indirectly) depend on each other are
+ * initialized concurrently. In the above example, every module depends on the modules before it, so they are still
+ * initialized one by one. Without the runAfter of B, B and C would be initialized concurrently, and A after both of
+ * them. Modules are initialized in stages:
+ * a module is only initialized after all modules it has to run after are initialized. Modules should therefore not
+ * access other modules in their {@link Module#init} method, that is what {@link Module#afterInit} is for. Accessing
+ * the Unitils instance that is being initialized is possible.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
@@ -82,11 +96,36 @@ public class ModulesLoader {
      */
     public static final String PROPKEY_MODULE_SUFFIX_RUN_AFTER = ".runAfter";
 
+    /**
+     * Property that specifies whether independent modules should be initialized concurrently.
+     */
+    public static final String PROPKEY_PARALLEL_INIT_ENABLED = "unitils.modules.parallelInit.enabled";
+
     /**
      * The logger instance for this class.
      */
     private static Logger logger = LoggerFactory.getLogger(ModulesLoader.class);
 
+    /* Records the time taken by the initialization of the modules, not null */
+    private final ModuleMetrics moduleMetrics;
+
+    /**
+     * Creates a loader that does not record the time taken by the modules.
+     */
+    public ModulesLoader() {
+        this(ModuleMetrics.DISABLED);
+    }
+
+    /**
+     * Creates a loader that records the time taken by the initialization of the modules using the given metrics.
+     *
+     * @param moduleMetrics
+     *     the metrics, not null
+     */
+    public ModulesLoader(ModuleMetrics moduleMetrics) {
+        this.moduleMetrics = moduleMetrics;
+    }
+
     /**
      * Loads all unitils modules as described in the class javadoc.
      *
@@ -125,12 +164,25 @@ public class ModulesLoader {
         }
 
         // Create core instances in the correct sequence
-        List<Module> result = new ArrayList<>();
-        for (List<String> moduleNameList : runAfterCounts.values()) {
-            List<Module> modules = createAndInitializeModules(moduleNameList, configuration);
-            result.addAll(modules);
+        boolean parallelInitEnabled = getBoolean(PROPKEY_PARALLEL_INIT_ENABLED, false, configuration);
+        ForkJoinPool initPool = parallelInitEnabled ? new ForkJoinPool() : null;
+        try {
+            List<Module> result = new ArrayList<>();
+            for (List<String> moduleNameList : runAfterCounts.values()) {
+                List<Module> modules;
+                if (initPool == null || moduleNameList.size() == 1) {
+                    modules = createAndInitializeModules(moduleNameList, configuration);
+                } else {
+                    modules = createAndInitializeModulesInParallel(moduleNameList, configuration, initPool);
+                }
+                result.addAll(modules);
+            }
+            return result;
+        } finally {
+            if (initPool != null) {
+                initPool.shutdown();
+            }
         }
-        return result;
     }
 
     /**
@@ -145,28 +197,98 @@ public class ModulesLoader {
     protected List<Module> createAndInitializeModules(List<String> moduleNames, Properties configuration) {
         List<Module> result = new ArrayList<>();
         for (String moduleName : moduleNames) {
-            // get module class name
-            String className = getString(PROPKEY_MODULE_PREFIX + moduleName + PROPKEY_MODULE_SUFFIX_CLASS_NAME, configuration);
-            if (!classFileExistsInClasspath(className)) {
-                logger.debug("Skipping module " + moduleName + ". Module class not found in classpath. Module class name: " + className);
-                continue;
+            Module module = createAndInitializeModule(moduleName, configuration);
+            if (module != null) {
+                result.add(module);
             }
+        }
+        return result;
+    }
+
+    /**
+     * Creates the modules with the given class names and initializes them concurrently using the given pool. The
+     * modules should not depend on each other. The modules are returned in the same order as the given names.
+     *
+     * @param moduleNames
+     *     the module class names, not null
+     * @param configuration
+     *     the configuration, not null
+     * @param initPool
+     *     the pool that runs the initialization, not null
+     * @return the modules, not null
+     */
+    protected List<Module> createAndInitializeModulesInParallel(List<String> moduleNames, Properties configuration, ForkJoinPool initPool) {
+        // modules can use the context class loader and the Unitils instance that is being initialized
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Unitils initializingUnitils = Unitils.getInitializingInstance();
+
+        List<Callable<Module>> initTasks = new ArrayList<>();
+        for (String moduleName : moduleNames) {
+            initTasks.add(() -> {
+                Thread currentThread = Thread.currentThread();
+                ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+                Unitils originalInitializingUnitils = Unitils.getInitializingInstance();
+                currentThread.setContextClassLoader(contextClassLoader);
+                Unitils.setInitializingInstance(initializingUnitils);
+                try {
+                    return createAndInitializeModule(moduleName, configuration);
+                } finally {
+                    Unitils.setInitializingInstance(originalInitializingUnitils);
+                    currentThread.setContextClassLoader(originalClassLoader);
+                }
+            });
+        }
+
+        List<Module> result = new ArrayList<>();
+        for (Future<Module> initResult : initPool.invokeAll(initTasks)) {
             try {
-                // create module instance
-                Object module = createInstanceOfType(className, true);
-                if (!(module instanceof Module)) {
-                    throw new UnitilsException("Unable to load core. Module class is not of type UnitilsModule: " + className);
+                Module module = initResult.get();
+                if (module != null) {
+                    result.add(module);
                 }
-                // initialize module
-                ((Module) module).init(configuration);
-                result.add((Module) module);
-            } catch (Throwable t) {
-                throw new UnitilsException("An exception occured during the loading of core module " + moduleName + " with module class name " + className, t);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UnitilsException) {
+                    throw (UnitilsException) e.getCause();
+                }
+                throw new UnitilsException("An exception occured during the loading of core modules " + moduleNames, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UnitilsException("Interrupted during the loading of core modules " + moduleNames, e);
             }
         }
         return result;
     }
 
+    /**
+     * Creates the module with the given name and initializes it with the given configuration.
+     *
+     * @param moduleName
+     *     the module name, not null
+     * @param configuration
+     *     the configuration, not null
+     * @return the module, null if the module class is not in the classpath
+     */
+    protected Module createAndInitializeModule(String moduleName, Properties configuration) {
+        // get module class name
+        String className = getString(PROPKEY_MODULE_PREFIX + moduleName + PROPKEY_MODULE_SUFFIX_CLASS_NAME, configuration);
+        if (!classFileExistsInClasspath(className)) {
+            logger.debug("Skipping module " + moduleName + ". Module class not found in classpath. Module class name: " + className);
+            return null;
+        }
+        try {
+            // create module instance
+            Object module = createInstanceOfType(className, true);
+            if (!(module instanceof Module)) {
+                throw new UnitilsException("Unable to load core. Module class is not of type UnitilsModule: " + className);
+            }
+            // initialize module
+            moduleMetrics.initModule((Module) module, configuration);
+            return (Module) module;
+        } catch (Throwable t) {
+            throw new UnitilsException("An exception occured during the loading of core module " + moduleName + " with module class name " + className, t);
+        }
+    }
+
     /**
      * Count each time a core is (indirectly) used in runAfter and order by count.
      * <p/>
@@ -228,7 +350,6 @@ public class ModulesLoader {
      * @return True if the classfile exists in the classpath
      */
     protected boolean classFileExistsInClasspath(String className) {
-        String classFileName = className.replace('.', '/') + ".class";
-        return getClass().getClassLoader().getResource(classFileName) != null;
+        return ClassPathIndex.classFileExists(getClass().getClassLoader(), className);
     }
 }
@@ -19,6 +19,7 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.unitils.core.metrics.ModuleMetrics;
 
 import static org.unitils.util.ReflectionUtils.getClassWithName;
 
@@ -44,8 +45,21 @@ public class ModulesRepository {
      *     the modules, not null
      */
     public ModulesRepository(List<Module> modules) {
+        this(modules, ModuleMetrics.DISABLED);
+    }
+
+    /**
+     * Creates a repository containing the given modules. The time taken by the test listeners of the modules is
+     * recorded by the given metrics.
+     *
+     * @param modules
+     *     the modules, not null
+     * @param moduleMetrics
+     *     the metrics, not null
+     */
+    public ModulesRepository(List<Module> modules, ModuleMetrics moduleMetrics) {
         this.modules = modules;
-        this.testListeners = createTestListeners(modules);
+        this.testListeners = createTestListeners(modules, moduleMetrics);
     }
 
     /**
@@ -160,12 +174,14 @@ public class ModulesRepository {
      *
      * @param moduleList
      *     the modules, not null
+     * @param moduleMetrics
+     *     the metrics that record the time taken by the listeners, not null
      * @return the listeners for each module, not null
      */
-    private Map<Module, TestListener> createTestListeners(List<Module> moduleList) {
+    private Map<Module, TestListener> createTestListeners(List<Module> moduleList, ModuleMetrics moduleMetrics) {
         Map<Module, TestListener> result = new HashMap<>(moduleList.size());
         for (Module module : moduleList) {
-            result.put(module, module.getTestListener());
+            result.put(module, moduleMetrics.createTimedTestListener(module, module.getTestListener()));
         }
         return result;
     }
@@ -18,7 +18,7 @@ import org.unitils.TestRunnerAccessor;
 
 /**
  * Object that holds information about the current test execution. During a test run
- * it always knows which test is running.
+ * it always knows which test is running. An instance is bound to a single thread, see {@link Unitils#getTestContext()}.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -37,6 +37,25 @@ public class TestContext {
     /* The runner executing the current test */
     private TestRunnerAccessor runner;
 
+    /**
+     * Creates an empty test context.
+     */
+    public TestContext() {
+    }
+
+    /**
+     * Creates a test context that holds the same test information as the given context.
+     *
+     * @param testContext
+     *     The context to copy, not null
+     */
+    public TestContext(TestContext testContext) {
+        this.testClass = testContext.testClass;
+        this.testObject = testContext.testObject;
+        this.testMethod = testContext.testMethod;
+        this.runner = testContext.runner;
+    }
+
     public Class<?> getTestClass() {
         return testClass;
     }
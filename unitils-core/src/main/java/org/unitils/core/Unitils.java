@@ -18,6 +18,7 @@ import java.util.Properties;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.unitils.core.metrics.ModuleMetrics;
 
 /**
  * Core class of the Unitils library, and the main entry point that gives access to the {@link TestContext} and the
@@ -34,23 +35,44 @@ import org.slf4j.LoggerFactory;
  * <p/>
  * Unitils itself is also implemented as a module. In fact, an instance of Unitils behaves like a module who's behaviour
  * is defined by the added behaviour of all modules.
+ * <p/>
+ * The {@link TestContext} is kept per thread, so that tests that are executed concurrently (e.g. using JUnit 5 parallel
+ * execution) each see their own test class, test object and test method. Threads that are started from within a test
+ * do not inherit the context: a thread that needs it, should set it explicitly using {@link #setTestContext}.
  */
 public class Unitils {
     private static final Logger LOG = LoggerFactory.getLogger(Unitils.class);
 
     /* The singleton instance */
-    private static Unitils unitils;
+    private static volatile Unitils unitils;
+
+    /* The singleton instance that is being initialized, only set for the threads that take part in the initialization */
+    private static final ThreadLocal<Unitils> initializingUnitils = new ThreadLocal<>();
 
     /**
-     * Returns the singleton instance
+     * Returns the singleton instance. Once the instance is initialized, this method does not need any locking.
+     * <p/>
+     * While the instance is being initialized, it is only returned to the threads that take part in the
+     * initialization, e.g. to modules that access Unitils in their {@link Module#init} or {@link Module#afterInit()},
+     * also when the modules are initialized in parallel. Other threads wait until the initialization is finished.
      *
      * @return the singleton instance, not null
      */
-    public static synchronized Unitils getInstance() {
-        if (unitils == null) {
-            initSingletonInstance();
+    public static Unitils getInstance() {
+        Unitils instance = unitils;
+        if (instance != null) {
+            return instance;
+        }
+        instance = initializingUnitils.get();
+        if (instance != null) {
+            return instance;
+        }
+        synchronized (Unitils.class) {
+            if (unitils == null) {
+                initSingletonInstance();
+            }
+            return unitils;
         }
-        return unitils;
     }
 
     /**
@@ -65,11 +87,42 @@ public class Unitils {
 
     /**
      * Initializes the singleton instance to the default value, loading the configuration using the {@link
-     * ConfigurationLoader}
+     * ConfigurationLoader}. The instance is only published after its initialization has completed.
+     */
+    public static synchronized void initSingletonInstance() {
+        Unitils instance = new Unitils();
+        initializingUnitils.set(instance);
+        try {
+            instance.init();
+        } finally {
+            initializingUnitils.remove();
+        }
+        unitils = instance;
+    }
+
+    /**
+     * Gets the singleton instance that is being initialized by the current thread. A thread that helps with the
+     * initialization should make it available using {@link #setInitializingInstance}.
+     *
+     * @return the instance, null if the current thread is not initializing the singleton instance
+     */
+    static Unitils getInitializingInstance() {
+        return initializingUnitils.get();
+    }
+
+    /**
+     * Makes the singleton instance that is being initialized available to the current thread, so that it is returned
+     * by {@link #getInstance()} instead of waiting for the initialization to finish.
+     *
+     * @param instance
+     *     the instance, null to remove it
      */
-    public static void initSingletonInstance() {
-        unitils = new Unitils();
-        unitils.init();
+    static void setInitializingInstance(Unitils instance) {
+        if (instance == null) {
+            initializingUnitils.remove();
+        } else {
+            initializingUnitils.set(instance);
+        }
     }
 
     /* Listener that observes the execution of tests */
@@ -81,14 +134,17 @@ public class Unitils {
     /* Configuration of Unitils, made up of different properties files */
     private Properties configuration;
 
-    /* Object keeping track of the unit test that is currently running */
-    private TestContext testContext;
+    /* Records the time taken by the modules, not null */
+    private ModuleMetrics moduleMetrics = ModuleMetrics.DISABLED;
+
+    /* Object keeping track of the unit test that is currently running in the current thread */
+    private ThreadLocal<TestContext> testContext;
 
     /**
      * Creates a new instance.
      */
     public Unitils() {
-        testContext = new TestContext();
+        testContext = ThreadLocal.withInitial(TestContext::new);
     }
 
     /**
@@ -110,6 +166,7 @@ public class Unitils {
     public void init(Properties configuration) {
         // verifyPackaging(configuration);
         this.configuration = configuration;
+        moduleMetrics = ModuleMetrics.createModuleMetrics(configuration);
         modulesRepository = createModulesRepository(configuration);
         testListener = new UnitilsTestListener();
         afterInitModules();
@@ -121,7 +178,7 @@ public class Unitils {
      */
     protected void afterInitModules() {
         for (Module module : modulesRepository.getModules()) {
-            module.afterInit();
+            moduleMetrics.afterInitModule(module);
         }
     }
 
@@ -183,12 +240,34 @@ public class Unitils {
 
     /**
      * Returns the {@link TestContext} that, during the execution of the test suite, keeps track of the current test
-     * object, class and test method that are executing.
+     * object, class and test method that are executing in the current thread.
      *
-     * @return the {@link TestContext}
+     * @return the {@link TestContext} of the current thread, not null
      */
     public TestContext getTestContext() {
-        return testContext;
+        return testContext.get();
+    }
+
+    /**
+     * Sets the {@link TestContext} of the current thread. This can be used to give a thread that is started from within
+     * a test, e.g. a worker thread of the code under test, access to the test that started it:
+     * <pre><code>
+     * TestContext testContext = new TestContext(unitils.getTestContext());
+     * executor.submit(() -&gt; {
+     *     unitils.setTestContext(testContext);
+     *     ...
+     * });
+     * </code></pre>
+     *
+     * @param testContext
+     *     the context for the current thread, null to reset it to an empty context
+     */
+    public void setTestContext(TestContext testContext) {
+        if (testContext == null) {
+            this.testContext.remove();
+        } else {
+            this.testContext.set(testContext);
+        }
     }
 
     /**
@@ -200,6 +279,15 @@ public class Unitils {
         return configuration;
     }
 
+    /**
+     * Returns the metrics that record the time taken by the initialization and the test listeners of the modules.
+     *
+     * @return the metrics, {@link ModuleMetrics#DISABLED} if not enabled, not null
+     */
+    public ModuleMetrics getModuleMetrics() {
+        return moduleMetrics;
+    }
+
     /**
      * Configures all unitils modules using the given <code>Properties</code> object, and stores them in a {@link
      * ModulesRepository}. The configuration of the modules is delegated to a {@link ModulesLoader} instance.
@@ -209,9 +297,9 @@ public class Unitils {
      * @return a new {@link ModulesRepository}
      */
     protected ModulesRepository createModulesRepository(Properties configuration) {
-        ModulesLoader modulesLoader = new ModulesLoader();
+        ModulesLoader modulesLoader = new ModulesLoader(moduleMetrics);
         List<Module> modules = modulesLoader.loadModules(configuration);
-        return new ModulesRepository(modules);
+        return new ModulesRepository(modules, moduleMetrics);
     }
 
     /**
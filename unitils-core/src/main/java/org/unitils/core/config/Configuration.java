@@ -14,8 +14,10 @@ package org.unitils.core.config;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Function;
 
 import org.unitils.core.Factory;
 import org.unitils.core.UnitilsException;
@@ -39,6 +41,9 @@ import static org.unitils.util.ReflectionUtils.createInstanceOfType;
 public class Configuration
     extends UnitilsConfiguration {
 
+    /* Splits a comma separated value into an unmodifiable list of trimmed, non-empty values */
+    private static final Function<String, List<String>> STRING_LIST_CONVERTER = Configuration::splitStringList;
+
     /* All configuration properties, not null */
     protected Properties properties;
 
@@ -64,7 +69,7 @@ public class Configuration
     }
 
     public Properties getAllProperties() {
-        Properties result = new Properties();
+        Properties result = new ConfigurationProperties();
         result.putAll(properties);
         if (overridingProperties != null) {
             result.putAll(overridingProperties);
@@ -706,6 +711,13 @@ public class Configuration
         if (value == null) {
             return new ArrayList<>(0);
         }
+        if (properties instanceof ConfigurationProperties) {
+            return new ArrayList<>(((ConfigurationProperties) properties).getConvertedValue(value, STRING_LIST_CONVERTER));
+        }
+        return new ArrayList<>(splitStringList(value));
+    }
+
+    private static List<String> splitStringList(String value) {
         String[] splitValues = value.split(",");
         List<String> result = new ArrayList<>(splitValues.length);
         for (String splitValue : splitValues) {
@@ -715,7 +727,7 @@ public class Configuration
             }
             result.add(splitValue);
         }
-        return result;
+        return Collections.unmodifiableList(result);
     }
 
     protected <T extends Enum<T>> T toEnum(Class<T> type, String value, String propertyName, String[] classifiers) {
@@ -738,7 +750,7 @@ public class Configuration
             return null;
         }
         try {
-            T instance = (T) createInstanceOfType(value, true);
+            T instance = (T) createInstanceOfType(ConfigurationProperties.getClassWithName(value, properties), true);
             if (instance instanceof Factory) {
                 return (T) ((Factory<?>) instance).create();
             }
@@ -753,7 +765,7 @@ public class Configuration
             return null;
         }
         try {
-            return Class.forName(value);
+            return ConfigurationProperties.getClassWithName(value, properties);
         } catch (Exception e) {
             throw new UnitilsException("Value " + value + " of " + nameToString(propertyName, classifiers) + " is not a valid class name.", e);
         }
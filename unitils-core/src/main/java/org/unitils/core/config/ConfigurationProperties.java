@@ -0,0 +1,155 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.config;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.unitils.core.UnitilsException;
+
+/**
+ * The properties containing the unitils configuration.
+ * <p/>
+ * Ant-like property place holders, e.g. ${holder}, are only expanded when the value of a property is read using
+ * {@link #getProperty(String)} or {@link #get(Object)}. Properties that are never read, like most of the copied system
+ * properties, are never expanded. Iterating over the entries returns the values as they were set, without expanding
+ * them.
+ * <p/>
+ * Values that were converted to another type, e.g. a list of strings or a class, can be kept using
+ * {@link #getConvertedValue}. The converted values are kept per value and not per property, so the properties can
+ * still be changed after they were loaded.
+ * <p/>
+ * Reading properties does not require a lock, so the configuration can be used by tests that run in parallel.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ConfigurationProperties
+    extends Properties {
+
+    /* Loads the class with the given name */
+    private static final Function<String, Class<?>> CLASS_CONVERTER = ConfigurationProperties::toClass;
+
+    /* The converted values per converter and value */
+    private Map<Function<String, ?>, Map<String, Object>> convertedValues = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the value of the property with the given name. Place holders in the value are expanded.
+     *
+     * @param propertyName
+     *     The name, not null
+     * @return The expanded value, null if not found
+     */
+    @Override
+    public String getProperty(String propertyName) {
+        return expand(propertyName, super.getProperty(propertyName));
+    }
+
+    /**
+     * Gets the value for the given key. Place holders in string values are expanded.
+     *
+     * @param key
+     *     The key, not null
+     * @return The expanded value, null if not found
+     */
+    @Override
+    public Object get(Object key) {
+        Object value = super.get(key);
+        if (value instanceof String) {
+            return expand(key, (String) value);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the given value converted by the given converter. The value is only converted the first time, after that
+     * the same converted value is returned.
+     * <p/>
+     * The converter should always give the same result for the same value and the converted value should not be
+     * changed by the caller, since it is returned again by a next call.
+     *
+     * @param value
+     *     The value of a property, not null
+     * @param converter
+     *     Converts the value, should not return null, not null
+     * @return The converted value, not null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getConvertedValue(String value, Function<String, T> converter) {
+        Map<String, Object> convertedValuesForConverter = convertedValues.get(converter);
+        if (convertedValuesForConverter == null) {
+            convertedValuesForConverter = new ConcurrentHashMap<>();
+            convertedValues.put(converter, convertedValuesForConverter);
+        }
+        // no computeIfAbsent: the conversion could load a class that reads a converted value during its initialization
+        Object convertedValue = convertedValuesForConverter.get(value);
+        if (convertedValue == null) {
+            convertedValue = converter.apply(value);
+            convertedValuesForConverter.put(value, convertedValue);
+        }
+        return (T) convertedValue;
+    }
+
+    /**
+     * Gets the class with the given name. If the given properties are configuration properties, the class is only
+     * loaded the first time.
+     *
+     * @param className
+     *     The name of the class, not null
+     * @param properties
+     *     The properties containing the class name, not null
+     * @return The class, not null
+     */
+    public static Class<?> getClassWithName(String className, Properties properties) {
+        if (properties instanceof ConfigurationProperties) {
+            return ((ConfigurationProperties) properties).getConvertedValue(className, CLASS_CONVERTER);
+        }
+        return toClass(className);
+    }
+
+    /**
+     * Creates a copy of these properties. The copy does not share the converted values.
+     *
+     * @return The copy, not null
+     */
+    @Override
+    public synchronized Object clone() {
+        ConfigurationProperties clone = (ConfigurationProperties) super.clone();
+        clone.convertedValues = new ConcurrentHashMap<>();
+        return clone;
+    }
+
+    private String expand(Object key, String value) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        try {
+            return new StringSubstitutor(super::getProperty).replace(value);
+        } catch (Exception e) {
+            throw new UnitilsException("Could not expand property value for key: " + key + ", value " + value, e);
+        }
+    }
+
+    private static Class<?> toClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (NoClassDefFoundError e) {
+            throw new UnitilsException("Unable to load class " + className, e);
+        } catch (ClassNotFoundException e) {
+            throw new UnitilsException("Class " + className + " not found", e);
+        }
+    }
+}
@@ -21,7 +21,8 @@ import org.slf4j.LoggerFactory;
 import org.unitils.core.UnitilsException;
 import org.unitils.core.util.Configurable;
 
-import static org.unitils.util.ReflectionUtils.createInstanceOfType;
+import static org.unitils.core.util.ConfigUtils.createInstanceOfClass;
+import static org.unitils.core.util.ConfigUtils.getImplClassPropertyNames;
 
 /**
  * @author Tim Ducheyne
@@ -268,7 +269,7 @@ public class UnitilsConfiguration {
      */
     public <T> T getInstance(String propertyName) {
         String className = getString(propertyName);
-        return (T) createInstanceOfType(className, false);
+        return createInstanceOfClass(className, properties);
     }
 
     /**
@@ -331,28 +332,18 @@ public class UnitilsConfiguration {
     }
 
     private String getImplClassName(Class<?> type, String... discriminators) {
-        String className = null;
-        String propertyName = type.getName() + ".implClassName";
-
-        if (discriminators != null) {
-            StringBuffer propertyNameWithDiscriminators = new StringBuffer(propertyName);
-            for (String discriminator : discriminators) {
-                propertyNameWithDiscriminators.append('.');
-                propertyNameWithDiscriminators.append(discriminator);
-                String classNameForDiscriminator = getString(propertyNameWithDiscriminators.toString(), null);
-                if (classNameForDiscriminator != null) {
-                    className = classNameForDiscriminator;
-                }
+        List<String> propertyNames = getImplClassPropertyNames(type, discriminators);
+        for (int i = propertyNames.size() - 1; i > 0; i--) {
+            String classNameForDiscriminator = getString(propertyNames.get(i), null);
+            if (classNameForDiscriminator != null) {
+                return classNameForDiscriminator;
             }
         }
-        if (className == null) {
-            className = getString(propertyName);
-        }
-        return className;
+        return getString(propertyNames.get(0));
     }
 
     private <T> T createInstance(String className) {
-        T instance = (T) createInstanceOfType(className, false);
+        T instance = createInstanceOfClass(className, properties);
         if (instance instanceof Configurable) {
             ((Configurable) instance).init(properties);
         }
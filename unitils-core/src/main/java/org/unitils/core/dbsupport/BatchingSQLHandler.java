@@ -0,0 +1,245 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.unitils.core.UnitilsException;
+
+import static org.unitils.thirdparty.org.apache.commons.dbutils.DbUtils.closeQuietly;
+
+/**
+ * SQL handler that reuses connections and sends batches of statements to the database.
+ * <p/>
+ * While a session is open, all statements of the thread that opened it are executed on the same connection. The
+ * connection is only obtained when the first statement is executed and is closed when the session is closed. The
+ * statements are committed when {@link SQLHandlerSession#commit()} is called, if the connection is not in auto-commit
+ * mode.
+ * Statements that are executed outside a session get their own connection, as with the {@link DefaultSQLHandler}.
+ * <p/>
+ * The statements given to {@link #executeBatch} are sent to the database as one JDBC batch, unless the driver does
+ * not support batch updates.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class BatchingSQLHandler
+    extends DefaultSQLHandler {
+
+    /* The logger instance for this class */
+    private static Logger logger = LoggerFactory.getLogger(BatchingSQLHandler.class);
+
+    /* The open session of each thread */
+    private final ThreadLocal<Session> sessions = new ThreadLocal<>();
+
+    /**
+     * Constructs a new instance that connects to the given DataSource
+     *
+     * @param dataSource
+     *     The data source, not null
+     */
+    public BatchingSQLHandler(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    /**
+     * Constructs a new instance that connects to the given DataSource
+     *
+     * @param dataSource
+     *     The data source, not null
+     * @param doExecuteUpdates
+     *     Boolean indicating whether updates should effectively be executed on the underlying
+     *     database
+     */
+    public BatchingSQLHandler(DataSource dataSource, boolean doExecuteUpdates) {
+        super(dataSource, doExecuteUpdates);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.unitils.core.dbsupport.SQLHandler#executeBatch(java.util.List)
+     */
+    @Override
+    public int[] executeBatch(List<String> sqlStatements) {
+        for (String sql : sqlStatements) {
+            logger.debug(sql);
+        }
+        if (!isDoExecuteUpdates() || sqlStatements.isEmpty()) {
+            // skip updates
+            return new int[sqlStatements.size()];
+        }
+        Connection connection = null;
+        Statement statement = null;
+        try {
+            connection = getConnection();
+            statement = connection.createStatement();
+            if (!connection.getMetaData().supportsBatchUpdates()) {
+                return executeOneByOne(statement, sqlStatements);
+            }
+            for (String sql : sqlStatements) {
+                statement.addBatch(sql);
+            }
+            return statement.executeBatch();
+        } catch (BatchUpdateException e) {
+            throw new UnitilsException("Error while performing database update: " + getFailedStatement(sqlStatements, e), e);
+        } catch (UnitilsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UnitilsException("Error while performing batch of " + sqlStatements.size() + " database updates, first statement: " + sqlStatements.get(0), e);
+        } finally {
+            close(connection, statement, null);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.unitils.core.dbsupport.SQLHandler#openSession()
+     */
+    @Override
+    public SQLHandlerSession openSession() {
+        Session session = sessions.get();
+        if (session == null) {
+            session = new Session();
+            sessions.set(session);
+        }
+        session.nrOfOpenSessions++;
+
+        Session openedSession = session;
+        return new SQLHandlerSession() {
+
+            @Override
+            public void commit() {
+                commitSession(openedSession);
+            }
+
+            @Override
+            public void close() {
+                closeSession(openedSession);
+            }
+        };
+    }
+
+    /**
+     * @return True if the current thread has an open session
+     */
+    public boolean isSessionOpen() {
+        return sessions.get() != null;
+    }
+
+    /**
+     * Gets the connection of the open session of the current thread. If there is no session, a new connection is
+     * returned.
+     *
+     * @return The connection, not null
+     */
+    @Override
+    protected Connection getConnection()
+        throws SQLException {
+        Session session = sessions.get();
+        if (session == null) {
+            return super.getConnection();
+        }
+        if (session.connection == null) {
+            session.connection = super.getConnection();
+        }
+        return session.connection;
+    }
+
+    /**
+     * Closes the given statement and result set. The connection is only closed if it is not the connection of the
+     * open session of the current thread.
+     */
+    @Override
+    protected void close(Connection connection, Statement statement, ResultSet resultSet) {
+        Session session = sessions.get();
+        if (session != null && connection != null && connection == session.connection) {
+            closeQuietly(null, statement, resultSet);
+        } else {
+            super.close(connection, statement, resultSet);
+        }
+    }
+
+    private void commitSession(Session session) {
+        if (session.connection == null) {
+            return;
+        }
+        try {
+            if (!session.connection.getAutoCommit()) {
+                session.connection.commit();
+            }
+        } catch (SQLException e) {
+            throw new UnitilsException("Unable to commit the statements of the session.", e);
+        }
+    }
+
+    private void closeSession(Session session) {
+        if (--session.nrOfOpenSessions > 0) {
+            return;
+        }
+        if (sessions.get() == session) {
+            sessions.remove();
+        }
+        closeQuietly(session.connection);
+    }
+
+    private int[] executeOneByOne(Statement statement, List<String> sqlStatements) {
+        int[] updateCounts = new int[sqlStatements.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            String sql = sqlStatements.get(i);
+            try {
+                updateCounts[i] = statement.executeUpdate(sql);
+            } catch (SQLException e) {
+                throw new UnitilsException("Error while performing database update: " + sql, e);
+            }
+        }
+        return updateCounts;
+    }
+
+    private String getFailedStatement(List<String> sqlStatements, BatchUpdateException e) {
+        int[] updateCounts = e.getUpdateCounts();
+        if (updateCounts == null) {
+            return sqlStatements.get(0);
+        }
+        // the driver either stopped at the failed statement or marked it as failed
+        if (updateCounts.length < sqlStatements.size()) {
+            return sqlStatements.get(updateCounts.length);
+        }
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                return sqlStatements.get(i);
+            }
+        }
+        return sqlStatements.get(0);
+    }
+
+    /**
+     * The session of a thread.
+     */
+    private static class Session {
+
+        /* The connection of the session, null if no statement was executed yet */
+        private Connection connection;
+
+        /* The nr of times the session was opened and not closed yet */
+        private int nrOfOpenSessions;
+    }
+}
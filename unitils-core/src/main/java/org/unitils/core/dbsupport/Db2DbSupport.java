@@ -258,4 +258,17 @@ public class Db2DbSupport
     public boolean supportsTypes() {
         return true;
     }
+
+    /**
+     * Creates a new table in the schema with the same columns and records as the given table.
+     *
+     * @param tableName
+     *     The table to copy (case-sensitive), not null
+     * @param copyTableName
+     *     The table to create (case-sensitive), not null
+     */
+    @Override
+    public void copyTable(String tableName, String copyTableName) {
+        getSQLHandler().executeUpdate("create table " + qualified(copyTableName) + " as (select * from " + qualified(tableName) + ") with data");
+    }
 }
@@ -14,7 +14,11 @@ package org.unitils.core.dbsupport;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -143,6 +147,17 @@ abstract public class DbSupport {
         return sqlHandler;
     }
 
+    /**
+     * Gets a snapshot of the names of the objects in the database schema. While a DBMaintainer is updating the
+     * database, the snapshot is shared by all db supports for the same schema and data source, see
+     * {@link SchemaSnapshotCache}. Otherwise a new snapshot is returned.
+     *
+     * @return The snapshot, not null
+     */
+    public SchemaSnapshot getSchemaSnapshot() {
+        return SchemaSnapshotCache.getSchemaSnapshot(this);
+    }
+
     /**
      * Returns the names of all tables in the database.
      *
@@ -288,6 +303,20 @@ abstract public class DbSupport {
         getSQLHandler().executeUpdate("drop type " + qualified(typeName) + (supportsCascade() ? " cascade" : ""));
     }
 
+    /**
+     * Creates a new table in the schema with the same columns and records as the given table. Constraints, indexes
+     * and identity properties of the columns are not copied.
+     * Note: the table names are surrounded with quotes, making them case-sensitive.
+     *
+     * @param tableName
+     *     The table to copy (case-sensitive), not null
+     * @param copyTableName
+     *     The table to create (case-sensitive), not null
+     */
+    public void copyTable(String tableName, String copyTableName) {
+        getSQLHandler().executeUpdate("create table " + qualified(copyTableName) + " as select * from " + qualified(tableName));
+    }
+
     /**
      * Disables all referential constraints (e.g. foreign keys) on all table in the schema
      */
@@ -334,6 +363,170 @@ abstract public class DbSupport {
         throw new UnsupportedOperationException("Identity columns not supported for " + getDatabaseDialect());
     }
 
+    /**
+     * Gets the names of the columns of all tables in the database schema. By default, the columns are retrieved table
+     * per table using {@link #getColumnNames}. Subclasses can override this to retrieve them using one query.
+     *
+     * @return The column names per table name, not null
+     */
+    public Map<String, Set<String>> getColumnNamesPerTable() {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String tableName : getTableNames()) {
+            result.put(tableName, getColumnNames(tableName));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the names of the identity columns of all tables in the database schema. By default, the columns are
+     * retrieved table per table using {@link #getIdentityColumnNames}. Subclasses can override this to retrieve them
+     * using one query.
+     *
+     * @return The identity column names per table name, not null
+     */
+    public Map<String, Set<String>> getIdentityColumnNamesPerTable() {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String tableName : getTableNames()) {
+            result.put(tableName, getIdentityColumnNames(tableName));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the names of the primary key columns of all tables in the database schema. By default, the columns are
+     * retrieved table per table from the JDBC database metadata. Subclasses can override this to retrieve them using
+     * one query.
+     *
+     * @return The primary key column names per table name, not null
+     */
+    public Map<String, Set<String>> getPrimaryKeyColumnNamesPerTable() {
+        Map<String, Set<String>> result = new HashMap<>();
+        Connection connection = null;
+        ResultSet resultSet = null;
+        try {
+            connection = getSQLHandler().getDataSource().getConnection();
+            DatabaseMetaData databaseMetaData = connection.getMetaData();
+            for (String tableName : getTableNames()) {
+                Set<String> columnNames = new HashSet<>();
+                resultSet = databaseMetaData.getPrimaryKeys(null, getSchemaName(), tableName);
+                while (resultSet.next()) {
+                    columnNames.add(resultSet.getString("COLUMN_NAME"));
+                }
+                closeQuietly(resultSet);
+                result.put(tableName, columnNames);
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new UnitilsException("Unable to get primary keys of schema " + getSchemaName(), e);
+        } finally {
+            closeQuietly(connection, null, resultSet);
+        }
+    }
+
+    /**
+     * Gets the tables that are referenced by foreign keys of all tables in the database schema. Only tables of the
+     * same schema are returned. By default, the foreign keys are retrieved table per table from the JDBC database
+     * metadata. Subclasses can override this to retrieve them using one query.
+     *
+     * @return The names of the referenced tables per table name, not null
+     */
+    public Map<String, Set<String>> getReferencedTableNamesPerTable() {
+        Map<String, Set<String>> result = new HashMap<>();
+        Connection connection = null;
+        ResultSet resultSet = null;
+        try {
+            connection = getSQLHandler().getDataSource().getConnection();
+            DatabaseMetaData databaseMetaData = connection.getMetaData();
+            for (String tableName : getTableNames()) {
+                Set<String> referencedTableNames = new HashSet<>();
+                resultSet = databaseMetaData.getImportedKeys(null, getSchemaName(), tableName);
+                while (resultSet.next()) {
+                    if (getSchemaName().equals(resultSet.getString("PKTABLE_SCHEM"))) {
+                        referencedTableNames.add(resultSet.getString("PKTABLE_NAME"));
+                    }
+                }
+                closeQuietly(resultSet);
+                result.put(tableName, referencedTableNames);
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new UnitilsException("Unable to get foreign keys of schema " + getSchemaName(), e);
+        } finally {
+            closeQuietly(connection, null, resultSet);
+        }
+    }
+
+    /**
+     * Gets the tables that reference the tables of the database schema with a foreign key. Contrary to
+     * {@link #getReferencedTableNamesPerTable()}, the referencing tables of all schemas are returned, qualified with
+     * the name of their schema, e.g. OTHER_SCHEMA.TABLE_NAME. By default, the foreign keys are retrieved table per
+     * table from the JDBC database metadata. Subclasses can override this to retrieve them using one query.
+     *
+     * @return The qualified names of the referencing tables per table name, not null
+     */
+    public Map<String, Set<String>> getReferencingTableNamesPerTable() {
+        Map<String, Set<String>> result = new HashMap<>();
+        Connection connection = null;
+        ResultSet resultSet = null;
+        try {
+            connection = getSQLHandler().getDataSource().getConnection();
+            DatabaseMetaData databaseMetaData = connection.getMetaData();
+            for (String tableName : getTableNames()) {
+                Set<String> referencingTableNames = new HashSet<>();
+                resultSet = databaseMetaData.getExportedKeys(null, getSchemaName(), tableName);
+                while (resultSet.next()) {
+                    referencingTableNames.add(resultSet.getString("FKTABLE_SCHEM") + "." + resultSet.getString("FKTABLE_NAME"));
+                }
+                closeQuietly(resultSet);
+                result.put(tableName, referencingTableNames);
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new UnitilsException("Unable to get foreign keys referencing schema " + getSchemaName(), e);
+        } finally {
+            closeQuietly(connection, null, resultSet);
+        }
+    }
+
+    /**
+     * Gets the names of the primary key columns of all tables in the database schema using one query on the standard
+     * INFORMATION_SCHEMA views. Can be used by subclasses for databases that support these views.
+     *
+     * @return The primary key column names per table name, not null
+     */
+    protected Map<String, Set<String>> getPrimaryKeyColumnNamesPerTableFromInformationSchema() {
+        return getSQLHandler().getItemsAsStringSetMap("select tc.TABLE_NAME, kcu.COLUMN_NAME from INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc "
+            + "join INFORMATION_SCHEMA.KEY_COLUMN_USAGE kcu on kcu.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA and kcu.CONSTRAINT_NAME = tc.CONSTRAINT_NAME "
+            + "and kcu.TABLE_NAME = tc.TABLE_NAME where tc.CONSTRAINT_TYPE = 'PRIMARY KEY' and tc.TABLE_SCHEMA = '" + getSchemaName() + "'");
+    }
+
+    /**
+     * Gets the tables of the same schema that are referenced by foreign keys of all tables in the database schema
+     * using one query on the standard INFORMATION_SCHEMA views. Can be used by subclasses for databases that support
+     * these views.
+     *
+     * @return The names of the referenced tables per table name, not null
+     */
+    protected Map<String, Set<String>> getReferencedTableNamesPerTableFromInformationSchema() {
+        return getSQLHandler().getItemsAsStringSetMap("select fk.TABLE_NAME, pk.TABLE_NAME from INFORMATION_SCHEMA.TABLE_CONSTRAINTS fk "
+            + "join INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS rc on rc.CONSTRAINT_SCHEMA = fk.CONSTRAINT_SCHEMA and rc.CONSTRAINT_NAME = fk.CONSTRAINT_NAME "
+            + "join INFORMATION_SCHEMA.TABLE_CONSTRAINTS pk on pk.CONSTRAINT_SCHEMA = rc.UNIQUE_CONSTRAINT_SCHEMA and pk.CONSTRAINT_NAME = rc.UNIQUE_CONSTRAINT_NAME "
+            + "where fk.CONSTRAINT_TYPE = 'FOREIGN KEY' and fk.TABLE_SCHEMA = '" + getSchemaName() + "' and pk.TABLE_SCHEMA = '" + getSchemaName() + "'");
+    }
+
+    /**
+     * Gets the tables of all schemas that reference the tables of the database schema with a foreign key using one
+     * query on the standard INFORMATION_SCHEMA views. Can be used by subclasses for databases that support these views.
+     *
+     * @return The qualified names of the referencing tables per table name, not null
+     */
+    protected Map<String, Set<String>> getReferencingTableNamesPerTableFromInformationSchema() {
+        return getSQLHandler().getItemsAsStringSetMap("select pk.TABLE_NAME, fk.TABLE_SCHEMA || '.' || fk.TABLE_NAME from INFORMATION_SCHEMA.TABLE_CONSTRAINTS fk "
+            + "join INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS rc on rc.CONSTRAINT_SCHEMA = fk.CONSTRAINT_SCHEMA and rc.CONSTRAINT_NAME = fk.CONSTRAINT_NAME "
+            + "join INFORMATION_SCHEMA.TABLE_CONSTRAINTS pk on pk.CONSTRAINT_SCHEMA = rc.UNIQUE_CONSTRAINT_SCHEMA and pk.CONSTRAINT_NAME = rc.UNIQUE_CONSTRAINT_NAME "
+            + "where fk.CONSTRAINT_TYPE = 'FOREIGN KEY' and pk.TABLE_SCHEMA = '" + getSchemaName() + "'");
+    }
+
     /**
      * Increments the identity value for the specified identity column on the specified table to the given value. If there
      * is no identity specified on the given primary key, the method silently finishes without effect.
@@ -349,6 +542,28 @@ abstract public class DbSupport {
         throw new UnsupportedOperationException("Identity columns not supported for " + getDatabaseDialect());
     }
 
+    /**
+     * Gets the clause that makes an insert statement use the given values for the identity columns, also for identity
+     * columns that are always generated. The clause is placed between the column list and the values.
+     *
+     * @return The clause, null if not supported
+     */
+    public String getOverridingIdentityValueClause() {
+        return null;
+    }
+
+    /**
+     * Switches the checking of the referential constraints (e.g. foreign keys) off or back on for the whole database.
+     * Contrary to {@link #disableReferentialConstraints()}, the constraints are not removed. Data that was changed
+     * while the checks were off is not checked when they are switched on again.
+     *
+     * @param enabled
+     *     False to switch the checks off, true to switch them on again
+     */
+    public void setReferentialConstraintChecksEnabled(boolean enabled) {
+        throw new UnsupportedOperationException("Switching off referential constraint checks not supported for " + getDatabaseDialect());
+    }
+
     /**
      * Gets the column type suitable to store values of the Java <code>java.lang.Long</code> type.
      *
@@ -573,4 +788,45 @@ abstract public class DbSupport {
     public boolean supportsCascade() {
         return false;
     }
+
+    /**
+     * Indicates whether the underlying DBMS supports truncating tables using the statement returned by
+     * {@link #getTruncateTableStatement}.
+     *
+     * @return True if truncate is supported, false otherwise
+     */
+    public boolean supportsTruncate() {
+        return false;
+    }
+
+    /**
+     * Indicates whether the truncate statement of the underlying DBMS also truncates the tables that reference the
+     * truncated table. If not, a table that is referenced by a foreign key cannot be truncated.
+     *
+     * @return True if truncate cascades, false otherwise
+     */
+    public boolean supportsTruncateCascade() {
+        return false;
+    }
+
+    /**
+     * Indicates whether the underlying DBMS supports switching off the checking of referential constraints for the
+     * whole database, see {@link #setReferentialConstraintChecksEnabled}.
+     *
+     * @return True if supported, false otherwise
+     */
+    public boolean supportsReferentialConstraintChecksSwitching() {
+        return false;
+    }
+
+    /**
+     * Gets the statement that removes all data from the given table. Identity columns of the table are reset.
+     *
+     * @param tableName
+     *     The table to truncate (case-sensitive), not null
+     * @return The statement, not null
+     */
+    public String getTruncateTableStatement(String tableName) {
+        return "truncate table " + qualified(tableName);
+    }
 }
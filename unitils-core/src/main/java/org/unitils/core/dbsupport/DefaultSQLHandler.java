@@ -14,8 +14,11 @@ package org.unitils.core.dbsupport;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.sql.DataSource;
@@ -88,13 +91,13 @@ public class DefaultSQLHandler
         Connection connection = null;
         Statement statement = null;
         try {
-            connection = dataSource.getConnection();
+            connection = getConnection();
             statement = connection.createStatement();
             return statement.executeUpdate(sql);
         } catch (Exception e) {
             throw new UnitilsException("Error while performing database update: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, null);
+            close(connection, statement, null);
         }
     }
 
@@ -114,13 +117,36 @@ public class DefaultSQLHandler
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
+            connection = getConnection();
             statement = connection.createStatement();
             resultSet = statement.executeQuery(sql);
         } catch (Exception e) {
             throw new UnitilsException("Error while performing database update: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.unitils.core.dbsupport.SQLHandler#executeQuery(java.lang.String, org.unitils.core.dbsupport.ResultSetHandler)
+     */
+    @Override
+    public <T> T executeQuery(String sql, ResultSetHandler<T> resultSetHandler) {
+        logger.debug(sql);
+
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = getConnection();
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery(sql);
+            return resultSetHandler.handle(resultSet);
+        } catch (Exception e) {
+            throw new UnitilsException("Error while executing statement: " + sql, e);
+        } finally {
+            close(connection, statement, resultSet);
         }
     }
 
@@ -139,7 +165,7 @@ public class DefaultSQLHandler
         Connection connection = null;
         Statement statement = null;
         try {
-            connection = dataSource.getConnection();
+            connection = getConnection();
             statement = connection.createStatement();
             int nbChanges = statement.executeUpdate(sql);
             if (!connection.getAutoCommit()) {
@@ -149,7 +175,7 @@ public class DefaultSQLHandler
         } catch (Exception e) {
             throw new UnitilsException("Error while performing database update: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, null);
+            close(connection, statement, null);
         }
     }
 
@@ -165,7 +191,7 @@ public class DefaultSQLHandler
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
+            connection = getConnection();
             statement = connection.createStatement();
             resultSet = statement.executeQuery(sql);
             if (resultSet.next()) {
@@ -174,7 +200,7 @@ public class DefaultSQLHandler
         } catch (Exception e) {
             throw new UnitilsException("Error while executing statement: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
         }
 
         // in case no value was found, throw an exception
@@ -193,7 +219,7 @@ public class DefaultSQLHandler
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
+            connection = getConnection();
             statement = connection.createStatement();
             resultSet = statement.executeQuery(sql);
             if (resultSet.next()) {
@@ -202,7 +228,7 @@ public class DefaultSQLHandler
         } catch (Exception e) {
             throw new UnitilsException("Error while executing statement: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
         }
 
         // in case no value was found, throw an exception
@@ -221,7 +247,7 @@ public class DefaultSQLHandler
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
+            connection = getConnection();
             statement = connection.createStatement();
             resultSet = statement.executeQuery(sql);
             Set<String> result = new HashSet<>();
@@ -232,7 +258,34 @@ public class DefaultSQLHandler
         } catch (Exception e) {
             throw new UnitilsException("Error while executing statement: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.unitils.core.dbsupport.SQLHandler#getItemsAsStringSetMap(java.lang.String)
+     */
+    @Override
+    public Map<String, Set<String>> getItemsAsStringSetMap(String sql) {
+        logger.debug(sql);
+
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = getConnection();
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery(sql);
+            Map<String, Set<String>> result = new HashMap<>();
+            while (resultSet.next()) {
+                result.computeIfAbsent(resultSet.getString(1), key -> new HashSet<>()).add(resultSet.getString(2));
+            }
+            return result;
+        } catch (Exception e) {
+            throw new UnitilsException("Error while executing statement: " + sql, e);
+        } finally {
+            close(connection, statement, resultSet);
         }
     }
 
@@ -248,17 +301,45 @@ public class DefaultSQLHandler
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
+            connection = getConnection();
             statement = connection.createStatement();
+            // only the first record is needed, this avoids fetching all records of large tables
+            statement.setMaxRows(1);
             resultSet = statement.executeQuery(sql);
             return resultSet.next();
         } catch (Exception e) {
             throw new UnitilsException("Error while executing statement: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
         }
     }
 
+    /**
+     * Gets the connection on which a statement is executed.
+     *
+     * @return The connection, not null
+     * @throws SQLException
+     *     If no connection could be obtained
+     */
+    protected Connection getConnection()
+        throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Closes the given connection, statement and result set after a statement was executed.
+     *
+     * @param connection
+     *     The connection, null if none was obtained
+     * @param statement
+     *     The statement, null if none was created
+     * @param resultSet
+     *     The result set, null if there is none
+     */
+    protected void close(Connection connection, Statement statement, ResultSet resultSet) {
+        closeQuietly(connection, statement, resultSet);
+    }
+
     /*
      * (non-Javadoc)
      * @see org.unitils.core.dbsupport.SQLHandler#getDataSource()
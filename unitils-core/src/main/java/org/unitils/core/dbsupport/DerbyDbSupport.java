@@ -277,4 +277,19 @@ public class DerbyDbSupport
             closeQuietly(connection, null, resultSet);
         }
     }
+
+    /**
+     * Creates a new table in the schema with the same columns and records as the given table. Derby can only create
+     * the table without data, so the records are inserted afterwards.
+     *
+     * @param tableName
+     *     The table to copy (case-sensitive), not null
+     * @param copyTableName
+     *     The table to create (case-sensitive), not null
+     */
+    @Override
+    public void copyTable(String tableName, String copyTableName) {
+        getSQLHandler().executeUpdate("create table " + qualified(copyTableName) + " as select * from " + qualified(tableName) + " with no data");
+        getSQLHandler().executeUpdate("insert into " + qualified(copyTableName) + " select * from " + qualified(tableName));
+    }
 }
@@ -15,6 +15,7 @@ package org.unitils.core.dbsupport;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.Map;
 import java.util.Set;
 
 import org.unitils.core.UnitilsException;
@@ -75,6 +76,59 @@ public class H2DbSupport
                 + tableName + "' AND pk.TABLE_SCHEMA = '" + getSchemaName() + "'");
     }
 
+    /**
+     * Gets the names of the columns of all tables using one query.
+     *
+     * @return The column names per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getColumnNamesPerTable() {
+        return getSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS where TABLE_SCHEMA = '" + getSchemaName() + "'");
+    }
+
+    /**
+     * Gets the names of the identity columns of all tables using one query. The same columns are returned as by
+     * {@link #getIdentityColumnNames} for each table.
+     *
+     * @return The identity column names per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getIdentityColumnNamesPerTable() {
+        return getSQLHandler().getItemsAsStringSetMap(
+            "select pk.TABLE_NAME, pkc.COLUMN_NAME from INFORMATION_SCHEMA.INDEXES pk INNER JOIN INFORMATION_SCHEMA.INDEX_COLUMNS pkc ON pkc.TABLE_SCHEMA = pk.TABLE_SCHEMA AND pkc.TABLE_NAME = pk.TABLE_NAME where pk.INDEX_TYPE_NAME = 'PRIMARY KEY' AND pk.TABLE_SCHEMA = '"
+                + getSchemaName() + "'");
+    }
+
+    /**
+     * Gets the names of the primary key columns of all tables using one query.
+     *
+     * @return The primary key column names per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getPrimaryKeyColumnNamesPerTable() {
+        return getPrimaryKeyColumnNamesPerTableFromInformationSchema();
+    }
+
+    /**
+     * Gets the tables that are referenced by foreign keys of all tables using one query.
+     *
+     * @return The names of the referenced tables per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getReferencedTableNamesPerTable() {
+        return getReferencedTableNamesPerTableFromInformationSchema();
+    }
+
+    /**
+     * Gets the tables of all schemas that reference the tables of the schema using one query.
+     *
+     * @return The qualified names of the referencing tables per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getReferencingTableNamesPerTable() {
+        return getReferencingTableNamesPerTableFromInformationSchema();
+    }
+
     /**
      * Retrieves the names of all the views in the database schema.
      *
@@ -268,4 +322,57 @@ public class H2DbSupport
     public boolean supportsCascade() {
         return true;
     }
+
+    /**
+     * Truncate is supported.
+     *
+     * @return True
+     */
+    @Override
+    public boolean supportsTruncate() {
+        return true;
+    }
+
+    /**
+     * Switching off the referential constraint checks is supported.
+     *
+     * @return True
+     */
+    @Override
+    public boolean supportsReferentialConstraintChecksSwitching() {
+        return true;
+    }
+
+    /**
+     * Switches the checking of the referential constraints off or back on for the whole database.
+     *
+     * @param enabled
+     *     False to switch the checks off, true to switch them on again
+     */
+    @Override
+    public void setReferentialConstraintChecksEnabled(boolean enabled) {
+        getSQLHandler().executeUpdate("set referential_integrity " + enabled);
+    }
+
+    /**
+     * Gets the clause that makes an insert statement use the given values for the identity columns.
+     *
+     * @return The clause, not null
+     */
+    @Override
+    public String getOverridingIdentityValueClause() {
+        return "overriding system value";
+    }
+
+    /**
+     * Gets the statement that removes all data from the given table and resets its identity columns.
+     *
+     * @param tableName
+     *     The table to truncate (case-sensitive), not null
+     * @return The statement, not null
+     */
+    @Override
+    public String getTruncateTableStatement(String tableName) {
+        return "truncate table " + qualified(tableName) + " restart identity";
+    }
 }
@@ -15,6 +15,7 @@ package org.unitils.core.dbsupport;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.Map;
 import java.util.Set;
 
 import org.unitils.core.UnitilsException;
@@ -60,6 +61,58 @@ public class HsqldbDbSupport
             "select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_COLUMNS where TABLE_NAME = '" + tableName + "' AND TABLE_SCHEM = '" + getSchemaName() + "'");
     }
 
+    /**
+     * Gets the names of the columns of all tables using one query.
+     *
+     * @return The column names per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getColumnNamesPerTable() {
+        return getSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_COLUMNS where TABLE_SCHEM = '" + getSchemaName() + "'");
+    }
+
+    /**
+     * Gets the names of the primary key columns of all tables using one query, see {@link #getIdentityColumnNames}.
+     *
+     * @return The identity column names per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getIdentityColumnNamesPerTable() {
+        return getPrimaryKeyColumnNamesPerTable();
+    }
+
+    /**
+     * Gets the names of the primary key columns of all tables using one query.
+     *
+     * @return The primary key column names per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getPrimaryKeyColumnNamesPerTable() {
+        return getSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS where TABLE_SCHEM = '" + getSchemaName() + "'");
+    }
+
+    /**
+     * Gets the tables that are referenced by foreign keys of all tables using one query.
+     *
+     * @return The names of the referenced tables per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getReferencedTableNamesPerTable() {
+        return getSQLHandler().getItemsAsStringSetMap("select FKTABLE_NAME, PKTABLE_NAME from INFORMATION_SCHEMA.SYSTEM_CROSSREFERENCE where FKTABLE_SCHEM = '"
+            + getSchemaName() + "' and PKTABLE_SCHEM = '" + getSchemaName() + "'");
+    }
+
+    /**
+     * Gets the tables of all schemas that reference the tables of the schema using one query.
+     *
+     * @return The qualified names of the referencing tables per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getReferencingTableNamesPerTable() {
+        return getSQLHandler().getItemsAsStringSetMap("select PKTABLE_NAME, FKTABLE_SCHEM || '.' || FKTABLE_NAME from INFORMATION_SCHEMA.SYSTEM_CROSSREFERENCE "
+            + "where PKTABLE_SCHEM = '" + getSchemaName() + "'");
+    }
+
     /**
      * Retrieves the names of all the views in the database schema.
      *
@@ -289,4 +342,70 @@ public class HsqldbDbSupport
     public boolean supportsCascade() {
         return true;
     }
+
+    /**
+     * Truncate is supported.
+     *
+     * @return True
+     */
+    @Override
+    public boolean supportsTruncate() {
+        return true;
+    }
+
+    /**
+     * Switching off the referential constraint checks is supported.
+     *
+     * @return True
+     */
+    @Override
+    public boolean supportsReferentialConstraintChecksSwitching() {
+        return true;
+    }
+
+    /**
+     * Switches the checking of the referential constraints off or back on for the whole database.
+     *
+     * @param enabled
+     *     False to switch the checks off, true to switch them on again
+     */
+    @Override
+    public void setReferentialConstraintChecksEnabled(boolean enabled) {
+        getSQLHandler().executeUpdate("set database referential integrity " + enabled);
+    }
+
+    /**
+     * Gets the clause that makes an insert statement use the given values for the identity columns.
+     *
+     * @return The clause, not null
+     */
+    @Override
+    public String getOverridingIdentityValueClause() {
+        return "overriding system value";
+    }
+
+    /**
+     * Gets the statement that removes all data from the given table and resets its identity columns.
+     *
+     * @param tableName
+     *     The table to truncate (case-sensitive), not null
+     * @return The statement, not null
+     */
+    @Override
+    public String getTruncateTableStatement(String tableName) {
+        return "truncate table " + qualified(tableName) + " restart identity";
+    }
+
+    /**
+     * Creates a new table in the schema with the same columns and records as the given table.
+     *
+     * @param tableName
+     *     The table to copy (case-sensitive), not null
+     * @param copyTableName
+     *     The table to create (case-sensitive), not null
+     */
+    @Override
+    public void copyTable(String tableName, String copyTableName) {
+        getSQLHandler().executeUpdate("create table " + qualified(copyTableName) + " as (select * from " + qualified(tableName) + ") with data");
+    }
 }
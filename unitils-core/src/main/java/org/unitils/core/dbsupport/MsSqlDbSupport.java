@@ -299,4 +299,17 @@ public class MsSqlDbSupport
             closeQuietly(connection, statement, resultSet);
         }
     }
+
+    /**
+     * Creates a new table in the schema with the same columns and records as the given table.
+     *
+     * @param tableName
+     *     The table to copy (case-sensitive), not null
+     * @param copyTableName
+     *     The table to create (case-sensitive), not null
+     */
+    @Override
+    public void copyTable(String tableName, String copyTableName) {
+        getSQLHandler().executeUpdate("select * into " + qualified(copyTableName) + " from " + qualified(tableName));
+    }
 }
@@ -9,6 +9,7 @@
 package org.unitils.core.dbsupport;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -20,6 +21,13 @@ import java.util.Set;
  */
 public class PostgreSqlDbSupport
     extends DbSupport {
+
+    /* Joins the foreign key constraints with their referencing table (fk_) and referenced table (pk_) and schemas */
+    private static final String FOREIGN_KEYS_FROM_CLAUSE = "from pg_catalog.pg_constraint c "
+        + "join pg_catalog.pg_class fk_table on fk_table.oid = c.conrelid join pg_catalog.pg_namespace fk_schema on fk_schema.oid = fk_table.relnamespace "
+        + "join pg_catalog.pg_class pk_table on pk_table.oid = c.confrelid join pg_catalog.pg_namespace pk_schema on pk_schema.oid = pk_table.relnamespace "
+        + "where c.contype = 'f' and ";
+
     /**
      * Creates support for PostgreSql databases.
      */
@@ -51,6 +59,30 @@ public class PostgreSqlDbSupport
             "select column_name from information_schema.columns where table_name = '" + tableName + "' and table_schema = '" + getSchemaName() + "'");
     }
 
+    /**
+     * Gets the tables of the same schema that are referenced by foreign keys of all tables using one query. The
+     * catalog tables are used instead of the INFORMATION_SCHEMA views, because constraint names are only unique per
+     * table in PostgreSql.
+     *
+     * @return The names of the referenced tables per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getReferencedTableNamesPerTable() {
+        return getSQLHandler().getItemsAsStringSetMap("select fk_table.relname, pk_table.relname " + FOREIGN_KEYS_FROM_CLAUSE
+            + "fk_schema.nspname = '" + getSchemaName() + "' and pk_schema.nspname = '" + getSchemaName() + "'");
+    }
+
+    /**
+     * Gets the tables of all schemas that reference the tables of the schema using one query.
+     *
+     * @return The qualified names of the referencing tables per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getReferencingTableNamesPerTable() {
+        return getSQLHandler().getItemsAsStringSetMap("select pk_table.relname, fk_schema.nspname || '.' || fk_table.relname " + FOREIGN_KEYS_FROM_CLAUSE
+            + "pk_schema.nspname = '" + getSchemaName() + "'");
+    }
+
     /**
      * Retrieves the names of all the views in the database schema.
      *
@@ -280,4 +312,46 @@ public class PostgreSqlDbSupport
     public boolean supportsCascade() {
         return true;
     }
+
+    /**
+     * Truncate is supported.
+     *
+     * @return True
+     */
+    @Override
+    public boolean supportsTruncate() {
+        return true;
+    }
+
+    /**
+     * Truncate cascade is supported.
+     *
+     * @return True
+     */
+    @Override
+    public boolean supportsTruncateCascade() {
+        return true;
+    }
+
+    /**
+     * Gets the clause that makes an insert statement use the given values for the identity columns.
+     *
+     * @return The clause, not null
+     */
+    @Override
+    public String getOverridingIdentityValueClause() {
+        return "overriding system value";
+    }
+
+    /**
+     * Gets the statement that removes all data from the given table and resets its identity columns. Tables that reference the given table are truncated as well.
+     *
+     * @param tableName
+     *     The table to truncate (case-sensitive), not null
+     * @return The statement, not null
+     */
+    @Override
+    public String getTruncateTableStatement(String tableName) {
+        return "truncate table " + qualified(tableName) + " restart identity cascade";
+    }
 }
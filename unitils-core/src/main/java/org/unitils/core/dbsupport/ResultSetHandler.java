@@ -0,0 +1,40 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Extracts a value from the result of a query, see {@link SQLHandler#executeQuery(String, ResultSetHandler)}.
+ *
+ * @param <T>
+ *     The type of the extracted value
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+@FunctionalInterface
+public interface ResultSetHandler<T> {
+
+    /**
+     * Extracts the value from the given result. The result set is closed afterwards.
+     *
+     * @param resultSet
+     *     The result of the query, not null
+     * @return The value, can be null
+     * @throws SQLException
+     *     If the result could not be read
+     */
+    T handle(ResultSet resultSet)
+        throws SQLException;
+}
@@ -1,5 +1,12 @@
 package org.unitils.core.dbsupport;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.sql.DataSource;
@@ -26,6 +33,26 @@ public interface SQLHandler {
      */
     void executeQuery(String sql);
 
+    /**
+     * Executes the given query and passes its result to the given handler, e.g. to read the metadata of the result.
+     * By default, the query is executed on a connection of the {@link #getDataSource() data source}.
+     *
+     * @param sql
+     *     The sql query, not null
+     * @param resultSetHandler
+     *     The handler that extracts the value from the result, not null
+     * @return The value returned by the handler
+     */
+    default <T> T executeQuery(String sql, ResultSetHandler<T> resultSetHandler) {
+        try (Connection connection = getDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSetHandler.handle(resultSet);
+        } catch (Exception e) {
+            throw new UnitilsException("Error while executing statement: " + sql, e);
+        }
+    }
+
     /**
      * Executes the given statement and commits.
      *
@@ -35,6 +62,36 @@ public interface SQLHandler {
      */
     int executeUpdateAndCommit(String sql);
 
+    /**
+     * Executes the given statements. By default, the statements are executed one by one. Implementations can send
+     * them to the database as one batch instead.
+     *
+     * @param sqlStatements
+     *     The sql statements, not null
+     * @return The nr of updates per statement, not null
+     */
+    default int[] executeBatch(List<String> sqlStatements) {
+        int[] updateCounts = new int[sqlStatements.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            updateCounts[i] = executeUpdate(sqlStatements.get(i));
+        }
+        return updateCounts;
+    }
+
+    /**
+     * Starts a session for the current thread. Implementations can use one connection for all statements that are
+     * executed by the thread until the session is closed, instead of getting a connection for every statement.
+     * By default, nothing is done.
+     * <p/>
+     * Sessions can be nested: only closing the outer session ends the session.
+     *
+     * @return The session, to be closed when the statements are executed, not null
+     */
+    default SQLHandlerSession openSession() {
+        return () -> {
+        };
+    }
+
     /**
      * Returns the long extracted from the result of the given query. If no value is found, a {@link UnitilsException}
      * is thrown.
@@ -64,6 +121,29 @@ public interface SQLHandler {
      */
     Set<String> getItemsAsStringSet(String sql);
 
+    /**
+     * Returns the items of the second column of the result of the given query, grouped by the value of the first
+     * column. E.g. for a query selecting table names and column names, the column names per table are returned.
+     * By default, the query is executed on a connection of the {@link #getDataSource() data source}.
+     *
+     * @param sql
+     *     The sql string for retrieving the keys and items
+     * @return The items per key, not null
+     */
+    default Map<String, Set<String>> getItemsAsStringSetMap(String sql) {
+        try (Connection connection = getDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            Map<String, Set<String>> result = new HashMap<>();
+            while (resultSet.next()) {
+                result.computeIfAbsent(resultSet.getString(1), key -> new HashSet<>()).add(resultSet.getString(2));
+            }
+            return result;
+        } catch (Exception e) {
+            throw new UnitilsException("Error while executing statement: " + sql, e);
+        }
+    }
+
     /**
      * Returns true if the query returned a record.
      *
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+/**
+ * A session of a {@link SQLHandler}, see {@link SQLHandler#openSession()}. Typically used in a try-with-resources
+ * block:
+ *
+ * <pre>
+ * try (SQLHandlerSession session = sqlHandler.openSession()) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public interface SQLHandlerSession
+    extends AutoCloseable {
+
+    /**
+     * Commits the statements that were executed in this session, if its connection is not in auto-commit mode.
+     * By default, nothing is done.
+     */
+    default void commit() {
+    }
+
+    /**
+     * Ends the session.
+     */
+    @Override
+    void close();
+}
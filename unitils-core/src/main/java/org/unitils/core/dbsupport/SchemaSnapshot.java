@@ -0,0 +1,228 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The names of the objects, columns and keys of a database schema, as they were when they were first retrieved.
+ * <p/>
+ * Every kind of information is retrieved from the {@link DbSupport} the first time it is asked for, and is then
+ * reused. The names of the columns, identity columns, primary keys and foreign keys are retrieved for all tables at
+ * once, using the bulk methods of the db support, e.g. {@link DbSupport#getColumnNamesPerTable()}.
+ * <p/>
+ * A snapshot does not see changes to the schema that are made after the information was retrieved, see
+ * {@link SchemaSnapshotCache} for when a snapshot is shared and invalidated.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class SchemaSnapshot {
+
+    /* The db support of the schema, not null */
+    private final DbSupport dbSupport;
+
+    /* The names of the tables, null if not yet retrieved */
+    private Set<String> tableNames;
+
+    /* The names of the views, null if not yet retrieved */
+    private Set<String> viewNames;
+
+    /* The names of the materialized views, null if not yet retrieved */
+    private Set<String> materializedViewNames;
+
+    /* The names of the synonyms, null if not yet retrieved */
+    private Set<String> synonymNames;
+
+    /* The names of the sequences, null if not yet retrieved */
+    private Set<String> sequenceNames;
+
+    /* The names of the triggers, null if not yet retrieved */
+    private Set<String> triggerNames;
+
+    /* The names of the types, null if not yet retrieved */
+    private Set<String> typeNames;
+
+    /* The column names per table, null if not yet retrieved */
+    private Map<String, Set<String>> columnNames;
+
+    /* The identity column names per table, null if not yet retrieved */
+    private Map<String, Set<String>> identityColumnNames;
+
+    /* The primary key column names per table, null if not yet retrieved */
+    private Map<String, Set<String>> primaryKeyColumnNames;
+
+    /* The referenced table names per table, null if not yet retrieved */
+    private Map<String, Set<String>> referencedTableNames;
+
+    /* The qualified referencing table names per table, null if not yet retrieved */
+    private Map<String, Set<String>> referencingTableNames;
+
+    /**
+     * Creates a snapshot of the schema of the given db support.
+     *
+     * @param dbSupport
+     *     The db support, not null
+     */
+    public SchemaSnapshot(DbSupport dbSupport) {
+        this.dbSupport = dbSupport;
+    }
+
+    /**
+     * @return The name of the schema, not null
+     */
+    public String getSchemaName() {
+        return dbSupport.getSchemaName();
+    }
+
+    /**
+     * @return The names of all tables, not null
+     */
+    public synchronized Set<String> getTableNames() {
+        if (tableNames == null) {
+            tableNames = Collections.unmodifiableSet(dbSupport.getTableNames());
+        }
+        return tableNames;
+    }
+
+    /**
+     * @return The names of all views, not null
+     */
+    public synchronized Set<String> getViewNames() {
+        if (viewNames == null) {
+            viewNames = Collections.unmodifiableSet(dbSupport.getViewNames());
+        }
+        return viewNames;
+    }
+
+    /**
+     * @return The names of all materialized views, empty if materialized views are not supported, not null
+     */
+    public synchronized Set<String> getMaterializedViewNames() {
+        if (materializedViewNames == null) {
+            materializedViewNames = dbSupport.supportsMaterializedViews() ? Collections.unmodifiableSet(dbSupport.getMaterializedViewNames()) : Collections.emptySet();
+        }
+        return materializedViewNames;
+    }
+
+    /**
+     * @return The names of all synonyms, empty if synonyms are not supported, not null
+     */
+    public synchronized Set<String> getSynonymNames() {
+        if (synonymNames == null) {
+            synonymNames = dbSupport.supportsSynonyms() ? Collections.unmodifiableSet(dbSupport.getSynonymNames()) : Collections.emptySet();
+        }
+        return synonymNames;
+    }
+
+    /**
+     * @return The names of all sequences, empty if sequences are not supported, not null
+     */
+    public synchronized Set<String> getSequenceNames() {
+        if (sequenceNames == null) {
+            sequenceNames = dbSupport.supportsSequences() ? Collections.unmodifiableSet(dbSupport.getSequenceNames()) : Collections.emptySet();
+        }
+        return sequenceNames;
+    }
+
+    /**
+     * @return The names of all triggers, empty if triggers are not supported, not null
+     */
+    public synchronized Set<String> getTriggerNames() {
+        if (triggerNames == null) {
+            triggerNames = dbSupport.supportsTriggers() ? Collections.unmodifiableSet(dbSupport.getTriggerNames()) : Collections.emptySet();
+        }
+        return triggerNames;
+    }
+
+    /**
+     * @return The names of all types, empty if types are not supported, not null
+     */
+    public synchronized Set<String> getTypeNames() {
+        if (typeNames == null) {
+            typeNames = dbSupport.supportsTypes() ? Collections.unmodifiableSet(dbSupport.getTypeNames()) : Collections.emptySet();
+        }
+        return typeNames;
+    }
+
+    /**
+     * @param tableName
+     *     The table, not null
+     * @return The names of the columns of the table, empty if the table does not exist, not null
+     */
+    public synchronized Set<String> getColumnNames(String tableName) {
+        if (columnNames == null) {
+            columnNames = dbSupport.getColumnNamesPerTable();
+        }
+        return getItems(columnNames, tableName);
+    }
+
+    /**
+     * @param tableName
+     *     The table, not null
+     * @return The names of the identity columns of the table, empty if identity columns are not supported, not null
+     */
+    public synchronized Set<String> getIdentityColumnNames(String tableName) {
+        if (identityColumnNames == null) {
+            identityColumnNames = dbSupport.supportsIdentityColumns() ? dbSupport.getIdentityColumnNamesPerTable() : Collections.emptyMap();
+        }
+        return getItems(identityColumnNames, tableName);
+    }
+
+    /**
+     * @param tableName
+     *     The table, not null
+     * @return The names of the primary key columns of the table, not null
+     */
+    public synchronized Set<String> getPrimaryKeyColumnNames(String tableName) {
+        if (primaryKeyColumnNames == null) {
+            primaryKeyColumnNames = dbSupport.getPrimaryKeyColumnNamesPerTable();
+        }
+        return getItems(primaryKeyColumnNames, tableName);
+    }
+
+    /**
+     * @param tableName
+     *     The table, not null
+     * @return The names of the tables of the same schema that are referenced by foreign keys of the table, not null
+     */
+    public synchronized Set<String> getReferencedTableNames(String tableName) {
+        if (referencedTableNames == null) {
+            referencedTableNames = dbSupport.getReferencedTableNamesPerTable();
+        }
+        return getItems(referencedTableNames, tableName);
+    }
+
+    /**
+     * @param tableName
+     *     The table, not null
+     * @return The names of the tables of all schemas that reference the table with a foreign key, qualified with the
+     *         name of their schema, not null
+     */
+    public synchronized Set<String> getReferencingTableNames(String tableName) {
+        if (referencingTableNames == null) {
+            referencingTableNames = dbSupport.getReferencingTableNamesPerTable();
+        }
+        return getItems(referencingTableNames, tableName);
+    }
+
+    private Set<String> getItems(Map<String, Set<String>> itemsPerTable, String tableName) {
+        Set<String> items = itemsPerTable.get(tableName);
+        if (items == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(items);
+    }
+}
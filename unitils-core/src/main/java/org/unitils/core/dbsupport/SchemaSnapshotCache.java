@@ -0,0 +1,107 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * Shares the {@link SchemaSnapshot} of a schema per data source while caching is started for the data source.
+ * <p/>
+ * The DBMaintainer starts caching for its data source when it starts updating the database and stops caching when it
+ * is done, the DBCleaner does the same while cleaning. In between, all db supports of the same schema and data source
+ * get the same snapshot, so that the metadata of the schema is only retrieved once. When the schema was changed,
+ * e.g. after executing the update scripts, the snapshots of the data source must be invalidated.
+ * <p/>
+ * A data source that sees all statements that are executed on it, such as the
+ * ModifiedTablesTrackingDataSource of the database module, can keep caching started and invalidate the
+ * snapshots whenever a DDL statement is executed. For other data sources the schema can be changed without telling
+ * the cache, e.g. by a test creating tables, so outside caching every request gets a new snapshot.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class SchemaSnapshotCache {
+
+    /* The nr of times caching was started and not stopped yet, per data source */
+    private static final Map<DataSource, Integer> cachingDataSources = new IdentityHashMap<>();
+
+    /* The snapshots per schema name, per data source for which caching is started */
+    private static final Map<DataSource, Map<String, SchemaSnapshot>> schemaSnapshots = new IdentityHashMap<>();
+
+    /**
+     * Gets the snapshot of the schema of the given db support. If caching is started for its data source, the cached
+     * snapshot is returned, otherwise a new one.
+     *
+     * @param dbSupport
+     *     The db support, not null
+     * @return The snapshot, not null
+     */
+    public static synchronized SchemaSnapshot getSchemaSnapshot(DbSupport dbSupport) {
+        DataSource dataSource = dbSupport.getSQLHandler().getDataSource();
+        if (!cachingDataSources.containsKey(dataSource)) {
+            return new SchemaSnapshot(dbSupport);
+        }
+        Map<String, SchemaSnapshot> snapshots = schemaSnapshots.computeIfAbsent(dataSource, key -> new HashMap<>());
+        SchemaSnapshot schemaSnapshot = snapshots.get(dbSupport.getSchemaName());
+        if (schemaSnapshot == null) {
+            schemaSnapshot = new SchemaSnapshot(dbSupport);
+            snapshots.put(dbSupport.getSchemaName(), schemaSnapshot);
+        }
+        return schemaSnapshot;
+    }
+
+    /**
+     * Starts sharing snapshots for the given data source. Caching can be started more than once, it is only stopped
+     * when it is stopped as many times.
+     *
+     * @param dataSource
+     *     The data source, not null
+     */
+    public static synchronized void startCaching(DataSource dataSource) {
+        cachingDataSources.merge(dataSource, 1, Integer::sum);
+    }
+
+    /**
+     * Stops sharing snapshots for the given data source. The cached snapshots are removed when caching was stopped
+     * as many times as it was started.
+     *
+     * @param dataSource
+     *     The data source, not null
+     */
+    public static synchronized void stopCaching(DataSource dataSource) {
+        Integer count = cachingDataSources.get(dataSource);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            cachingDataSources.put(dataSource, count - 1);
+            return;
+        }
+        cachingDataSources.remove(dataSource);
+        schemaSnapshots.remove(dataSource);
+    }
+
+    /**
+     * Removes the cached snapshots of the given data source, e.g. after tables were created or dropped.
+     *
+     * @param dataSource
+     *     The data source, not null
+     */
+    public static synchronized void invalidate(DataSource dataSource) {
+        schemaSnapshots.remove(dataSource);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with a fixed memory footprint and a precision of 1/8 (12.5%).
+ * <p/>
+ * Like an HdrHistogram, the durations are counted in buckets whose size grows with the duration: every power of 2 is
+ * divided in 8 buckets of equal size. Recording a duration does not require a lock, so the histogram can be shared by
+ * several threads.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class DurationHistogram {
+
+    /* The nr of buckets per power of 2 is 2^SUB_BUCKET_BITS */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /* The nr of buckets per power of 2 */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /* The nr of recorded durations per bucket */
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(getBucketIndex(Long.MAX_VALUE) + 1);
+
+    /* The nr of recorded durations */
+    private final LongAdder count = new LongAdder();
+
+    /* The sum of all recorded durations */
+    private final LongAdder total = new LongAdder();
+
+    /* The largest recorded duration */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param durationNanos
+     *     The duration in nanoseconds, negative durations are recorded as 0
+     */
+    public void record(long durationNanos) {
+        long duration = Math.max(durationNanos, 0);
+        bucketCounts.incrementAndGet(getBucketIndex(duration));
+        count.increment();
+        total.add(duration);
+        max.accumulateAndGet(duration, Math::max);
+    }
+
+    /**
+     * @return The nr of recorded durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return The sum of all durations in nanoseconds
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * @return The largest duration in nanoseconds, 0 if none were recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return The average duration in nanoseconds, 0 if none were recorded
+     */
+    public long getMean() {
+        long currentCount = getCount();
+        return currentCount == 0 ? 0 : getTotal() / currentCount;
+    }
+
+    /**
+     * Gets the duration below or at which the given percentage of the durations fall. The result is the upper bound of
+     * the bucket containing the percentile, but never more than the largest duration.
+     *
+     * @param percentile
+     *     The percentile, between 0 and 100
+     * @return The duration in nanoseconds, 0 if none were recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long currentCount = getCount();
+        if (currentCount == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * currentCount));
+        long cumulativeCount = 0;
+        for (int i = 0; i < bucketCounts.length(); i++) {
+            cumulativeCount += bucketCounts.get(i);
+            if (cumulativeCount >= countAtPercentile) {
+                return Math.min(getBucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    private static int getBucketIndex(long duration) {
+        if (duration < SUB_BUCKET_COUNT) {
+            return (int) duration;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(duration);
+        int subBucket = (int) (duration >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long getBucketUpperBound(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int exponent = bucketIndex / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = bucketIndex % SUB_BUCKET_COUNT;
+        long lowerBound = (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+        long bucketSize = 1L << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + bucketSize - 1;
+    }
+}
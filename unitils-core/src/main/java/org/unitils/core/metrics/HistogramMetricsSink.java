@@ -0,0 +1,91 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sink that keeps a histogram of the timings of each module callback in memory. The histograms are written to the log
+ * when the JVM exits, the callbacks that took the most time in total first.
+ * <p/>
+ * The histograms are shared by all instances of this sink, so that the report covers the whole run, also when unitils
+ * is initialized more than once.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class HistogramMetricsSink
+    implements MetricsSink {
+
+    /* The logger instance for this class */
+    private static Logger logger = LoggerFactory.getLogger(HistogramMetricsSink.class);
+
+    /* The histograms per module and callback name, e.g. DbUnitModule.beforeTestSetUp */
+    private static final Map<String, DurationHistogram> histograms = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(HistogramMetricsSink::logReport, "unitils-metrics-report"));
+    }
+
+    @Override
+    public void record(String moduleName, String callbackName, Class<?> testClass, Method testMethod, long durationNanos) {
+        histograms.computeIfAbsent(moduleName + "." + callbackName, name -> new DurationHistogram()).record(durationNanos);
+    }
+
+    /**
+     * Gets the report of all recorded timings: one line per module callback with the nr of calls, the total time and
+     * the mean, median, 99th percentile and maximum duration.
+     *
+     * @return The report, not null
+     */
+    public static String getReport() {
+        List<Map.Entry<String, DurationHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        entries.sort((entry1, entry2) -> Long.compare(entry2.getValue().getTotal(), entry1.getValue().getTotal()));
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-50s %8s %12s %10s %10s %10s %10s%n", "callback", "count", "total ms", "mean ms", "p50 ms", "p99 ms",
+            "max ms"));
+        for (Map.Entry<String, DurationHistogram> entry : entries) {
+            DurationHistogram histogram = entry.getValue();
+            report.append(String.format(Locale.ROOT, "%-50s %8d %12.1f %10.3f %10.3f %10.3f %10.3f%n", entry.getKey(), histogram.getCount(),
+                toMillis(histogram.getTotal()), toMillis(histogram.getMean()), toMillis(histogram.getValueAtPercentile(50)),
+                toMillis(histogram.getValueAtPercentile(99)), toMillis(histogram.getMax())));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Removes all recorded timings.
+     */
+    public static void clear() {
+        histograms.clear();
+    }
+
+    private static void logReport() {
+        if (!histograms.isEmpty()) {
+            logger.info("Time taken by the unitils modules:\n" + getReport());
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.lang.reflect.Method;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Sink that emits a JDK Flight Recorder event for each module callback. The events are only created when a recording is
+ * running that has the org.unitils.ModuleCallback event enabled, e.g. by starting the JVM with -XX:StartFlightRecording.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class JfrMetricsSink
+    implements MetricsSink {
+
+    @Override
+    public void record(String moduleName, String callbackName, Class<?> testClass, Method testMethod, long durationNanos) {
+        ModuleCallbackEvent event = new ModuleCallbackEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.module = moduleName;
+        event.callback = callbackName;
+        event.testClass = testClass;
+        event.testMethod = testMethod == null ? null : testMethod.getName();
+        event.callbackDuration = durationNanos;
+        event.commit();
+    }
+
+    /**
+     * The event for a module callback.
+     */
+    @Name("org.unitils.ModuleCallback")
+    @Label("Module Callback")
+    @Category("Unitils")
+    @Description("Time taken by the initialization or a test listener callback of a unitils module")
+    @StackTrace(false)
+    public static class ModuleCallbackEvent
+        extends Event {
+
+        @Label("Module")
+        String module;
+
+        @Label("Callback")
+        String callback;
+
+        @Label("Test Class")
+        Class<?> testClass;
+
+        @Label("Test Method")
+        String testMethod;
+
+        @Label("Callback Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long callbackDuration;
+    }
+}
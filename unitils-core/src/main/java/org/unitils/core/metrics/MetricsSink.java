@@ -0,0 +1,44 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.lang.reflect.Method;
+
+/**
+ * Receives the time that was taken by the initialization of a module or by a callback of the test listener of a module.
+ * <p/>
+ * Sinks are configured using the {@link ModuleMetrics#PROPKEY_METRICS_SINKS} property. They are created using their
+ * default constructor. If a sink implements {@link org.unitils.core.util.Configurable}, it is initialized with the
+ * configuration. Timings can be recorded by several threads at the same time.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public interface MetricsSink {
+
+    /**
+     * Records the time taken by a module.
+     *
+     * @param moduleName
+     *     The name of the module, e.g. DbUnitModule, not null
+     * @param callbackName
+     *     The name of the method that was called, e.g. init or beforeTestSetUp, not null
+     * @param testClass
+     *     The test class, null if the callback is not related to a test
+     * @param testMethod
+     *     The test method, null if the callback is not related to a test method
+     * @param durationNanos
+     *     The time taken in nanoseconds
+     */
+    void record(String moduleName, String callbackName, Class<?> testClass, Method testMethod, long durationNanos);
+}
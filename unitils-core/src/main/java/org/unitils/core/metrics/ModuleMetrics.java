@@ -0,0 +1,188 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.unitils.core.Module;
+import org.unitils.core.TestListener;
+import org.unitils.core.util.Configurable;
+
+import static org.unitils.core.util.ConfigUtils.createInstanceOfClass;
+import static org.unitils.util.PropertyUtils.getBoolean;
+import static org.unitils.util.PropertyUtils.getString;
+import static org.unitils.util.PropertyUtils.getStringList;
+
+/**
+ * Records the time taken by the modules: their initialization and each of the callbacks of their test listeners.
+ * <p/>
+ * Metrics are only recorded when the {@link #PROPKEY_METRICS_ENABLED} property is set to true. The timings are passed
+ * to all the sinks configured by the {@link #PROPKEY_METRICS_SINKS} property. If a budget is set using the
+ * {@link OverheadBudgetSink#PROPKEY_BUDGET_MILLIS} property, the timings are also checked by an
+ * {@link OverheadBudgetSink}, even if the metrics are not enabled. When there are no sinks, the test listeners of the
+ * modules are not wrapped, so there is no overhead at all.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ModuleMetrics {
+
+    /**
+     * Property that specifies whether the time taken by the modules should be recorded.
+     */
+    public static final String PROPKEY_METRICS_ENABLED = "unitils.metrics.enabled";
+
+    /**
+     * Property that contains the class names of the sinks that receive the recorded timings.
+     */
+    public static final String PROPKEY_METRICS_SINKS = "unitils.metrics.sinks";
+
+    /**
+     * Metrics that do not record anything.
+     */
+    public static final ModuleMetrics DISABLED = new ModuleMetrics(Collections.<MetricsSink>emptyList());
+
+    /* The sinks that receive the timings, empty if disabled */
+    private final MetricsSink[] metricsSinks;
+
+    /**
+     * Creates metrics that pass all timings to the given sinks.
+     *
+     * @param metricsSinks
+     *     The sinks, empty to disable the metrics, not null
+     */
+    public ModuleMetrics(List<MetricsSink> metricsSinks) {
+        this.metricsSinks = metricsSinks.toArray(new MetricsSink[0]);
+    }
+
+    /**
+     * Creates the metrics as specified by the given configuration.
+     *
+     * @param configuration
+     *     The configuration, not null
+     * @return The metrics, {@link #DISABLED} if disabled, not null
+     */
+    public static ModuleMetrics createModuleMetrics(Properties configuration) {
+        List<MetricsSink> metricsSinks = new ArrayList<>();
+        if (getBoolean(PROPKEY_METRICS_ENABLED, false, configuration)) {
+            for (String className : getStringList(PROPKEY_METRICS_SINKS, configuration)) {
+                metricsSinks.add(createMetricsSink(className, configuration));
+            }
+        }
+        if (getString(OverheadBudgetSink.PROPKEY_BUDGET_MILLIS, null, configuration) != null) {
+            metricsSinks.add(createMetricsSink(OverheadBudgetSink.class.getName(), configuration));
+        }
+        if (metricsSinks.isEmpty()) {
+            return DISABLED;
+        }
+        return new ModuleMetrics(metricsSinks);
+    }
+
+    private static MetricsSink createMetricsSink(String className, Properties configuration) {
+        MetricsSink metricsSink = createInstanceOfClass(className, configuration);
+        if (metricsSink instanceof Configurable) {
+            ((Configurable) metricsSink).init(configuration);
+        }
+        return metricsSink;
+    }
+
+    /**
+     * @return True if timings are recorded
+     */
+    public boolean isEnabled() {
+        return metricsSinks.length > 0;
+    }
+
+    /**
+     * Gets the name under which the timings of the given module are recorded.
+     *
+     * @param module
+     *     The module, not null
+     * @return The simple name of the module class, not null
+     */
+    public static String getModuleName(Module module) {
+        return module.getClass().getSimpleName();
+    }
+
+    /**
+     * Wraps the given test listener of a module so that the time taken by each of its callbacks is recorded.
+     *
+     * @param module
+     *     The module, not null
+     * @param testListener
+     *     The test listener of the module, not null
+     * @return The wrapped listener, the given listener if disabled, not null
+     */
+    public TestListener createTimedTestListener(Module module, TestListener testListener) {
+        if (!isEnabled()) {
+            return testListener;
+        }
+        return new TimedTestListener(getModuleName(module), testListener, this);
+    }
+
+    /**
+     * Initializes the given module and records the time it took.
+     *
+     * @param module
+     *     The module, not null
+     * @param configuration
+     *     The configuration, not null
+     */
+    public void initModule(Module module, Properties configuration) {
+        long startTime = System.nanoTime();
+        try {
+            module.init(configuration);
+        } finally {
+            record(getModuleName(module), "init", null, null, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Calls the after init of the given module and records the time it took.
+     *
+     * @param module
+     *     The module, not null
+     */
+    public void afterInitModule(Module module) {
+        long startTime = System.nanoTime();
+        try {
+            module.afterInit();
+        } finally {
+            record(getModuleName(module), "afterInit", null, null, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Passes the given timing to all the sinks.
+     *
+     * @param moduleName
+     *     The name of the module, not null
+     * @param callbackName
+     *     The name of the method that was called, not null
+     * @param testClass
+     *     The test class, null if not related to a test
+     * @param testMethod
+     *     The test method, null if not related to a test method
+     * @param durationNanos
+     *     The time taken in nanoseconds
+     */
+    public void record(String moduleName, String callbackName, Class<?> testClass, Method testMethod, long durationNanos) {
+        for (MetricsSink metricsSink : metricsSinks) {
+            metricsSink.record(moduleName, callbackName, testClass, testMethod, durationNanos);
+        }
+    }
+}
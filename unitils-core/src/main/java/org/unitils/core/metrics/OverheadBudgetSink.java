@@ -0,0 +1,202 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.unitils.core.util.Configurable;
+
+import static org.unitils.util.PropertyUtils.getLong;
+import static org.unitils.util.PropertyUtils.getString;
+
+/**
+ * Sink that checks the time taken by each test listener callback of a module against a budget.
+ * <p/>
+ * A callback that takes longer than {@link #PROPKEY_BUDGET_MILLIS} is logged as a warning. The overhead of all callbacks
+ * is added up per module and per test class. When the JVM exits, a report is written to the file specified by
+ * {@link #PROPKEY_BUDGET_REPORT_FILE} with the modules and test classes that caused the most overhead first.
+ * <p/>
+ * Only callbacks for a test class are taken into account, the initialization of the modules is not. The totals are
+ * shared by all instances of this sink, so that the report covers the whole run.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class OverheadBudgetSink
+    implements MetricsSink, Configurable {
+
+    /**
+     * Property that contains the maximum time in milliseconds a test listener callback of a module should take.
+     */
+    public static final String PROPKEY_BUDGET_MILLIS = "unitils.listener.budgetMillis";
+
+    /**
+     * Property that contains the name of the file to which the report is written.
+     */
+    public static final String PROPKEY_BUDGET_REPORT_FILE = "unitils.listener.budgetReportFile";
+
+    /* The maximum nr of modules and test classes in the report */
+    private static final int MAX_NR_OF_OFFENDERS = 20;
+
+    /* The logger instance for this class */
+    private static Logger logger = LoggerFactory.getLogger(OverheadBudgetSink.class);
+
+    /* The overhead per module name */
+    private static final Map<String, Overhead> overheadPerModule = new ConcurrentHashMap<>();
+
+    /* The overhead per test class name */
+    private static final Map<String, Overhead> overheadPerTestClass = new ConcurrentHashMap<>();
+
+    /* The budget of the sink that was configured last */
+    private static volatile long reportBudgetNanos;
+
+    /* The report file of the sink that was configured last, null if there is none */
+    private static volatile String reportFileName;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(OverheadBudgetSink::writeReport, "unitils-overhead-report"));
+    }
+
+    /* The budget of a callback in nanoseconds */
+    private long budgetNanos;
+
+    /**
+     * Initializes the sink with the budget and the report file name.
+     *
+     * @param configuration
+     *     The configuration, not null
+     */
+    @Override
+    public void init(Properties configuration) {
+        budgetNanos = getLong(PROPKEY_BUDGET_MILLIS, configuration) * 1000000L;
+        reportBudgetNanos = budgetNanos;
+        reportFileName = getString(PROPKEY_BUDGET_REPORT_FILE, null, configuration);
+    }
+
+    @Override
+    public void record(String moduleName, String callbackName, Class<?> testClass, Method testMethod, long durationNanos) {
+        if (testClass == null) {
+            return;
+        }
+        boolean overBudget = durationNanos > budgetNanos;
+        getOverhead(overheadPerModule, moduleName).record(durationNanos, overBudget);
+        getOverhead(overheadPerTestClass, testClass.getName()).record(durationNanos, overBudget);
+        if (overBudget) {
+            String testName = testClass.getName() + (testMethod == null ? "" : "." + testMethod.getName());
+            logger.warn(String.format(Locale.ROOT, "Unitils overhead of %.1f ms in %s.%s exceeds the budget of %d ms. Test: %s", toMillis(durationNanos),
+                moduleName, callbackName, budgetNanos / 1000000L, testName));
+        }
+    }
+
+    /**
+     * Gets the report of the overhead: the modules and test classes with the most overhead first.
+     *
+     * @return The report, not null
+     */
+    public static String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Unitils overhead, budget per callback: %d ms%n", reportBudgetNanos / 1000000L));
+        appendOverheads("Top modules", overheadPerModule, report);
+        appendOverheads("Top test classes", overheadPerTestClass, report);
+        return report.toString();
+    }
+
+    /**
+     * Removes all recorded overhead.
+     */
+    public static void clear() {
+        overheadPerModule.clear();
+        overheadPerTestClass.clear();
+    }
+
+    private static Overhead getOverhead(Map<String, Overhead> overheads, String name) {
+        return overheads.computeIfAbsent(name, n -> new Overhead());
+    }
+
+    private static void appendOverheads(String title, Map<String, Overhead> overheads, StringBuilder report) {
+        List<Map.Entry<String, Overhead>> entries = new ArrayList<>(overheads.entrySet());
+        entries.sort((entry1, entry2) -> Long.compare(entry2.getValue().totalNanos.sum(), entry1.getValue().totalNanos.sum()));
+
+        report.append(String.format(Locale.ROOT, "%n%-70s %8s %12s %12s %10s%n", title, "calls", "total ms", "over budget", "max ms"));
+        for (Map.Entry<String, Overhead> entry : entries.subList(0, Math.min(entries.size(), MAX_NR_OF_OFFENDERS))) {
+            Overhead overhead = entry.getValue();
+            report.append(String.format(Locale.ROOT, "%-70s %8d %12.1f %12d %10.1f%n", entry.getKey(), overhead.count.sum(),
+                toMillis(overhead.totalNanos.sum()), overhead.overBudgetCount.sum(), toMillis(overhead.maxNanos.get())));
+        }
+    }
+
+    private static void writeReport() {
+        String fileName = reportFileName;
+        if (fileName == null || overheadPerModule.isEmpty()) {
+            return;
+        }
+        Path reportFile = Paths.get(fileName);
+        try {
+            if (reportFile.getParent() != null) {
+                Files.createDirectories(reportFile.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                writer.write(getReport());
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write unitils overhead report to " + fileName, e);
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    /**
+     * The overhead of a module or test class.
+     */
+    private static class Overhead {
+
+        /* The nr of callbacks */
+        private final LongAdder count = new LongAdder();
+
+        /* The total time of the callbacks */
+        private final LongAdder totalNanos = new LongAdder();
+
+        /* The nr of callbacks that exceeded the budget */
+        private final LongAdder overBudgetCount = new LongAdder();
+
+        /* The time of the slowest callback */
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        public void record(long durationNanos, boolean overBudget) {
+            count.increment();
+            totalNanos.add(durationNanos);
+            if (overBudget) {
+                overBudgetCount.increment();
+            }
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+        }
+    }
+}
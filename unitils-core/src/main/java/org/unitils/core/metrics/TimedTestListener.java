@@ -0,0 +1,128 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.lang.reflect.Method;
+
+import org.unitils.core.TestListener;
+
+/**
+ * Test listener that records the time taken by each callback of the test listener of a module.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class TimedTestListener
+    extends TestListener {
+
+    /* The name of the module */
+    private final String moduleName;
+
+    /* The test listener of the module, not null */
+    private final TestListener testListener;
+
+    /* Records the timings, not null */
+    private final ModuleMetrics moduleMetrics;
+
+    /**
+     * Creates a listener that records the timings of the given listener.
+     *
+     * @param moduleName
+     *     The name of the module, not null
+     * @param testListener
+     *     The test listener of the module, not null
+     * @param moduleMetrics
+     *     Records the timings, not null
+     */
+    public TimedTestListener(String moduleName, TestListener testListener, ModuleMetrics moduleMetrics) {
+        this.moduleName = moduleName;
+        this.testListener = testListener;
+        this.moduleMetrics = moduleMetrics;
+    }
+
+    /**
+     * @return The test listener of the module, not null
+     */
+    public TestListener getTestListener() {
+        return testListener;
+    }
+
+    @Override
+    public void beforeTestClass(Class<?> testClass) {
+        long startTime = System.nanoTime();
+        try {
+            testListener.beforeTestClass(testClass);
+        } finally {
+            moduleMetrics.record(moduleName, "beforeTestClass", testClass, null, System.nanoTime() - startTime);
+        }
+    }
+
+    @Override
+    public void afterCreateTestObject(Object testObject) {
+        long startTime = System.nanoTime();
+        try {
+            testListener.afterCreateTestObject(testObject);
+        } finally {
+            moduleMetrics.record(moduleName, "afterCreateTestObject", getTestClass(testObject), null, System.nanoTime() - startTime);
+        }
+    }
+
+    @Override
+    public void beforeTestSetUp(Object testObject, Method testMethod) {
+        long startTime = System.nanoTime();
+        try {
+            testListener.beforeTestSetUp(testObject, testMethod);
+        } finally {
+            moduleMetrics.record(moduleName, "beforeTestSetUp", getTestClass(testObject), testMethod, System.nanoTime() - startTime);
+        }
+    }
+
+    @Override
+    public void beforeTestMethod(Object testObject, Method testMethod) {
+        long startTime = System.nanoTime();
+        try {
+            testListener.beforeTestMethod(testObject, testMethod);
+        } finally {
+            moduleMetrics.record(moduleName, "beforeTestMethod", getTestClass(testObject), testMethod, System.nanoTime() - startTime);
+        }
+    }
+
+    @Override
+    public void afterTestMethod(Object testObject, Method testMethod, Throwable testThrowable) {
+        long startTime = System.nanoTime();
+        try {
+            testListener.afterTestMethod(testObject, testMethod, testThrowable);
+        } finally {
+            moduleMetrics.record(moduleName, "afterTestMethod", getTestClass(testObject), testMethod, System.nanoTime() - startTime);
+        }
+    }
+
+    @Override
+    public void afterTestTearDown(Object testObject, Method testMethod) {
+        long startTime = System.nanoTime();
+        try {
+            testListener.afterTestTearDown(testObject, testMethod);
+        } finally {
+            moduleMetrics.record(moduleName, "afterTestTearDown", getTestClass(testObject), testMethod, System.nanoTime() - startTime);
+        }
+    }
+
+    @Override
+    public boolean shouldInvokeTestMethod(Object testObject, Method testMethod) {
+        return testListener.shouldInvokeTestMethod(testObject, testMethod);
+    }
+
+    private Class<?> getTestClass(Object testObject) {
+        return testObject == null ? null : testObject.getClass();
+    }
+}
@@ -20,6 +20,8 @@ import java.util.Map;
 
 /**
  * Helper class for generating a string representation of a collection or array.
+ * <p/>
+ * The formatting of the elements stops as soon as the output of the object formatter is full.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -105,6 +107,9 @@ public class ArrayAndCollectionFormatter {
         result.append("[");
         int count = 0;
         for (Object element : collection) {
+            if (objectFormatter.isFull(result)) {
+                return;
+            }
             if (count++ > 0) {
                 result.append(", ");
             }
@@ -132,6 +137,9 @@ public class ArrayAndCollectionFormatter {
         result.append("{");
         int count = 0;
         for (Map.Entry<?, ?> element : map.entrySet()) {
+            if (objectFormatter.isFull(result)) {
+                return;
+            }
             if (count++ > 0) {
                 result.append(", ");
             }
@@ -151,6 +159,9 @@ public class ArrayAndCollectionFormatter {
         result.append("[");
         int i = 0;
         for (; i < array.length && i < maxNrOfElements; i++) {
+            if (objectFormatter.isFull(result)) {
+                return;
+            }
             if (i > 0) {
                 result.append(", ");
             }
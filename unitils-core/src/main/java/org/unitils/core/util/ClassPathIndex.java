@@ -0,0 +1,120 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.util;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the results of looking up resources in the classpath.
+ * <p/>
+ * Every lookup in a class loader probes all the jars and directories of the classpath, which gets slow for large
+ * classpaths. The results are therefore kept per class loader, so that a resource is only looked up once. A class loader
+ * can be garbage collected together with its results.
+ * <p/>
+ * Since files can be added to the classpath directories while the tests are running, a resource that was not found is
+ * looked up again the next time. Only for class files, the fact that they do not exist is also kept.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ClassPathIndex {
+
+    /* The found resources per class loader and resource name, empty if a class file does not exist */
+    private static final Map<ClassLoader, Map<String, Optional<URL>>> resources = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /* The found resources per class loader and name of a resource that can occur several times in the classpath */
+    private static final Map<ClassLoader, Map<String, List<URL>>> allResources = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Gets the resource with the given name, using the given class loader.
+     *
+     * @param classLoader
+     *     The class loader, null for the system class loader
+     * @param resourceName
+     *     The name of the resource, e.g. org/unitils/MyFile.xml, not null
+     * @return The resource, null if not found
+     */
+    public static URL getResource(ClassLoader classLoader, String resourceName) {
+        classLoader = getClassLoader(classLoader);
+        Map<String, Optional<URL>> resourcesForClassLoader = resources.computeIfAbsent(classLoader, c -> new ConcurrentHashMap<>());
+        Optional<URL> resource = resourcesForClassLoader.get(resourceName);
+        if (resource == null) {
+            resource = Optional.ofNullable(classLoader.getResource(resourceName));
+            if (resource.isPresent() || resourceName.endsWith(".class")) {
+                resourcesForClassLoader.put(resourceName, resource);
+            }
+        }
+        return resource.orElse(null);
+    }
+
+    /**
+     * Gets all resources with the given name, using the given class loader.
+     *
+     * @param classLoader
+     *     The class loader, null for the system class loader
+     * @param resourceName
+     *     The name of the resource, e.g. org/unitils/dbscripts, not null
+     * @return The unmodifiable list of resources, empty if none found
+     * @throws IOException
+     *     If the resources could not be looked up
+     */
+    public static List<URL> getResources(ClassLoader classLoader, String resourceName)
+        throws IOException {
+        classLoader = getClassLoader(classLoader);
+        Map<String, List<URL>> resourcesForClassLoader = allResources.computeIfAbsent(classLoader, c -> new ConcurrentHashMap<>());
+        List<URL> result = resourcesForClassLoader.get(resourceName);
+        if (result == null) {
+            result = Collections.unmodifiableList(Collections.list(classLoader.getResources(resourceName)));
+            if (!result.isEmpty()) {
+                resourcesForClassLoader.put(resourceName, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the class file of the class with the given name exists in the classpath of the given class loader.
+     * The class itself is not loaded.
+     *
+     * @param classLoader
+     *     The class loader, null for the system class loader
+     * @param className
+     *     The name of the class, not null
+     * @return True if the class file exists
+     */
+    public static boolean classFileExists(ClassLoader classLoader, String className) {
+        return getResource(classLoader, className.replace('.', '/') + ".class") != null;
+    }
+
+    /**
+     * Forgets all looked up resources.
+     */
+    public static void clear() {
+        resources.clear();
+        allResources.clear();
+    }
+
+    private static ClassLoader getClassLoader(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return ClassLoader.getSystemClassLoader();
+        }
+        return classLoader;
+    }
+}
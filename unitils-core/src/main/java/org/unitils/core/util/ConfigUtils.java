@@ -12,17 +12,35 @@
  */
 package org.unitils.core.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.core.UnitilsException;
+import org.unitils.core.config.ConfigurationProperties;
 import org.unitils.util.PropertyUtils;
 
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isStatic;
 import static org.unitils.util.ReflectionUtils.createInstanceOfType;
 
 /**
  * Class containing configuration related utilities
+ * <p/>
+ * The names of the properties that specify the implementation class of a type are computed only once per type and
+ * discriminator values. The properties themselves are still looked up every time, since the configuration can change.
+ * Implementation classes are created using a method handle to their default constructor that is also computed only
+ * once per class.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
@@ -32,6 +50,31 @@ public class ConfigUtils {
     /* The logger instance for this class */
     private static Logger logger = LoggerFactory.getLogger(ConfigUtils.class);
 
+    /* The implementation class property names per type and discriminator values */
+    private static final ClassValue<Map<List<String>, List<String>>> IMPL_CLASS_PROPERTY_NAMES = new ClassValue<>() {
+        @Override
+        protected Map<List<String>, List<String>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /* The default constructors as (Object) method handles, empty if the class cannot be created using a method handle */
+    private static final ClassValue<Optional<MethodHandle>> DEFAULT_CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            if (type.isMemberClass() && !isStatic(type.getModifiers())) {
+                return Optional.empty();
+            }
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                return Optional.of(MethodHandles.lookup().unreflectConstructor(constructor).asType(methodType(Object.class)));
+            } catch (Exception e) {
+                // not accessible or no default constructor, let the reflection utils report the problem
+                return Optional.empty();
+            }
+        }
+    };
+
     /**
      * Retrieves the concrete instance of the class with the given type as configured by the given <code>Configuration</code>.
      * Tries to retrieve a specific implementation first (propery key = fully qualified name of the interface
@@ -75,7 +118,60 @@ public class ConfigUtils {
     public static <T> T getInstanceOf(Class<? extends T> type, Properties configuration, String... implementationDiscriminatorValues) {
         String implClassName = getConfiguredClassName(type, configuration, implementationDiscriminatorValues);
         logger.debug("Creating instance of " + type + ". Implementation class " + implClassName);
-        return (T) createInstanceOfType(implClassName, false);
+        return createInstanceOfClass(implClassName, configuration);
+    }
+
+    /**
+     * Creates an instance of the class with the given name using its public default constructor. If the configuration
+     * is a {@link ConfigurationProperties}, the class is only loaded the first time.
+     *
+     * @param className
+     *     The name of the class, not null
+     * @param configuration
+     *     The configuration containing the class name, not null
+     * @return The instance, not null
+     */
+    @SuppressWarnings({
+        "unchecked"
+    })
+    public static <T> T createInstanceOfClass(String className, Properties configuration) {
+        Class<?> type = ConfigurationProperties.getClassWithName(className, configuration);
+        Optional<MethodHandle> constructor = DEFAULT_CONSTRUCTORS.get(type);
+        if (!constructor.isPresent()) {
+            return (T) createInstanceOfType(type, false);
+        }
+        try {
+            return (T) (Object) constructor.get().invokeExact();
+        } catch (Throwable t) {
+            throw new UnitilsException("Error while trying to create object of class " + type.getName(), t);
+        }
+    }
+
+    /**
+     * Gets the names of the properties that can specify the implementation class of the given type:
+     * 'fully qualified name of type'.implClassName followed by the same name with the first discriminator value,
+     * the first 2 discriminator values and so on. The names are only computed the first time.
+     *
+     * @param type
+     *     The type, not null
+     * @param implementationDiscriminatorValues
+     *     The discriminator values, null for none
+     * @return The unmodifiable property names, the name without discriminator values first, not null
+     */
+    public static List<String> getImplClassPropertyNames(Class<?> type, String... implementationDiscriminatorValues) {
+        Map<List<String>, List<String>> propertyNamesPerDiscriminatorValues = IMPL_CLASS_PROPERTY_NAMES.get(type);
+        List<String> key = implementationDiscriminatorValues == null ? Collections.<String>emptyList() : Arrays.asList(implementationDiscriminatorValues);
+        List<String> propertyNames = propertyNamesPerDiscriminatorValues.get(key);
+        if (propertyNames == null) {
+            String[] names = new String[key.size() + 1];
+            names[0] = type.getName() + ".implClassName";
+            for (int i = 0; i < key.size(); i++) {
+                names[i + 1] = names[i] + '.' + key.get(i);
+            }
+            propertyNames = Collections.unmodifiableList(Arrays.asList(names));
+            propertyNamesPerDiscriminatorValues.put(new ArrayList<>(key), propertyNames);
+        }
+        return propertyNames;
     }
 
     /**
@@ -94,14 +190,12 @@ public class ConfigUtils {
      * @return The configured class name
      */
     public static String getConfiguredClassName(Class<?> type, Properties configuration, String... implementationDiscriminatorValues) {
-        String propKey = type.getName() + ".implClassName";
+        List<String> propKeys = getImplClassPropertyNames(type, implementationDiscriminatorValues);
+        String propKey = propKeys.get(0);
 
         // first try specific instance using the given discriminators
         if (implementationDiscriminatorValues != null) {
-            String implementationSpecificPropKey = propKey;
-            for (String implementationDiscriminatorValue : implementationDiscriminatorValues) {
-                implementationSpecificPropKey += '.' + implementationDiscriminatorValue;
-            }
+            String implementationSpecificPropKey = propKeys.get(propKeys.size() - 1);
             if (configuration.containsKey(implementationSpecificPropKey)) {
                 return PropertyUtils.getString(implementationSpecificPropKey, configuration);
             }
@@ -115,7 +115,7 @@ public class FileResolver {
         }
 
         // find file in classpath
-        URL fileUrl = testClass.getResource('/' + fullFileName);
+        URL fileUrl = ClassPathIndex.getResource(testClass.getClassLoader(), fullFileName);
         if (fileUrl == null) {
             throw new UnitilsException("File with name " + fullFileName + " cannot be found.");
         }
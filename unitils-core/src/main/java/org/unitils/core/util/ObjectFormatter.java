@@ -18,10 +18,16 @@ package org.unitils.core.util;
 import java.io.File;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +42,15 @@ import static org.unitils.reflectionassert.util.HibernateUtil.getUnproxiedValue;
  * A class for generating a string representation of any object, array or primitive value.
  * <p/>
  * Non-primitive objects are processed recursively so that a string representation of inner objects is also generated.
- * Too avoid too much output, this recursion is limited with a given maximum depth.
+ * Too avoid too much output, this recursion is limited with a given maximum depth. The output can also be limited to a
+ * maximum length: formatting then stops as soon as the output is full.
+ * <p/>
+ * If visited objects are tracked, an object that is encountered again while formatting a value, e.g. because it is
+ * shared or because there is a cycle, is not formatted again but is printed as a back-reference, e.g.
+ * Person&lt;see above&gt;.
+ * <p/>
+ * The fields that are formatted are determined only once per class. A formatter keeps the state of the value that it
+ * is formatting, so it should not be used by more than one thread at the same time.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -46,14 +60,48 @@ public class ObjectFormatter {
 
     public static final String MOCK_NAME_CHAIN_SEPARATOR = "##chained##";
 
+    /**
+     * Value for the maximum length to indicate that there is no maximum.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /* The fields to format per class, including the fields of the super-classes */
+    private static final ClassValue<FormattedField[]> FORMATTED_FIELDS = new ClassValue<>() {
+        @Override
+        protected FormattedField[] computeValue(Class<?> type) {
+            return createFormattedFields(type);
+        }
+    };
+
+    /* The class of the proxy utils of the mock module, null if not in the classpath */
+    private static final Class<?> PROXY_UTILS_CLASS = loadClass("org.unitils.mock.core.proxy.ProxyUtils");
+
+    /* The method for getting the name of a mock, null if the mock module is not in the classpath */
+    private static final Method GET_MOCK_NAME_METHOD = getMethod(PROXY_UTILS_CLASS, "getMockName", Object.class);
+
+    /* The interface that represents a dummy object, null if not in the classpath */
+    private static final Class<?> DUMMY_OBJECT_CLASS = loadClass("org.unitils.mock.dummy.DummyObject");
+
     /* The maximum recursion depth */
     protected int maxDepth;
 
     /* The maximum nr of elements for arrays and collections to display */
     protected int maxNrArrayOrCollectionElements;
 
+    /* The maximum nr of characters of a formatted value */
+    protected int maxLength;
+
+    /* True if objects that are encountered again are printed as a back-reference */
+    protected boolean trackVisitedObjects;
+
     protected ArrayAndCollectionFormatter arrayAndCollectionFormatter;
 
+    /* The index in the result at which the value that is being formatted starts */
+    private int startIndex;
+
+    /* The objects that were formatted so far for the current value, null if visited objects are not tracked */
+    private Set<Object> visitedObjects;
+
     /**
      * Creates a formatter with a maximum recursion depth of 3.
      */
@@ -72,8 +120,27 @@ public class ObjectFormatter {
      *     The maximum nr of elements for arrays and collections to display &gt; 0
      */
     public ObjectFormatter(int maxDepth, int maxNrArrayOrCollectionElements) {
+        this(maxDepth, maxNrArrayOrCollectionElements, UNLIMITED, false);
+    }
+
+    /**
+     * Creates a formatter with the given maximum recursion depth and maximum length.
+     *
+     * @param maxDepth
+     *     The max depth &gt; 0
+     * @param maxNrArrayOrCollectionElements
+     *     The maximum nr of elements for arrays and collections to display &gt; 0
+     * @param maxLength
+     *     The maximum nr of characters of a formatted value, UNLIMITED for no maximum. A longer value is cut off
+     *     and ends with ...
+     * @param trackVisitedObjects
+     *     True if objects that are encountered again should be printed as a back-reference
+     */
+    public ObjectFormatter(int maxDepth, int maxNrArrayOrCollectionElements, int maxLength, boolean trackVisitedObjects) {
         this.maxDepth = maxDepth;
         this.maxNrArrayOrCollectionElements = maxNrArrayOrCollectionElements;
+        this.maxLength = maxLength;
+        this.trackVisitedObjects = trackVisitedObjects;
         this.arrayAndCollectionFormatter = new ArrayAndCollectionFormatter(maxNrArrayOrCollectionElements, this);
     }
 
@@ -86,10 +153,47 @@ public class ObjectFormatter {
      */
     public String format(Object object) {
         StringBuilder result = new StringBuilder();
-        formatImpl(object, 0, result);
+        format(object, result);
         return result.toString();
     }
 
+    /**
+     * Appends the string representation of the given object to the given builder.
+     *
+     * @param object
+     *     The instance
+     * @param result
+     *     The builder to append the result to, not null
+     */
+    public void format(Object object, StringBuilder result) {
+        int previousStartIndex = startIndex;
+        Set<Object> previousVisitedObjects = visitedObjects;
+        startIndex = result.length();
+        visitedObjects = trackVisitedObjects ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+        try {
+            formatImpl(object, 0, result);
+            if (isFull(result)) {
+                result.setLength(startIndex + maxLength);
+                result.append("...");
+            }
+        } finally {
+            startIndex = previousStartIndex;
+            visitedObjects = previousVisitedObjects;
+        }
+    }
+
+    /**
+     * Checks whether the maximum length of the value that is being formatted was reached. Nothing is appended
+     * anymore once the output is full.
+     *
+     * @param result
+     *     The builder to which the result is appended, not null
+     * @return True if the output is full
+     */
+    protected boolean isFull(StringBuilder result) {
+        return result.length() - startIndex >= maxLength;
+    }
+
     /**
      * Actual implementation of the formatting.
      *
@@ -101,6 +205,9 @@ public class ObjectFormatter {
      *     The builder to append the result to, not null
      */
     protected void formatImpl(Object object, int currentDepth, StringBuilder result) {
+        if (isFull(result)) {
+            return;
+        }
         // get the actual value if the value is wrapped by a Hibernate proxy
         object = getUnproxiedValue(object);
 
@@ -130,6 +237,9 @@ public class ObjectFormatter {
         if (formatJavaLang(object, result, type)) {
             return;
         }
+        if ((type.isArray() || object instanceof Collection || object instanceof Map) && formatVisitedObject(object, type, result)) {
+            return;
+        }
         if (type.isArray()) {
             arrayAndCollectionFormatter.formatArray(object, currentDepth, result);
             return;
@@ -150,9 +260,33 @@ public class ObjectFormatter {
         if (formatFile(object, result)) {
             return;
         }
+        if (formatVisitedObject(object, type, result)) {
+            return;
+        }
         formatObject(object, currentDepth, result);
     }
 
+    /**
+     * Prints a back-reference if visited objects are tracked and the given object was already formatted as part of
+     * the current value. Otherwise, the object is registered as visited.
+     *
+     * @param object
+     *     The object, not null
+     * @param type
+     *     The type of the object, not null
+     * @param result
+     *     The builder to append the result to, not null
+     * @return True if a back-reference was printed
+     */
+    protected boolean formatVisitedObject(Object object, Class<?> type, StringBuilder result) {
+        if (visitedObjects == null || visitedObjects.add(object)) {
+            return false;
+        }
+        result.append(getShortClassName(type));
+        result.append("<see above>");
+        return true;
+    }
+
     protected boolean formatJavaLang(Object object, StringBuilder result, Class<?> type) {
         if (type.getName().startsWith("java.lang")) {
             result.append(String.valueOf(object));
@@ -216,7 +350,7 @@ public class ObjectFormatter {
     }
 
     /**
-     * Formats the field values of the given object.
+     * Formats the field values of the given object, including the fields declared in the super-classes.
      *
      * @param object
      *     The object, not null
@@ -228,44 +362,61 @@ public class ObjectFormatter {
      *     The builder to append the result to, not null
      */
     protected void formatFields(Object object, Class<?> clazz, int currentDepth, StringBuilder result) {
-        Field[] fields = clazz.getDeclaredFields();
-        AccessibleObject.setAccessible(fields, true);
-
-        for (int i = 0; i < fields.length; i++) {
-            // skip transient and static fields
-            Field field = fields[i];
-            if (isTransient(field.getModifiers()) || isStatic(field.getModifiers()) || field.isSynthetic()) {
-                continue;
+        for (FormattedField formattedField : FORMATTED_FIELDS.get(clazz)) {
+            if (isFull(result)) {
+                return;
             }
             try {
-                if (i > 0) {
+                if (formattedField.appendSeparator) {
                     result.append(", ");
                 }
-                result.append(field.getName());
+                result.append(formattedField.field.getName());
                 result.append("=");
-                formatImpl(field.get(object), currentDepth + 1, result);
+                formatImpl(formattedField.field.get(object), currentDepth + 1, result);
             } catch (IllegalAccessException e) {
                 // this can't happen. Would get a Security exception instead
                 // throw a runtime exception in case the impossible happens.
                 throw new InternalError("Unexpected IllegalAccessException", e);
             }
         }
+    }
+
+    private static FormattedField[] createFormattedFields(Class<?> clazz) {
+        List<FormattedField> formattedFields = new ArrayList<>();
+        addFormattedFields(clazz, formattedFields);
 
-        // format fields declared in superclass
+        // add fields declared in superclass
         Class<?> superclazz = clazz.getSuperclass();
         while (superclazz != null && !superclazz.getName().startsWith("java.lang")) {
-            formatFields(object, superclazz, currentDepth, result);
+            addFormattedFields(superclazz, formattedFields);
             superclazz = superclazz.getSuperclass();
         }
+        return formattedFields.toArray(new FormattedField[0]);
+    }
+
+    private static void addFormattedFields(Class<?> clazz, List<FormattedField> formattedFields) {
+        Field[] fields = clazz.getDeclaredFields();
+        AccessibleObject.setAccessible(fields, true);
+
+        for (int i = 0; i < fields.length; i++) {
+            // skip transient and static fields
+            Field field = fields[i];
+            if (isTransient(field.getModifiers()) || isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            formattedFields.add(new FormattedField(field, i > 0));
+        }
     }
 
     protected boolean formatMock(Object object, StringBuilder result) {
         try {
             Class<?> proxyUtilsClass = getProxyUtilsClass();
-            if (proxyUtilsClass == null) {
+            // the method is only looked up again if getProxyUtilsClass is overridden
+            Method getMockNameMethod = proxyUtilsClass == PROXY_UTILS_CLASS ? GET_MOCK_NAME_METHOD : getMethod(proxyUtilsClass, "getMockName", Object.class);
+            if (getMockNameMethod == null) {
                 return false;
             }
-            String mockName = (String) proxyUtilsClass.getMethod("getMockName", Object.class).invoke(null, object);
+            String mockName = (String) getMockNameMethod.invoke(null, object);
             if (mockName == null) {
                 return false;
             }
@@ -321,23 +472,50 @@ public class ObjectFormatter {
      *     classpath, null is returned.
      */
     protected Class<?> getDummyObjectClass() {
-        try {
-            return Class.forName("org.unitils.mock.dummy.DummyObject");
-        } catch (ClassNotFoundException e) {
-            LOG.trace("", e);
-            return null;
-        }
+        return DUMMY_OBJECT_CLASS;
     }
 
     /**
      * @return The proxy utils. null if not in classpath
      */
     protected Class<?> getProxyUtilsClass() {
+        return PROXY_UTILS_CLASS;
+    }
+
+    private static Class<?> loadClass(String className) {
         try {
-            return Class.forName("org.unitils.mock.core.proxy.ProxyUtils");
+            return Class.forName(className);
         } catch (ClassNotFoundException e) {
             LOG.trace("", e);
             return null;
         }
     }
+
+    private static Method getMethod(Class<?> clazz, String methodName, Class<?>... parameterTypes) {
+        if (clazz == null) {
+            return null;
+        }
+        try {
+            return clazz.getMethod(methodName, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            LOG.trace("", e);
+            return null;
+        }
+    }
+
+    /**
+     * A field that is formatted.
+     */
+    private static class FormattedField {
+
+        private final Field field;
+
+        /* True if the field is preceded by a separator */
+        private final boolean appendSeparator;
+
+        public FormattedField(Field field, boolean appendSeparator) {
+            this.field = field;
+            this.appendSeparator = appendSeparator;
+        }
+    }
 }
@@ -15,6 +15,7 @@ package org.unitils.core.util;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.Properties;
 
 import org.slf4j.Logger;
@@ -77,10 +78,11 @@ public class PropertiesReader {
                 throw new IllegalArgumentException("Properties Filename must be given.");
             }
             Properties properties = new Properties();
-            inputStream = getClass().getClassLoader().getResourceAsStream(propertiesFileName);
-            if (inputStream == null) {
+            URL propertiesFileUrl = ClassPathIndex.getResource(getClass().getClassLoader(), propertiesFileName);
+            if (propertiesFileUrl == null) {
                 return null;
             }
+            inputStream = propertiesFileUrl.openStream();
             properties.load(inputStream);
             return properties;
         } catch (Exception e) {
@@ -29,9 +29,9 @@ import org.junit.Assert;
 import org.unitils.core.UnitilsException;
 import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+import org.unitils.util.OgnlUtils;
 import org.unitils.util.ReflectionUtils;
 
-import ognl.UnitilsMemberAccess;
 import ognl.Ognl;
 import ognl.OgnlContext;
 import ognl.OgnlException;
@@ -40,6 +40,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.DEFAULT_MAX_NR_OF_LINES;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.DEFAULT_MAX_REPORT_LENGTH;
 
 /**
  * A class for asserting that 2 objects/collections are equal by comparing properties and fields of the
@@ -65,6 +67,32 @@ import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDE
  * @see ReflectionComparatorMode
  */
 public class ReflectionAssert {
+
+    /* The maximum nr of characters in the report of a failure message */
+    private static volatile int maxReportLength = DEFAULT_MAX_REPORT_LENGTH;
+
+    /* The maximum nr of lines in the report of a failure message */
+    private static volatile int maxReportNrOfLines = DEFAULT_MAX_NR_OF_LINES;
+
+    /**
+     * Sets the maximum size of the difference report in the failure messages. A larger report is truncated and ends
+     * with the nr of differences that were left out. By default, the report is limited to
+     * {@link DefaultDifferenceReport#DEFAULT_MAX_REPORT_LENGTH} characters and
+     * {@link DefaultDifferenceReport#DEFAULT_MAX_NR_OF_LINES} lines.
+     *
+     * @param maxLength
+     *     the maximum nr of characters, ReportWriter.UNLIMITED for no maximum
+     * @param maxNrOfLines
+     *     the maximum nr of lines, ReportWriter.UNLIMITED for no maximum
+     */
+    public static void setMaxReportSize(int maxLength, int maxNrOfLines) {
+        if (maxLength <= 0 || maxNrOfLines <= 0) {
+            throw new UnitilsException("The maximum report length and nr of lines should be larger than 0, got " + maxLength + " and " + maxNrOfLines);
+        }
+        maxReportLength = maxLength;
+        maxReportNrOfLines = maxNrOfLines;
+    }
+
     /**
      * Asserts that two objects are equal. Reflection is used to compare all fields of these values.
      * If they are not equal an AssertionError is thrown.
@@ -161,7 +189,7 @@ public class ReflectionAssert {
     protected static String getFailureMessage(String message, Difference difference) {
         StringBuilder failureMessage = new StringBuilder();
         failureMessage.append(message == null ? "" : message + "\n");
-        failureMessage.append(new DefaultDifferenceReport().createReport(difference));
+        new DefaultDifferenceReport(maxReportLength, maxReportNrOfLines).writeReport(difference, failureMessage);
         return failureMessage.toString();
     }
 
@@ -429,9 +457,7 @@ public class ReflectionAssert {
      */
     protected static Object getProperty(Object object, String ognlExpression) {
         try {
-            OgnlContext ognlContext = new OgnlContext(null, null, new UnitilsMemberAccess());
-            Object ognlExprObj = Ognl.parseExpression(ognlExpression);
-            return Ognl.getValue(ognlExprObj, ognlContext, object);
+            return OgnlUtils.getValue(ognlExpression, object);
         } catch (OgnlException e) {
             throw new UnitilsException("Failed to get property value using OGNL expression " + ognlExpression, e);
         }
@@ -461,7 +487,8 @@ public class ReflectionAssert {
 
     /**
      * A commons collections transformer that takes an object and returns the value of the property that is
-     * specified by the given ognl expression.
+     * specified by the given ognl expression. The expression is parsed once and the same context is used for all
+     * objects.
      */
     protected static class OgnlTransformer
         implements Transformer {
@@ -469,6 +496,12 @@ public class ReflectionAssert {
         /* The ognl expression */
         private String ognlExpression;
 
+        /* The parsed expression, null if not yet parsed */
+        private Object parsedExpression;
+
+        /* The context for evaluating the expression */
+        private OgnlContext ognlContext = OgnlUtils.createOgnlContext();
+
         /**
          * Creates a transformer with the given ognl expression.
          *
@@ -491,7 +524,14 @@ public class ReflectionAssert {
             if (object == null) {
                 return null;
             }
-            return getProperty(object, ognlExpression);
+            try {
+                if (parsedExpression == null) {
+                    parsedExpression = OgnlUtils.parseExpression(ognlExpression);
+                }
+                return Ognl.getValue(parsedExpression, ognlContext, object);
+            } catch (OgnlException e) {
+                throw new UnitilsException("Failed to get property value using OGNL expression " + ognlExpression, e);
+            }
         }
     }
 }
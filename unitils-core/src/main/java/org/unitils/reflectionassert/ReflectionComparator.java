@@ -12,13 +12,20 @@
  */
 package org.unitils.reflectionassert;
 
+import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.unitils.core.UnitilsException;
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.util.ComparatorDispatchTable;
+
+import static java.lang.System.identityHashCode;
+import static org.unitils.reflectionassert.util.SequenceUtils.toRepeatableSequence;
 
 /**
  * A comparator for comparing two values by reflection.
@@ -38,18 +45,56 @@ import org.unitils.reflectionassert.difference.Difference;
  * @author Filip Neven
  */
 public class ReflectionComparator {
+
+    /**
+     * The default maximum nr of comparison results that are kept in the cache.
+     */
+    public static final int DEFAULT_MAX_CACHED_RESULTS = 10000;
+
     /**
      * The comparator chain.
      */
     protected List<Comparator> comparators;
 
     /**
-     * A cache of results, so that comparisons are only performed once and infinite loops because of cycles are avoided
-     * A different cache is used dependent on whether only the first difference is required or whether we need all
-     * differences, since the resulting {@link Difference} objects differ.
+     * Remembers which comparator of the chain to use per combination of types, so that the chain does not have to be
+     * scanned for every compared value.
      */
+    protected ComparatorDispatchTable dispatchTable;
+
+    /**
+     * The maximum nr of comparison results that are kept in the cache.
+     */
+    protected int maxCachedResults;
+
+    /**
+     * The pairs of objects that are being compared. Comparing such a pair again means that there is a cycle in the
+     * object graph: the pair is then considered equal, the actual difference will be found by the ongoing comparison.
+     */
+    protected Set<ComparedPair> pairsInProgress = new HashSet<>();
+
+    /**
+     * A cache of results, so that the comparison of objects that are referenced more than once is only performed
+     * once. The least recently used results are removed when the cache grows beyond its maximum size, they will then
+     * be recalculated if needed. A pair that is compared with only the first difference is a different entry than the
+     * same pair compared with all differences, since the resulting {@link Difference} objects differ.
+     */
+    protected Map<ComparedPair, Difference> cachedResults;
+
+    /**
+     * The results that were saved with {@link #saveResultInCache} for only the first difference, per left instance.
+     *
+     * @deprecated The results are kept in {@link #cachedResults}
+     */
+    @Deprecated
     protected Map<Object, Map<Object, Difference>> firstDifferenceCachedResults = new IdentityHashMap<>();
 
+    /**
+     * The results that were saved with {@link #saveResultInCache} for all differences, per left instance.
+     *
+     * @deprecated The results are kept in {@link #cachedResults}
+     */
+    @Deprecated
     protected Map<Object, Map<Object, Difference>> allDifferencesCachedResults = new IdentityHashMap<>();
 
     /**
@@ -59,11 +104,59 @@ public class ReflectionComparator {
      *     The comparator chain, not null
      */
     public ReflectionComparator(List<Comparator> comparators) {
-        this.comparators = comparators;
+        this(comparators, DEFAULT_MAX_CACHED_RESULTS);
     }
 
     /**
-     * Checks whether there is no difference between the left and right objects.
+     * Creates a comparator that will use the given chain.
+     *
+     * @param comparators
+     *     The comparator chain, not null
+     * @param maxCachedResults
+     *     The maximum nr of comparison results to keep, 0 to disable caching of results
+     */
+    public ReflectionComparator(List<Comparator> comparators, int maxCachedResults) {
+        this(new ComparatorDispatchTable(comparators), maxCachedResults);
+    }
+
+    /**
+     * Creates a comparator that will use the chain of the given dispatch table. The table can be shared with other
+     * comparators that use the same chain.
+     *
+     * @param dispatchTable
+     *     The dispatch table of the comparator chain, not null
+     * @param maxCachedResults
+     *     The maximum nr of comparison results to keep, 0 to disable caching of results
+     */
+    public ReflectionComparator(ComparatorDispatchTable dispatchTable, final int maxCachedResults) {
+        this.dispatchTable = dispatchTable;
+        this.comparators = dispatchTable.getComparators();
+        this.maxCachedResults = maxCachedResults;
+        this.cachedResults = new LinkedHashMap<ComparedPair, Difference>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ComparedPair, Difference> eldest) {
+                return size() > maxCachedResults;
+            }
+        };
+    }
+
+    /**
+     * Creates a comparator with the same chain that can be used by another thread to compare part of the values that
+     * are being compared by this comparator. The forked comparator has its own cache. It knows which pairs are being
+     * compared by this comparator, so that cycles through these pairs are still detected.
+     *
+     * @return The forked comparator, not null
+     */
+    public ReflectionComparator createForkedComparator() {
+        ReflectionComparator forkedComparator = new ReflectionComparator(dispatchTable, maxCachedResults);
+        forkedComparator.pairsInProgress.addAll(pairsInProgress);
+        return forkedComparator;
+    }
+
+    /**
+     * Checks whether there is no difference between the left and right objects. Iterators and streams are compared as
+     * a collection, their elements are read one by one, see
+     * {@link org.unitils.reflectionassert.util.SequenceUtils#toRepeatableSequence}.
      *
      * @param left
      *     the left instance
@@ -72,12 +165,14 @@ public class ReflectionComparator {
      * @return true if there is no difference, false otherwise
      */
     public boolean isEqual(Object left, Object right) {
-        Difference difference = getDifference(left, right, true);
+        Difference difference = getDifference(toRepeatableSequence(left), toRepeatableSequence(right), true);
         return difference == null;
     }
 
     /**
-     * Checks whether there is a difference between the left and right objects.
+     * Checks whether there is a difference between the left and right objects. Iterators and streams are compared as
+     * a collection, their elements are read one by one, see
+     * {@link org.unitils.reflectionassert.util.SequenceUtils#toRepeatableSequence}.
      *
      * @param left
      *     the left instance
@@ -86,7 +181,7 @@ public class ReflectionComparator {
      * @return the difference, null if there is no difference
      */
     public Difference getDifference(Object left, Object right) {
-        return getDifference(left, right, false);
+        return getDifference(toRepeatableSequence(left), toRepeatableSequence(right), false);
     }
 
     /**
@@ -102,54 +197,143 @@ public class ReflectionComparator {
      * @return the root difference, null if there is no difference
      */
     public Difference getDifference(Object left, Object right, boolean onlyFirstDifference) {
+        if (!isCacheable(left, right)) {
+            return compare(left, right, onlyFirstDifference);
+        }
         // check whether difference is available in cache
-        Map<Object, Difference> cachedResult = getCachedDifference(left, onlyFirstDifference);
-        if (cachedResult != null) {
-            if (cachedResult.containsKey(right)) {
-                // found difference in cache, return cached value
-                return cachedResult.get(right);
-            }
-        } else {
-            cachedResult = new IdentityHashMap<>();
-            saveResultInCache(left, cachedResult, onlyFirstDifference);
+        ComparedPair comparedPair = new ComparedPair(left, right, onlyFirstDifference);
+        if (cachedResults.containsKey(comparedPair)) {
+            // found difference in cache, return cached value
+            return cachedResults.get(comparedPair);
         }
-        cachedResult.put(right, null);
-
-        // perform actual comparison by iterating over the comparators
-        boolean compared = false;
-        Difference result = null;
-        for (Comparator comparator : comparators) {
-            if (comparator.canCompare(left, right)) {
-                result = comparator.compare(left, right, onlyFirstDifference, this);
-                compared = true;
-                break;
-            }
+        if (!pairsInProgress.add(comparedPair)) {
+            // cycle, the pair is already being compared
+            return null;
         }
-
-        // check whether a suitable comparator was found
-        if (!compared) {
-            throw new UnitilsException(
-                "Could not determine differences. No comparator found that is able to compare the values. Left: " + left + ", right " + right);
+        try {
+            Difference result = compare(left, right, onlyFirstDifference);
+            // register outcome in cache
+            cachedResults.put(comparedPair, result);
+            return result;
+        } finally {
+            pairsInProgress.remove(comparedPair);
         }
+    }
 
-        // register outcome in cache
-        cachedResult.put(right, result);
-        return result;
+    /**
+     * Performs the actual comparison using the first comparator of the chain that can compare the values.
+     *
+     * @param left
+     *     the left instance
+     * @param right
+     *     the right instance
+     * @param onlyFirstDifference
+     *     True if the comparison should stop at the first differnece
+     * @return the root difference, null if there is no difference
+     */
+    protected Difference compare(Object left, Object right, boolean onlyFirstDifference) {
+        Comparator comparator = dispatchTable.getComparator(left, right);
+        if (comparator != null) {
+            return comparator.compare(left, right, onlyFirstDifference, this);
+        }
+        // no suitable comparator was found
+        throw new UnitilsException(
+            "Could not determine differences. No comparator found that is able to compare the values. Left: " + left + ", right " + right);
     }
 
+    /**
+     * Adds the given results for the given left instance to the cache.
+     *
+     * @param left
+     *     the left instance
+     * @param cachedResult
+     *     The differences per right instance, not null
+     * @param onlyFirstDifference
+     *     True if the results contain only the first difference
+     * @deprecated The results are kept per compared pair in {@link #cachedResults}
+     */
+    @Deprecated
     protected void saveResultInCache(Object left, Map<Object, Difference> cachedResult, boolean onlyFirstDifference) {
         if (onlyFirstDifference) {
             firstDifferenceCachedResults.put(left, cachedResult);
         } else {
             allDifferencesCachedResults.put(left, cachedResult);
         }
+        for (Map.Entry<Object, Difference> entry : cachedResult.entrySet()) {
+            cachedResults.put(new ComparedPair(left, entry.getKey(), onlyFirstDifference), entry.getValue());
+        }
     }
 
+    /**
+     * Gets the cached results for the given left instance.
+     *
+     * @param left
+     *     the left instance
+     * @param onlyFirstDifference
+     *     True for the results that contain only the first difference
+     * @return The differences per right instance, null if there are no cached results for the left instance
+     * @deprecated The results are kept per compared pair in {@link #cachedResults}, this method has to go over all
+     * of them
+     */
+    @Deprecated
     protected Map<Object, Difference> getCachedDifference(Object left, boolean onlyFirstDifference) {
-        if (onlyFirstDifference) {
-            return firstDifferenceCachedResults.get(left);
-        } else {
-            return allDifferencesCachedResults.get(left);
+        Map<Object, Difference> result = new IdentityHashMap<>();
+        for (Map.Entry<ComparedPair, Difference> entry : cachedResults.entrySet()) {
+            ComparedPair comparedPair = entry.getKey();
+            if (comparedPair.left == left && comparedPair.onlyFirstDifference == onlyFirstDifference) {
+                result.put(comparedPair.right, entry.getValue());
+            }
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Null values and java.lang values such as strings and numbers are compared directly, they cannot be part of a
+     * cycle and are not worth caching.
+     *
+     * @param left
+     *     the left instance
+     * @param right
+     *     the right instance
+     * @return True if the comparison of the given values should be tracked and cached
+     */
+    protected boolean isCacheable(Object left, Object right) {
+        if (left == null || right == null) {
+            return false;
+        }
+        return !left.getClass().getName().startsWith("java.lang") && !right.getClass().getName().startsWith("java.lang");
+    }
+
+    /**
+     * A pair of compared instances, the instances are compared by identity.
+     */
+    protected static class ComparedPair {
+
+        private final Object left;
+
+        private final Object right;
+
+        private final boolean onlyFirstDifference;
+
+        public ComparedPair(Object left, Object right, boolean onlyFirstDifference) {
+            this.left = left;
+            this.right = right;
+            this.onlyFirstDifference = onlyFirstDifference;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ComparedPair)) {
+                return false;
+            }
+            ComparedPair other = (ComparedPair) o;
+            return left == other.left && right == other.right && onlyFirstDifference == other.onlyFirstDifference;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 31 * identityHashCode(left) + identityHashCode(right);
+            return onlyFirstDifference ? result : ~result;
         }
     }
 }
@@ -13,8 +13,12 @@
 package org.unitils.reflectionassert;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
@@ -25,11 +29,15 @@ import org.unitils.reflectionassert.comparator.impl.LenientNumberComparator;
 import org.unitils.reflectionassert.comparator.impl.LenientOrderCollectionComparator;
 import org.unitils.reflectionassert.comparator.impl.MapComparator;
 import org.unitils.reflectionassert.comparator.impl.ObjectComparator;
+import org.unitils.reflectionassert.comparator.impl.ParallelCollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.ParallelMapComparator;
 import org.unitils.reflectionassert.comparator.impl.SimpleCasesComparator;
+import org.unitils.reflectionassert.util.ComparatorDispatchTable;
 
 import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_DATES;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.PARALLEL;
 import static org.unitils.util.CollectionUtils.asSet;
 
 /**
@@ -46,7 +54,9 @@ import static org.unitils.util.CollectionUtils.asSet;
  * with value 2-2-2006 they would still be considered equal.</li>
  * <li>lenient order: only check whether both collections or arrays contain the same value, the actual order of the
  * values is not compared. Eg. if the left object is int[]{ 1, 2} and the right value is int[]{2, 1} they would still
- * be considered equal.
+ * be considered equal.</li>
+ * <li>parallel: the elements of large ordered collections, arrays and maps are compared in parallel.</li>
+ * </ul>
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -82,11 +92,21 @@ public class ReflectionComparatorFactory {
      */
     protected static final Comparator COLLECTION_COMPARATOR = new CollectionComparator();
 
+    /**
+     * The ParallelCollectionComparator singleton insance
+     */
+    protected static final Comparator PARALLEL_COLLECTION_COMPARATOR = new ParallelCollectionComparator();
+
     /**
      * The MapComparator singleton insance
      */
     protected static final Comparator MAP_COMPARATOR = new MapComparator();
 
+    /**
+     * The ParallelMapComparator singleton insance
+     */
+    protected static final Comparator PARALLEL_MAP_COMPARATOR = new ParallelMapComparator();
+
     /**
      * The HibernateProxyComparator singleton insance
      */
@@ -97,6 +117,12 @@ public class ReflectionComparatorFactory {
      */
     protected static final Comparator OBJECT_COMPARATOR = new ObjectComparator();
 
+    /**
+     * The dispatch tables of the comparator chains that were already assembled, per set of modes. The comparators are
+     * stateless singletons, so the chains and their tables can be shared by all reflection comparators.
+     */
+    private static final Map<Set<ReflectionComparatorMode>, ComparatorDispatchTable> COMPARATOR_DISPATCH_TABLES = new ConcurrentHashMap<>();
+
     /**
      * Creates a reflection comparator for the given modes.
      * If no mode is given, a strict comparator will be created.
@@ -106,19 +132,44 @@ public class ReflectionComparatorFactory {
      * @return The reflection comparator, not null
      */
     public static ReflectionComparator createRefectionComparator(ReflectionComparatorMode... modes) {
-        List<Comparator> comparators = getComparatorChain(asSet(modes));
-        return new ReflectionComparator(comparators);
+        ComparatorDispatchTable dispatchTable = getComparatorDispatchTable(asSet(modes));
+        return new ReflectionComparator(dispatchTable, ReflectionComparator.DEFAULT_MAX_CACHED_RESULTS);
     }
 
     /**
-     * Creates a comparator chain for the given modes.
+     * Gets the comparator chain for the given modes. The chain is only assembled once for every set of modes.
      * If no mode is given, a strict comparator will be created.
      *
      * @param modes
-     *     The modes, null for strict comparison
-     * @return The comparator chain, not null
+     *     The modes, not null
+     * @return A copy of the comparator chain, not null
      */
     protected static List<Comparator> getComparatorChain(Set<ReflectionComparatorMode> modes) {
+        return new ArrayList<>(getComparatorDispatchTable(modes).getComparators());
+    }
+
+    /**
+     * Gets the dispatch table of the comparator chain for the given modes. The table is only created once for every
+     * set of modes.
+     *
+     * @param modes
+     *     The modes, not null
+     * @return The dispatch table, not null
+     */
+    protected static ComparatorDispatchTable getComparatorDispatchTable(Set<ReflectionComparatorMode> modes) {
+        Set<ReflectionComparatorMode> key = modes.isEmpty() ? EnumSet.noneOf(ReflectionComparatorMode.class) : EnumSet.copyOf(modes);
+        return COMPARATOR_DISPATCH_TABLES.computeIfAbsent(key, k -> new ComparatorDispatchTable(createComparatorChain(k)));
+    }
+
+    /**
+     * Creates a comparator chain for the given modes.
+     * If no mode is given, a strict comparator will be created.
+     *
+     * @param modes
+     *     The modes, not null
+     * @return The unmodifiable comparator chain, not null
+     */
+    protected static List<Comparator> createComparatorChain(Set<ReflectionComparatorMode> modes) {
         List<Comparator> comparatorChain = new ArrayList<>();
         if (modes.contains(LENIENT_DATES)) {
             comparatorChain.add(LENIENT_DATES_COMPARATOR);
@@ -130,12 +181,14 @@ public class ReflectionComparatorFactory {
         comparatorChain.add(SIMPLE_CASES_COMPARATOR);
         if (modes.contains(LENIENT_ORDER)) {
             comparatorChain.add(LENIENT_ORDER_COMPARATOR);
+        } else if (modes.contains(PARALLEL)) {
+            comparatorChain.add(PARALLEL_COLLECTION_COMPARATOR);
         } else {
             comparatorChain.add(COLLECTION_COMPARATOR);
         }
-        comparatorChain.add(MAP_COMPARATOR);
+        comparatorChain.add(modes.contains(PARALLEL) ? PARALLEL_MAP_COMPARATOR : MAP_COMPARATOR);
         comparatorChain.add(HIBERNATE_PROXY_COMPARATOR);
         comparatorChain.add(OBJECT_COMPARATOR);
-        return comparatorChain;
+        return Collections.unmodifiableList(comparatorChain);
     }
 }
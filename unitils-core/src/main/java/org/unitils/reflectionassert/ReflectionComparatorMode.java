@@ -42,6 +42,13 @@ public enum ReflectionComparatorMode {
      * Do not compare the order of collections and arrays. Only check that all values of the left-hand (expected) side
      * collection or array are also contained in the right-hand (actual) side and vice versa.
      */
-    LENIENT_ORDER
+    LENIENT_ORDER,
+
+    /**
+     * Compare the elements of large ordered collections, arrays and maps in parallel, using the common fork-join pool.
+     * This only pays off for large object graphs. The comparison stops as soon as a difference is found when only the
+     * first difference is needed.
+     */
+    PARALLEL
 
 }
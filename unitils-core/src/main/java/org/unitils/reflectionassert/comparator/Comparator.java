@@ -40,6 +40,25 @@ public interface Comparator {
      */
     boolean canCompare(Object left, Object right);
 
+    /**
+     * Checks whether this comparator can compare all non-null objects of the given types, without looking at the
+     * actual values.
+     * <p/>
+     * The reflection comparator uses this to remember which comparator of the chain applies to a combination of
+     * types. If null is returned, the outcome depends on the values and canCompare is called for every comparison.
+     * The default implementation always returns null.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return True or false if canCompare returns that for all non-null objects of these types, null if it depends on
+     * the values
+     */
+    default Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        return null;
+    }
+
     /**
      * Compares the given objects and returns the difference (if any).
      * <p/>
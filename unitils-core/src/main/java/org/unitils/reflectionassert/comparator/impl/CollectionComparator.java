@@ -12,22 +12,32 @@
  */
 package org.unitils.reflectionassert.comparator.impl;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.unitils.reflectionassert.ReflectionComparator;
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.CollectionDifference;
 import org.unitils.reflectionassert.difference.Difference;
 
-import static org.unitils.util.CollectionUtils.convertToCollection;
+import static org.unitils.reflectionassert.util.SequenceUtils.asList;
+import static org.unitils.reflectionassert.util.SequenceUtils.getIterator;
+import static org.unitils.reflectionassert.util.SequenceUtils.isPrimitiveArrayOfSameType;
+import static org.unitils.reflectionassert.util.SequenceUtils.isRandomAccess;
+import static org.unitils.reflectionassert.util.SequenceUtils.isSamePrimitive;
+import static org.unitils.reflectionassert.util.SequenceUtils.isSequence;
+import static org.unitils.reflectionassert.util.SequenceUtils.isSequenceType;
 
 /**
- * Comparator for collections and arrays.
- * All elements are compared in the same order, i.e. element 1 of the left collection with element 1 of the
- * right collection and so on.
+ * Comparator for collections and arrays. The elements with the same index are compared.
+ * <p/>
+ * Arrays and random access lists are compared by index, without copying them. The elements of arrays of the same
+ * primitive type are only boxed when they are different. Other collections are iterated element by element: only the
+ * elements that are needed in the difference are kept.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -45,13 +55,21 @@ public class CollectionComparator
      */
     @Override
     public boolean canCompare(Object left, Object right) {
-        if (left == null || right == null) {
-            return false;
-        }
-        if ((left.getClass().isArray() || left instanceof Collection) && (right.getClass().isArray() || right instanceof Collection)) {
-            return true;
-        }
-        return false;
+        return isSequence(left) && isSequence(right);
+    }
+
+    /**
+     * Collections and arrays can be recognized by their type.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return True for collection and array types
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        return isSequenceType(leftType) && isSequenceType(rightType);
     }
 
     /**
@@ -69,42 +87,197 @@ public class CollectionComparator
      */
     @Override
     public Difference compare(Object left, Object right, boolean onlyFirstDifference, ReflectionComparator reflectionComparator) {
-        // Convert to list and compare as collection
-        List<Object> leftList = new ArrayList<>(convertToCollection(left));
-        List<Object> rightList = new ArrayList<>(convertToCollection(right));
+        if (!isRandomAccess(left) || !isRandomAccess(right)) {
+            return compareSequentially(left, right, onlyFirstDifference, reflectionComparator);
+        }
+        List<Object> leftList = asList(left);
+        List<Object> rightList = asList(right);
+        CollectionDifference difference = new CollectionDifference("Different elements", left, right, leftList, rightList);
+
+        int nrOfElements = Math.min(leftList.size(), rightList.size());
+        if (isPrimitiveArrayOfSameType(left, right)) {
+            comparePrimitiveElements(left, right, nrOfElements, onlyFirstDifference, reflectionComparator, difference);
+        } else {
+            compareElements(leftList, rightList, nrOfElements, onlyFirstDifference, reflectionComparator, difference);
+        }
+        if (onlyFirstDifference && !difference.getElementDifferences().isEmpty()) {
+            return difference;
+        }
+
+        // check for missing elements
+        for (int leftElementIndex = nrOfElements; leftElementIndex < leftList.size(); leftElementIndex++) {
+            difference.addLeftMissingIndex(leftElementIndex);
+        }
+        for (int rightElementIndex = nrOfElements; rightElementIndex < rightList.size(); rightElementIndex++) {
+            difference.addRightMissingIndex(rightElementIndex);
+        }
+        return getResult(difference);
+    }
+
+    /**
+     * Compares the elements with the same index. The differences are added to the given difference.
+     *
+     * @param leftList
+     *     The left elements, not null
+     * @param rightList
+     *     The right elements, not null
+     * @param nrOfElements
+     *     The nr of elements to compare, the size of the smallest list
+     * @param onlyFirstDifference
+     *     True if only the first difference should be added
+     * @param reflectionComparator
+     *     The root comparator for inner comparisons, not null
+     * @param difference
+     *     The difference to which the element differences will be added, not null
+     */
+    protected void compareElements(List<Object> leftList, List<Object> rightList, int nrOfElements, boolean onlyFirstDifference,
+        ReflectionComparator reflectionComparator, CollectionDifference difference) {
+        for (int elementIndex = 0; elementIndex < nrOfElements; elementIndex++) {
+            Difference elementDifference = reflectionComparator.getDifference(leftList.get(elementIndex), rightList.get(elementIndex), onlyFirstDifference);
+            if (elementDifference != null) {
+                difference.addElementDifference(elementIndex, elementDifference);
+                if (onlyFirstDifference) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the elements with the same index of two arrays of the same primitive type. Elements that are the same
+     * are skipped without boxing them, the other elements are boxed and compared by the reflection comparator.
+     *
+     * @param leftArray
+     *     The left array, not null
+     * @param rightArray
+     *     The right array, not null
+     * @param nrOfElements
+     *     The nr of elements to compare, the length of the smallest array
+     * @param onlyFirstDifference
+     *     True if only the first difference should be added
+     * @param reflectionComparator
+     *     The root comparator for inner comparisons, not null
+     * @param difference
+     *     The difference to which the element differences will be added, not null
+     */
+    protected void comparePrimitiveElements(Object leftArray, Object rightArray, int nrOfElements, boolean onlyFirstDifference,
+        ReflectionComparator reflectionComparator, CollectionDifference difference) {
+        for (int elementIndex = 0; elementIndex < nrOfElements; elementIndex++) {
+            if (isSamePrimitive(leftArray, rightArray, elementIndex)) {
+                continue;
+            }
+            Difference elementDifference = reflectionComparator.getDifference(Array.get(leftArray, elementIndex), Array.get(rightArray, elementIndex),
+                onlyFirstDifference);
+            if (elementDifference != null) {
+                difference.addElementDifference(elementIndex, elementDifference);
+                if (onlyFirstDifference) {
+                    return;
+                }
+            }
+        }
+    }
 
-        int elementIndex = -1;
+    /**
+     * Compares the given collections by iterating over both of them at the same time. The elements are not copied: the
+     * lists in the resulting difference only contain the elements that are different or missing, the other elements
+     * of these lists are null.
+     *
+     * @param left
+     *     The left collection/array, not null
+     * @param right
+     *     The right collection/array, not null
+     * @param onlyFirstDifference
+     *     True if only the first difference should be returned
+     * @param reflectionComparator
+     *     The root comparator for inner comparisons, not null
+     * @return A CollectionDifference or null if both collections are equal
+     */
+    protected Difference compareSequentially(Object left, Object right, boolean onlyFirstDifference, ReflectionComparator reflectionComparator) {
+        Iterator<?> leftIterator = getIterator(left);
+        Iterator<?> rightIterator = getIterator(right);
+        RecordedElementList leftList = new RecordedElementList();
+        RecordedElementList rightList = new RecordedElementList();
         CollectionDifference difference = new CollectionDifference("Different elements", left, right, leftList, rightList);
 
-        Iterator<?> leftIterator = leftList.iterator();
-        Iterator<?> rightIterator = rightList.iterator();
+        int elementIndex = 0;
         while (leftIterator.hasNext() && rightIterator.hasNext()) {
-            elementIndex++;
-
-            Difference elementDifference = reflectionComparator.getDifference(leftIterator.next(), rightIterator.next(), onlyFirstDifference);
+            Object leftElement = leftIterator.next();
+            Object rightElement = rightIterator.next();
+            Difference elementDifference = reflectionComparator.getDifference(leftElement, rightElement, onlyFirstDifference);
             if (elementDifference != null) {
+                leftList.record(elementIndex, leftElement);
+                rightList.record(elementIndex, rightElement);
                 difference.addElementDifference(elementIndex, elementDifference);
                 if (onlyFirstDifference) {
                     return difference;
                 }
             }
+            elementIndex++;
         }
+        leftList.size = elementIndex;
+        rightList.size = elementIndex;
 
         // check for missing elements
-        int leftElementIndex = elementIndex;
         while (leftIterator.hasNext()) {
-            leftIterator.next();
-            difference.addLeftMissingIndex(++leftElementIndex);
+            leftList.record(leftList.size, leftIterator.next());
+            difference.addLeftMissingIndex(leftList.size - 1);
         }
-        int rightElementIndex = elementIndex;
         while (rightIterator.hasNext()) {
-            rightIterator.next();
-            difference.addRightMissingIndex(++rightElementIndex);
+            rightList.record(rightList.size, rightIterator.next());
+            difference.addRightMissingIndex(rightList.size - 1);
         }
+        return getResult(difference);
+    }
 
+    /**
+     * @param difference
+     *     The difference, not null
+     * @return The difference, null if it does not contain any element differences or missing elements
+     */
+    protected Difference getResult(CollectionDifference difference) {
         if (difference.getElementDifferences().isEmpty() && difference.getLeftMissingIndexes().isEmpty() && difference.getRightMissingIndexes().isEmpty()) {
             return null;
         }
         return difference;
     }
+
+    /**
+     * A list that only contains the elements that were recorded while iterating a sequence. The other elements are
+     * null.
+     */
+    protected static class RecordedElementList
+        extends AbstractList<Object> {
+
+        /* The recorded elements per index */
+        private final Map<Integer, Object> elements = new HashMap<>();
+
+        /* The nr of iterated elements */
+        private int size;
+
+        /**
+         * Records the element at the given index.
+         *
+         * @param index
+         *     The index
+         * @param element
+         *     The element, can be null
+         */
+        public void record(int index, Object element) {
+            elements.put(index, element);
+            size = Math.max(size, index + 1);
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
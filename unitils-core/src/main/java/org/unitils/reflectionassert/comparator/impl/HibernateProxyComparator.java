@@ -21,6 +21,7 @@ import static org.unitils.reflectionassert.util.HibernateUtil.getEntitiyName;
 import static org.unitils.reflectionassert.util.HibernateUtil.getIdentifier;
 import static org.unitils.reflectionassert.util.HibernateUtil.getUnproxiedValue;
 import static org.unitils.reflectionassert.util.HibernateUtil.isHibernateProxy;
+import static org.unitils.reflectionassert.util.HibernateUtil.isHibernateProxyType;
 import static org.unitils.reflectionassert.util.HibernateUtil.isUninitialized;
 
 /**
@@ -48,6 +49,20 @@ public class HibernateProxyComparator
         return isHibernateProxy(left) || isHibernateProxy(right);
     }
 
+    /**
+     * Proxies can be recognized by their type.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return True if one of the types is a proxy type
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        return isHibernateProxyType(leftType) || isHibernateProxyType(rightType);
+    }
+
     /**
      * Compares the given objects. If one of the objects is a proxy, the proxy is initialized and the wrapped values
      * are compared. If both objects are proxies and both objects are not yet loaded (initialized) only the idendtifiers
@@ -56,6 +56,24 @@ public class IgnoreDefaultsComparator
         return false;
     }
 
+    /**
+     * A left object that is not null can only be a default value if it is a boolean, a character or a number. For
+     * these types it depends on the actual value.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return Null for boolean, character and number types, false otherwise
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        if (Boolean.class.equals(leftType) || Character.class.equals(leftType) || Number.class.isAssignableFrom(leftType)) {
+            return null;
+        }
+        return false;
+    }
+
     /**
      * Always returns null: both objects are equal.
      *
@@ -51,6 +51,20 @@ public class LenientDatesComparator
         return false;
     }
 
+    /**
+     * Objects that are not null can only be compared if they are both dates.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return True for date types
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        return Date.class.isAssignableFrom(leftType) && Date.class.isAssignableFrom(rightType);
+    }
+
     /**
      * Compares the given dates.
      *
@@ -48,6 +48,24 @@ public class LenientNumberComparator
         return false;
     }
 
+    /**
+     * Numbers and characters can be recognized by their type.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return True for number and character types
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        return isNumberType(leftType) && isNumberType(rightType);
+    }
+
+    private boolean isNumberType(Class<?> type) {
+        return Character.class.equals(type) || Number.class.isAssignableFrom(type);
+    }
+
     /**
      * Compares the two values by converting them to a double and comparing these double values.
      *
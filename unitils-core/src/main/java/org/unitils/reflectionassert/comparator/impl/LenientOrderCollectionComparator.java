@@ -13,8 +13,8 @@
 package org.unitils.reflectionassert.comparator.impl;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.unitils.reflectionassert.ReflectionComparator;
@@ -22,8 +22,11 @@ import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.difference.UnorderedCollectionDifference;
 import org.unitils.reflectionassert.util.MatchingScoreCalculator;
+import org.unitils.reflectionassert.util.UnorderedCollectionMatcher;
 
-import static org.unitils.util.CollectionUtils.convertToCollection;
+import static org.unitils.reflectionassert.util.SequenceUtils.asList;
+import static org.unitils.reflectionassert.util.SequenceUtils.isSequence;
+import static org.unitils.reflectionassert.util.SequenceUtils.isSequenceType;
 
 /**
  * A comparator for collections and arrays that ignores the order of both collections.
@@ -35,6 +38,10 @@ import static org.unitils.util.CollectionUtils.convertToCollection;
  */
 public class LenientOrderCollectionComparator
     implements Comparator {
+
+    /* The maximum nr of right elements for which the full difference with an unpaired left element is computed */
+    protected static final int MAX_BEST_MATCH_CANDIDATES = 3;
+
     /**
      * Returns true if both objects are not null and are both Arrays or Collections.
      *
@@ -46,19 +53,28 @@ public class LenientOrderCollectionComparator
      */
     @Override
     public boolean canCompare(Object left, Object right) {
-        if (left == null || right == null) {
-            return false;
-        }
-        if ((left.getClass().isArray() || left instanceof Collection) && (right.getClass().isArray() || right instanceof Collection)) {
-            return true;
-        }
-        return false;
+        return isSequence(left) && isSequence(right);
+    }
+
+    /**
+     * Collections and arrays can be recognized by their type.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return True for collection and array types
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        return isSequenceType(leftType) && isSequenceType(rightType);
     }
 
     /**
      * Compares the given collections/arrays but ignoring the actual order of the elements.
-     * This will first try to find a sequence that is an exact match. If no such sequence can be found,
-     * the difference of all elements with all other elements are calculated one by one.
+     * This will first try to find a sequence that is an exact match. If no such sequence can be found, as many equal
+     * elements as possible are paired and the remaining elements are matched with the element that resembles them
+     * the most.
      *
      * @param left
      *     The left array/collection, not null
@@ -72,84 +88,102 @@ public class LenientOrderCollectionComparator
      */
     @Override
     public Difference compare(Object left, Object right, boolean onlyFirstDifference, ReflectionComparator reflectionComparator) {
-        // Convert to list and compare as collection
-        ArrayList<Object> leftList = new ArrayList<>(convertToCollection(left));
-        ArrayList<Object> rightList = new ArrayList<>(convertToCollection(right));
+        // Convert to list and compare as collection, arrays and lists are not copied
+        List<Object> leftList = asList(left);
+        List<Object> rightList = asList(right);
 
         // check whether a combination exists
-        boolean isEqual = isEqual(leftList, rightList, 0, reflectionComparator);
-        if (isEqual) {
+        UnorderedCollectionMatcher unorderedCollectionMatcher = createUnorderedCollectionMatcher(leftList, rightList, reflectionComparator);
+        if (unorderedCollectionMatcher.isCompleteMatch()) {
             // found a match
             return null;
         }
 
-        // no match found, determine all differences
+        // no match found, determine the best matching differences
         UnorderedCollectionDifference difference = new UnorderedCollectionDifference("Collections/arrays are different", left, right, leftList, rightList);
         if (onlyFirstDifference) {
             return difference;
         }
-        fillAllDifferences(leftList, rightList, reflectionComparator, difference);
-        fillBestMatchingIndexes(leftList, rightList, difference);
+        unorderedCollectionMatcher.matchMaximal();
+        fillBestMatchingDifferences(leftList, rightList, unorderedCollectionMatcher, reflectionComparator, difference);
         return difference;
     }
 
     /**
-     * Recursively checks whether there is a sequence so that both collections have matching elements.
-     * This will loop over the elements of the left list and then try to find a match for these elements in the right
-     * list. If a match is found, the element is removed from the right collection and the comparison is recursively
-     * performed again on the remaining elements.
+     * Determines the best matching right element for every left element that could not be paired with an equal right
+     * element. The differences of these best matches are added to the given difference.
      * <p/>
-     * NOTE: because difference are cached in the reflection comparator, comparing two elements that were already
-     * compared should be very fast.
+     * Only the full differences of a few candidates, proposed by the matcher, are computed for each left element,
+     * instead of the differences of all left elements with all right elements. The candidate with the lowest matching
+     * score is the best match, the first candidate in case of a tie.
      *
      * @param leftList
      *     The left list, not null
      * @param rightList
      *     The right list, not null
+     * @param unorderedCollectionMatcher
+     *     The matcher that paired the equal elements, not null
+     * @param reflectionComparator
+     *     The comparator for element comparisons, not null
+     * @param difference
+     *     The root difference to which the best matching differences will be added, not null
+     */
+    protected void fillBestMatchingDifferences(List<Object> leftList, List<Object> rightList, UnorderedCollectionMatcher unorderedCollectionMatcher,
+        ReflectionComparator reflectionComparator, UnorderedCollectionDifference difference) {
+        MatchingScoreCalculator matchingScoreCalculator = createMatchingScoreCalculator();
+        int totalScore = 0;
+        for (int leftIndex = 0; leftIndex < leftList.size(); leftIndex++) {
+            if (unorderedCollectionMatcher.getMatchedRightIndex(leftIndex) != -1) {
+                continue;
+            }
+            int bestScore = Integer.MAX_VALUE;
+            int bestRightIndex = -1;
+            Difference bestDifference = null;
+            for (int rightIndex : unorderedCollectionMatcher.getBestMatchCandidates(leftIndex, MAX_BEST_MATCH_CANDIDATES)) {
+                Difference elementDifference = reflectionComparator.getDifference(leftList.get(leftIndex), rightList.get(rightIndex), false);
+                int matchingScore = matchingScoreCalculator.calculateMatchingScore(elementDifference);
+                if (matchingScore < bestScore) {
+                    bestScore = matchingScore;
+                    bestRightIndex = rightIndex;
+                    bestDifference = elementDifference;
+                }
+            }
+            if (bestRightIndex == -1) {
+                // all right elements are paired, the left element is missing on the right side
+                totalScore += 1;
+                continue;
+            }
+            difference.addElementDifference(leftIndex, bestRightIndex, bestDifference);
+            difference.setBestMatchingIndexes(leftIndex, bestRightIndex);
+            totalScore += bestScore;
+        }
+        difference.setBestMatchingScore(totalScore);
+    }
+
+    /**
+     * Checks whether there is a sequence so that both collections have matching elements, i.e. whether every left
+     * element starting from the given index can be paired with a different, equal element of the right list.
+     *
+     * @param leftList
+     *     The left list, not null
+     * @param rightList
+     *     The remaining elements of the right list, not null
      * @param leftIndex
      *     The current index in the left collection
      * @param reflectionComparator
      *     reflectionComparator The comparator for the element comparisons, not null
      * @return True if a match is found
+     * @deprecated No longer called, {@link #compare} uses the {@link UnorderedCollectionMatcher} directly
      */
-    @SuppressWarnings({
-        "unchecked"
-    })
+    @Deprecated
     protected boolean isEqual(ArrayList<Object> leftList, ArrayList<Object> rightList, int leftIndex, ReflectionComparator reflectionComparator) {
-        if (leftIndex >= leftList.size()) {
-            // end of the recursion
-            // if there are no more elements left in the right and left collections, a match is found
-            return (rightList.isEmpty());
-        }
-
-        Object leftValue = leftList.get(leftIndex);
-        for (int rightIndex = 0; rightIndex < rightList.size(); rightIndex++) {
-            Object rightValue = rightList.get(rightIndex);
-
-            Difference elementDifference = reflectionComparator.getDifference(leftValue, rightValue, true);
-            if (elementDifference != null) {
-                // elements are not matching
-                continue;
-            }
-
-            // match found, try to find a match for the remaining elements
-            ArrayList<Object> rightListClone = (ArrayList<Object>) rightList.clone();
-            rightListClone.remove(rightIndex);
-
-            boolean isEqual = isEqual(leftList, rightListClone, leftIndex + 1, reflectionComparator);
-            if (isEqual) {
-                return true;
-            }
-        }
-        return false;
+        List<Object> remainingLeftList = leftList.subList(Math.min(leftIndex, leftList.size()), leftList.size());
+        return createUnorderedCollectionMatcher(remainingLeftList, rightList, reflectionComparator).isCompleteMatch();
     }
 
     /**
      * Calculates the difference of all elements in the left list with all elements of the right list. The result is
      * added to the given difference.
-     * <p/>
-     * NOTE: because difference are cached in the reflection comparator, comparing two elements that were already
-     * compared should be very fast.
      *
      * @param leftList
      *     The left list, not null
@@ -159,10 +193,12 @@ public class LenientOrderCollectionComparator
      *     The comparator for element comparisons, not null
      * @param difference
      *     The root difference to which all differences will be added, not null
+     * @deprecated No longer called, {@link #fillBestMatchingDifferences} only computes the differences of the best
+     *     match candidates
      */
+    @Deprecated
     protected void fillAllDifferences(ArrayList<Object> leftList, ArrayList<Object> rightList, ReflectionComparator reflectionComparator,
         UnorderedCollectionDifference difference) {
-        // loops over all left and right elements to calculate the differences
         for (int leftIndex = 0; leftIndex < leftList.size(); leftIndex++) {
             Object leftValue = leftList.get(leftIndex);
             for (int rightIndex = 0; rightIndex < rightList.size(); rightIndex++) {
@@ -186,7 +222,9 @@ public class LenientOrderCollectionComparator
      *     The right list, not null
      * @param difference
      *     The difference to which all indexes will be added, not null
+     * @deprecated No longer called, use {@link #fillBestMatchingDifferences} instead
      */
+    @Deprecated
     protected void fillBestMatchingIndexes(ArrayList<Object> leftList, ArrayList<Object> rightList, UnorderedCollectionDifference difference) {
         ArrayList<Integer> leftIndexes = createIndexList(leftList.size());
         ArrayList<Integer> rightIndexes = createIndexList(rightList.size());
@@ -195,9 +233,8 @@ public class LenientOrderCollectionComparator
     }
 
     /**
-     * Actual implementation of the best match finding algorithm. This will loop over the different elements in the
-     * collections to the match with the lowest total matching score. These indexes are then set on the given
-     * difference. The matching scores are determined by the given matchingScoreCalculator.
+     * Sets the indexes of the right elements with the lowest matching score for the given left elements on the given
+     * difference.
      *
      * @param leftIndexes
      *     The current remaining indexes in the left collection, not null
@@ -205,7 +242,9 @@ public class LenientOrderCollectionComparator
      *     The current remaining indexes in the right collection, not null
      * @param difference
      *     The difference to which all indexes will be added, not null
+     * @deprecated No longer called, use {@link #fillBestMatchingDifferences} instead
      */
+    @Deprecated
     protected void setBestMatchingIndexes(ArrayList<Integer> leftIndexes, ArrayList<Integer> rightIndexes, UnorderedCollectionDifference difference) {
         MatchingScoreCalculator matchingScoreCalculator = createMatchingScoreCalculator();
         Map<Integer, Map<Integer, Difference>> differences = difference.getElementDifferences();
@@ -233,7 +272,9 @@ public class LenientOrderCollectionComparator
      *     The indexes, not null
      * @param difference
      *     The collection difference, not null
+     * @deprecated No longer called, the equal elements are paired by the {@link UnorderedCollectionMatcher}
      */
+    @Deprecated
     protected void removeMatchingIndexes(ArrayList<Integer> leftIndexes, ArrayList<Integer> rightIndexes, UnorderedCollectionDifference difference) {
         Map<Integer, Map<Integer, Difference>> differences = difference.getElementDifferences();
         Iterator<Integer> rightIterator = rightIndexes.iterator();
@@ -246,6 +287,7 @@ public class LenientOrderCollectionComparator
                 if (elementDifference == null) {
                     rightIterator.remove();
                     leftIterator.remove();
+                    break;
                 }
             }
         }
@@ -255,7 +297,9 @@ public class LenientOrderCollectionComparator
      * @param size
      *     The nr of elements
      * @return A list containing 0, 1, 2, ..., not null
+     * @deprecated No longer called
      */
+    @Deprecated
     protected ArrayList<Integer> createIndexList(int size) {
         ArrayList<Integer> leftIndexes = new ArrayList<>(size);
         for (int i = 0; i < size; i++) {
@@ -264,6 +308,22 @@ public class LenientOrderCollectionComparator
         return leftIndexes;
     }
 
+    /**
+     * Creates the matcher for pairing the equal elements of both collections.
+     *
+     * @param leftList
+     *     The left list, not null
+     * @param rightList
+     *     The right list, not null
+     * @param reflectionComparator
+     *     The comparator for the element comparisons, not null
+     * @return The instance, not null
+     */
+    protected UnorderedCollectionMatcher createUnorderedCollectionMatcher(List<Object> leftList, List<Object> rightList,
+        ReflectionComparator reflectionComparator) {
+        return new UnorderedCollectionMatcher(leftList, rightList, reflectionComparator);
+    }
+
     /**
      * Creates the calculator for determining the matching scores of the differences.
      * These scores are used to determine the best matching elements.
@@ -51,6 +51,20 @@ public class MapComparator
         return false;
     }
 
+    /**
+     * Maps can be recognized by their type.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return True for map types
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        return Map.class.isAssignableFrom(leftType) && Map.class.isAssignableFrom(rightType);
+    }
+
     /**
      * Compares the given maps by looping over the keys and comparing their values.
      * The key values are compared using a strict reflection comparison.
@@ -12,17 +12,15 @@
  */
 package org.unitils.reflectionassert.comparator.impl;
 
-import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.Field;
-
 import org.unitils.reflectionassert.ReflectionComparator;
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.ClassDifference;
 import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.difference.ObjectDifference;
+import org.unitils.reflectionassert.util.ClassComparisonPlan;
+import org.unitils.reflectionassert.util.ClassComparisonPlan.FieldAccessor;
 
-import static java.lang.reflect.Modifier.isStatic;
-import static java.lang.reflect.Modifier.isTransient;
+import static org.unitils.reflectionassert.util.ClassComparisonPlan.getClassComparisonPlan;
 
 /**
  * Comparator for objects. This will compare all corresponding field values.
@@ -49,6 +47,20 @@ public class ObjectComparator
         return true;
     }
 
+    /**
+     * All objects that are not null can be compared.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return Always true
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        return true;
+    }
+
     /**
      * Compares the given objects by iterating over the fields and comparing the corresponding values.
      * If both objects are of a different type, a difference is returned.
@@ -83,7 +95,9 @@ public class ObjectComparator
     }
 
     /**
-     * Compares the values of all fields in the given objects by use of reflection.
+     * Compares the values of all fields in the given objects, using the compiled field accessors of the
+     * {@link ClassComparisonPlan} of the given class. Field values that are certainly the same, i.e. equal primitive
+     * values or references to the same instance, are skipped without calling the reflection comparator.
      *
      * @param left
      *     the left object for the comparison, not null
@@ -100,35 +114,18 @@ public class ObjectComparator
      */
     protected void compareFields(Object left, Object right, Class<?> clazz, ObjectDifference difference, boolean onlyFirstDifference,
         ReflectionComparator reflectionComparator) {
-        Field[] fields = clazz.getDeclaredFields();
-        AccessibleObject.setAccessible(fields, true);
-
-        for (Field field : fields) {
-            // skip transient and static fields
-            if (isTransient(field.getModifiers()) || isStatic(field.getModifiers()) || field.isSynthetic()) {
+        for (FieldAccessor fieldAccessor : getClassComparisonPlan(clazz).getFieldAccessors()) {
+            if (fieldAccessor.isSameValue(left, right)) {
                 continue;
             }
-            try {
-                // recursively check the value of the fields
-                Difference innerDifference = reflectionComparator.getDifference(field.get(left), field.get(right), onlyFirstDifference);
-                if (innerDifference != null) {
-                    difference.addFieldDifference(field.getName(), innerDifference);
-                    if (onlyFirstDifference) {
-                        return;
-                    }
+            // recursively check the value of the fields
+            Difference innerDifference = reflectionComparator.getDifference(fieldAccessor.getValue(left), fieldAccessor.getValue(right), onlyFirstDifference);
+            if (innerDifference != null) {
+                difference.addFieldDifference(fieldAccessor.getName(), innerDifference);
+                if (onlyFirstDifference) {
+                    return;
                 }
-            } catch (IllegalAccessException e) {
-                // this can't happen. Would get a Security exception instead
-                // throw a runtime exception in case the impossible happens.
-                throw new InternalError("Unexpected IllegalAccessException", e);
             }
         }
-
-        // compare fields declared in superclass
-        Class<?> superclazz = clazz.getSuperclass();
-        while (superclazz != null && !superclazz.getName().startsWith("java.lang")) {
-            compareFields(left, right, superclazz, difference, onlyFirstDifference, reflectionComparator);
-            superclazz = superclazz.getSuperclass();
-        }
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import java.util.List;
+
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.util.ParallelElementComparison;
+
+/**
+ * A comparator for collections and arrays that compares the elements of large collections in parallel.
+ * This implements the PARALLEL comparison mode for ordered collections.
+ * <p/>
+ * When only the first difference is needed, the returned difference is not necessarily the difference with the
+ * lowest index.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ParallelCollectionComparator
+    extends CollectionComparator {
+
+    /**
+     * The default minimum nr of elements for comparing in parallel, also used as chunk size.
+     */
+    public static final int DEFAULT_MIN_PARALLEL_SIZE = 1000;
+
+    /* The minimum nr of elements for comparing in parallel, smaller collections are compared by the calling thread */
+    protected int minParallelSize;
+
+    /**
+     * Creates a comparator that compares collections of at least {@link #DEFAULT_MIN_PARALLEL_SIZE} elements in parallel.
+     */
+    public ParallelCollectionComparator() {
+        this(DEFAULT_MIN_PARALLEL_SIZE);
+    }
+
+    /**
+     * Creates a comparator that compares collections of at least the given size in parallel.
+     *
+     * @param minParallelSize
+     *     The minimum nr of elements, also used as chunk size, > 0
+     */
+    public ParallelCollectionComparator(int minParallelSize) {
+        this.minParallelSize = minParallelSize;
+    }
+
+    /**
+     * Compares the elements with the same index, in parallel for large collections.
+     *
+     * @param leftList
+     *     The left elements, not null
+     * @param rightList
+     *     The right elements, not null
+     * @param nrOfElements
+     *     The nr of elements to compare, the size of the smallest list
+     * @param onlyFirstDifference
+     *     True if only the first difference should be added
+     * @param reflectionComparator
+     *     The root comparator for inner comparisons, not null
+     * @param difference
+     *     The difference to which the element differences will be added, not null
+     */
+    @Override
+    protected void compareElements(List<Object> leftList, List<Object> rightList, int nrOfElements, boolean onlyFirstDifference,
+        ReflectionComparator reflectionComparator, CollectionDifference difference) {
+        if (nrOfElements < minParallelSize) {
+            super.compareElements(leftList, rightList, nrOfElements, onlyFirstDifference, reflectionComparator, difference);
+            return;
+        }
+        Difference[] elementDifferences = ParallelElementComparison.compareElements(leftList, rightList, nrOfElements, onlyFirstDifference, reflectionComparator, minParallelSize);
+        for (int elementIndex = 0; elementIndex < nrOfElements; elementIndex++) {
+            if (elementDifferences[elementIndex] != null) {
+                difference.addElementDifference(elementIndex, elementDifferences[elementIndex]);
+                if (onlyFirstDifference) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.MapDifference;
+import org.unitils.reflectionassert.util.ParallelElementComparison;
+
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+
+/**
+ * Comparator for maps that compares the values of large maps in parallel.
+ * This implements the PARALLEL comparison mode for maps.
+ * <p/>
+ * The keys are paired first by the calling thread. The right key with the same hash code and equals is tried first,
+ * the keys are still compared using a strict reflection comparison. The values of the paired keys are then compared
+ * in parallel.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ParallelMapComparator
+    extends MapComparator {
+
+    /* Returned when no equal right key is found, null is a valid key */
+    protected static final Object NOT_FOUND = new Object();
+
+    /* The minimum nr of entries for comparing in parallel, smaller maps are compared by the calling thread */
+    protected int minParallelSize;
+
+    /**
+     * Creates a comparator that compares maps of at least {@link ParallelCollectionComparator#DEFAULT_MIN_PARALLEL_SIZE}
+     * entries in parallel.
+     */
+    public ParallelMapComparator() {
+        this(ParallelCollectionComparator.DEFAULT_MIN_PARALLEL_SIZE);
+    }
+
+    /**
+     * Creates a comparator that compares maps of at least the given size in parallel.
+     *
+     * @param minParallelSize
+     *     The minimum nr of entries, also used as chunk size, > 0
+     */
+    public ParallelMapComparator(int minParallelSize) {
+        this.minParallelSize = minParallelSize;
+    }
+
+    /**
+     * Compares the given maps by pairing the keys and comparing their values in parallel.
+     *
+     * @param left
+     *     The left map, not null
+     * @param right
+     *     The right map, not null
+     * @param onlyFirstDifference
+     *     True if only the first difference should be returned
+     * @param reflectionComparator
+     *     The root comparator for inner comparisons, not null
+     * @return A MapDifference or null if both maps are equal
+     */
+    @Override
+    public Difference compare(Object left, Object right, boolean onlyFirstDifference, ReflectionComparator reflectionComparator) {
+        Map<?, ?> leftMap = (Map<?, ?>) left;
+        Map<?, ?> rightMap = (Map<?, ?>) right;
+        if (leftMap.size() < minParallelSize) {
+            return super.compare(left, right, onlyFirstDifference, reflectionComparator);
+        }
+
+        // Create copies from which we can remove elements.
+        Map<Object, Object> rightCopy = new HashMap<>(rightMap);
+        Map<Object, Object> rightKeys = new HashMap<>();
+        for (Object rightKey : rightCopy.keySet()) {
+            rightKeys.put(rightKey, rightKey);
+        }
+
+        ReflectionComparator keyReflectionComparator = createRefectionComparator();
+        MapDifference difference = new MapDifference("Different elements", left, right, leftMap, rightMap);
+
+        List<Object> keys = new ArrayList<>(leftMap.size());
+        List<Object> leftValues = new ArrayList<>(leftMap.size());
+        List<Object> rightValues = new ArrayList<>(leftMap.size());
+        for (Map.Entry<?, ?> leftEntry : leftMap.entrySet()) {
+            Object leftKey = leftEntry.getKey();
+            Object rightKey = findRightKey(leftKey, rightKeys, keyReflectionComparator);
+            if (rightKey == NOT_FOUND) {
+                difference.addLeftMissingKey(leftKey);
+                continue;
+            }
+            rightKeys.remove(rightKey);
+            keys.add(leftKey);
+            leftValues.add(leftEntry.getValue());
+            rightValues.add(rightCopy.remove(rightKey));
+        }
+        for (Object rightKey : rightCopy.keySet()) {
+            difference.addRightMissingKey(rightKey);
+        }
+
+        Difference[] valueDifferences = ParallelElementComparison.compareElements(leftValues, rightValues, keys.size(), onlyFirstDifference,
+            reflectionComparator, minParallelSize);
+        for (int index = 0; index < valueDifferences.length; index++) {
+            if (valueDifferences[index] != null) {
+                difference.addValueDifference(keys.get(index), valueDifferences[index]);
+                if (onlyFirstDifference) {
+                    return difference;
+                }
+            }
+        }
+
+        if (difference.getValueDifferences().isEmpty() && difference.getLeftMissingKeys().isEmpty() && difference.getRightMissingKeys().isEmpty()) {
+            return null;
+        }
+        return difference;
+    }
+
+    /**
+     * Finds the right key that is equal to the given left key using a strict reflection comparison.
+     *
+     * @param leftKey
+     *     The left key, can be null
+     * @param rightKeys
+     *     The remaining right keys, mapped to themselves, not null
+     * @param keyReflectionComparator
+     *     The strict comparator for the keys, not null
+     * @return The right key, {@link #NOT_FOUND} if not found
+     */
+    protected Object findRightKey(Object leftKey, Map<Object, Object> rightKeys, ReflectionComparator keyReflectionComparator) {
+        // try the key found by hash code and equals first
+        if (rightKeys.containsKey(leftKey)) {
+            Object rightKey = rightKeys.get(leftKey);
+            if (keyReflectionComparator.isEqual(leftKey, rightKey)) {
+                return rightKey;
+            }
+        }
+        for (Object rightKey : rightKeys.keySet()) {
+            if (keyReflectionComparator.isEqual(leftKey, rightKey)) {
+                return rightKey;
+            }
+        }
+        return NOT_FOUND;
+    }
+}
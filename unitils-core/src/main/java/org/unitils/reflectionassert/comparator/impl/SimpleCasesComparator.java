@@ -69,6 +69,37 @@ public class SimpleCasesComparator
         return false;
     }
 
+    /**
+     * Enums, numbers, characters, dates, calendars and java.lang types can be recognized by their type. For other
+     * types it depends on whether both objects are the same instance.
+     *
+     * @param leftType
+     *     The type of the left object, not null
+     * @param rightType
+     *     The type of the right object, not null
+     * @return True for simple types, null otherwise
+     */
+    @Override
+    public Boolean canCompareTypes(Class<?> leftType, Class<?> rightType) {
+        if ((Character.class.equals(leftType) || Number.class.isAssignableFrom(leftType))
+            && (Character.class.equals(rightType) || Number.class.isAssignableFrom(rightType))) {
+            return true;
+        }
+        if (leftType.getName().startsWith("java.lang") || rightType.getName().startsWith("java.lang")) {
+            return true;
+        }
+        if (Date.class.isAssignableFrom(leftType) || Date.class.isAssignableFrom(rightType)) {
+            return true;
+        }
+        if (Calendar.class.isAssignableFrom(leftType) || Calendar.class.isAssignableFrom(rightType)) {
+            return true;
+        }
+        if (Enum.class.isAssignableFrom(leftType) && Enum.class.isAssignableFrom(rightType)) {
+            return true;
+        }
+        return null;
+    }
+
     /**
      * Compares the given values.
      *
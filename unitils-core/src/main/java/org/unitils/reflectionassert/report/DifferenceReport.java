@@ -29,4 +29,18 @@ public interface DifferenceReport {
      * @return The report, not null
      */
     public String createReport(Difference difference);
+
+    /**
+     * Writes a report to the given output.
+     * <p/>
+     * The default implementation writes the result of {@link #createReport}.
+     *
+     * @param difference
+     *     The difference to output, null for a match
+     * @param out
+     *     The output, not null
+     */
+    default void writeReport(Difference difference, Appendable out) {
+        new ReportWriter(out).append(createReport(difference));
+    }
 }
@@ -29,4 +29,21 @@ public interface DifferenceView {
      * @return The string representation, not null
      */
     String createView(Difference difference);
+
+    /**
+     * Writes a representation of the given difference tree to the given writer. Output that does not fit in the
+     * writer is dropped.
+     * <p/>
+     * The default implementation writes the result of {@link #createView}.
+     *
+     * @param difference
+     *     The root difference, not null
+     * @param writer
+     *     The writer for the output, not null
+     */
+    default void writeView(Difference difference, ReportWriter writer) {
+        if (writer.startDifference()) {
+            writer.append(createView(difference));
+        }
+    }
 }
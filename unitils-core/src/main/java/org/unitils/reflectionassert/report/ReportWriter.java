@@ -0,0 +1,174 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.report;
+
+import java.io.IOException;
+
+import org.unitils.core.UnitilsException;
+
+/**
+ * Writes a report of differences to an appendable, limiting the size of the report.
+ * <p/>
+ * Once the maximum nr of characters or lines is reached, the writer is full and all further output is dropped. The
+ * views should call {@link #startDifference()} before writing a difference: when the writer is full, the difference
+ * is only counted, so that its values do not have to be formatted. A summary of what was left out can be added at the
+ * end using {@link #appendTruncationSummary()}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ReportWriter {
+
+    /**
+     * Value for the maximum length or nr of lines to indicate that there is no maximum.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /* The output of the report, not null */
+    private final Appendable out;
+
+    /* The maximum nr of characters in the report */
+    private final int maxLength;
+
+    /* The maximum nr of lines in the report */
+    private final int maxNrOfLines;
+
+    /* The nr of characters written so far */
+    private int length;
+
+    /* The nr of lines written so far */
+    private int nrOfLines;
+
+    /* The last character that was written, 0 if nothing was written yet */
+    private char lastChar;
+
+    /* True if the maximum length or nr of lines was reached */
+    private boolean full;
+
+    /* The nr of differences that were not written because the writer was full */
+    private int nrOfOmittedDifferences;
+
+    /**
+     * Creates a writer without a maximum size.
+     *
+     * @param out
+     *     The output, not null
+     */
+    public ReportWriter(Appendable out) {
+        this(out, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * Creates a writer with the given maximum size.
+     *
+     * @param out
+     *     The output, not null
+     * @param maxLength
+     *     The maximum nr of characters to write, UNLIMITED for no maximum
+     * @param maxNrOfLines
+     *     The maximum nr of lines to write, UNLIMITED for no maximum
+     */
+    public ReportWriter(Appendable out, int maxLength, int maxNrOfLines) {
+        this.out = out;
+        this.maxLength = maxLength;
+        this.maxNrOfLines = maxNrOfLines;
+    }
+
+    /**
+     * @return True if the maximum size was reached and further output is dropped
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Registers the start of the output of a difference.
+     *
+     * @return True if the difference should be written, false if the writer is full and the difference was only counted
+     */
+    public boolean startDifference() {
+        if (length >= maxLength) {
+            full = true;
+        }
+        if (full) {
+            nrOfOmittedDifferences++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The nr of differences that were not written because the writer was full
+     */
+    public int getNrOfOmittedDifferences() {
+        return nrOfOmittedDifferences;
+    }
+
+    /**
+     * Writes the given text. Only the part that fits in the report is written.
+     *
+     * @param text
+     *     The text, not null
+     * @return This writer, not null
+     */
+    public ReportWriter append(CharSequence text) {
+        if (full || text.length() == 0) {
+            return this;
+        }
+        int end = Math.min(text.length(), maxLength - length);
+        for (int i = 0; i < end; i++) {
+            if (text.charAt(i) == '\n' && ++nrOfLines >= maxNrOfLines) {
+                end = i + 1;
+                full = true;
+                break;
+            }
+        }
+        if (end < text.length()) {
+            full = true;
+        }
+        if (end > 0) {
+            write(text, 0, end);
+            length += end;
+            lastChar = text.charAt(end - 1);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a summary of what was left out if the report was truncated, e.g. "... and 4812 more differences".
+     * The summary is always written, even if the writer is full.
+     */
+    public void appendTruncationSummary() {
+        if (!full) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder();
+        if (lastChar != '\n') {
+            summary.append("\n");
+        }
+        summary.append("...");
+        if (nrOfOmittedDifferences > 0) {
+            summary.append(" and ").append(nrOfOmittedDifferences).append(nrOfOmittedDifferences == 1 ? " more difference" : " more differences");
+        }
+        summary.append("\n");
+        write(summary, 0, summary.length());
+    }
+
+    private void write(CharSequence text, int start, int end) {
+        try {
+            out.append(text, start, end);
+        } catch (IOException e) {
+            throw new UnitilsException("Unable to write difference report.", e);
+        }
+    }
+}
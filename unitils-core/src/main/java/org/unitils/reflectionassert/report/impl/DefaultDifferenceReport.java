@@ -14,6 +14,7 @@ package org.unitils.reflectionassert.report.impl;
 
 import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.report.DifferenceReport;
+import org.unitils.reflectionassert.report.ReportWriter;
 
 /**
  * Creates a report of the given differences. This will first output the differences using the default difference
@@ -27,10 +28,52 @@ public class DefaultDifferenceReport
     implements DifferenceReport {
     public static final int MAX_LINE_SIZE = 110;
 
+    /**
+     * The maximum nr of characters of a formatted value in a report.
+     */
+    public static final int MAX_VALUE_LENGTH = 10000;
+
+    /**
+     * The default maximum nr of characters in a report.
+     */
+    public static final int DEFAULT_MAX_REPORT_LENGTH = 100000;
+
+    /**
+     * The default maximum nr of lines in a report.
+     */
+    public static final int DEFAULT_MAX_NR_OF_LINES = 2000;
+
     public static enum MatchType {
         NO_MATCH
     }
 
+    /* The maximum nr of characters in a report */
+    protected int maxReportLength;
+
+    /* The maximum nr of lines in a report */
+    protected int maxNrOfLines;
+
+    /**
+     * Creates a report with the default maximum size.
+     */
+    public DefaultDifferenceReport() {
+        this(DEFAULT_MAX_REPORT_LENGTH, DEFAULT_MAX_NR_OF_LINES);
+    }
+
+    /**
+     * Creates a report with the given maximum size. A report that is larger is truncated and ends with the nr of
+     * differences that were left out.
+     *
+     * @param maxReportLength
+     *     The maximum nr of characters in a report, ReportWriter.UNLIMITED for no maximum
+     * @param maxNrOfLines
+     *     The maximum nr of lines in a report, ReportWriter.UNLIMITED for no maximum
+     */
+    public DefaultDifferenceReport(int maxReportLength, int maxNrOfLines) {
+        this.maxReportLength = maxReportLength;
+        this.maxNrOfLines = maxNrOfLines;
+    }
+
     /**
      * Creates a report.
      *
@@ -41,13 +84,29 @@ public class DefaultDifferenceReport
     @Override
     public String createReport(Difference difference) {
         StringBuilder result = new StringBuilder();
-        result.append(new SimpleDifferenceView().createView(difference)).append("\n\n");
-        result.append("--- Found following differences ---\n");
-        result.append(new DefaultDifferenceView().createView(difference));
-        if (!Difference.class.equals(difference.getClass())) {
-            result.append("\n--- Difference detail tree ---\n");
-            result.append(new TreeDifferenceView().createView(difference));
-        }
+        writeReport(difference, result);
         return result.toString();
     }
+
+    /**
+     * Writes a report to the given output. The detail tree is left out if the differences already filled the report.
+     *
+     * @param difference
+     *     The difference to output, null for a match
+     * @param out
+     *     The output, not null
+     */
+    @Override
+    public void writeReport(Difference difference, Appendable out) {
+        ReportWriter writer = new ReportWriter(out, maxReportLength, maxNrOfLines);
+        new SimpleDifferenceView().writeView(difference, writer);
+        writer.append("\n\n");
+        writer.append("--- Found following differences ---\n");
+        new DefaultDifferenceView().writeView(difference, writer);
+        if (!writer.isFull() && !Difference.class.equals(difference.getClass())) {
+            writer.append("\n--- Difference detail tree ---\n");
+            new TreeDifferenceView().writeView(difference, writer);
+        }
+        writer.appendTruncationSummary();
+    }
 }
@@ -12,8 +12,12 @@
  */
 package org.unitils.reflectionassert.report.impl;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.unitils.core.util.ObjectFormatter;
 import org.unitils.reflectionassert.difference.ClassDifference;
@@ -24,10 +28,15 @@ import org.unitils.reflectionassert.difference.MapDifference;
 import org.unitils.reflectionassert.difference.ObjectDifference;
 import org.unitils.reflectionassert.difference.UnorderedCollectionDifference;
 import org.unitils.reflectionassert.report.DifferenceView;
+import org.unitils.reflectionassert.report.ReportWriter;
+
+import static java.util.Arrays.asList;
 
 import static org.apache.commons.lang3.ClassUtils.getShortClassName;
 import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_LINE_SIZE;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_VALUE_LENGTH;
 import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MatchType.NO_MATCH;
+import static org.unitils.util.ReflectionUtils.isOverridden;
 
 /**
  * Formatter that will output all leaf differences in the tree and, in case of an unordered collection difference,
@@ -46,13 +55,38 @@ public class DefaultDifferenceView
     /**
      * Formatter for object values.
      */
-    protected ObjectFormatter objectFormatter = new ObjectFormatter();
+    protected ObjectFormatter objectFormatter = new ObjectFormatter(3, 15, MAX_VALUE_LENGTH, true);
 
     /**
      * The visitor for visiting the difference tree
+     *
+     * @deprecated The views are written using a {@link DifferenceWriterVisitor}
      */
+    @Deprecated
     protected DifferenceFormatterVisitor differenceFormatterVisitor = new DifferenceFormatterVisitor();
 
+    /* The difference types for which a subclass still overrides the deprecated formatDifference method */
+    private final Set<Class<?>> overriddenFormatDifferenceTypes = new HashSet<>();
+
+    /* True if a subclass still overrides the deprecated formatValues method */
+    private final boolean formatValuesOverridden;
+
+    /**
+     * Creates a view. If a subclass overrides one of the deprecated format methods, that method is still used to
+     * output the differences instead of the corresponding write method.
+     */
+    public DefaultDifferenceView() {
+        for (Class<?> differenceType : asList(Difference.class, ObjectDifference.class, CollectionDifference.class, MapDifference.class, UnorderedCollectionDifference.class)) {
+            if (isOverridden(getClass(), DefaultDifferenceView.class, "formatDifference", differenceType, String.class)) {
+                overriddenFormatDifferenceTypes.add(differenceType);
+            }
+        }
+        if (isOverridden(getClass(), DefaultDifferenceView.class, "formatDifferrence", ClassDifference.class, String.class)) {
+            overriddenFormatDifferenceTypes.add(ClassDifference.class);
+        }
+        formatValuesOverridden = isOverridden(getClass(), DefaultDifferenceView.class, "formatValues", String.class, Object.class, Object.class);
+    }
+
     /**
      * Creates a string representation of the given difference tree.
      *
@@ -62,107 +96,133 @@ public class DefaultDifferenceView
      */
     @Override
     public String createView(Difference difference) {
-        return difference.accept(differenceFormatterVisitor, null);
+        StringBuilder result = new StringBuilder();
+        writeView(difference, new ReportWriter(result));
+        return result.toString();
     }
 
     /**
-     * Creates a string representation of a simple difference.
+     * Writes a representation of the given difference tree to the given writer. The values of the differences that
+     * do not fit in the writer are not formatted.
+     *
+     * @param difference
+     *     The root difference, not null
+     * @param writer
+     *     The writer for the output, not null
+     */
+    @Override
+    public void writeView(Difference difference, ReportWriter writer) {
+        difference.accept(new DifferenceWriterVisitor(writer), null);
+    }
+
+    /**
+     * Writes a simple difference.
      *
      * @param difference
      *     The difference, not null
      * @param fieldName
      *     The current fieldName, null for root
-     * @return The string representation, not null
+     * @param writer
+     *     The writer for the output, not null
      */
-    protected String formatDifference(Difference difference, String fieldName) {
-        return formatValues(fieldName, difference.getLeftValue(), difference.getRightValue());
+    protected void writeDifference(Difference difference, String fieldName, ReportWriter writer) {
+        if (overriddenFormatDifferenceTypes.contains(Difference.class)) {
+            writeFormatted(() -> formatDifference(difference, fieldName), writer);
+            return;
+        }
+        writeValues(fieldName, difference.getLeftValue(), difference.getRightValue(), writer);
     }
 
     /**
-     * Creates a string representation of an object difference.
+     * Writes an object difference.
      *
      * @param objectDifference
      *     The difference, not null
      * @param fieldName
      *     The current fieldName, null for root
-     * @return The string representation, not null
+     * @param writer
+     *     The writer for the output, not null
      */
-    protected String formatDifference(ObjectDifference objectDifference, String fieldName) {
-        StringBuilder result = new StringBuilder();
+    protected void writeDifference(ObjectDifference objectDifference, String fieldName, ReportWriter writer) {
         for (Map.Entry<String, Difference> fieldDifference : objectDifference.getFieldDifferences().entrySet()) {
             String innerFieldName = createFieldName(fieldName, fieldDifference.getKey(), true);
-            result.append(fieldDifference.getValue().accept(differenceFormatterVisitor, innerFieldName));
+            fieldDifference.getValue().accept(new DifferenceWriterVisitor(writer), innerFieldName);
         }
-        return result.toString();
     }
 
     /**
+     * Writes a class difference.
+     *
+     * @param classDifference
+     *     The difference, not null
      * @param fieldName
      *     unused
+     * @param writer
+     *     The writer for the output, not null
      */
-    protected String formatDifferrence(ClassDifference classDifference, String fieldName) {
-        StringBuilder result = new StringBuilder();
-        result.append("Expected: object of type ").append(getShortClassName(classDifference.getLeftClass()));
-        result.append(", actual: object of type ").append(getShortClassName(classDifference.getRightClass())).append("\n");
-        return result.toString();
+    protected void writeDifference(ClassDifference classDifference, String fieldName, ReportWriter writer) {
+        if (!writer.startDifference()) {
+            return;
+        }
+        writer.append("Expected: object of type ").append(getShortClassName(classDifference.getLeftClass()));
+        writer.append(", actual: object of type ").append(getShortClassName(classDifference.getRightClass())).append("\n");
     }
 
     /**
-     * Creates a string representation of a collection difference.
+     * Writes a collection difference.
      *
      * @param collectionDifference
      *     The difference, not null
      * @param fieldName
      *     The current fieldName, null for root
-     * @return The string representation, not null
+     * @param writer
+     *     The writer for the output, not null
      */
-    protected String formatDifference(CollectionDifference collectionDifference, String fieldName) {
-        StringBuilder result = new StringBuilder();
+    protected void writeDifference(CollectionDifference collectionDifference, String fieldName, ReportWriter writer) {
         for (Map.Entry<Integer, Difference> elementDifferences : collectionDifference.getElementDifferences().entrySet()) {
             String innerFieldName = createFieldName(fieldName, "[" + elementDifferences.getKey() + "]", false);
-            result.append(elementDifferences.getValue().accept(differenceFormatterVisitor, innerFieldName));
+            elementDifferences.getValue().accept(new DifferenceWriterVisitor(writer), innerFieldName);
         }
 
         List<?> leftList = collectionDifference.getLeftList();
         List<?> rightList = collectionDifference.getRightList();
         for (Integer leftIndex : collectionDifference.getLeftMissingIndexes()) {
             String innerFieldName = createFieldName(fieldName, "[" + leftIndex + "]", false);
-            result.append(formatValues(innerFieldName, leftList.get(leftIndex), NO_MATCH));
+            writeValues(innerFieldName, leftList.get(leftIndex), NO_MATCH, writer);
         }
         for (Integer rightIndex : collectionDifference.getRightMissingIndexes()) {
             String innerFieldName = createFieldName(fieldName, "[" + rightIndex + "]", false);
-            result.append(formatValues(innerFieldName, NO_MATCH, rightList.get(rightIndex)));
+            writeValues(innerFieldName, NO_MATCH, rightList.get(rightIndex), writer);
         }
-        return result.toString();
     }
 
     /**
-     * Creates a string representation of a map difference.
+     * Writes a map difference.
      *
      * @param mapDifference
      *     The difference, not null
      * @param fieldName
      *     The current fieldName, null for root
-     * @return The string representation, not null
+     * @param writer
+     *     The writer for the output, not null
      */
-    protected String formatDifference(MapDifference mapDifference, String fieldName) {
-        StringBuilder result = new StringBuilder();
+    protected void writeDifference(MapDifference mapDifference, String fieldName, ReportWriter writer) {
+        // the keys are not formatted once the writer is full, the remaining differences are then only counted
         for (Map.Entry<Object, Difference> valueDifference : mapDifference.getValueDifferences().entrySet()) {
-            String innerFieldName = createFieldName(fieldName, formatObject(valueDifference.getKey()), true);
-            result.append(valueDifference.getValue().accept(differenceFormatterVisitor, innerFieldName));
+            String innerFieldName = writer.isFull() ? fieldName : createFieldName(fieldName, formatObject(valueDifference.getKey()), true);
+            valueDifference.getValue().accept(new DifferenceWriterVisitor(writer), innerFieldName);
         }
 
         Map<?, ?> leftMap = mapDifference.getLeftMap();
         Map<?, ?> rightMap = mapDifference.getRightMap();
         for (Object leftKey : mapDifference.getLeftMissingKeys()) {
-            String innerFieldName = createFieldName(fieldName, formatObject(leftKey), true);
-            result.append(formatValues(innerFieldName, leftMap.get(leftKey), ""));
+            String innerFieldName = writer.isFull() ? fieldName : createFieldName(fieldName, formatObject(leftKey), true);
+            writeValues(innerFieldName, leftMap.get(leftKey), "", writer);
         }
         for (Object rightKey : mapDifference.getRightMissingKeys()) {
-            String innerFieldName = createFieldName(fieldName, formatObject(rightKey), true);
-            result.append(formatValues(innerFieldName, rightMap.get(rightKey), ""));
+            String innerFieldName = writer.isFull() ? fieldName : createFieldName(fieldName, formatObject(rightKey), true);
+            writeValues(innerFieldName, rightMap.get(rightKey), "", writer);
         }
-        return result.toString();
     }
 
     protected String formatObject(Object object) {
@@ -173,20 +233,19 @@ public class DefaultDifferenceView
     }
 
     /**
-     * Creates a string representation of an unordered collection difference.
+     * Writes an unordered collection difference.
      *
      * @param unorderedCollectionDifference
      *     The difference, not null
      * @param fieldName
      *     The current fieldName, null for root
-     * @return The string representation, not null
+     * @param writer
+     *     The writer for the output, not null
      */
-    protected String formatDifference(UnorderedCollectionDifference unorderedCollectionDifference, String fieldName) {
-        StringBuilder result = new StringBuilder();
-
-        result.append(fieldName == null ? "" : fieldName + ": ");
+    protected void writeDifference(UnorderedCollectionDifference unorderedCollectionDifference, String fieldName, ReportWriter writer) {
+        writer.append(fieldName == null ? "" : fieldName + ": ");
         if (unorderedCollectionDifference.getRightList().size() != unorderedCollectionDifference.getLeftList().size()) {
-            result.append("Collections have a different size: Expected " + unorderedCollectionDifference.getLeftList().size() + ", actual "
+            writer.append("Collections have a different size: Expected " + unorderedCollectionDifference.getLeftList().size() + ", actual "
                 + unorderedCollectionDifference.getRightList().size() + ".\n");
         }
 
@@ -197,12 +256,12 @@ public class DefaultDifferenceView
 
             if (leftIndex == -1) {
                 String innerFieldName = createFieldName(fieldName, "[x," + rightIndex + "]", false);
-                result.append(formatValues(innerFieldName, NO_MATCH, unorderedCollectionDifference.getRightList().get(rightIndex)));
+                writeValues(innerFieldName, NO_MATCH, unorderedCollectionDifference.getRightList().get(rightIndex), writer);
                 continue;
             }
             if (rightIndex == -1) {
                 String innerFieldName = createFieldName(fieldName, "[" + leftIndex + ",x]", false);
-                result.append(formatValues(innerFieldName, unorderedCollectionDifference.getLeftList().get(leftIndex), NO_MATCH));
+                writeValues(innerFieldName, unorderedCollectionDifference.getLeftList().get(leftIndex), NO_MATCH, writer);
                 continue;
             }
 
@@ -212,13 +271,12 @@ public class DefaultDifferenceView
             }
 
             String innerFieldName = createFieldName(fieldName, "[" + leftIndex + "," + rightIndex + "]", false);
-            result.append(difference.accept(differenceFormatterVisitor, innerFieldName));
+            difference.accept(new DifferenceWriterVisitor(writer), innerFieldName);
         }
-        return result.toString();
     }
 
     /**
-     * Formats and appends the given fieldname and object values.
+     * Formats and writes the given fieldname and object values. The values are not formatted if the writer is full.
      *
      * @param fieldName
      *     The field name, null if there is no field name
@@ -226,16 +284,42 @@ public class DefaultDifferenceView
      *     The left value
      * @param rightValue
      *     The right value
-     * @return The string representation, not null
+     * @param writer
+     *     The writer for the output, not null
      */
-    protected String formatValues(String fieldName, Object leftValue, Object rightValue) {
+    protected void writeValues(String fieldName, Object leftValue, Object rightValue, ReportWriter writer) {
+        if (formatValuesOverridden) {
+            writeFormatted(() -> formatValues(fieldName, leftValue, rightValue), writer);
+            return;
+        }
+        if (!writer.startDifference()) {
+            return;
+        }
+        appendValues(fieldName, leftValue, rightValue, writer);
+    }
+
+    /**
+     * Writes the formatted output of one of the deprecated format methods as a single difference.
+     *
+     * @param formatter
+     *     The deprecated format method, not null
+     * @param writer
+     *     The writer for the output, not null
+     */
+    private void writeFormatted(Supplier<String> formatter, ReportWriter writer) {
+        if (writer.startDifference()) {
+            writer.append(formatter.get());
+        }
+    }
+
+    private void appendValues(String fieldName, Object leftValue, Object rightValue, ReportWriter writer) {
         String leftValueFormatted = formatObject(leftValue);
         String rightValueFormatted = formatObject(rightValue);
         String valuesFormattedOnOneLine = formatValuesOnOneLine(fieldName, leftValueFormatted, rightValueFormatted);
         if (valuesFormattedOnOneLine.length() < MAX_LINE_SIZE) {
-            return valuesFormattedOnOneLine;
+            writer.append(valuesFormattedOnOneLine);
         } else {
-            return formatValuesOnMultipleLines(fieldName, leftValueFormatted, rightValueFormatted);
+            writer.append(formatValuesOnMultipleLines(fieldName, leftValueFormatted, rightValueFormatted));
         }
     }
 
@@ -259,6 +343,119 @@ public class DefaultDifferenceView
         return result.toString();
     }
 
+    /**
+     * Creates a string representation of a simple difference.
+     *
+     * @param difference
+     *     The difference, not null
+     * @param fieldName
+     *     The current fieldName, null for root
+     * @return The string representation, not null
+     * @deprecated Use {@link #writeDifference(Difference, String, ReportWriter)} instead
+     */
+    @Deprecated
+    protected String formatDifference(Difference difference, String fieldName) {
+        return format(writer -> writeValues(fieldName, difference.getLeftValue(), difference.getRightValue(), writer));
+    }
+
+    /**
+     * Creates a string representation of an object difference.
+     *
+     * @param objectDifference
+     *     The difference, not null
+     * @param fieldName
+     *     The current fieldName, null for root
+     * @return The string representation, not null
+     * @deprecated Use {@link #writeDifference(ObjectDifference, String, ReportWriter)} instead
+     */
+    @Deprecated
+    protected String formatDifference(ObjectDifference objectDifference, String fieldName) {
+        return format(writer -> writeDifference(objectDifference, fieldName, writer));
+    }
+
+    /**
+     * Creates a string representation of a class difference.
+     *
+     * @param classDifference
+     *     The difference, not null
+     * @param fieldName
+     *     The current fieldName, null for root
+     * @return The string representation, not null
+     * @deprecated Use {@link #writeDifference(ClassDifference, String, ReportWriter)} instead
+     */
+    @Deprecated
+    protected String formatDifferrence(ClassDifference classDifference, String fieldName) {
+        return format(writer -> writeDifference(classDifference, fieldName, writer));
+    }
+
+    /**
+     * Creates a string representation of a collection difference.
+     *
+     * @param collectionDifference
+     *     The difference, not null
+     * @param fieldName
+     *     The current fieldName, null for root
+     * @return The string representation, not null
+     * @deprecated Use {@link #writeDifference(CollectionDifference, String, ReportWriter)} instead
+     */
+    @Deprecated
+    protected String formatDifference(CollectionDifference collectionDifference, String fieldName) {
+        return format(writer -> writeDifference(collectionDifference, fieldName, writer));
+    }
+
+    /**
+     * Creates a string representation of a map difference.
+     *
+     * @param mapDifference
+     *     The difference, not null
+     * @param fieldName
+     *     The current fieldName, null for root
+     * @return The string representation, not null
+     * @deprecated Use {@link #writeDifference(MapDifference, String, ReportWriter)} instead
+     */
+    @Deprecated
+    protected String formatDifference(MapDifference mapDifference, String fieldName) {
+        return format(writer -> writeDifference(mapDifference, fieldName, writer));
+    }
+
+    /**
+     * Creates a string representation of an unordered collection difference.
+     *
+     * @param unorderedCollectionDifference
+     *     The difference, not null
+     * @param fieldName
+     *     The current fieldName, null for root
+     * @return The string representation, not null
+     * @deprecated Use {@link #writeDifference(UnorderedCollectionDifference, String, ReportWriter)} instead
+     */
+    @Deprecated
+    protected String formatDifference(UnorderedCollectionDifference unorderedCollectionDifference, String fieldName) {
+        return format(writer -> writeDifference(unorderedCollectionDifference, fieldName, writer));
+    }
+
+    /**
+     * Formats the given fieldname and object values.
+     *
+     * @param fieldName
+     *     The field name, null if there is no field name
+     * @param leftValue
+     *     The left value
+     * @param rightValue
+     *     The right value
+     * @return The string representation, not null
+     * @deprecated Use {@link #writeValues} instead
+     */
+    @Deprecated
+    protected String formatValues(String fieldName, Object leftValue, Object rightValue) {
+        return format(writer -> appendValues(fieldName, leftValue, rightValue, writer));
+    }
+
+    private String format(Consumer<ReportWriter> writeAction) {
+        StringBuilder result = new StringBuilder();
+        writeAction.accept(new ReportWriter(result));
+        return result.toString();
+    }
+
     /**
      * Adds the inner field name to the given field name.
      *
@@ -285,8 +482,81 @@ public class DefaultDifferenceView
     }
 
     /**
-     * The visitor for visiting the difference tree.
+     * The visitor for visiting the difference tree and writing the differences.
      */
+    protected class DifferenceWriterVisitor
+        implements DifferenceVisitor<Void, String> {
+
+        /* The writer for the output, not null */
+        private final ReportWriter writer;
+
+        public DifferenceWriterVisitor(ReportWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public Void visit(Difference difference, String fieldName) {
+            writeDifference(difference, fieldName, writer);
+            return null;
+        }
+
+        @Override
+        public Void visit(ObjectDifference objectDifference, String fieldName) {
+            if (overriddenFormatDifferenceTypes.contains(ObjectDifference.class)) {
+                writeFormatted(() -> formatDifference(objectDifference, fieldName), writer);
+            } else {
+                writeDifference(objectDifference, fieldName, writer);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ClassDifference classDifference, String fieldName) {
+            if (overriddenFormatDifferenceTypes.contains(ClassDifference.class)) {
+                writeFormatted(() -> formatDifferrence(classDifference, fieldName), writer);
+            } else {
+                writeDifference(classDifference, fieldName, writer);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(MapDifference mapDifference, String fieldName) {
+            if (overriddenFormatDifferenceTypes.contains(MapDifference.class)) {
+                writeFormatted(() -> formatDifference(mapDifference, fieldName), writer);
+            } else {
+                writeDifference(mapDifference, fieldName, writer);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(CollectionDifference collectionDifference, String fieldName) {
+            if (overriddenFormatDifferenceTypes.contains(CollectionDifference.class)) {
+                writeFormatted(() -> formatDifference(collectionDifference, fieldName), writer);
+            } else {
+                writeDifference(collectionDifference, fieldName, writer);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(UnorderedCollectionDifference unorderedCollectionDifference, String fieldName) {
+            if (overriddenFormatDifferenceTypes.contains(UnorderedCollectionDifference.class)) {
+                writeFormatted(() -> formatDifference(unorderedCollectionDifference, fieldName), writer);
+            } else {
+                writeDifference(unorderedCollectionDifference, fieldName, writer);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The visitor for visiting the difference tree and formatting the differences as strings.
+     *
+     * @deprecated Use the {@link DifferenceWriterVisitor} instead
+     */
+    @Deprecated
     protected class DifferenceFormatterVisitor
         implements DifferenceVisitor<String, String> {
         @Override
@@ -305,13 +575,13 @@ public class DefaultDifferenceView
         }
 
         @Override
-        public String visit(MapDifference mapDifference, String fieldName) {
-            return formatDifference(mapDifference, fieldName);
+        public String visit(CollectionDifference collectionDifference, String fieldName) {
+            return formatDifference(collectionDifference, fieldName);
         }
 
         @Override
-        public String visit(CollectionDifference collectionDifference, String fieldName) {
-            return formatDifference(collectionDifference, fieldName);
+        public String visit(MapDifference mapDifference, String fieldName) {
+            return formatDifference(mapDifference, fieldName);
         }
 
         @Override
@@ -15,15 +15,17 @@ package org.unitils.reflectionassert.report.impl;
 import org.unitils.core.util.ObjectFormatter;
 import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.report.DifferenceView;
+import org.unitils.reflectionassert.report.ReportWriter;
 
 import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_LINE_SIZE;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_VALUE_LENGTH;
 
 /**
  * @author Filip Neven
  */
 public class SimpleDifferenceView
     implements DifferenceView {
-    private ObjectFormatter objectFormatter = new ObjectFormatter();
+    private ObjectFormatter objectFormatter = new ObjectFormatter(3, 15, MAX_VALUE_LENGTH, true);
 
     /**
      * Creates a string representation of the given difference tree.
@@ -44,6 +46,22 @@ public class SimpleDifferenceView
         }
     }
 
+    /**
+     * Writes a representation of the given difference tree to the given writer. The values are not formatted if the
+     * writer is full.
+     *
+     * @param difference
+     *     The root difference, not null
+     * @param writer
+     *     The writer for the output, not null
+     */
+    @Override
+    public void writeView(Difference difference, ReportWriter writer) {
+        if (!writer.isFull()) {
+            writer.append(createView(difference));
+        }
+    }
+
     protected String formatOnOneLine(String expectedStr, String actualStr) {
         return new StringBuilder().append("Expected: ").append(expectedStr).append(", actual: ").append(actualStr).toString();
     }
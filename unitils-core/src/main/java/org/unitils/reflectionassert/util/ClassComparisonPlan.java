@@ -0,0 +1,212 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.unitils.core.UnitilsException;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isStatic;
+import static java.lang.reflect.Modifier.isTransient;
+
+/**
+ * The fields that are compared when comparing two objects of a class, together with compiled getters for their values.
+ * <p/>
+ * The fields are the declared fields of the class and of its super-classes, up to the first java.lang class. Static,
+ * transient and synthetic fields are skipped. The plan is computed only once per class.
+ * <p/>
+ * The getters are method handles instead of reflective field access. Primitive fields can be compared without boxing
+ * their values: only when the values are different, they are boxed to let the reflection comparator determine the
+ * difference.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ClassComparisonPlan {
+
+    /* The plans of all classes that were compared so far */
+    private static final ClassValue<ClassComparisonPlan> CLASS_COMPARISON_PLANS = new ClassValue<>() {
+        @Override
+        protected ClassComparisonPlan computeValue(Class<?> type) {
+            return new ClassComparisonPlan(type);
+        }
+    };
+
+    /* Converts a getter of a boolean value to a getter returning a long */
+    private static final MethodHandle BOOLEAN_TO_LONG;
+
+    /* Converts a getter of a float value to a getter returning a long */
+    private static final MethodHandle FLOAT_TO_LONG;
+
+    /* Converts a getter of a double value to a getter returning a long */
+    private static final MethodHandle DOUBLE_TO_LONG;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BOOLEAN_TO_LONG = lookup.findStatic(ClassComparisonPlan.class, "toLong", methodType(long.class, boolean.class));
+            FLOAT_TO_LONG = lookup.findStatic(Float.class, "floatToIntBits", methodType(int.class, float.class)).asType(methodType(long.class, float.class));
+            DOUBLE_TO_LONG = lookup.findStatic(Double.class, "doubleToLongBits", methodType(long.class, double.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Gets the comparison plan for the given class.
+     *
+     * @param clazz
+     *     The class, not null
+     * @return The plan, not null
+     */
+    public static ClassComparisonPlan getClassComparisonPlan(Class<?> clazz) {
+        return CLASS_COMPARISON_PLANS.get(clazz);
+    }
+
+    /* The accessors of the compared fields */
+    private final List<FieldAccessor> fieldAccessors;
+
+    private ClassComparisonPlan(Class<?> clazz) {
+        List<FieldAccessor> accessors = new ArrayList<>();
+        addFieldAccessors(clazz, accessors);
+        Class<?> superclazz = clazz.getSuperclass();
+        while (superclazz != null && !superclazz.getName().startsWith("java.lang")) {
+            addFieldAccessors(superclazz, accessors);
+            superclazz = superclazz.getSuperclass();
+        }
+        fieldAccessors = Collections.unmodifiableList(accessors);
+    }
+
+    /**
+     * @return The accessors of the compared fields, sub-class fields first, not null
+     */
+    public List<FieldAccessor> getFieldAccessors() {
+        return fieldAccessors;
+    }
+
+    private void addFieldAccessors(Class<?> clazz, List<FieldAccessor> accessors) {
+        for (Field field : clazz.getDeclaredFields()) {
+            // skip transient and static fields
+            if (isTransient(field.getModifiers()) || isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            field.setAccessible(true);
+            try {
+                accessors.add(new FieldAccessor(field));
+            } catch (IllegalAccessException e) {
+                // this can't happen, the field was made accessible
+                // throw a runtime exception in case the impossible happens.
+                throw new InternalError("Unexpected IllegalAccessException", e);
+            }
+        }
+    }
+
+    private static long toLong(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    /**
+     * Compiled access to the value of a field.
+     */
+    public static class FieldAccessor {
+
+        /* The name of the field */
+        private final String name;
+
+        /* Getter for the value of the field as an object: (Object)Object */
+        private final MethodHandle valueGetter;
+
+        /* Getter for the bits of a primitive value: (Object)long, null for other fields */
+        private final MethodHandle primitiveBitsGetter;
+
+        private FieldAccessor(Field field)
+            throws IllegalAccessException {
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            name = field.getName();
+            valueGetter = getter.asType(methodType(Object.class, Object.class));
+            primitiveBitsGetter = createPrimitiveBitsGetter(field.getType(), getter);
+        }
+
+        private static MethodHandle createPrimitiveBitsGetter(Class<?> type, MethodHandle getter) {
+            if (!type.isPrimitive()) {
+                return null;
+            }
+            if (boolean.class.equals(type)) {
+                getter = MethodHandles.filterReturnValue(getter, BOOLEAN_TO_LONG);
+            } else if (float.class.equals(type)) {
+                getter = MethodHandles.filterReturnValue(getter, FLOAT_TO_LONG);
+            } else if (double.class.equals(type)) {
+                getter = MethodHandles.filterReturnValue(getter, DOUBLE_TO_LONG);
+            }
+            return getter.asType(methodType(long.class, Object.class));
+        }
+
+        /**
+         * @return The name of the field, not null
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Checks whether both objects certainly have the same value for the field: primitive values that are equal,
+         * using the same semantics as {@link Double#equals} for floating point values, or references to the same
+         * instance. Such values never have a difference, so they do not need to be compared.
+         *
+         * @param left
+         *     The left object, not null
+         * @param right
+         *     The right object, not null
+         * @return True if the values are the same
+         */
+        public boolean isSameValue(Object left, Object right) {
+            try {
+                if (primitiveBitsGetter != null) {
+                    return (long) primitiveBitsGetter.invokeExact(left) == (long) primitiveBitsGetter.invokeExact(right);
+                }
+                return (Object) valueGetter.invokeExact(left) == (Object) valueGetter.invokeExact(right);
+            } catch (Throwable t) {
+                throw handleThrowable(t);
+            }
+        }
+
+        /**
+         * @param object
+         *     The object, not null
+         * @return The value of the field in the given object, primitive values are boxed
+         */
+        public Object getValue(Object object) {
+            try {
+                return (Object) valueGetter.invokeExact(object);
+            } catch (Throwable t) {
+                throw handleThrowable(t);
+            }
+        }
+
+        private RuntimeException handleThrowable(Throwable t) {
+            if (t instanceof RuntimeException) {
+                return (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            return new UnitilsException("Unable to get value of field " + name, t);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.unitils.reflectionassert.comparator.Comparator;
+
+/**
+ * Finds the comparator of a comparator chain that should compare two values.
+ * <p/>
+ * For every combination of left and right type, the chain is reduced once using
+ * {@link Comparator#canCompareTypes}: comparators that can never compare values of these types are left out, and the
+ * first comparator that can compare all values of these types ends the chain. Only the remaining comparators whose
+ * outcome depends on the actual values still have to be asked for every comparison. Null values are always handled
+ * by the complete chain.
+ * <p/>
+ * The comparators of a chain are stateless, so a table can be shared by all threads. The reduced chains are stored
+ * in class values, so the table does not prevent the classes of the compared values from being unloaded.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ComparatorDispatchTable {
+
+    /* The comparator chain, not null */
+    private final List<Comparator> comparators;
+
+    /* The reduced chains per left type and right type */
+    private final ClassValue<RightTypeDispatches> dispatches = new ClassValue<>() {
+        @Override
+        protected RightTypeDispatches computeValue(Class<?> type) {
+            return new RightTypeDispatches(type, comparators);
+        }
+    };
+
+    /**
+     * Creates a table for the given chain.
+     *
+     * @param comparators
+     *     The comparator chain, not null
+     */
+    public ComparatorDispatchTable(List<Comparator> comparators) {
+        this.comparators = comparators;
+    }
+
+    /**
+     * @return The comparator chain, not null
+     */
+    public List<Comparator> getComparators() {
+        return comparators;
+    }
+
+    /**
+     * Gets the first comparator of the chain that can compare the given values.
+     *
+     * @param left
+     *     The left object
+     * @param right
+     *     The right object
+     * @return The comparator, null if none of the comparators can compare the values
+     */
+    public Comparator getComparator(Object left, Object right) {
+        if (left == null || right == null) {
+            for (Comparator comparator : comparators) {
+                if (comparator.canCompare(left, right)) {
+                    return comparator;
+                }
+            }
+            return null;
+        }
+        return dispatches.get(left.getClass()).get(right.getClass()).getComparator(left, right);
+    }
+
+    /**
+     * The reduced chains for a left type, per right type. This is a static class, so that the class value of the
+     * left type does not refer to the table and the table can be garbage collected.
+     */
+    private static class RightTypeDispatches
+        extends ClassValue<Dispatch> {
+
+        /* The left type, not null */
+        private final Class<?> leftType;
+
+        /* The comparator chain, not null */
+        private final List<Comparator> comparators;
+
+        public RightTypeDispatches(Class<?> leftType, List<Comparator> comparators) {
+            this.leftType = leftType;
+            this.comparators = comparators;
+        }
+
+        @Override
+        protected Dispatch computeValue(Class<?> rightType) {
+            List<Comparator> valueDependentComparators = new ArrayList<>();
+            for (Comparator comparator : comparators) {
+                Boolean canCompare = comparator.canCompareTypes(leftType, rightType);
+                if (canCompare == null) {
+                    valueDependentComparators.add(comparator);
+                } else if (canCompare) {
+                    return new Dispatch(valueDependentComparators, comparator);
+                }
+            }
+            return new Dispatch(valueDependentComparators, null);
+        }
+    }
+
+    /**
+     * The reduced chain for a combination of types.
+     */
+    private static class Dispatch {
+
+        /* The comparators that have to be asked for every comparison, not null */
+        private final Comparator[] valueDependentComparators;
+
+        /* The comparator to use if none of the value dependent comparators applies, null if there is none */
+        private final Comparator typeComparator;
+
+        public Dispatch(List<Comparator> valueDependentComparators, Comparator typeComparator) {
+            this.valueDependentComparators = valueDependentComparators.toArray(new Comparator[0]);
+            this.typeComparator = typeComparator;
+        }
+
+        public Comparator getComparator(Object left, Object right) {
+            for (Comparator comparator : valueDependentComparators) {
+                if (comparator.canCompare(left, right)) {
+                    return comparator;
+                }
+            }
+            return typeComparator;
+        }
+    }
+}
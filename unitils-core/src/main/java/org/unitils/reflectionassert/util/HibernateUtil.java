@@ -12,6 +12,11 @@
  */
 package org.unitils.reflectionassert.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.core.UnitilsException;
@@ -20,7 +25,8 @@ import org.unitils.core.UnitilsException;
  * Utility class for handling Hibernate proxies during the comparison.
  * <p/>
  * Every operation is performed through reflection to avoid a direct link to Hibernate. This way you do not
- * need Hibernate in the classpath to use the reflection comparator.
+ * need Hibernate in the classpath to use the reflection comparator. The methods of the proxy and its lazy initializer
+ * are only looked up once, when Hibernate is found in the classpath, and are then invoked through method handles.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -33,13 +39,35 @@ public class HibernateUtil {
      */
     protected static Class<?> hibernateProxyClass;
 
+    /* Invokes LazyInitializer.isUninitialized on the lazy initializer of a proxy: (Object)Object */
+    private static MethodHandle isUninitializedMethod;
+
+    /* Invokes LazyInitializer.getEntityName on the lazy initializer of a proxy: (Object)Object */
+    private static MethodHandle getEntityNameMethod;
+
+    /* Invokes LazyInitializer.getIdentifier on the lazy initializer of a proxy: (Object)Object */
+    private static MethodHandle getIdentifierMethod;
+
+    /* Invokes LazyInitializer.getImplementation on the lazy initializer of a proxy: (Object)Object */
+    private static MethodHandle getImplementationMethod;
+
     static {
         try {
             hibernateProxyClass = Class.forName("org.hibernate.proxy.HibernateProxy");
+            Class<?> lazyInitializerClass = Class.forName("org.hibernate.proxy.LazyInitializer");
+            MethodHandle getLazyInitializerMethod = MethodHandles.publicLookup().unreflect(hibernateProxyClass.getMethod("getHibernateLazyInitializer"));
+
+            isUninitializedMethod = createLazyInitializerMethod(lazyInitializerClass, "isUninitialized", getLazyInitializerMethod);
+            getEntityNameMethod = createLazyInitializerMethod(lazyInitializerClass, "getEntityName", getLazyInitializerMethod);
+            getIdentifierMethod = createLazyInitializerMethod(lazyInitializerClass, "getIdentifier", getLazyInitializerMethod);
+            getImplementationMethod = createLazyInitializerMethod(lazyInitializerClass, "getImplementation", getLazyInitializerMethod);
         } catch (ClassNotFoundException e) {
             LOG.trace("", e);
             // hibernate not found in the classpath
             hibernateProxyClass = null;
+        } catch (ReflectiveOperationException e) {
+            LOG.warn("Unable to access lazy initializer of Hibernate proxies. Hibernate proxies will be compared as normal objects.", e);
+            hibernateProxyClass = null;
         }
     }
 
@@ -54,6 +82,17 @@ public class HibernateUtil {
         return hibernateProxyClass != null && hibernateProxyClass.isInstance(object);
     }
 
+    /**
+     * Checks whether the given type is a HibernateProxy type.
+     *
+     * @param type
+     *     The type, not null
+     * @return True if instances of the type are proxies
+     */
+    public static boolean isHibernateProxyType(Class<?> type) {
+        return hibernateProxyClass != null && hibernateProxyClass.isAssignableFrom(type);
+    }
+
     /**
      * Checks whether the given proxy object has been loaded.
      *
@@ -65,7 +104,7 @@ public class HibernateUtil {
         if (!isHibernateProxy(object)) {
             return false;
         }
-        return (Boolean) invokeLazyInitializerMethod("isUninitialized", object);
+        return (Boolean) invokeLazyInitializerMethod(isUninitializedMethod, "isUninitialized", object);
     }
 
     /**
@@ -79,7 +118,7 @@ public class HibernateUtil {
         if (!isHibernateProxy(object)) {
             return object == null ? null : object.getClass().getName();
         }
-        return (String) invokeLazyInitializerMethod("getEntityName", object);
+        return (String) invokeLazyInitializerMethod(getEntityNameMethod, "getEntityName", object);
     }
 
     /**
@@ -93,7 +132,7 @@ public class HibernateUtil {
         if (!isHibernateProxy(object)) {
             return null;
         }
-        return invokeLazyInitializerMethod("getIdentifier", object);
+        return invokeLazyInitializerMethod(getIdentifierMethod, "getIdentifier", object);
     }
 
     /**
@@ -113,7 +152,28 @@ public class HibernateUtil {
             return object;
         }
         // found a proxy, load and un-wrap
-        return invokeLazyInitializerMethod("getImplementation", object);
+        return invokeLazyInitializerMethod(getImplementationMethod, "getImplementation", object);
+    }
+
+    /**
+     * Invokes the given method on the LazyInitializer that is associated with the given proxy.
+     *
+     * @param method
+     *     The handle that invokes the method on the lazy initializer of a proxy, not null
+     * @param methodName
+     *     The name of the method, for error reporting, not null
+     * @param proxy
+     *     The hibernate proxy instance, not null
+     * @return The result value of the method call
+     */
+    protected static Object invokeLazyInitializerMethod(MethodHandle method, String methodName, Object proxy) {
+        try {
+            return (Object) method.invokeExact(proxy);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UnitilsException("Unable to invoke method on lazy initializer of Hibernate proxy. Method: " + methodName + ", proxy: " + proxy, t);
+        }
     }
 
     /**
@@ -124,13 +184,34 @@ public class HibernateUtil {
      * @param proxy
      *     The hibernate proxy instance, not null
      * @return The result value of the method call
+     * @deprecated The method is looked up on every call, use
+     * {@link #invokeLazyInitializerMethod(MethodHandle, String, Object)} instead
      */
+    @Deprecated
     protected static Object invokeLazyInitializerMethod(String methodName, Object proxy) {
         try {
-            Object lazyInitializer = hibernateProxyClass.getMethod("getHibernateLazyInitializer").invoke(proxy);
-            return lazyInitializer.getClass().getMethod(methodName).invoke(lazyInitializer);
+            Method getLazyInitializerMethod = hibernateProxyClass.getMethod("getHibernateLazyInitializer");
+            Object lazyInitializer = getLazyInitializerMethod.invoke(proxy);
+            return getLazyInitializerMethod.getReturnType().getMethod(methodName).invoke(lazyInitializer);
         } catch (Exception e) {
             throw new UnitilsException("Unable to invoke method on lazy initializer of Hibernate proxy. Method: " + methodName + ", proxy: " + proxy, e);
         }
     }
+
+    /**
+     * Creates a handle that gets the lazy initializer of a proxy and then invokes the given method on it.
+     *
+     * @param lazyInitializerClass
+     *     The LazyInitializer interface, not null
+     * @param methodName
+     *     The method of the lazy initializer, not null
+     * @param getLazyInitializerMethod
+     *     The handle for getting the lazy initializer of a proxy, not null
+     * @return The handle, taking the proxy as argument and returning the boxed result: (Object)Object
+     */
+    private static MethodHandle createLazyInitializerMethod(Class<?> lazyInitializerClass, String methodName, MethodHandle getLazyInitializerMethod)
+        throws ReflectiveOperationException {
+        MethodHandle method = MethodHandles.publicLookup().unreflect(lazyInitializerClass.getMethod(methodName));
+        return MethodHandles.filterArguments(method, 0, getLazyInitializerMethod).asType(MethodType.methodType(Object.class, Object.class));
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+/**
+ * Compares pairs of elements in parallel, using fork-join tasks.
+ * <p/>
+ * The elements are split into chunks that are compared by the threads of the common fork-join pool. Every chunk is
+ * compared by its own forked {@link ReflectionComparator}, so that the comparators are never shared between threads.
+ * When only the first difference is needed, all chunks stop as soon as one of them found a difference.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ParallelElementComparison {
+
+    /* The left elements, not null */
+    private final List<?> leftValues;
+
+    /* The right elements, not null */
+    private final List<?> rightValues;
+
+    /* True if the comparison can stop at the first difference */
+    private final boolean onlyFirstDifference;
+
+    /* The comparator from which the comparators of the chunks are forked, not null */
+    private final ReflectionComparator reflectionComparator;
+
+    /* The maximum nr of elements that is compared by one task */
+    private final int chunkSize;
+
+    /* The differences per element index, null for equal elements */
+    private final Difference[] differences;
+
+    /* Set when a difference was found, to stop the other tasks */
+    private final AtomicBoolean differenceFound = new AtomicBoolean();
+
+    /**
+     * Compares the elements with the same index in the given lists.
+     *
+     * @param leftValues
+     *     The left elements, not null
+     * @param rightValues
+     *     The right elements, not null
+     * @param nrOfElements
+     *     The nr of elements to compare, not larger than the size of the lists
+     * @param onlyFirstDifference
+     *     True if the comparison can stop at the first difference
+     * @param reflectionComparator
+     *     The root comparator for the element comparisons, not null
+     * @param chunkSize
+     *     The maximum nr of elements that is compared by one task, > 0
+     * @return The differences per element index, null for equal elements or elements that were not compared because
+     *     another difference was found first, not null
+     */
+    public static Difference[] compareElements(List<?> leftValues, List<?> rightValues, int nrOfElements, boolean onlyFirstDifference,
+        ReflectionComparator reflectionComparator, int chunkSize) {
+        ParallelElementComparison parallelElementComparison = new ParallelElementComparison(leftValues, rightValues, nrOfElements, onlyFirstDifference,
+            reflectionComparator, chunkSize);
+        parallelElementComparison.new CompareElementsTask(0, nrOfElements).invoke();
+        return parallelElementComparison.differences;
+    }
+
+    private ParallelElementComparison(List<?> leftValues, List<?> rightValues, int nrOfElements, boolean onlyFirstDifference,
+        ReflectionComparator reflectionComparator, int chunkSize) {
+        this.leftValues = leftValues;
+        this.rightValues = rightValues;
+        this.onlyFirstDifference = onlyFirstDifference;
+        this.reflectionComparator = reflectionComparator;
+        this.chunkSize = chunkSize;
+        this.differences = new Difference[nrOfElements];
+    }
+
+    /**
+     * Task comparing a range of elements: a chunk is compared directly, larger ranges are split in two.
+     */
+    private class CompareElementsTask
+        extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /* The first index of the range */
+        private final int fromIndex;
+
+        /* The index after the last index of the range */
+        private final int toIndex;
+
+        public CompareElementsTask(int fromIndex, int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > chunkSize) {
+                int middleIndex = (fromIndex + toIndex) >>> 1;
+                invokeAll(new CompareElementsTask(fromIndex, middleIndex), new CompareElementsTask(middleIndex, toIndex));
+                return;
+            }
+            ReflectionComparator forkedComparator = reflectionComparator.createForkedComparator();
+            for (int index = fromIndex; index < toIndex; index++) {
+                if (onlyFirstDifference && differenceFound.get()) {
+                    return;
+                }
+                Difference difference = forkedComparator.getDifference(leftValues.get(index), rightValues.get(index), onlyFirstDifference);
+                if (difference != null) {
+                    differences[index] = difference;
+                    differenceFound.set(true);
+                }
+            }
+        }
+    }
+}
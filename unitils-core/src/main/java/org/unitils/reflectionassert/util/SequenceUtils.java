@@ -0,0 +1,278 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.stream.BaseStream;
+
+/**
+ * Utility methods for values that are compared as a sequence of elements: arrays and collections.
+ * <p/>
+ * Iterators and streams can only be iterated once. They are only compared as sequences when they are passed directly
+ * to the reflection comparator, which wraps them in a list that reads their elements when they are needed, see
+ * {@link #toRepeatableSequence(Object)}.
+ * Other iterables are compared field by field, as they can contain other state than their elements.
+ * <p/>
+ * Arrays and lists are accessed directly, without copying their elements. The elements of primitive arrays are only
+ * boxed when they are accessed as objects.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class SequenceUtils {
+
+    /**
+     * Checks whether the given value is a sequence of elements.
+     *
+     * @param value
+     *     The value, can be null
+     * @return True for arrays and collections
+     */
+    public static boolean isSequence(Object value) {
+        if (value == null) {
+            return false;
+        }
+        return value.getClass().isArray() || value instanceof Collection;
+    }
+
+    /**
+     * Checks whether all values of the given type are sequences of elements, see {@link #isSequence(Object)}.
+     *
+     * @param type
+     *     The type, not null
+     * @return True for array and collection types
+     */
+    public static boolean isSequenceType(Class<?> type) {
+        return type.isArray() || Collection.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Wraps an iterator or stream in a list, so that its elements can be compared more than once. The elements are
+     * only read from the iterator or stream when they are needed: comparing them in order reads them one by one, in
+     * a single pass, and stops at the first difference if only the first difference is needed. The elements that were
+     * read are kept, e.g. to report the difference. Comparing ignoring the order needs all elements. Other values are
+     * returned as is.
+     *
+     * @param value
+     *     The value, can be null
+     * @return The list with the elements for iterators and streams, else the value itself
+     */
+    public static Object toRepeatableSequence(Object value) {
+        if (value instanceof Iterator || value instanceof BaseStream) {
+            return new IteratingList(getIterator(value));
+        }
+        return value;
+    }
+
+    /**
+     * @param value
+     *     The value, can be null
+     * @return True for arrays and random access lists
+     */
+    public static boolean isRandomAccess(Object value) {
+        if (value == null) {
+            return false;
+        }
+        return value.getClass().isArray() || (value instanceof List && value instanceof RandomAccess);
+    }
+
+    /**
+     * @param left
+     *     The left value, can be null
+     * @param right
+     *     The right value, can be null
+     * @return True if both values are arrays of the same primitive type
+     */
+    public static boolean isPrimitiveArrayOfSameType(Object left, Object right) {
+        if (left == null || right == null) {
+            return false;
+        }
+        Class<?> componentType = left.getClass().getComponentType();
+        return componentType != null && componentType.isPrimitive() && left.getClass().equals(right.getClass());
+    }
+
+    /**
+     * Gets an iterator over the elements of the given sequence. For iterators and streams, the elements can only be
+     * iterated once.
+     *
+     * @param sequence
+     *     The array, iterable, iterator or stream, not null
+     * @return The iterator, not null
+     */
+    public static Iterator<?> getIterator(Object sequence) {
+        if (sequence.getClass().isArray()) {
+            return asList(sequence).iterator();
+        }
+        if (sequence instanceof Iterator) {
+            return (Iterator<?>) sequence;
+        }
+        if (sequence instanceof BaseStream) {
+            return ((BaseStream<?, ?>) sequence).iterator();
+        }
+        return ((Iterable<?>) sequence).iterator();
+    }
+
+    /**
+     * Gets the elements of the given sequence as a list. Arrays and lists are wrapped, the elements of other sequences
+     * are copied into a new list.
+     *
+     * @param sequence
+     *     The array, iterable, iterator or stream, not null
+     * @return The elements, not null
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object> asList(Object sequence) {
+        if (sequence instanceof List) {
+            return (List<Object>) sequence;
+        }
+        if (sequence instanceof Object[]) {
+            return Arrays.asList((Object[]) sequence);
+        }
+        if (sequence.getClass().isArray()) {
+            return new PrimitiveArrayList(sequence);
+        }
+        List<Object> result = new ArrayList<>();
+        getIterator(sequence).forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Checks whether the elements at the given index of two arrays of the same primitive type are the same, without
+     * boxing them. Floating point values are compared in the same way as {@link Double#equals}.
+     *
+     * @param leftArray
+     *     The left array, not null
+     * @param rightArray
+     *     The right array of the same type, not null
+     * @param index
+     *     The index of the elements
+     * @return True if the elements are the same
+     */
+    public static boolean isSamePrimitive(Object leftArray, Object rightArray, int index) {
+        if (leftArray instanceof int[]) {
+            return ((int[]) leftArray)[index] == ((int[]) rightArray)[index];
+        }
+        if (leftArray instanceof long[]) {
+            return ((long[]) leftArray)[index] == ((long[]) rightArray)[index];
+        }
+        if (leftArray instanceof double[]) {
+            return Double.doubleToLongBits(((double[]) leftArray)[index]) == Double.doubleToLongBits(((double[]) rightArray)[index]);
+        }
+        if (leftArray instanceof float[]) {
+            return Float.floatToIntBits(((float[]) leftArray)[index]) == Float.floatToIntBits(((float[]) rightArray)[index]);
+        }
+        if (leftArray instanceof byte[]) {
+            return ((byte[]) leftArray)[index] == ((byte[]) rightArray)[index];
+        }
+        if (leftArray instanceof short[]) {
+            return ((short[]) leftArray)[index] == ((short[]) rightArray)[index];
+        }
+        if (leftArray instanceof char[]) {
+            return ((char[]) leftArray)[index] == ((char[]) rightArray)[index];
+        }
+        return ((boolean[]) leftArray)[index] == ((boolean[]) rightArray)[index];
+    }
+
+    /**
+     * A read-only list that reads the elements of an iterator when they are accessed. Its iterator reads them one by
+     * one. The list is not random access, so that it is compared element by element.
+     */
+    private static class IteratingList
+        extends AbstractList<Object> {
+
+        private final Iterator<?> source;
+
+        private final List<Object> elements = new ArrayList<>();
+
+        public IteratingList(Iterator<?> source) {
+            this.source = source;
+        }
+
+        @Override
+        public Object get(int index) {
+            while (elements.size() <= index && readNext()) {
+                // read until the element is available
+            }
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            while (readNext()) {
+                // read all elements
+            }
+            return elements.size();
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new Iterator<Object>() {
+
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < elements.size() || readNext();
+                }
+
+                @Override
+                public Object next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return elements.get(index++);
+                }
+            };
+        }
+
+        private boolean readNext() {
+            if (!source.hasNext()) {
+                return false;
+            }
+            elements.add(source.next());
+            return true;
+        }
+    }
+
+    /**
+     * A read-only list view of a primitive array, boxing the elements when they are accessed.
+     */
+    private static class PrimitiveArrayList
+        extends AbstractList<Object>
+        implements RandomAccess {
+
+        private final Object array;
+
+        public PrimitiveArrayList(Object array) {
+            this.array = array;
+        }
+
+        @Override
+        public Object get(int index) {
+            return Array.get(array, index);
+        }
+
+        @Override
+        public int size() {
+            return Array.getLength(array);
+        }
+    }
+}
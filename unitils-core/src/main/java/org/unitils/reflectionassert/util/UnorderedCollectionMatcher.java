@@ -0,0 +1,596 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+import static java.lang.reflect.Modifier.isStatic;
+import static java.lang.reflect.Modifier.isTransient;
+
+import static org.unitils.util.ClassMetadata.getClassMetadata;
+
+/**
+ * A utility class that pairs the elements of two unordered collections so that every left element is paired with a
+ * right element that is equal to it, according to the given reflection comparator.
+ * <p/>
+ * Such a pairing exists exactly when the bipartite 'is equal' graph between the left and right elements has a
+ * perfect matching. This is determined as follows:
+ * <ul>
+ * <li>every element gets a cheap fingerprint (e.g. its number value or its class and simple field values) and the
+ * right elements are bucketed by fingerprint</li>
+ * <li>each left element is first compared with the right element at the same index and then with the right elements
+ * with the same fingerprint. In the common case, this pairs all elements with about one comparison per element</li>
+ * <li>the remaining left elements are paired using the Hopcroft-Karp algorithm, comparing them with all right
+ * elements</li>
+ * </ul>
+ * The fingerprints are only used to decide which elements are compared first, they never decide whether elements are
+ * equal. The result is therefore the same as when trying all orderings, but it is found in polynomial time.
+ * <p/>
+ * When there is no complete match, {@link #matchMaximal()} pairs as many elements as possible and
+ * {@link #getBestMatchCandidates} proposes a few of the remaining right elements for each remaining left element,
+ * ranked by the distance between their fingerprints. This allows reporting the best matches without computing the
+ * full difference of every left element with every right element. Only when the fingerprints cannot tell the elements
+ * apart, e.g. for nested collections, the actual difference is used as distance. The nr of such full differences is
+ * limited per left element.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class UnorderedCollectionMatcher {
+
+    /* Value used for an unmatched index and an unreached distance */
+    private static final int NONE = -1;
+
+    /* Fingerprint for null values */
+    private static final Object NULL_FINGERPRINT = new Object();
+
+    /**
+     * The maximum nr of full differences that are computed to rank the candidates of one left element. When this
+     * nr is reached, elements with the same fingerprint that are not equal get the lowest distance.
+     */
+    protected static final int MAX_FULL_DIFFERENCES = 10;
+
+    /* The left elements, not null */
+    protected List<?> leftList;
+
+    /* The right elements, not null */
+    protected List<?> rightList;
+
+    /* The comparator for the element comparisons, not null */
+    protected ReflectionComparator reflectionComparator;
+
+    /* The index of the right element that is paired with each left element */
+    protected int[] matchedRightIndexes;
+
+    /* The index of the left element that is paired with each right element */
+    protected int[] matchedLeftIndexes;
+
+    /* The indexes of the right elements that are equal to each left element, lazily filled in */
+    protected int[][] equalRightIndexes;
+
+    /* The fingerprints of the left elements, lazily filled in */
+    protected Object[] leftFingerprints;
+
+    /* The fingerprints of the right elements, lazily filled in */
+    protected Object[] rightFingerprints;
+
+    /* The calculator for the distances of elements with equal fingerprints, lazily created */
+    protected MatchingScoreCalculator matchingScoreCalculator;
+
+    /* The nr of full differences that were computed for ranking the candidates of the current left element */
+    protected int nrOfFullDifferences;
+
+    /**
+     * Creates a matcher for the given elements.
+     *
+     * @param leftList
+     *     The left elements, not null
+     * @param rightList
+     *     The right elements, not null
+     * @param reflectionComparator
+     *     The comparator for the element comparisons, not null
+     */
+    public UnorderedCollectionMatcher(List<?> leftList, List<?> rightList, ReflectionComparator reflectionComparator) {
+        this.leftList = leftList;
+        this.rightList = rightList;
+        this.reflectionComparator = reflectionComparator;
+    }
+
+    /**
+     * Checks whether every left element can be paired with an equal right element and vice versa.
+     *
+     * @return True if such a pairing exists
+     */
+    public boolean isCompleteMatch() {
+        if (leftList.size() != rightList.size()) {
+            return false;
+        }
+        int size = leftList.size();
+        int matchCount = initMatching();
+        if (matchCount == size) {
+            return true;
+        }
+        // a left element without any equal right element can never be paired
+        for (int leftIndex = 0; leftIndex < size; leftIndex++) {
+            if (matchedRightIndexes[leftIndex] == NONE && getEqualRightIndexes(leftIndex).length == 0) {
+                return false;
+            }
+        }
+        return matchCount + matchRemaining() == size;
+    }
+
+    /**
+     * Pairs as many left elements as possible with an equal right element, also when the collections have a different
+     * size. The comparisons that were already done by {@link #isCompleteMatch()} are reused.
+     *
+     * @return The nr of paired elements
+     */
+    public int matchMaximal() {
+        if (matchedRightIndexes == null) {
+            initMatching();
+        }
+        matchRemaining();
+
+        int matchCount = 0;
+        for (int matchedRightIndex : matchedRightIndexes) {
+            if (matchedRightIndex != NONE) {
+                matchCount++;
+            }
+        }
+        return matchCount;
+    }
+
+    /**
+     * Gets the index of the right element that was paired with the given left element. Only available after
+     * {@link #isCompleteMatch()} or {@link #matchMaximal()} has been called.
+     *
+     * @param leftIndex
+     *     The index of the left element
+     * @return The right index, -1 if the element was not paired
+     */
+    public int getMatchedRightIndex(int leftIndex) {
+        if (matchedRightIndexes == null) {
+            return NONE;
+        }
+        return matchedRightIndexes[leftIndex];
+    }
+
+    /**
+     * Gets the index of the left element that was paired with the given right element. Only available after
+     * {@link #isCompleteMatch()} or {@link #matchMaximal()} has been called.
+     *
+     * @param rightIndex
+     *     The index of the right element
+     * @return The left index, -1 if the element was not paired
+     */
+    public int getMatchedLeftIndex(int rightIndex) {
+        if (matchedLeftIndexes == null) {
+            return NONE;
+        }
+        return matchedLeftIndexes[rightIndex];
+    }
+
+    /**
+     * Gets the unpaired right elements that most resemble the given left element. The elements are ranked by the
+     * distance between their fingerprints, or between the elements themselves if their fingerprints are equal, the
+     * lowest index first for the same distance. Computing a distance stops as soon as it exceeds the distance of the
+     * worst candidate found so far.
+     * <p/>
+     * The fingerprints are only an estimate: the caller should compute the actual differences of the candidates to
+     * pick the best match.
+     *
+     * @param leftIndex
+     *     The index of the left element
+     * @param maxCandidates
+     *     The maximum nr of candidates, > 0
+     * @return The right indexes, best candidate first, not null
+     */
+    public int[] getBestMatchCandidates(int leftIndex, int maxCandidates) {
+        int[] candidates = new int[maxCandidates];
+        int[] distances = new int[maxCandidates];
+        int nrOfCandidates = 0;
+        nrOfFullDifferences = 0;
+        for (int rightIndex = 0; rightIndex < rightList.size(); rightIndex++) {
+            if (getMatchedLeftIndex(rightIndex) != NONE) {
+                continue;
+            }
+            int bound = nrOfCandidates < maxCandidates ? Integer.MAX_VALUE : distances[nrOfCandidates - 1];
+            int distance = getDistance(leftIndex, rightIndex, bound);
+            if (distance >= bound) {
+                continue;
+            }
+            // insert in the sorted candidates, dropping the worst one if there are too many
+            int position = Math.min(nrOfCandidates, maxCandidates - 1);
+            while (position > 0 && distances[position - 1] > distance) {
+                candidates[position] = candidates[position - 1];
+                distances[position] = distances[position - 1];
+                position--;
+            }
+            candidates[position] = rightIndex;
+            distances[position] = distance;
+            nrOfCandidates = Math.min(nrOfCandidates + 1, maxCandidates);
+        }
+        return Arrays.copyOf(candidates, nrOfCandidates);
+    }
+
+    /**
+     * Creates the pairing arrays and pairs the elements by fingerprint.
+     *
+     * @return The nr of paired elements
+     */
+    protected int initMatching() {
+        matchedRightIndexes = new int[leftList.size()];
+        matchedLeftIndexes = new int[rightList.size()];
+        equalRightIndexes = new int[leftList.size()][];
+        Arrays.fill(matchedRightIndexes, NONE);
+        Arrays.fill(matchedLeftIndexes, NONE);
+        return matchByFingerprint();
+    }
+
+    /**
+     * Pairs the left elements with the right element at the same index, or else with the first equal right element
+     * that has the same fingerprint.
+     *
+     * @return The nr of paired elements
+     */
+    protected int matchByFingerprint() {
+        Map<Object, Set<Integer>> rightIndexesPerFingerprint = new HashMap<>();
+        for (int rightIndex = 0; rightIndex < rightList.size(); rightIndex++) {
+            rightIndexesPerFingerprint.computeIfAbsent(getRightFingerprint(rightIndex), key -> new LinkedHashSet<>()).add(rightIndex);
+        }
+
+        int matchCount = 0;
+        for (int leftIndex = 0; leftIndex < leftList.size(); leftIndex++) {
+            if (leftIndex < rightList.size() && matchedLeftIndexes[leftIndex] == NONE && isEqual(leftIndex, leftIndex)) {
+                match(leftIndex, leftIndex);
+                rightIndexesPerFingerprint.get(getRightFingerprint(leftIndex)).remove(leftIndex);
+                matchCount++;
+                continue;
+            }
+            Set<Integer> candidateRightIndexes = rightIndexesPerFingerprint.get(getLeftFingerprint(leftIndex));
+            if (candidateRightIndexes == null) {
+                continue;
+            }
+            Iterator<Integer> iterator = candidateRightIndexes.iterator();
+            while (iterator.hasNext()) {
+                int rightIndex = iterator.next();
+                if (rightIndex != leftIndex && isEqual(leftIndex, rightIndex)) {
+                    match(leftIndex, rightIndex);
+                    iterator.remove();
+                    matchCount++;
+                    break;
+                }
+            }
+        }
+        return matchCount;
+    }
+
+    /**
+     * Pairs the remaining left elements using the Hopcroft-Karp algorithm: repeatedly find a maximal set of
+     * shortest augmenting paths and flip them, until no augmenting path is left.
+     *
+     * @return The nr of extra paired elements
+     */
+    protected int matchRemaining() {
+        int size = leftList.size();
+        int[] distances = new int[size];
+        int matchCount = 0;
+        while (findAugmentingPathLayers(distances)) {
+            for (int leftIndex = 0; leftIndex < size; leftIndex++) {
+                if (matchedRightIndexes[leftIndex] == NONE && augment(leftIndex, distances)) {
+                    matchCount++;
+                }
+            }
+        }
+        return matchCount;
+    }
+
+    /**
+     * Breadth-first search from all unpaired left elements, alternating between 'is equal' and 'is paired' edges.
+     *
+     * @param distances
+     *     Filled in with the layer of each left element, -1 if not reached
+     * @return True if an unpaired right element can be reached
+     */
+    protected boolean findAugmentingPathLayers(int[] distances) {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int leftIndex = 0; leftIndex < distances.length; leftIndex++) {
+            if (matchedRightIndexes[leftIndex] == NONE) {
+                distances[leftIndex] = 0;
+                queue.add(leftIndex);
+            } else {
+                distances[leftIndex] = NONE;
+            }
+        }
+        boolean found = false;
+        while (!queue.isEmpty()) {
+            int leftIndex = queue.remove();
+            for (int rightIndex : getEqualRightIndexes(leftIndex)) {
+                int pairedLeftIndex = matchedLeftIndexes[rightIndex];
+                if (pairedLeftIndex == NONE) {
+                    found = true;
+                } else if (distances[pairedLeftIndex] == NONE) {
+                    distances[pairedLeftIndex] = distances[leftIndex] + 1;
+                    queue.add(pairedLeftIndex);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Depth-first search for an augmenting path from the given left element along the computed layers.
+     *
+     * @param leftIndex
+     *     The left element
+     * @param distances
+     *     The layers of the left elements, not null
+     * @return True if the path was found and flipped
+     */
+    protected boolean augment(int leftIndex, int[] distances) {
+        for (int rightIndex : getEqualRightIndexes(leftIndex)) {
+            int pairedLeftIndex = matchedLeftIndexes[rightIndex];
+            if (pairedLeftIndex == NONE || (distances[pairedLeftIndex] == distances[leftIndex] + 1 && augment(pairedLeftIndex, distances))) {
+                match(leftIndex, rightIndex);
+                return true;
+            }
+        }
+        // no path through this element in this phase
+        distances[leftIndex] = NONE;
+        return false;
+    }
+
+    /**
+     * Gets the indexes of all right elements that are equal to the given left element.
+     *
+     * @param leftIndex
+     *     The left element
+     * @return The right indexes, not null
+     */
+    protected int[] getEqualRightIndexes(int leftIndex) {
+        int[] result = equalRightIndexes[leftIndex];
+        if (result == null) {
+            List<Integer> rightIndexes = new ArrayList<>();
+            for (int rightIndex = 0; rightIndex < rightList.size(); rightIndex++) {
+                if (isEqual(leftIndex, rightIndex)) {
+                    rightIndexes.add(rightIndex);
+                }
+            }
+            result = rightIndexes.stream().mapToInt(Integer::intValue).toArray();
+            equalRightIndexes[leftIndex] = result;
+        }
+        return result;
+    }
+
+    /**
+     * @param leftIndex
+     *     The left element
+     * @param rightIndex
+     *     The right element
+     * @return True if there is no difference between both elements
+     */
+    protected boolean isEqual(int leftIndex, int rightIndex) {
+        return reflectionComparator.getDifference(leftList.get(leftIndex), rightList.get(rightIndex), true) == null;
+    }
+
+    /**
+     * Pairs the given elements. A previous pairing of the left element is replaced, the previously paired right
+     * element is then paired by the caller.
+     *
+     * @param leftIndex
+     *     The left element
+     * @param rightIndex
+     *     The right element
+     */
+    protected void match(int leftIndex, int rightIndex) {
+        matchedRightIndexes[leftIndex] = rightIndex;
+        matchedLeftIndexes[rightIndex] = leftIndex;
+    }
+
+    /**
+     * @param leftIndex
+     *     The left element
+     * @return The fingerprint of the element, not null
+     */
+    protected Object getLeftFingerprint(int leftIndex) {
+        if (leftFingerprints == null) {
+            leftFingerprints = new Object[leftList.size()];
+        }
+        Object fingerprint = leftFingerprints[leftIndex];
+        if (fingerprint == null) {
+            fingerprint = getFingerprint(leftList.get(leftIndex));
+            leftFingerprints[leftIndex] = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @param rightIndex
+     *     The right element
+     * @return The fingerprint of the element, not null
+     */
+    protected Object getRightFingerprint(int rightIndex) {
+        if (rightFingerprints == null) {
+            rightFingerprints = new Object[rightList.size()];
+        }
+        Object fingerprint = rightFingerprints[rightIndex];
+        if (fingerprint == null) {
+            fingerprint = getFingerprint(rightList.get(rightIndex));
+            rightFingerprints[rightIndex] = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Gets the distance between two elements. This is the distance between their fingerprints, unless the
+     * fingerprints are equal. Equal fingerprints, e.g. the class of two collections, do not tell anything about how
+     * much the elements differ. The elements are then first checked for a first difference. If they differ, the
+     * matching score of their full difference is used, unless the bound cannot be improved upon or
+     * {@link #MAX_FULL_DIFFERENCES} full differences were already computed for the left element.
+     *
+     * @param leftIndex
+     *     The left element
+     * @param rightIndex
+     *     The right element
+     * @param bound
+     *     The counting of fingerprint differences stops when the distance reaches this value
+     * @return The distance
+     */
+    protected int getDistance(int leftIndex, int rightIndex, int bound) {
+        int distance = getDistance(getLeftFingerprint(leftIndex), getRightFingerprint(rightIndex), bound);
+        if (distance != 0) {
+            return distance;
+        }
+        Object left = leftList.get(leftIndex);
+        Object right = rightList.get(rightIndex);
+        if (reflectionComparator.getDifference(left, right, true) == null) {
+            return 0;
+        }
+        if (bound <= 1 || nrOfFullDifferences >= MAX_FULL_DIFFERENCES) {
+            // differences have a matching score of at least 1
+            return 1;
+        }
+        if (matchingScoreCalculator == null) {
+            matchingScoreCalculator = new MatchingScoreCalculator();
+        }
+        nrOfFullDifferences++;
+        return matchingScoreCalculator.calculateMatchingScore(reflectionComparator.getDifference(left, right, false));
+    }
+
+    /**
+     * Gets the distance between two fingerprints: 0 if they are equal, the nr of different simple field values for
+     * objects of the same class, 1 for other values of the same type or null and 5 for values of a different type, the
+     * same as the scores of the {@link MatchingScoreCalculator}.
+     *
+     * @param leftFingerprint
+     *     The left fingerprint, not null
+     * @param rightFingerprint
+     *     The right fingerprint, not null
+     * @param bound
+     *     The counting stops when the distance reaches this value
+     * @return The distance
+     */
+    protected int getDistance(Object leftFingerprint, Object rightFingerprint, int bound) {
+        if (leftFingerprint.equals(rightFingerprint)) {
+            return 0;
+        }
+        if (leftFingerprint instanceof List && rightFingerprint instanceof List) {
+            List<?> leftValues = (List<?>) leftFingerprint;
+            List<?> rightValues = (List<?>) rightFingerprint;
+            if (!leftValues.get(0).equals(rightValues.get(0))) {
+                return 5;
+            }
+            // same class, so the same fields
+            int distance = 0;
+            for (int i = 1; i < leftValues.size() && distance < bound; i++) {
+                if (!leftValues.get(i).equals(rightValues.get(i))) {
+                    distance++;
+                }
+            }
+            return distance;
+        }
+        if (leftFingerprint instanceof Class || rightFingerprint instanceof Class) {
+            return 5;
+        }
+        if (leftFingerprint == NULL_FINGERPRINT || rightFingerprint == NULL_FINGERPRINT || leftFingerprint.getClass().equals(rightFingerprint.getClass())) {
+            return 1;
+        }
+        return 5;
+    }
+
+    /**
+     * Gets a cheap fingerprint of the given value. Values with a different fingerprint can still be equal, e.g. when
+     * default values are ignored, but values that are equal usually have the same fingerprint.
+     *
+     * @param value
+     *     The value, can be null
+     * @return The fingerprint, not null
+     */
+    protected Object getFingerprint(Object value) {
+        if (value == null) {
+            return NULL_FINGERPRINT;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Character) {
+            return (double) (Character) value;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        Class<?> clazz = value.getClass();
+        if (clazz.isEnum() || clazz.getName().startsWith("java.lang") || clazz.getName().startsWith("java.time.")) {
+            return value;
+        }
+        if (clazz.isArray() || clazz.getName().startsWith("java.")) {
+            return clazz;
+        }
+        return getObjectFingerprint(value, clazz);
+    }
+
+    /**
+     * Gets the fingerprint of an object: its class and the values of its simple fields.
+     *
+     * @param value
+     *     The value, not null
+     * @param clazz
+     *     The class of the value, not null
+     * @return The fingerprint, not null
+     */
+    protected Object getObjectFingerprint(Object value, Class<?> clazz) {
+        List<Object> fingerprint = new ArrayList<>();
+        fingerprint.add(clazz);
+        try {
+            for (Field field : getClassMetadata(clazz).getAllFields()) {
+                int modifiers = field.getModifiers();
+                if (isStatic(modifiers) || isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                if (isSimpleType(field.getType())) {
+                    field.setAccessible(true);
+                    fingerprint.add(getFingerprint(field.get(value)));
+                }
+            }
+        } catch (RuntimeException | IllegalAccessException e) {
+            // fields are not accessible, only use the class
+            return clazz;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @param type
+     *     The type of a field, not null
+     * @return True if the values of the type are part of the fingerprint of an object: primitives and their wrappers,
+     *     other numbers, enums, strings, dates and java.time values
+     */
+    protected boolean isSimpleType(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || String.class.equals(type) || Boolean.class.equals(type) || Character.class.equals(type)
+            || Number.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type) || type.getName().startsWith("java.time.");
+    }
+}
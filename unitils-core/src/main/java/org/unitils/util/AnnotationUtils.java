@@ -22,8 +22,11 @@ import java.util.Set;
 
 import org.unitils.core.UnitilsException;
 
+import static org.unitils.util.ClassMetadata.getClassMetadata;
+
 /**
- * Utilities for retrieving and working with annotations.
+ * Utilities for retrieving and working with annotations. The annotated fields and methods of a class are looked up
+ * once and then cached, see {@link ClassMetadata}.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
@@ -42,15 +45,7 @@ public class AnnotationUtils {
         if (Object.class.equals(clazz)) {
             return Collections.emptySet();
         }
-        Set<Field> annotatedFields = new HashSet<>();
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            if (field.getAnnotation(annotation) != null) {
-                annotatedFields.add(field);
-            }
-        }
-        annotatedFields.addAll(getFieldsAnnotatedWith(clazz.getSuperclass(), annotation));
-        return annotatedFields;
+        return new HashSet<>(getClassMetadata(clazz).getFieldsAnnotatedWith(annotation));
     }
 
     /**
@@ -99,17 +94,7 @@ public class AnnotationUtils {
         if (Object.class.equals(clazz)) {
             return Collections.emptySet();
         }
-        Set<Method> annotatedMethods = new HashSet<>();
-        Method[] methods = clazz.getDeclaredMethods();
-        for (Method method : methods) {
-            if (method.getAnnotation(annotation) != null) {
-                annotatedMethods.add(method);
-            }
-        }
-        if (includeInherited) {
-            annotatedMethods.addAll(getMethodsAnnotatedWith(clazz.getSuperclass(), annotation));
-        }
-        return annotatedMethods;
+        return new HashSet<>(getClassMetadata(clazz).getMethodsAnnotatedWith(annotation, includeInherited));
     }
 
     public static <T extends Annotation> T getMethodOrClassLevelAnnotation(Class<T> annotationClass, Method method, Class<?> clazz) {
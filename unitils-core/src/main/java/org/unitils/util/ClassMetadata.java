@@ -0,0 +1,343 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.util;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.reflect.Modifier.isStatic;
+import static java.util.Arrays.asList;
+
+import static org.unitils.util.ReflectionUtils.isAssignable;
+import static org.unitils.util.ReflectionUtils.isSetter;
+
+/**
+ * Reflection metadata of a class and its super-classes: its fields and methods, the ones that are annotated with a
+ * given annotation and the ones that have a given type.
+ * <p/>
+ * The metadata is computed only once per class and then shared by all modules and all tests. The returned sets are
+ * unmodifiable. The fields and methods in these sets are shared as well, so they should be treated as read-only:
+ * apart from making them accessible, they should not be changed. Use {@link #clearCache()} when classes are reloaded.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ClassMetadata {
+
+    /* The metadata of all classes that were inspected so far */
+    private static volatile ClassValue<ClassMetadata> classMetadataCache = createClassMetadataCache();
+
+    /* The metadata for Object and for the super-class of interfaces */
+    private static final ClassMetadata EMPTY = new ClassMetadata();
+
+    /**
+     * Gets the metadata of the given class.
+     *
+     * @param clazz
+     *     The class, null for no class
+     * @return The metadata, not null
+     */
+    public static ClassMetadata getClassMetadata(Class<?> clazz) {
+        if (clazz == null || Object.class.equals(clazz)) {
+            return EMPTY;
+        }
+        ClassMetadata classMetadata = classMetadataCache.get(clazz);
+        while (classMetadata.isRemoved()) {
+            // the metadata of a super-class was removed
+            classMetadataCache.remove(clazz);
+            classMetadata = classMetadataCache.get(clazz);
+        }
+        return classMetadata;
+    }
+
+    /**
+     * Removes the metadata of all classes.
+     */
+    public static void clearCache() {
+        classMetadataCache = createClassMetadataCache();
+    }
+
+    /**
+     * Removes the metadata of the given class and of its sub-classes. The metadata of the sub-classes is only
+     * recomputed when it is used again.
+     *
+     * @param clazz
+     *     The class, not null
+     */
+    public static void clearCache(Class<?> clazz) {
+        if (Object.class.equals(clazz)) {
+            clearCache();
+            return;
+        }
+        classMetadataCache.get(clazz).removed = true;
+        classMetadataCache.remove(clazz);
+    }
+
+    private static ClassValue<ClassMetadata> createClassMetadataCache() {
+        return new ClassValue<>() {
+            @Override
+            protected ClassMetadata computeValue(Class<?> type) {
+                return new ClassMetadata(type);
+            }
+        };
+    }
+
+    /* The metadata of the super-class, null for Object */
+    private final ClassMetadata superClassMetadata;
+
+    /* True if the metadata was removed from the cache */
+    private volatile boolean removed;
+
+    /* The declared fields of the class */
+    private final Field[] declaredFields;
+
+    /* The declared methods of the class, including the ones added by the compiler */
+    private final Method[] declaredMethods;
+
+    /* All fields of the class and its super-classes */
+    private final Set<Field> allFields;
+
+    /* All methods of the class and its super-classes, without the ones added by the compiler */
+    private final Set<Method> allMethods;
+
+    private final Map<Class<? extends Annotation>, Set<Field>> fieldsAnnotatedWith = new ConcurrentHashMap<>();
+
+    private final Map<Class<? extends Annotation>, Set<Method>> declaredMethodsAnnotatedWith = new ConcurrentHashMap<>();
+
+    private final Map<Class<? extends Annotation>, Set<Method>> methodsAnnotatedWith = new ConcurrentHashMap<>();
+
+    private final Map<TypeKey, Set<Field>> fieldsAssignableFrom = new ConcurrentHashMap<>();
+
+    private final Map<TypeKey, Set<Field>> fieldsOfType = new ConcurrentHashMap<>();
+
+    private final Map<TypeKey, Set<Method>> settersAssignableFrom = new ConcurrentHashMap<>();
+
+    private final Map<TypeKey, Set<Method>> settersOfType = new ConcurrentHashMap<>();
+
+    private ClassMetadata() {
+        superClassMetadata = null;
+        declaredFields = new Field[0];
+        declaredMethods = new Method[0];
+        allFields = Collections.emptySet();
+        allMethods = Collections.emptySet();
+    }
+
+    private ClassMetadata(Class<?> clazz) {
+        superClassMetadata = getClassMetadata(clazz.getSuperclass());
+        declaredFields = clazz.getDeclaredFields();
+        declaredMethods = clazz.getDeclaredMethods();
+
+        Set<Field> fields = new HashSet<>(asList(declaredFields));
+        fields.addAll(superClassMetadata.allFields);
+        allFields = Collections.unmodifiableSet(fields);
+
+        Set<Method> methods = new HashSet<>();
+        for (Method declaredMethod : declaredMethods) {
+            if (declaredMethod.isSynthetic() || declaredMethod.isBridge()) {
+                // skip methods that were added by the compiler
+                continue;
+            }
+            methods.add(declaredMethod);
+        }
+        methods.addAll(superClassMetadata.allMethods);
+        allMethods = Collections.unmodifiableSet(methods);
+    }
+
+    /**
+     * @return True if the metadata of the class or of one of its super-classes was removed from the cache
+     */
+    private boolean isRemoved() {
+        return removed || (superClassMetadata != null && superClassMetadata.isRemoved());
+    }
+
+    /**
+     * @return All fields of the class and its super-classes, not null
+     */
+    public Set<Field> getAllFields() {
+        return allFields;
+    }
+
+    /**
+     * @return All methods of the class and its super-classes, without the synthetic and bridge methods, not null
+     */
+    public Set<Method> getAllMethods() {
+        return allMethods;
+    }
+
+    /**
+     * @param annotation
+     *     The annotation, not null
+     * @return The fields of the class and its super-classes that are annotated with the given annotation, not null
+     */
+    public Set<Field> getFieldsAnnotatedWith(Class<? extends Annotation> annotation) {
+        if (this == EMPTY) {
+            return Collections.emptySet();
+        }
+        return fieldsAnnotatedWith.computeIfAbsent(annotation, key -> {
+            Set<Field> result = new HashSet<>();
+            for (Field field : declaredFields) {
+                if (field.getAnnotation(key) != null) {
+                    result.add(field);
+                }
+            }
+            result.addAll(superClassMetadata.getFieldsAnnotatedWith(key));
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    /**
+     * @param annotation
+     *     The annotation, not null
+     * @param includeInherited
+     *     True for also looking for methods in super-classes
+     * @return The methods that are annotated with the given annotation, not null
+     */
+    public Set<Method> getMethodsAnnotatedWith(Class<? extends Annotation> annotation, boolean includeInherited) {
+        if (this == EMPTY) {
+            return Collections.emptySet();
+        }
+        Set<Method> result = declaredMethodsAnnotatedWith.computeIfAbsent(annotation, key -> {
+            Set<Method> methods = new HashSet<>();
+            for (Method method : declaredMethods) {
+                if (method.getAnnotation(key) != null) {
+                    methods.add(method);
+                }
+            }
+            return Collections.unmodifiableSet(methods);
+        });
+        if (!includeInherited) {
+            return result;
+        }
+        return methodsAnnotatedWith.computeIfAbsent(annotation, key -> {
+            Set<Method> methods = new HashSet<>(result);
+            methods.addAll(superClassMetadata.getMethodsAnnotatedWith(key, true));
+            return Collections.unmodifiableSet(methods);
+        });
+    }
+
+    /**
+     * @param type
+     *     The type, not null
+     * @param isStatic
+     *     True if static fields are to be returned, false for non-static
+     * @return The fields of the class and its super-classes that are assignable from the given type, not null
+     */
+    public Set<Field> getFieldsAssignableFrom(Type type, boolean isStatic) {
+        return fieldsAssignableFrom.computeIfAbsent(new TypeKey(type, isStatic), key -> {
+            Set<Field> result = new HashSet<>();
+            for (Field field : allFields) {
+                if (isAssignable(type, field.getGenericType()) && isStatic(field.getModifiers()) == isStatic) {
+                    result.add(field);
+                }
+            }
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    /**
+     * @param type
+     *     The type, not null
+     * @param isStatic
+     *     True if static fields are to be returned, false for non-static
+     * @return The fields of the class and its super-classes that have exactly the given type, not null
+     */
+    public Set<Field> getFieldsOfType(Type type, boolean isStatic) {
+        return fieldsOfType.computeIfAbsent(new TypeKey(type, isStatic), key -> {
+            Set<Field> result = new HashSet<>();
+            for (Field field : allFields) {
+                if (field.getType().equals(type) && isStatic == isStatic(field.getModifiers())) {
+                    result.add(field);
+                }
+            }
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    /**
+     * @param type
+     *     The type, not null
+     * @param isStatic
+     *     True if static setters are to be returned, false for non-static
+     * @return The setters of the class and its super-classes with an argument that is assignable from the given type, not null
+     */
+    public Set<Method> getSettersAssignableFrom(Type type, boolean isStatic) {
+        return settersAssignableFrom.computeIfAbsent(new TypeKey(type, isStatic), key -> {
+            Set<Method> result = new HashSet<>();
+            for (Method method : allMethods) {
+                if (isSetter(method) && isAssignable(type, method.getGenericParameterTypes()[0]) && (isStatic == isStatic(method.getModifiers()))) {
+                    result.add(method);
+                }
+            }
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    /**
+     * @param type
+     *     The type, not null
+     * @param isStatic
+     *     True if static setters are to be returned, false for non-static
+     * @return The setters of the class and its super-classes with an argument of exactly the given type, not null
+     */
+    public Set<Method> getSettersOfType(Type type, boolean isStatic) {
+        return settersOfType.computeIfAbsent(new TypeKey(type, isStatic), key -> {
+            Set<Method> result = new HashSet<>();
+            for (Method method : allMethods) {
+                if (isSetter(method) && method.getGenericParameterTypes()[0].equals(type) && isStatic == isStatic(method.getModifiers())) {
+                    result.add(method);
+                }
+            }
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    /**
+     * Key for the lookups by type.
+     */
+    private static class TypeKey {
+
+        private final Type type;
+
+        private final boolean isStatic;
+
+        public TypeKey(Type type, boolean isStatic) {
+            this.type = type;
+            this.isStatic = isStatic;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TypeKey)) {
+                return false;
+            }
+            TypeKey other = (TypeKey) o;
+            return isStatic == other.isStatic && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, isStatic);
+        }
+    }
+}
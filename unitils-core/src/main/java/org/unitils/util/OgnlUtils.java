@@ -0,0 +1,120 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ognl.MemberAccess;
+import ognl.Ognl;
+import ognl.OgnlContext;
+import ognl.OgnlException;
+import ognl.UnitilsMemberAccess;
+
+/**
+ * Utility methods for evaluating OGNL expressions.
+ * <p/>
+ * Parsing an expression is much more expensive than evaluating it, so parsed expressions are kept in a shared cache.
+ * The least recently used expressions are removed when the cache is full. Parsed expressions do not hold any
+ * state of an evaluation and can be used by several threads at the same time. A context on the other hand can only be
+ * used by one thread, but it can be reused for evaluating several expressions.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class OgnlUtils {
+
+    /* The maximum nr of parsed expressions in the cache */
+    private static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+    /* Member access that also allows access to private members, it has no state so it can be shared */
+    private static final MemberAccess MEMBER_ACCESS = new UnitilsMemberAccess();
+
+    /* The parsed expressions per expression string */
+    private static final Map<String, Object> parsedExpressions = Collections.synchronizedMap(new LinkedHashMap<String, Object>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > MAX_CACHED_EXPRESSIONS;
+        }
+    });
+
+    /**
+     * Gets the parsed version of the given expression, the expression is only parsed the first time.
+     *
+     * @param expression
+     *     The OGNL expression, not null
+     * @return The parsed expression, not null
+     * @throws OgnlException
+     *     If the expression is not valid
+     */
+    public static Object parseExpression(String expression)
+        throws OgnlException {
+        Object parsedExpression = parsedExpressions.get(expression);
+        if (parsedExpression == null) {
+            parsedExpression = Ognl.parseExpression(expression);
+            parsedExpressions.put(expression, parsedExpression);
+        }
+        return parsedExpression;
+    }
+
+    /**
+     * Creates a context for evaluating expressions that can also access private members.
+     * The context can be reused for other evaluations by the same thread.
+     *
+     * @return The context, not null
+     */
+    public static OgnlContext createOgnlContext() {
+        return new OgnlContext(null, null, MEMBER_ACCESS);
+    }
+
+    /**
+     * Evaluates the given expression on the given object.
+     *
+     * @param expression
+     *     The OGNL expression, not null
+     * @param object
+     *     The object on which the expression is evaluated
+     * @return The value
+     * @throws OgnlException
+     *     If the expression is not valid or could not be evaluated
+     */
+    public static Object getValue(String expression, Object object)
+        throws OgnlException {
+        return Ognl.getValue(parseExpression(expression), createOgnlContext(), object);
+    }
+
+    /**
+     * Sets the given value in the property of the given object that is specified by the given expression.
+     *
+     * @param expression
+     *     The OGNL expression, not null
+     * @param object
+     *     The object on which the expression is evaluated
+     * @param value
+     *     The value to set
+     * @throws OgnlException
+     *     If the expression is not valid or the value could not be set
+     */
+    public static void setValue(String expression, Object object, Object value)
+        throws OgnlException {
+        Ognl.setValue(parseExpression(expression), createOgnlContext(), object, value);
+    }
+
+    /**
+     * Removes all parsed expressions from the cache.
+     */
+    public static void clearCache() {
+        parsedExpressions.clear();
+    }
+}
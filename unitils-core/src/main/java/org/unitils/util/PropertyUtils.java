@@ -13,20 +13,30 @@
 package org.unitils.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Function;
 
 import org.unitils.core.UnitilsException;
+import org.unitils.core.config.ConfigurationProperties;
 
 import static org.unitils.util.ReflectionUtils.createInstanceOfType;
 
 /**
  * Utilities for working with property files.
+ * <p/>
+ * If the properties are {@link ConfigurationProperties}, values that are converted to a list or a class are kept, so
+ * that the same value is only converted once.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
  */
 public class PropertyUtils {
+
+    /* Splits a comma separated value into an unmodifiable list of trimmed values */
+    private static final Function<String, List<String>> STRING_LIST_CONVERTER = PropertyUtils::toStringList;
+
     /**
      * Gets the string value for the property with the given name. If no such property is found or
      * the value is empty, an exception will be raised.
@@ -101,16 +111,20 @@ public class PropertyUtils {
             }
             return new ArrayList<>(0);
         }
+        List<String> result = new ArrayList<>(convert(values, properties, STRING_LIST_CONVERTER));
+        if (required && result.isEmpty()) {
+            throw new UnitilsException("No value found for property " + propertyName);
+        }
+        return result;
+    }
+
+    private static List<String> toStringList(String values) {
         String[] splitValues = values.split(",");
         List<String> result = new ArrayList<>(splitValues.length);
         for (String value : splitValues) {
             result.add(value.trim());
         }
-
-        if (required && result.isEmpty()) {
-            throw new UnitilsException("No value found for property " + propertyName);
-        }
-        return result;
+        return Collections.unmodifiableList(result);
     }
 
     /**
@@ -281,7 +295,7 @@ public class PropertyUtils {
      */
     public static <T> T getInstance(String propertyName, Properties properties) {
         String className = getString(propertyName, properties);
-        return (T) createInstanceOfType(className, false);
+        return createInstance(className, properties);
     }
 
     /**
@@ -301,6 +315,18 @@ public class PropertyUtils {
         if (className == null) {
             return defaultValue;
         }
-        return (T) createInstanceOfType(className, false);
+        return createInstance(className, properties);
+    }
+
+    private static <T> T createInstance(String className, Properties properties) {
+        Class<?> type = ConfigurationProperties.getClassWithName(className, properties);
+        return (T) createInstanceOfType(type, false);
+    }
+
+    private static <T> T convert(String value, Properties properties, Function<String, T> converter) {
+        if (properties instanceof ConfigurationProperties) {
+            return ((ConfigurationProperties) properties).getConvertedValue(value, converter);
+        }
+        return converter.apply(value);
     }
 }
@@ -32,9 +32,9 @@ import org.unitils.core.UnitilsException;
 import org.unitils.core.util.TypeUtils;
 
 import static java.lang.reflect.Modifier.isStatic;
-import static java.util.Arrays.asList;
 
 import static org.apache.commons.lang3.StringUtils.capitalize;
+import static org.unitils.util.ClassMetadata.getClassMetadata;
 
 /**
  * Utility methods that use reflection for instance creation or class
@@ -269,14 +269,7 @@ public class ReflectionUtils {
      * @return A list of Fields, empty list if none found
      */
     public static Set<Field> getFieldsAssignableFrom(Class<?> clazz, Type type, boolean isStatic) {
-        Set<Field> fieldsOfType = new HashSet<>();
-        Set<Field> allFields = getAllFields(clazz);
-        for (Field field : allFields) {
-            if (isAssignable(type, field.getGenericType()) && isStatic(field.getModifiers()) == isStatic) {
-                fieldsOfType.add(field);
-            }
-        }
-        return fieldsOfType;
+        return new HashSet<>(getClassMetadata(clazz).getFieldsAssignableFrom(type, isStatic));
     }
 
     /**
@@ -292,14 +285,7 @@ public class ReflectionUtils {
      * @return The fields with the given type
      */
     public static Set<Field> getFieldsOfType(Class<?> clazz, Type type, boolean isStatic) {
-        Set<Field> fields = new HashSet<>();
-        Set<Field> allFields = getAllFields(clazz);
-        for (Field field : allFields) {
-            if (field.getType().equals(type) && isStatic == isStatic(field.getModifiers())) {
-                fields.add(field);
-            }
-        }
-        return fields;
+        return new HashSet<>(getClassMetadata(clazz).getFieldsOfType(type, isStatic));
     }
 
     /**
@@ -316,15 +302,7 @@ public class ReflectionUtils {
      * @return A list of Methods, empty list if none found
      */
     public static Set<Method> getSettersAssignableFrom(Class<?> clazz, Type type, boolean isStatic) {
-        Set<Method> settersAssignableFrom = new HashSet<>();
-
-        Set<Method> allMethods = getAllMethods(clazz);
-        for (Method method : allMethods) {
-            if (isSetter(method) && isAssignable(type, method.getGenericParameterTypes()[0]) && (isStatic == isStatic(method.getModifiers()))) {
-                settersAssignableFrom.add(method);
-            }
-        }
-        return settersAssignableFrom;
+        return new HashSet<>(getClassMetadata(clazz).getSettersAssignableFrom(type, isStatic));
     }
 
     /**
@@ -341,14 +319,7 @@ public class ReflectionUtils {
      * @return All setters for an object of the given type
      */
     public static Set<Method> getSettersOfType(Class<?> clazz, Type type, boolean isStatic) {
-        Set<Method> settersOfType = new HashSet<>();
-        Set<Method> allMethods = getAllMethods(clazz);
-        for (Method method : allMethods) {
-            if (isSetter(method) && method.getGenericParameterTypes()[0].equals(type) && isStatic == isStatic(method.getModifiers())) {
-                settersOfType.add(method);
-            }
-        }
-        return settersOfType;
+        return new HashSet<>(getClassMetadata(clazz).getSettersOfType(type, isStatic));
     }
 
     /**
@@ -613,6 +584,28 @@ public class ReflectionUtils {
         return getMethod(clazz.getSuperclass(), methodName, isStatic, parameterTypes);
     }
 
+    /**
+     * Checks whether the given non-static method of the base class is overridden by the given class or one of its
+     * super-classes up to the base class.
+     *
+     * @param clazz
+     *     The class, not null
+     * @param baseClass
+     *     The class that declares the method, not null
+     * @param methodName
+     *     The name of the method, not null
+     * @param parameterTypes
+     *     The parameter types
+     * @return True if the method is overridden
+     */
+    public static boolean isOverridden(Class<?> clazz, Class<?> baseClass, String methodName, Class<?>... parameterTypes) {
+        if (clazz == baseClass) {
+            return false;
+        }
+        Method method = getMethod(clazz, methodName, false, parameterTypes);
+        return method != null && method.getDeclaringClass() != baseClass;
+    }
+
     /**
      * Gets all methods of the given class and all its super-classes.
      * 
@@ -621,23 +614,7 @@ public class ReflectionUtils {
      * @return The methods, not null
      */
     public static Set<Method> getAllMethods(Class<?> clazz) {
-        Set<Method> result = new HashSet<>();
-        if (clazz == null || clazz.equals(Object.class)) {
-            return result;
-        }
-
-        // add all methods of this class
-        Method[] declaredMethods = clazz.getDeclaredMethods();
-        for (Method declaredMethod : declaredMethods) {
-            if (declaredMethod.isSynthetic() || declaredMethod.isBridge()) {
-                // skip methods that were added by the compiler
-                continue;
-            }
-            result.add(declaredMethod);
-        }
-        // add all methods of the super-classes
-        result.addAll(getAllMethods(clazz.getSuperclass()));
-        return result;
+        return new HashSet<>(getClassMetadata(clazz).getAllMethods());
     }
 
     /**
@@ -648,17 +625,7 @@ public class ReflectionUtils {
      * @return The fields, not null
      */
     public static Set<Field> getAllFields(Class<?> clazz) {
-        Set<Field> result = new HashSet<>();
-        if (clazz == null || clazz.equals(Object.class)) {
-            return result;
-        }
-
-        // add all fields of this class
-        Field[] declaredFields = clazz.getDeclaredFields();
-        result.addAll(asList(declaredFields));
-        // add all fields of the super-classes
-        result.addAll(getAllFields(clazz.getSuperclass()));
-        return result;
+        return new HashSet<>(getClassMetadata(clazz).getAllFields());
     }
 
     /**
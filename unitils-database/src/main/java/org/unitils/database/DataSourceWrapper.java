@@ -2,6 +2,7 @@ package org.unitils.database;
 
 import java.sql.Connection;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -10,15 +11,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.unitils.core.Unitils;
 import org.unitils.core.UnitilsException;
-import org.unitils.core.dbsupport.DefaultSQLHandler;
+import org.unitils.core.dbsupport.BatchingSQLHandler;
 import org.unitils.core.dbsupport.SQLHandler;
+import org.unitils.core.dbsupport.SchemaSnapshotCache;
 import org.unitils.core.util.ConfigUtils;
 import org.unitils.database.config.DataSourceFactory;
 import org.unitils.database.config.DatabaseConfiguration;
 import org.unitils.database.transaction.UnitilsTransactionManager;
+import org.unitils.database.util.ModifiedTablesTrackingDataSource;
 import org.unitils.dbmaintainer.DBMaintainer;
 import org.unitils.dbmaintainer.clean.DBCleaner;
 import org.unitils.dbmaintainer.clean.DBClearer;
+import org.unitils.dbmaintainer.clean.DatabaseSnapshot;
 import org.unitils.dbmaintainer.structure.ConstraintsDisabler;
 import org.unitils.dbmaintainer.structure.DataSetStructureGenerator;
 import org.unitils.dbmaintainer.structure.SequenceUpdater;
@@ -55,6 +59,14 @@ public class DataSourceWrapper {
 
     private boolean wrapDataSourceInTransactionalProxy;
 
+    private boolean cleanModifiedTablesAfterTest;
+
+    /* Tracks the tables that are modified by a test, null if the modified tables are not cleaned after a test */
+    private ModifiedTablesTrackingDataSource modifiedTablesTrackingDataSource;
+
+    /* The last snapshot of the data in the database, null if no snapshot was taken */
+    private DatabaseSnapshot databaseSnapshot;
+
     public DataSourceWrapper(DatabaseConfiguration databaseConfiguration, UnitilsTransactionManager transactionManager) {
         this(databaseConfiguration, Unitils.getInstance().getConfiguration(), transactionManager);
     }
@@ -66,6 +78,7 @@ public class DataSourceWrapper {
         dataSourceFactory.init(databaseConfiguration);
         updateDatabaseSchemaEnabled = PropertyUtils.getBoolean(DatabaseModule.PROPERTY_UPDATEDATABASESCHEMA_ENABLED, configuration);
         wrapDataSourceInTransactionalProxy = PropertyUtils.getBoolean(DatabaseModule.PROPERTY_WRAP_DATASOURCE_IN_TRANSACTIONAL_PROXY, configuration);
+        cleanModifiedTablesAfterTest = PropertyUtils.getBoolean(DatabaseModule.PROPERTY_CLEAN_MODIFIED_TABLES_AFTER_TEST, false, configuration);
         databaseName = databaseConfiguration.getDatabaseName();
         this.databaseConfiguration = databaseConfiguration;
         this.transactionManager = transactionmanager;
@@ -104,7 +117,10 @@ public class DataSourceWrapper {
     }
 
     /**
-     * Creates a datasource by using the factory that is defined by the dataSourceFactory.className property
+     * Creates a datasource by using the factory that is defined by the dataSourceFactory.className property.
+     * If the modified tables are cleaned after each test, all tables are cleaned once and the datasource is wrapped
+     * in a {@link ModifiedTablesTrackingDataSource}. The schema snapshots of this data source are then cached until a
+     * DDL statement is executed.
      *
      * @return the datasource
      */
@@ -116,7 +132,14 @@ public class DataSourceWrapper {
 
         // Call the database maintainer if enabled
         if (updateDatabaseSchemaEnabled) {
-            updateDatabase(new DefaultSQLHandler(dataSource));
+            updateDatabase(new BatchingSQLHandler(dataSource));
+        }
+        if (cleanModifiedTablesAfterTest) {
+            getConfiguredDatabaseTaskInstance(DBCleaner.class, new BatchingSQLHandler(dataSource)).cleanSchemas();
+            modifiedTablesTrackingDataSource = new ModifiedTablesTrackingDataSource(dataSource);
+            // the tracking data source invalidates the cached snapshots when the schema is changed
+            SchemaSnapshotCache.startCaching(modifiedTablesTrackingDataSource);
+            return modifiedTablesTrackingDataSource;
         }
         return dataSource;
     }
@@ -144,11 +167,11 @@ public class DataSourceWrapper {
     }
 
     /**
-     * @return The default SQLHandler, which simply executes the sql statements on the unitils-configured
-     *     test database
+     * @return The default SQLHandler, which executes the sql statements on the unitils-configured test database,
+     *     using one connection during a session
      */
     protected SQLHandler getDefaultSqlHandler() {
-        return new DefaultSQLHandler(getDataSourceAndActivateTransactionIfNeeded());
+        return new BatchingSQLHandler(getDataSourceAndActivateTransactionIfNeeded());
     }
 
     /**
@@ -197,6 +220,57 @@ public class DataSourceWrapper {
         getConfiguredDatabaseTaskInstance(DBCleaner.class).cleanSchemas();
     }
 
+    /**
+     * Cleans the tables that were modified since the previous call, if the property
+     * {@link DatabaseModule#PROPERTY_CLEAN_MODIFIED_TABLES_AFTER_TEST} is set to true. All schema's are cleaned if
+     * a statement was executed of which the modified tables are not known.
+     */
+    public void cleanModifiedTables() {
+        if (modifiedTablesTrackingDataSource == null) {
+            return;
+        }
+        boolean allTablesModified = modifiedTablesTrackingDataSource.isAllTablesModified();
+        Set<String> modifiedTableNames = modifiedTablesTrackingDataSource.getModifiedTableNames();
+        try {
+            if (allTablesModified) {
+                cleanSchemas();
+            } else if (!modifiedTableNames.isEmpty()) {
+                getConfiguredDatabaseTaskInstance(DBCleaner.class).cleanTables(modifiedTableNames);
+            }
+        } finally {
+            // the statements of the cleaning itself are also registered
+            modifiedTablesTrackingDataSource.reset();
+        }
+    }
+
+    /**
+     * Captures the current data of all configured schema's, so that it can be restored using
+     * {@link #restoreDatabaseSnapshot()}. A previously taken snapshot is replaced.
+     */
+    public void takeDatabaseSnapshot() {
+        DatabaseSnapshot snapshot = getConfiguredDatabaseTaskInstance(DatabaseSnapshot.class);
+        snapshot.takeSnapshot();
+        databaseSnapshot = snapshot;
+    }
+
+    /**
+     * Restores the data of all configured schema's to the state of the last snapshot taken by
+     * {@link #takeDatabaseSnapshot()}.
+     */
+    public void restoreDatabaseSnapshot() {
+        if (databaseSnapshot == null) {
+            throw new UnitilsException("Unable to restore database snapshot for " + databaseConfiguration + ". No snapshot was taken.");
+        }
+        databaseSnapshot.restoreSnapshot();
+    }
+
+    /**
+     * @return True if a snapshot of the data was taken
+     */
+    public boolean isDatabaseSnapshotTaken() {
+        return databaseSnapshot != null;
+    }
+
     /**
      * Disables all foreigh key and not-null constraints on the configured schema's.
      */
@@ -226,8 +300,19 @@ public class DataSourceWrapper {
      *     The type of database task, not null
      */
     protected <T extends DatabaseAccessing> T getConfiguredDatabaseTaskInstance(Class<T> databaseTaskType) {
-        return DatabaseModuleConfigUtils.getConfiguredDatabaseTaskInstance(databaseTaskType, configuration, getDefaultSqlHandler(),
-            databaseConfiguration.getDialect(), databaseConfiguration.getSchemaNames());
+        return getConfiguredDatabaseTaskInstance(databaseTaskType, getDefaultSqlHandler());
+    }
+
+    /**
+     * @return A configured instance of {@link DatabaseAccessing} of the given type
+     * @param databaseTaskType
+     *     The type of database task, not null
+     * @param sqlHandler
+     *     The sql handler that executes the statements of the task, not null
+     */
+    protected <T extends DatabaseAccessing> T getConfiguredDatabaseTaskInstance(Class<T> databaseTaskType, SQLHandler sqlHandler) {
+        return DatabaseModuleConfigUtils.getConfiguredDatabaseTaskInstance(databaseTaskType, configuration, sqlHandler, databaseConfiguration.getDialect(),
+            databaseConfiguration.getSchemaNames());
     }
 
     /**
@@ -117,6 +117,12 @@ public class DatabaseModule
      */
     public static final String PROPERTY_WRAP_DATASOURCE_IN_TRANSACTIONAL_PROXY = "dataSource.wrapInTransactionalProxy";
 
+    /**
+     * Property indicating whether the tables that were modified by a test must be cleaned after the test. All
+     * tables are cleaned once when the datasource is created.
+     */
+    public static final String PROPERTY_CLEAN_MODIFIED_TABLES_AFTER_TEST = "dataSource.cleanModifiedTablesAfterTest";
+
     /* The logger instance for this class */
     private static Logger logger = LoggerFactory.getLogger(DatabaseModule.class);
 
@@ -498,6 +504,9 @@ public class DatabaseModule
         @Override
         public void afterTestTearDown(Object testObject, Method testMethod) {
             endTransactionForTestMethod(testObject, testMethod);
+            for (DataSourceWrapper wrapper : wrappers.values()) {
+                wrapper.cleanModifiedTables();
+            }
         }
     }
 
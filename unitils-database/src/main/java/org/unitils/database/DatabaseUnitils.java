@@ -149,6 +149,37 @@ public class DatabaseUnitils {
         getDatabaseModule().getWrapper(databaseName).cleanSchemas();
     }
 
+    /**
+     * Captures the current data of all configured schema's, so that it can be restored quickly using
+     * {@link #restoreDatabaseSnapshot()}. E.g. take a snapshot once after inserting the data that is shared by the
+     * tests of a class and restore it before each test.
+     */
+    public static void takeDatabaseSnapshot() {
+        takeDatabaseSnapshot("");
+    }
+
+    /**
+     * Captures the current data of all configured schema's, so that it can be restored quickly using
+     * {@link #restoreDatabaseSnapshot(String)}.
+     */
+    public static void takeDatabaseSnapshot(String databaseName) {
+        getDatabaseModule().getWrapper(databaseName).takeDatabaseSnapshot();
+    }
+
+    /**
+     * Restores the data of all configured schema's to the state of the last snapshot.
+     */
+    public static void restoreDatabaseSnapshot() {
+        restoreDatabaseSnapshot("");
+    }
+
+    /**
+     * Restores the data of all configured schema's to the state of the last snapshot.
+     */
+    public static void restoreDatabaseSnapshot(String databaseName) {
+        getDatabaseModule().getWrapper(databaseName).restoreDatabaseSnapshot();
+    }
+
     /**
      * Disables all foreign key and not-null constraints on the configured schema's.
      */
@@ -55,19 +55,19 @@ public class DefaultUnitilsTransactionManager
      */
     private static Logger logger = LoggerFactory.getLogger(DefaultUnitilsTransactionManager.class);
 
-    protected Map<Object, Boolean> testObjectTransactionActiveMap = new HashMap<>();
+    protected Map<Object, Boolean> testObjectTransactionActiveMap = Collections.synchronizedMap(new HashMap<>());
 
     /**
      * ThreadLocal for holding the TransactionStatus that keeps track of the
      * current test's transaction status
      */
-    protected Map<Object, TransactionStatus> testObjectTransactionStatusMap = new HashMap<>();
+    protected Map<Object, TransactionStatus> testObjectTransactionStatusMap = Collections.synchronizedMap(new HashMap<>());
 
     /**
      * ThreadLocal for holding the PlatformTransactionManager that is used by
      * the current test
      */
-    protected Map<Object, PlatformTransactionManager> testObjectPlatformTransactionManagerMap = new HashMap<>();
+    protected Map<Object, PlatformTransactionManager> testObjectPlatformTransactionManagerMap = Collections.synchronizedMap(new HashMap<>());
 
     /**
      * Set of possible providers of a spring
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.database.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.unitils.core.dbsupport.SchemaSnapshotCache;
+
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static java.util.regex.Pattern.DOTALL;
+
+/**
+ * Data source that keeps track of the tables that are modified by the statements that are executed on its
+ * connections. This makes it possible to only clean the tables that were modified by a test.
+ * <p/>
+ * The target table of insert, update, delete, merge and truncate statements is taken from the sql. Queries and DDL
+ * statements do not modify any tables. For all other statements, e.g. stored procedure calls, it is unknown which
+ * tables they modify, so all tables are considered to be modified. This is also the case for statements with more
+ * than one target table, such as multi-table updates and deletes, and for statements that also modify inheriting
+ * tables, i.e. without ONLY. Prepared statements are registered when they are
+ * prepared, plain statements when they are executed.
+ * <p/>
+ * Only the target tables of the statements are known: tables that are modified by triggers or by foreign keys with
+ * ON DELETE CASCADE or SET NULL are not tracked. Statements that are executed on an unwrapped, native data source,
+ * connection or statement are not seen either: unwrapping marks all tables as modified.
+ * <p/>
+ * DDL statements invalidate the schema snapshots of this data source that are cached by the
+ * {@link SchemaSnapshotCache}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ModifiedTablesTrackingDataSource
+    extends DelegatingDataSource {
+
+    /* An unquoted or quoted identifier */
+    private static final String IDENTIFIER = "(?:\"[^\"]+\"|`[^`]+`|[\\w$#]+)";
+
+    /* Gets the, possibly qualified, name of the table that is modified by a statement */
+    private static final Pattern MODIFYING_STATEMENT_PATTERN = Pattern.compile(
+        "^(?:insert\\s+into|replace\\s+into|merge\\s+into|update|delete\\s+from|delete|truncate\\s+table|truncate)\\s+(" + IDENTIFIER + ")(?:\\s*\\.\\s*(" + IDENTIFIER
+            + "))?", CASE_INSENSITIVE);
+
+    /* Gets what follows the target table if the statement has more target tables: a comma or a join, optionally after an alias */
+    private static final Pattern OTHER_TARGET_TABLES_PATTERN = Pattern.compile(
+        "^(?:\\s+(?:as\\s+)?(?!(?:set|where|from|using|values|select|default|partition|on|join|inner|left|right|full|cross|natural|straight_join)\\b)"
+            + IDENTIFIER + ")?\\s*(?:,|\\b(?:join|inner|left|right|full|cross|natural|straight_join)\\b)", CASE_INSENSITIVE);
+
+    /* Statements that do not modify any data, including common table expressions without a modifying statement */
+    private static final Pattern NON_MODIFYING_STATEMENT_PATTERN = Pattern.compile(
+        "^(?:(?:select|values|show|explain|describe|set|commit|rollback|savepoint|release|create|alter|drop|comment|grant|revoke)\\b"
+            + "|with\\b(?!.*\\b(?:insert|update|delete|merge)\\b))", CASE_INSENSITIVE | DOTALL);
+
+    /* Statements that change the structure of a schema */
+    private static final Pattern DDL_STATEMENT_PATTERN = Pattern.compile("^(?:create|alter|drop|rename)\\b", CASE_INSENSITIVE);
+
+    /* The names of the modified tables, as used in the statements */
+    private final Set<String> modifiedTableNames = new HashSet<>();
+
+    /* True if a statement was executed that could have modified any table */
+    private boolean allTablesModified;
+
+    /**
+     * Creates a data source that tracks the modifications done through the given data source.
+     *
+     * @param targetDataSource
+     *     The data source, not null
+     */
+    public ModifiedTablesTrackingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection()
+        throws SQLException {
+        return createConnectionProxy(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password)
+        throws SQLException {
+        return createConnectionProxy(super.getConnection(username, password));
+    }
+
+    /**
+     * Returns the target data source if it is an instance of the given interface. As the statements that are executed
+     * on the target data source are not tracked, all tables are considered to be modified.
+     *
+     * @param iface
+     *     The interface, not null
+     * @return This data source or the unwrapped target data source, not null
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface)
+        throws SQLException {
+        T result = super.unwrap(iface);
+        if (result != this) {
+            markAllTablesModified();
+        }
+        return result;
+    }
+
+    /**
+     * @return The names of the tables that were modified since the last reset, as used in the statements, not null
+     */
+    public synchronized Set<String> getModifiedTableNames() {
+        return new HashSet<>(modifiedTableNames);
+    }
+
+    /**
+     * @return True if a statement was executed since the last reset of which the modified tables are not known
+     */
+    public synchronized boolean isAllTablesModified() {
+        return allTablesModified;
+    }
+
+    /**
+     * Considers all tables as modified, e.g. because statements can be executed without being tracked.
+     */
+    public synchronized void markAllTablesModified() {
+        allTablesModified = true;
+    }
+
+    /**
+     * Forgets all modifications that were registered so far.
+     */
+    public synchronized void reset() {
+        modifiedTableNames.clear();
+        allTablesModified = false;
+    }
+
+    /**
+     * Registers the tables that are modified by the given statement.
+     *
+     * @param sql
+     *     The sql statement, not null
+     */
+    public synchronized void registerStatement(String sql) {
+        String statement = stripLeadingCommentsAndParentheses(sql);
+        if (DDL_STATEMENT_PATTERN.matcher(statement).find()) {
+            SchemaSnapshotCache.invalidate(this);
+            return;
+        }
+        if (allTablesModified) {
+            return;
+        }
+        Matcher matcher = MODIFYING_STATEMENT_PATTERN.matcher(statement);
+        if (matcher.find()) {
+            if ((matcher.group(2) == null && "only".equalsIgnoreCase(matcher.group(1)))
+                || OTHER_TARGET_TABLES_PATTERN.matcher(statement.substring(matcher.end())).find()) {
+                // the modified tables cannot be determined reliably
+                allTablesModified = true;
+                return;
+            }
+            modifiedTableNames.add(matcher.group(2) == null ? matcher.group(1) : matcher.group(1) + "." + matcher.group(2));
+        } else if (!statement.isEmpty() && !NON_MODIFYING_STATEMENT_PATTERN.matcher(statement).find()) {
+            allTablesModified = true;
+        }
+    }
+
+    private String stripLeadingCommentsAndParentheses(String sql) {
+        String result = sql.trim();
+        while (true) {
+            if (result.startsWith("--")) {
+                int end = result.indexOf('\n');
+                result = end == -1 ? "" : result.substring(end + 1).trim();
+            } else if (result.startsWith("/*")) {
+                int end = result.indexOf("*/");
+                result = end == -1 ? "" : result.substring(end + 2).trim();
+            } else if (result.startsWith("(")) {
+                result = result.substring(1).trim();
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Connection createConnectionProxy(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, new ConnectionInvocationHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args)
+        throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Returns the proxy if it implements the interface given to unwrap. Otherwise, the wrapped object is unwrapped and
+     * all tables are considered to be modified, as the statements executed on it are not tracked.
+     */
+    private Object unwrap(Object proxy, Object target, Method method, Object[] args)
+        throws Throwable {
+        if (((Class<?>) args[0]).isInstance(proxy)) {
+            return proxy;
+        }
+        markAllTablesModified();
+        return invoke(target, method, args);
+    }
+
+    /**
+     * Registers the prepared statements and wraps the plain statements of a connection.
+     */
+    private class ConnectionInvocationHandler
+        implements InvocationHandler {
+
+        /* The wrapped connection, not null */
+        private final Connection connection;
+
+        public ConnectionInvocationHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable {
+            if (("prepareStatement".equals(method.getName()) || "prepareCall".equals(method.getName())) && args != null && args[0] instanceof String) {
+                registerStatement((String) args[0]);
+            }
+            if ("unwrap".equals(method.getName())) {
+                return unwrap(proxy, connection, method, args);
+            }
+            Object result = ModifiedTablesTrackingDataSource.invoke(connection, method, args);
+            if (result instanceof Statement && !(result instanceof PreparedStatement)) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Statement.class}, new StatementInvocationHandler((Statement) result,
+                    (Connection) proxy));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Registers the statements that are executed or added to a batch.
+     */
+    private class StatementInvocationHandler
+        implements InvocationHandler {
+
+        /* The wrapped statement, not null */
+        private final Statement statement;
+
+        /* The connection proxy that created the statement, not null */
+        private final Connection connection;
+
+        public StatementInvocationHandler(Statement statement, Connection connection) {
+            this.statement = statement;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable {
+            String methodName = method.getName();
+            if ((methodName.startsWith("execute") || "addBatch".equals(methodName)) && args != null && args[0] instanceof String) {
+                registerStatement((String) args[0]);
+            }
+            if ("getConnection".equals(methodName)) {
+                return connection;
+            }
+            if ("unwrap".equals(methodName)) {
+                return unwrap(proxy, statement, method, args);
+            }
+            return ModifiedTablesTrackingDataSource.invoke(statement, method, args);
+        }
+    }
+}
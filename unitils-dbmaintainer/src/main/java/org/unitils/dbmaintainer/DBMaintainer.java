@@ -17,10 +17,13 @@ import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
+import javax.sql.DataSource;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.core.UnitilsException;
 import org.unitils.core.dbsupport.SQLHandler;
+import org.unitils.core.dbsupport.SchemaSnapshotCache;
 import org.unitils.core.util.ConfigUtils;
 import org.unitils.dbmaintainer.clean.DBCleaner;
 import org.unitils.dbmaintainer.clean.DBClearer;
@@ -173,6 +176,11 @@ public class DBMaintainer {
 
     protected String dialect;
 
+    /**
+     * The data source of the database, used to share the schema snapshots during an update, null if not known
+     */
+    protected DataSource dataSource;
+
     /**
      * Default constructor for testing.
      */
@@ -222,6 +230,7 @@ public class DBMaintainer {
             throw e;
         }
         this.dialect = dialect;
+        this.dataSource = sqlHandler.getDataSource();
     }
 
     /**
@@ -229,8 +238,26 @@ public class DBMaintainer {
      * scripts are executed and the version number is increased. If an existing script has been
      * modified, the database is cleared and completely rebuilt from scratch. If an error occurs
      * with one of the scripts, a {@link UnitilsException} is thrown.
+     * <p/>
+     * During the update, the tasks share the schema snapshots of the database, see {@link SchemaSnapshotCache}.
      */
     public void updateDatabase(String databaseName, boolean defaultDatabase) {
+        if (dataSource == null) {
+            doUpdateDatabase(databaseName, defaultDatabase);
+            return;
+        }
+        SchemaSnapshotCache.startCaching(dataSource);
+        try {
+            doUpdateDatabase(databaseName, defaultDatabase);
+        } finally {
+            SchemaSnapshotCache.stopCaching(dataSource);
+        }
+    }
+
+    /**
+     * Performs the actual update, see {@link #updateDatabase(String, boolean)}.
+     */
+    protected void doUpdateDatabase(String databaseName, boolean defaultDatabase) {
         // Check if the executed scripts info source recommends a from-scratch update
         boolean fromScratchUpdateRecommended = versionSource.isFromScratchUpdateRecommended();
 
@@ -245,6 +272,7 @@ public class DBMaintainer {
             // conflicts when dropping tables
             constraintsDisabler.disableConstraints();
             dbClearer.clearSchemas();
+            invalidateSchemaSnapshots();
             // reset the database version
             versionSource.clearAllExecutedScripts();
             // update database with all scripts
@@ -345,6 +373,7 @@ public class DBMaintainer {
 
                 logger.info("Executing script " + script.getFileName());
                 scriptRunner.execute(script.getScriptContentHandle());
+                invalidateSchemaSnapshots();
                 // We now register the previously registered script execution as being successful
                 executedScript.setSuccessful(true);
                 versionSource.updateExecutedScript(executedScript);
@@ -367,6 +396,7 @@ public class DBMaintainer {
             try {
                 logger.info("Executing post processing script " + script.getFileName());
                 scriptRunner.execute(script.getScriptContentHandle());
+                invalidateSchemaSnapshots();
             } catch (UnitilsException e) {
                 logger.error("Error while executing post processing script " + script.getFileName(), e);
                 throw e;
@@ -374,6 +404,15 @@ public class DBMaintainer {
         }
     }
 
+    /**
+     * Removes the shared schema snapshots after the structure of the database was changed.
+     */
+    protected void invalidateSchemaSnapshots() {
+        if (dataSource != null) {
+            SchemaSnapshotCache.invalidate(dataSource);
+        }
+    }
+
     /**
      * Checks whether the database should be updated from scratch or just incrementally. The
      * database needs to be rebuilt in following cases:
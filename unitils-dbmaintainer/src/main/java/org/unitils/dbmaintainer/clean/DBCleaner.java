@@ -12,6 +12,8 @@
  */
 package org.unitils.dbmaintainer.clean;
 
+import java.util.Set;
+
 import org.unitils.dbmaintainer.util.DatabaseAccessing;
 
 /**
@@ -27,4 +29,18 @@ public interface DBCleaner
      * Delete data from the database schema, that could cause problems when performing updates.
      */
     void cleanSchemas();
+
+    /**
+     * Delete the data from the given tables. The names are interpreted as they would be in an sql statement: they
+     * can be prefixed with a schema name and are case sensitive only when quoted. Tables that are not in the
+     * configured schemas are ignored.
+     * <p/>
+     * By default, all schemas are cleaned.
+     *
+     * @param tableNames
+     *     The names of the tables, not null
+     */
+    default void cleanTables(Set<String> tableNames) {
+        cleanSchemas();
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbmaintainer.clean;
+
+import org.unitils.dbmaintainer.util.DatabaseAccessing;
+
+/**
+ * Defines the contract for implementations that capture the data of the database schemas, so that this state can be
+ * restored quickly, e.g. after the data that is shared by several tests was inserted.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public interface DatabaseSnapshot
+    extends DatabaseAccessing {
+    /**
+     * Captures the current data of the database schemas. A previously taken snapshot is replaced.
+     */
+    void takeSnapshot();
+
+    /**
+     * Restores the data of the database schemas to the state of the snapshot. This can be done more than once.
+     */
+    void restoreSnapshot();
+
+    /**
+     * @return True if a snapshot was taken
+     */
+    boolean isSnapshotTaken();
+}
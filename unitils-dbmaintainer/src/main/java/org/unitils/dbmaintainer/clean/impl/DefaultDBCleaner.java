@@ -12,26 +12,58 @@
  */
 package org.unitils.dbmaintainer.clean.impl;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.unitils.core.UnitilsException;
 import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.SQLHandlerSession;
+import org.unitils.core.dbsupport.SchemaSnapshot;
+import org.unitils.core.dbsupport.SchemaSnapshotCache;
 import org.unitils.dbmaintainer.clean.DBCleaner;
 import org.unitils.dbmaintainer.util.BaseDatabaseAccessor;
 
 import static org.unitils.core.util.StoredIdentifierCase.MIXED_CASE;
 import static org.unitils.dbmaintainer.clean.impl.DefaultDBClearer.PROPKEY_PRESERVE_SCHEMAS;
+import static org.unitils.util.PropertyUtils.getBoolean;
+import static org.unitils.util.PropertyUtils.getInt;
 import static org.unitils.util.PropertyUtils.getStringList;
+import static org.unitils.util.ReflectionUtils.isOverridden;
 
 /**
  * Implementation of {@link DBCleaner}. This implementation will delete all data from a database, except for the tables
  * that are configured as tables to preserve. This includes the tables that are listed in the property
  * {@link #PROPKEY_PRESERVE_TABLES}, {@link #PROPKEY_PRESERVE_DATA_TABLES}. and the table that is configured as
- * version table using the property {@link #PROPKEY_VERSION_TABLE_NAME}.
+ * version table using the property {@link #PROPKEY_VERSION_TABLE_NAME}. The tables containing the records of a
+ * {@link DefaultDatabaseSnapshot} are preserved as well.
+ * <p/>
+ * The tables are cleaned in the order of their foreign keys: a table is only cleaned after the tables that reference
+ * it, so that the cleaning also works when the foreign key constraints are not disabled. Tables that are part of a
+ * cycle of foreign keys are cleaned last, this requires the constraints to be disabled.
+ * <p/>
+ * If {@link #PROPKEY_TRUNCATE_ENABLED} is set to true and the database supports it, tables are truncated instead of
+ * deleted. Truncating is only done if all tables that directly or indirectly reference the table, in any schema, are
+ * cleaned as well, and is skipped for tables that are already empty. Note that truncating also resets the identity columns of the table.
+ * <p/>
+ * If {@link #PROPKEY_NR_OF_THREADS} is set to more than 1, tables that do not depend on each other are cleaned
+ * concurrently, each thread using its own connection on which the cleaning is committed. This should not be used
+ * when the cleaning is done in a transaction that holds locks on the cleaned tables.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -60,6 +92,16 @@ public class DefaultDBCleaner
      */
     public static final String PROPKEY_VERSION_TABLE_NAME = "dbMaintainer.executedScriptsTableName";
 
+    /**
+     * Property key for using truncate instead of delete to clean tables
+     */
+    public static final String PROPKEY_TRUNCATE_ENABLED = "dbMaintainer.cleanDb.truncate.enabled";
+
+    /**
+     * Property key for the nr of threads that clean tables concurrently
+     */
+    public static final String PROPKEY_NR_OF_THREADS = "dbMaintainer.cleanDb.threads";
+
     /* The logger instance for this class */
     private static Logger logger = LoggerFactory.getLogger(DefaultDBCleaner.class);
 
@@ -73,6 +115,19 @@ public class DefaultDBCleaner
      */
     protected Set<String> tablesToPreserve;
 
+    /**
+     * True if tables should be truncated instead of deleted, when possible
+     */
+    protected boolean truncateEnabled;
+
+    /**
+     * The nr of threads that clean tables concurrently
+     */
+    protected int nrOfThreads;
+
+    /* True if a subclass still overrides the deprecated cleanTable method, it is then used instead of the batch */
+    private boolean cleanTableOverridden;
+
     /**
      * Configures this object.
      *
@@ -86,6 +141,9 @@ public class DefaultDBCleaner
         tablesToPreserve = getItemsToPreserve(PROPKEY_VERSION_TABLE_NAME, true);
         tablesToPreserve.addAll(getItemsToPreserve(PROPKEY_PRESERVE_TABLES, true));
         tablesToPreserve.addAll(getItemsToPreserve(PROPKEY_PRESERVE_DATA_TABLES, true));
+        truncateEnabled = getBoolean(PROPKEY_TRUNCATE_ENABLED, false, configuration);
+        nrOfThreads = getInt(PROPKEY_NR_OF_THREADS, 1, configuration);
+        cleanTableOverridden = isOverridden(getClass(), DefaultDBCleaner.class, "cleanTable", String.class, DbSupport.class);
     }
 
     /**
@@ -94,22 +152,378 @@ public class DefaultDBCleaner
      */
     @Override
     public void cleanSchemas() {
+        // the snapshots of the schemas are shared while cleaning
+        SchemaSnapshotCache.startCaching(sqlHandler.getDataSource());
+        try {
+            Map<DbSupport, Set<String>> tableNamesToCleanPerSchema = new LinkedHashMap<>();
+            for (DbSupport dbSupport : dbSupports) {
+                // check whether schema needs to be preserved
+                if (isItemToPreserve(dbSupport.getSchemaName(), schemasToPreserve)) {
+                    continue;
+                }
+                Set<String> tableNamesToClean = new TreeSet<>();
+                Set<String> tableNames = dbSupport.getSchemaSnapshot().getTableNames();
+                for (String tableName : tableNames) {
+                    // check whether table needs to be preserved
+                    if (isTableToPreserve(tableName, dbSupport)) {
+                        continue;
+                    }
+                    tableNamesToClean.add(tableName);
+                }
+                tableNamesToCleanPerSchema.put(dbSupport, tableNamesToClean);
+            }
+            cleanTablesPerSchema(tableNamesToCleanPerSchema, true);
+        } finally {
+            SchemaSnapshotCache.stopCaching(sqlHandler.getDataSource());
+        }
+    }
+
+    /**
+     * Deletes the data from the given tables, except for the tables that have been configured as
+     * <i>tablesToPreserve</i>, and the table in which the database version is stored. If one of the names cannot be
+     * resolved to a table of the configured schemas, all schemas are cleaned, as for {@link #cleanSchemas()}.
+     *
+     * @param tableNames
+     *     The names of the tables, as they would be used in an sql statement, not null
+     */
+    @Override
+    public void cleanTables(Set<String> tableNames) {
+        // the snapshots of the schemas are shared while cleaning
+        SchemaSnapshotCache.startCaching(sqlHandler.getDataSource());
+        try {
+            Map<DbSupport, Set<String>> tableNamesToCleanPerSchema = getTableNamesToCleanPerSchema(tableNames);
+            if (tableNamesToCleanPerSchema == null) {
+                // a table can be created without the cached snapshots being invalidated, e.g. by another data source
+                SchemaSnapshotCache.invalidate(sqlHandler.getDataSource());
+                tableNamesToCleanPerSchema = getTableNamesToCleanPerSchema(tableNames);
+            }
+            if (tableNamesToCleanPerSchema == null) {
+                logger.info("Unable to determine all tables of " + tableNames + ". Cleaning all database schemas instead.");
+                cleanSchemas();
+            } else if (!tableNamesToCleanPerSchema.isEmpty()) {
+                cleanTablesPerSchema(tableNamesToCleanPerSchema, false);
+            }
+        } finally {
+            SchemaSnapshotCache.stopCaching(sqlHandler.getDataSource());
+        }
+    }
+
+    /**
+     * Gets the tables with the given names per schema, leaving out the schemas and tables to preserve.
+     *
+     * @param tableNames
+     *     The names of the tables, as they would be used in an sql statement, not null
+     * @return The table names per schema, null if one of the names is not a table of the configured schemas
+     */
+    private Map<DbSupport, Set<String>> getTableNamesToCleanPerSchema(Set<String> tableNames) {
+        Map<DbSupport, Set<String>> result = new LinkedHashMap<>();
+        for (String tableName : tableNames) {
+            String correctCaseTableName = defaultDbSupport.toCorrectCaseIdentifier(tableName);
+            DbSupport dbSupport = defaultDbSupport;
+            int index = correctCaseTableName.indexOf('.');
+            if (index != -1) {
+                dbSupport = getDbSupportOfSchema(correctCaseTableName.substring(0, index));
+                correctCaseTableName = correctCaseTableName.substring(index + 1);
+            }
+            if (dbSupport == null || !dbSupport.getSchemaSnapshot().getTableNames().contains(correctCaseTableName)) {
+                return null;
+            }
+            // skip schemas and tables to preserve
+            if (isItemToPreserve(dbSupport.getSchemaName(), schemasToPreserve) || isTableToPreserve(correctCaseTableName, dbSupport)) {
+                continue;
+            }
+            result.computeIfAbsent(dbSupport, key -> new TreeSet<>()).add(correctCaseTableName);
+        }
+        return result;
+    }
+
+    private void cleanTablesPerSchema(Map<DbSupport, Set<String>> tableNamesToCleanPerSchema, boolean allTables) {
+        ExecutorService executorService = nrOfThreads > 1 ? Executors.newFixedThreadPool(nrOfThreads) : null;
+        try (SQLHandlerSession session = sqlHandler.openSession()) {
+            Set<String> qualifiedTableNamesToClean = getQualifiedTableNames(tableNamesToCleanPerSchema);
+            for (Map.Entry<DbSupport, Set<String>> entry : tableNamesToCleanPerSchema.entrySet()) {
+                String schemaName = entry.getKey().getSchemaName();
+                logger.info(allTables ? "Cleaning database schema " + schemaName : "Cleaning tables " + entry.getValue() + " in database schema " + schemaName);
+                cleanTablesInOrder(entry.getValue(), qualifiedTableNamesToClean, entry.getKey(), executorService);
+            }
+        } finally {
+            if (executorService != null) {
+                executorService.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Cleans the given tables of a schema in the order of the foreign keys. No other tables are cleaned, so tables
+     * that are referenced by tables of other schemas are not truncated.
+     *
+     * @param tableNamesToClean
+     *     The names of the tables to clean, not null
+     * @param dbSupport
+     *     The database support, not null
+     * @param executorService
+     *     The executor service for cleaning tables concurrently, null to clean all tables in the current thread
+     */
+    protected void cleanTablesInOrder(Set<String> tableNamesToClean, DbSupport dbSupport, ExecutorService executorService) {
+        Map<DbSupport, Set<String>> tableNamesToCleanPerSchema = new HashMap<>();
+        tableNamesToCleanPerSchema.put(dbSupport, tableNamesToClean);
+        cleanTablesInOrder(tableNamesToClean, getQualifiedTableNames(tableNamesToCleanPerSchema), dbSupport, executorService);
+    }
+
+    /**
+     * Cleans the given tables of a schema in the order of the foreign keys.
+     *
+     * @param tableNamesToClean
+     *     The names of the tables of the schema to clean, not null
+     * @param qualifiedTableNamesToClean
+     *     The qualified names of all tables that are cleaned, in all schemas, not null
+     * @param dbSupport
+     *     The database support, not null
+     * @param executorService
+     *     The executor service for cleaning tables concurrently, null to clean all tables in the current thread
+     */
+    protected void cleanTablesInOrder(Set<String> tableNamesToClean, Set<String> qualifiedTableNamesToClean, DbSupport dbSupport,
+        ExecutorService executorService) {
+        Map<String, Set<String>> referencingTableNames = getReferencingTableNames(dbSupport);
+        Set<String> tableNamesToTruncate = getTableNamesToTruncate(tableNamesToClean, qualifiedTableNamesToClean, dbSupport);
+        for (List<String> tableNamesGroup : getCleanOrder(tableNamesToClean, referencingTableNames)) {
+            if (executorService == null || tableNamesGroup.size() == 1) {
+                cleanTables(tableNamesGroup, tableNamesToTruncate, dbSupport);
+            } else {
+                cleanTablesConcurrently(tableNamesGroup, tableNamesToTruncate, dbSupport, executorService);
+            }
+        }
+    }
+
+    private Set<String> getQualifiedTableNames(Map<DbSupport, Set<String>> tableNamesPerSchema) {
+        Set<String> result = new HashSet<>();
+        for (Map.Entry<DbSupport, Set<String>> entry : tableNamesPerSchema.entrySet()) {
+            for (String tableName : entry.getValue()) {
+                result.add(entry.getKey().getSchemaName() + "." + tableName);
+            }
+        }
+        return result;
+    }
+
+    private DbSupport getDbSupportOfSchema(String schemaName) {
         for (DbSupport dbSupport : dbSupports) {
-            // check whether schema needs to be preserved
-            if (isItemToPreserve(dbSupport.getSchemaName(), schemasToPreserve)) {
+            if (dbSupport.getSchemaName().equals(schemaName)) {
+                return dbSupport;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the tables of the same schema that reference each table of the schema with a foreign key.
+     *
+     * @param dbSupport
+     *     The database support, not null
+     * @return The names of the referencing tables per referenced table name, not null
+     */
+    protected Map<String, Set<String>> getReferencingTableNames(DbSupport dbSupport) {
+        SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String tableName : schemaSnapshot.getTableNames()) {
+            for (String referencedTableName : schemaSnapshot.getReferencedTableNames(tableName)) {
+                result.computeIfAbsent(referencedTableName, key -> new HashSet<>()).add(tableName);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the tables that can be truncated instead of deleted. This is only possible if truncating is enabled and
+     * supported by the database. A table that is referenced by a foreign key can only be truncated if the truncate
+     * cascades to the referencing tables and all these tables, including the ones in other schemas, are cleaned as
+     * well. The cascade also follows the foreign keys of the referencing tables, so this is checked for all tables
+     * that directly or indirectly reference the table. Otherwise the truncate would also remove the data of tables
+     * that should be preserved.
+     *
+     * @param tableNamesToClean
+     *     The names of the tables of the schema that are cleaned, not null
+     * @param qualifiedTableNamesToClean
+     *     The qualified names of all tables that are cleaned, in all schemas, not null
+     * @param dbSupport
+     *     The database support, not null
+     * @return The names of the tables to truncate, not null
+     */
+    protected Set<String> getTableNamesToTruncate(Set<String> tableNamesToClean, Set<String> qualifiedTableNamesToClean, DbSupport dbSupport) {
+        Set<String> result = new HashSet<>();
+        if (!truncateEnabled || !dbSupport.supportsTruncate()) {
+            return result;
+        }
+        SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+        for (String tableName : tableNamesToClean) {
+            Set<String> referencingTableNamesOfTable = schemaSnapshot.getReferencingTableNames(tableName);
+            if (referencingTableNamesOfTable.isEmpty()
+                || (dbSupport.supportsTruncateCascade() && areAllCleaned(referencingTableNamesOfTable, qualifiedTableNamesToClean))) {
+                result.add(tableName);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the given tables and all tables that directly or indirectly reference them are cleaned.
+     *
+     * @param qualifiedTableNames
+     *     The qualified names of the tables, not null
+     * @param qualifiedTableNamesToClean
+     *     The qualified names of all tables that are cleaned, in all schemas, not null
+     * @return True if all these tables are cleaned
+     */
+    private boolean areAllCleaned(Set<String> qualifiedTableNames, Set<String> qualifiedTableNamesToClean) {
+        Set<String> checkedTableNames = new HashSet<>();
+        Deque<String> tableNamesToCheck = new ArrayDeque<>(qualifiedTableNames);
+        while (!tableNamesToCheck.isEmpty()) {
+            String qualifiedTableName = tableNamesToCheck.pop();
+            if (!checkedTableNames.add(qualifiedTableName)) {
                 continue;
             }
-            logger.info("Cleaning database schema " + dbSupport.getSchemaName());
+            if (!qualifiedTableNamesToClean.contains(qualifiedTableName)) {
+                return false;
+            }
+            // the table is cleaned, so its schema is one of the configured schemas
+            int index = qualifiedTableName.indexOf('.');
+            DbSupport dbSupport = getDbSupportOfSchema(qualifiedTableName.substring(0, index));
+            tableNamesToCheck.addAll(dbSupport.getSchemaSnapshot().getReferencingTableNames(qualifiedTableName.substring(index + 1)));
+        }
+        return true;
+    }
 
-            Set<String> tableNames = dbSupport.getTableNames();
-            for (String tableName : tableNames) {
-                // check whether table needs to be preserved
-                if (isItemToPreserve(tableName, tablesToPreserve) || isItemToPreserve(dbSupport.getSchemaName() + "." + tableName, tablesToPreserve)) {
-                    continue;
+    /**
+     * Gets the order in which the given tables should be cleaned. The tables are returned in groups: the tables of a
+     * group are only referenced by tables of earlier groups, so the tables of a group do not depend on each other and
+     * can be cleaned in any order. Tables that are part of a cycle of foreign keys end up in the last group.
+     *
+     * @param tableNamesToClean
+     *     The names of the tables that are cleaned, not null
+     * @param referencingTableNames
+     *     The names of the referencing tables per table name, not null
+     * @return The groups of table names, not null
+     */
+    protected List<List<String>> getCleanOrder(Set<String> tableNamesToClean, Map<String, Set<String>> referencingTableNames) {
+        List<List<String>> result = new ArrayList<>();
+        Set<String> remainingTableNames = new TreeSet<>(tableNamesToClean);
+        while (!remainingTableNames.isEmpty()) {
+            List<String> tableNamesGroup = new ArrayList<>();
+            for (String tableName : remainingTableNames) {
+                if (!isReferencedByOtherTable(tableName, remainingTableNames, referencingTableNames)) {
+                    tableNamesGroup.add(tableName);
                 }
+            }
+            if (tableNamesGroup.isEmpty()) {
+                // only tables of a cycle of foreign keys are left
+                tableNamesGroup.addAll(remainingTableNames);
+            }
+            remainingTableNames.removeAll(tableNamesGroup);
+            result.add(tableNamesGroup);
+        }
+        return result;
+    }
+
+    private boolean isReferencedByOtherTable(String tableName, Set<String> tableNames, Map<String, Set<String>> referencingTableNames) {
+        Set<String> referencingTableNamesOfTable = referencingTableNames.get(tableName);
+        if (referencingTableNamesOfTable == null) {
+            return false;
+        }
+        for (String referencingTableName : referencingTableNamesOfTable) {
+            if (!referencingTableName.equals(tableName) && tableNames.contains(referencingTableName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cleans the given tables, dividing them over the threads of the given executor service. Every thread uses
+     * its own connection, on which the cleaning is committed.
+     *
+     * @param tableNames
+     *     The names of the tables that need to be cleared, not null
+     * @param tableNamesToTruncate
+     *     The names of the tables that can be truncated, not null
+     * @param dbSupport
+     *     The database support, not null
+     * @param executorService
+     *     The executor service, not null
+     */
+    protected void cleanTablesConcurrently(List<String> tableNames, Set<String> tableNamesToTruncate, DbSupport dbSupport, ExecutorService executorService) {
+        int nrOfTasks = Math.min(nrOfThreads, tableNames.size());
+        List<Callable<Void>> cleanTasks = new ArrayList<>(nrOfTasks);
+        for (int i = 0; i < nrOfTasks; i++) {
+            List<String> taskTableNames = new ArrayList<>();
+            for (int j = i; j < tableNames.size(); j += nrOfTasks) {
+                taskTableNames.add(tableNames.get(j));
+            }
+            cleanTasks.add(() -> {
+                try (SQLHandlerSession session = sqlHandler.openSession()) {
+                    cleanTables(taskTableNames, tableNamesToTruncate, dbSupport);
+                    // the connection of the thread is not part of a transaction of the calling thread
+                    session.commit();
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> cleanResult : executorService.invokeAll(cleanTasks)) {
+                cleanResult.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnitilsException) {
+                throw (UnitilsException) e.getCause();
+            }
+            throw new UnitilsException("Unable to clean tables " + tableNames + " in database schema " + dbSupport.getSchemaName(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnitilsException("Interrupted while cleaning tables " + tableNames + " in database schema " + dbSupport.getSchemaName(), e);
+        }
+    }
+
+    /**
+     * Removes the data from the tables with the given names. The statements are executed as one batch.
+     * Tables that are truncated are first checked to be empty, because truncating is expensive on some databases,
+     * even for empty tables. If a subclass overrides the deprecated {@link #cleanTable(String, DbSupport)}, that method
+     * is called for the tables that are not truncated instead of adding them to the batch. Note: the table names are surrounded with quotes, to make sure that
+     * case-sensitive table names are also deleted correctly.
+     *
+     * @param tableNames
+     *     The names of the tables that need to be cleared, not null
+     * @param tableNamesToTruncate
+     *     The names of the tables that can be truncated, not null
+     * @param dbSupport
+     *     The database support, not null
+     */
+    protected void cleanTables(List<String> tableNames, Set<String> tableNamesToTruncate, DbSupport dbSupport) {
+        List<String> statements = new ArrayList<>(tableNames.size());
+        for (String tableName : tableNames) {
+            if (!tableNamesToTruncate.contains(tableName) && cleanTableOverridden) {
                 cleanTable(tableName, dbSupport);
+            } else if (!tableNamesToTruncate.contains(tableName)) {
+                logger.debug("Deleting all records from table " + tableName + " in database schema " + dbSupport.getSchemaName());
+                statements.add(getCleanTableStatement(tableName, dbSupport));
+            } else if (sqlHandler.exists("select 1 from " + dbSupport.qualified(tableName))) {
+                logger.debug("Truncating table " + tableName + " in database schema " + dbSupport.getSchemaName());
+                statements.add(dbSupport.getTruncateTableStatement(tableName));
             }
         }
+        sqlHandler.executeBatch(statements);
+    }
+
+    /**
+     * Gets the statement that deletes the data in the table with the given name. This is called for every table
+     * that is not truncated. Note: the table name is surrounded with quotes, to make sure that
+     * case-sensitive table names are also deleted correctly.
+     *
+     * @param tableName
+     *     The name of the table that need to be cleared, not null
+     * @param dbSupport
+     *     The database support, not null
+     * @return The delete statement, not null
+     */
+    protected String getCleanTableStatement(String tableName, DbSupport dbSupport) {
+        return "delete from " + dbSupport.qualified(tableName);
     }
 
     /**
@@ -121,10 +535,28 @@ public class DefaultDBCleaner
      *     The name of the table that need to be cleared, not null
      * @param dbSupport
      *     The database support, not null
+     * @deprecated The tables are cleaned in batches by {@link #cleanTables(List, Set, DbSupport)}, override
+     * {@link #getCleanTableStatement(String, DbSupport)} to change how a table is cleaned. An override of this method
+     * is still called for every table that is not truncated, but the tables are then no longer cleaned in a batch.
      */
+    @Deprecated
     protected void cleanTable(String tableName, DbSupport dbSupport) {
         logger.debug("Deleting all records from table " + tableName + " in database schema " + dbSupport.getSchemaName());
-        sqlHandler.executeUpdate("delete from " + dbSupport.qualified(tableName));
+        sqlHandler.executeUpdate(getCleanTableStatement(tableName, dbSupport));
+    }
+
+    /**
+     * Checks whether the given table is one of the tables to preserve or a table of a database snapshot.
+     *
+     * @param tableName
+     *     The table name, not null
+     * @param dbSupport
+     *     The database support of the schema of the table, not null
+     * @return True if table to preserve
+     */
+    protected boolean isTableToPreserve(String tableName, DbSupport dbSupport) {
+        return isItemToPreserve(tableName, tablesToPreserve) || isItemToPreserve(dbSupport.getSchemaName() + "." + tableName, tablesToPreserve)
+            || DefaultDatabaseSnapshot.isSnapshotTable(tableName);
     }
 
     /**
@@ -23,6 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.core.UnitilsException;
 import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.SQLHandlerSession;
 import org.unitils.dbmaintainer.clean.DBClearer;
 import org.unitils.dbmaintainer.util.BaseDatabaseAccessor;
 
@@ -159,21 +160,23 @@ public class DefaultDBClearer
      */
     @Override
     public void clearSchemas() {
-        for (DbSupport dbSupport : dbSupports) {
-            // check whether schema needs to be preserved
-            if (schemasToPreserve.contains(dbSupport.getSchemaName())) {
-                continue;
+        try (SQLHandlerSession session = sqlHandler.openSession()) {
+            for (DbSupport dbSupport : dbSupports) {
+                // check whether schema needs to be preserved
+                if (schemasToPreserve.contains(dbSupport.getSchemaName())) {
+                    continue;
+                }
+                logger.info("Clearing (dropping) database schema " + dbSupport.getSchemaName());
+                dropSynonyms(dbSupport);
+                dropViews(dbSupport);
+                dropMaterializedViews(dbSupport);
+                dropSequences(dbSupport);
+                dropTables(dbSupport);
+
+                dropTriggers(dbSupport);
+                dropTypes(dbSupport);
+                // todo drop functions, stored procedures.
             }
-            logger.info("Clearing (dropping) database schema " + dbSupport.getSchemaName());
-            dropSynonyms(dbSupport);
-            dropViews(dbSupport);
-            dropMaterializedViews(dbSupport);
-            dropSequences(dbSupport);
-            dropTables(dbSupport);
-
-            dropTriggers(dbSupport);
-            dropTypes(dbSupport);
-            // todo drop functions, stored procedures.
         }
     }
 
@@ -184,7 +187,7 @@ public class DefaultDBClearer
      *     The database support, not null
      */
     protected void dropTables(DbSupport dbSupport) {
-        Set<String> tableNames = dbSupport.getTableNames();
+        Set<String> tableNames = dbSupport.getSchemaSnapshot().getTableNames();
         Set<String> schemaTablesToPreserve = tablesToPreserve.get(dbSupport.getSchemaName());
         for (String tableName : tableNames) {
             // check whether table needs to be preserved
@@ -203,7 +206,7 @@ public class DefaultDBClearer
      *     The database support, not null
      */
     protected void dropViews(DbSupport dbSupport) {
-        Set<String> viewNames = dbSupport.getViewNames();
+        Set<String> viewNames = dbSupport.getSchemaSnapshot().getViewNames();
         Set<String> schemaViewsToPreserve = viewsToPreserve.get(dbSupport.getSchemaName());
         for (String viewName : viewNames) {
             // check whether view needs to be preserved
@@ -225,7 +228,7 @@ public class DefaultDBClearer
         if (!dbSupport.supportsMaterializedViews()) {
             return;
         }
-        Set<String> materializedViewNames = dbSupport.getMaterializedViewNames();
+        Set<String> materializedViewNames = dbSupport.getSchemaSnapshot().getMaterializedViewNames();
         Set<String> schemaMaterializedViewsToPreserve = materializedViewsToPreserve.get(dbSupport.getSchemaName());
         for (String materializedViewName : materializedViewNames) {
             // check whether view needs to be preserved
@@ -247,7 +250,7 @@ public class DefaultDBClearer
         if (!dbSupport.supportsSynonyms()) {
             return;
         }
-        Set<String> synonymNames = dbSupport.getSynonymNames();
+        Set<String> synonymNames = dbSupport.getSchemaSnapshot().getSynonymNames();
         Set<String> schemaSynonymsToPreserve = synonymsToPreserve.get(dbSupport.getSchemaName());
         for (String synonymName : synonymNames) {
             // check whether table needs to be preserved
@@ -269,7 +272,7 @@ public class DefaultDBClearer
         if (!dbSupport.supportsSequences()) {
             return;
         }
-        Set<String> sequenceNames = dbSupport.getSequenceNames();
+        Set<String> sequenceNames = dbSupport.getSchemaSnapshot().getSequenceNames();
         Set<String> schemaSequencesToPreserve = sequencesToPreserve.get(dbSupport.getSchemaName());
         for (String sequenceName : sequenceNames) {
             // check whether sequence needs to be preserved
@@ -291,7 +294,7 @@ public class DefaultDBClearer
         if (!dbSupport.supportsTriggers()) {
             return;
         }
-        Set<String> triggerNames = dbSupport.getTriggerNames();
+        Set<String> triggerNames = dbSupport.getSchemaSnapshot().getTriggerNames();
         Set<String> schemaTriggersToPreserve = triggersToPreserve.get(dbSupport.getSchemaName());
         for (String triggerName : triggerNames) {
             // check whether trigger needs to be preserved
@@ -313,7 +316,7 @@ public class DefaultDBClearer
         if (!dbSupport.supportsTypes()) {
             return;
         }
-        Set<String> typeNames = dbSupport.getTypeNames();
+        Set<String> typeNames = dbSupport.getSchemaSnapshot().getTypeNames();
         Set<String> schemaTypesToPreserve = typesToPreserve.get(dbSupport.getSchemaName());
         for (String typeName : typeNames) {
             // check whether type needs to be preserved
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbmaintainer.clean.impl;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.unitils.core.UnitilsException;
+import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.SQLHandlerSession;
+import org.unitils.core.dbsupport.SchemaSnapshotCache;
+import org.unitils.dbmaintainer.clean.DatabaseSnapshot;
+import org.unitils.dbmaintainer.util.BaseDatabaseAccessor;
+
+/**
+ * Implementation of {@link DatabaseSnapshot} that copies the records of all tables into tables in the same schema, so
+ * that the data does not leave the database. The copies are named after {@link #SNAPSHOT_TABLE_PREFIX} followed by a
+ * number, e.g. UNITILS_SNAPSHOT_1. They are dropped when a new snapshot is taken and are never cleaned by the
+ * {@link DefaultDBCleaner}. The same tables are handled as by the {@link DefaultDBCleaner}: tables and schemas that are
+ * configured to be preserved, and the version table, are left untouched.
+ * <p/>
+ * Restoring the snapshot first cleans the captured tables, in the order of their foreign keys, and then copies the
+ * records back using one insert-select statement per table, referenced tables first. Tables that were empty are only
+ * cleaned. Identity columns are moved past the highest restored value and the values of the sequences are restored as
+ * well. All statements are executed using the {@link org.unitils.core.dbsupport.SQLHandler}, in one session.
+ * <p/>
+ * If the tables of a schema contain a cycle of foreign keys, e.g. a table that references itself, the checking of the
+ * referential constraints is switched off during the restore, if the database supports this. Otherwise, the
+ * constraints need to be disabled.
+ * <p/>
+ * This implementation works for all databases. It can be replaced by a dialect specific implementation by setting
+ * the property org.unitils.dbmaintainer.clean.DatabaseSnapshot.implClassName.&lt;dialect&gt;.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class DefaultDatabaseSnapshot
+    extends BaseDatabaseAccessor
+    implements DatabaseSnapshot {
+
+    /**
+     * The prefix of the names of the tables that contain the copied records
+     */
+    public static final String SNAPSHOT_TABLE_PREFIX = "UNITILS_SNAPSHOT_";
+
+    /* The logger instance for this class */
+    private static Logger logger = LoggerFactory.getLogger(DefaultDatabaseSnapshot.class);
+
+    /**
+     * The cleaner that determines which tables are captured and cleans them before restoring
+     */
+    protected DefaultDBCleaner dbCleaner;
+
+    /* The captured tables per schema, null if no snapshot was taken */
+    private Map<DbSupport, Map<String, TableData>> tableDataPerSchema;
+
+    /* The captured sequence values per schema, null if no snapshot was taken */
+    private Map<DbSupport, Map<String, Long>> sequenceValuesPerSchema;
+
+    /**
+     * Configures this object.
+     *
+     * @param configuration
+     *     The configuration, not null
+     */
+    @Override
+    protected void doInit(Properties configuration) {
+        List<String> schemaNames = new ArrayList<>();
+        for (DbSupport dbSupport : dbSupports) {
+            schemaNames.add(dbSupport.getSchemaName());
+        }
+        dbCleaner = new DefaultDBCleaner();
+        dbCleaner.init(configuration, sqlHandler, dialect, schemaNames);
+    }
+
+    /**
+     * Captures the records of all tables and the values of all sequences, except for the tables and schemas that are
+     * preserved. The copies of a previous snapshot are dropped first.
+     */
+    @Override
+    public void takeSnapshot() {
+        Map<DbSupport, Map<String, TableData>> result = new LinkedHashMap<>();
+        Map<DbSupport, Map<String, Long>> sequenceValues = new LinkedHashMap<>();
+        tableDataPerSchema = null;
+        try (SQLHandlerSession session = sqlHandler.openSession()) {
+            for (DbSupport dbSupport : dbSupports) {
+                if (dbCleaner.isItemToPreserve(dbSupport.getSchemaName(), dbCleaner.schemasToPreserve)) {
+                    continue;
+                }
+                logger.info("Taking snapshot of database schema " + dbSupport.getSchemaName());
+
+                Set<String> tableNames = new TreeSet<>(dbSupport.getSchemaSnapshot().getTableNames());
+                dropSnapshotTables(tableNames, dbSupport);
+
+                Map<String, TableData> tableDatas = new LinkedHashMap<>();
+                for (String tableName : tableNames) {
+                    if (!isSnapshotTable(tableName) && !dbCleaner.isTableToPreserve(tableName, dbSupport)) {
+                        String copyTableName = dbSupport.toCorrectCaseIdentifier(SNAPSHOT_TABLE_PREFIX + (tableDatas.size() + 1));
+                        tableDatas.put(tableName, captureTable(tableName, copyTableName, dbSupport));
+                    }
+                }
+                result.put(dbSupport, tableDatas);
+                sequenceValues.put(dbSupport, captureSequences(dbSupport));
+            }
+            session.commit();
+        } finally {
+            // the statements creating the copies are not always recognized as changes of the structure
+            SchemaSnapshotCache.invalidate(sqlHandler.getDataSource());
+        }
+        tableDataPerSchema = result;
+        sequenceValuesPerSchema = sequenceValues;
+    }
+
+    /**
+     * Restores the records of the captured tables.
+     */
+    @Override
+    public void restoreSnapshot() {
+        if (tableDataPerSchema == null) {
+            throw new UnitilsException("Unable to restore database snapshot. No snapshot was taken.");
+        }
+        try (SQLHandlerSession session = sqlHandler.openSession()) {
+            for (Map.Entry<DbSupport, Map<String, TableData>> entry : tableDataPerSchema.entrySet()) {
+                DbSupport dbSupport = entry.getKey();
+                Map<String, TableData> tableDatas = entry.getValue();
+                logger.info("Restoring snapshot of database schema " + dbSupport.getSchemaName());
+                // check before cleaning, otherwise the data would be lost
+                assertSnapshotTablesExist(tableDatas, dbSupport);
+
+                Set<String> tableNames = tableDatas.keySet();
+                Map<String, Set<String>> referencingTableNames = dbCleaner.getReferencingTableNames(dbSupport);
+                List<List<String>> cleanOrder = dbCleaner.getCleanOrder(tableNames, referencingTableNames);
+
+                // tables of a cycle can neither be cleaned nor restored one by one with the constraints checked
+                boolean switchOffConstraintChecks = containsCycle(cleanOrder, referencingTableNames) && dbSupport.supportsReferentialConstraintChecksSwitching();
+                if (switchOffConstraintChecks) {
+                    dbSupport.setReferentialConstraintChecksEnabled(false);
+                }
+                try {
+                    dbCleaner.cleanTablesInOrder(tableNames, dbSupport, null);
+
+                    // referenced tables are restored first
+                    Collections.reverse(cleanOrder);
+                    for (List<String> tableNamesGroup : cleanOrder) {
+                        for (String tableName : tableNamesGroup) {
+                            TableData tableData = tableDatas.get(tableName);
+                            if (tableData.copyTableName != null) {
+                                restoreTable(tableName, tableData, dbSupport);
+                                restoreIdentityColumns(tableName, tableData, dbSupport);
+                            }
+                        }
+                    }
+                } finally {
+                    if (switchOffConstraintChecks) {
+                        dbSupport.setReferentialConstraintChecksEnabled(true);
+                    }
+                }
+                restoreSequences(sequenceValuesPerSchema.get(dbSupport), dbSupport);
+            }
+            session.commit();
+        }
+    }
+
+    private boolean containsCycle(List<List<String>> cleanOrder, Map<String, Set<String>> referencingTableNames) {
+        for (List<String> tableNamesGroup : cleanOrder) {
+            for (String tableName : tableNamesGroup) {
+                Set<String> referencingTableNamesOfTable = referencingTableNames.get(tableName);
+                if (referencingTableNamesOfTable != null && !Collections.disjoint(referencingTableNamesOfTable, tableNamesGroup)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void dropSnapshotTables(Set<String> tableNames, DbSupport dbSupport) {
+        for (String tableName : tableNames) {
+            if (isSnapshotTable(tableName)) {
+                logger.debug("Dropping snapshot table " + tableName + " in database schema " + dbSupport.getSchemaName());
+                dbSupport.dropTable(tableName);
+            }
+        }
+    }
+
+    private void assertSnapshotTablesExist(Map<String, TableData> tableDatas, DbSupport dbSupport) {
+        Set<String> tableNames = dbSupport.getSchemaSnapshot().getTableNames();
+        for (Map.Entry<String, TableData> entry : tableDatas.entrySet()) {
+            String copyTableName = entry.getValue().copyTableName;
+            if (copyTableName != null && !tableNames.contains(copyTableName)) {
+                throw new UnitilsException("Unable to restore database snapshot. Table " + copyTableName + " containing the records of table "
+                    + entry.getKey() + " no longer exists in database schema " + dbSupport.getSchemaName() + ".");
+            }
+        }
+    }
+
+    /**
+     * @param tableName
+     *     The table, not null
+     * @return True if the table contains the records of a snapshot
+     */
+    public static boolean isSnapshotTable(String tableName) {
+        return tableName.toUpperCase().startsWith(SNAPSHOT_TABLE_PREFIX);
+    }
+
+    /**
+     * @return True if a snapshot was taken
+     */
+    @Override
+    public boolean isSnapshotTaken() {
+        return tableDataPerSchema != null;
+    }
+
+    /**
+     * Copies all records of the given table into a new table. Nothing is copied if the table is empty.
+     *
+     * @param tableName
+     *     The table (case-sensitive), not null
+     * @param copyTableName
+     *     The name of the table to copy the records into (case-sensitive), not null
+     * @param dbSupport
+     *     The database support, not null
+     * @return The columns of the table and the name of the copy, not null
+     */
+    protected TableData captureTable(String tableName, String copyTableName, DbSupport dbSupport) {
+        try {
+            List<String> columnNames = new ArrayList<>();
+            Set<String> identityColumnNames = new HashSet<>();
+            sqlHandler.executeQuery("select * from " + dbSupport.qualified(tableName) + " where 1 = 0", resultSet -> {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    columnNames.add(metaData.getColumnName(i));
+                    if (metaData.isAutoIncrement(i)) {
+                        identityColumnNames.add(metaData.getColumnName(i));
+                    }
+                }
+                return null;
+            });
+            if (!sqlHandler.exists("select 1 from " + dbSupport.qualified(tableName))) {
+                return new TableData(columnNames, identityColumnNames, null);
+            }
+            logger.debug("Copying records of table " + tableName + " in database schema " + dbSupport.getSchemaName() + " into table " + copyTableName);
+            dbSupport.copyTable(tableName, copyTableName);
+            return new TableData(columnNames, identityColumnNames, copyTableName);
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to take snapshot of table " + tableName + " in database schema " + dbSupport.getSchemaName(), e);
+        }
+    }
+
+    /**
+     * Reads the values of all sequences of the schema.
+     *
+     * @param dbSupport
+     *     The database support, not null
+     * @return The values per sequence name, empty if sequences are not supported, not null
+     */
+    protected Map<String, Long> captureSequences(DbSupport dbSupport) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (!dbSupport.supportsSequences()) {
+            return result;
+        }
+        for (String sequenceName : dbSupport.getSchemaSnapshot().getSequenceNames()) {
+            result.put(sequenceName, dbSupport.getSequenceValue(sequenceName));
+        }
+        return result;
+    }
+
+    /**
+     * Sets the sequences back to their captured values.
+     *
+     * @param sequenceValues
+     *     The values per sequence name, not null
+     * @param dbSupport
+     *     The database support, not null
+     */
+    protected void restoreSequences(Map<String, Long> sequenceValues, DbSupport dbSupport) {
+        for (Map.Entry<String, Long> entry : sequenceValues.entrySet()) {
+            logger.debug("Restoring value of sequence " + entry.getKey() + " in database schema " + dbSupport.getSchemaName());
+            dbSupport.incrementSequenceToValue(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Makes the identity columns of the given table continue after the highest restored value. Otherwise, the next
+     * generated value could be the value of one of the restored records, e.g. after the table was truncated.
+     *
+     * @param tableName
+     *     The table (case-sensitive), not null
+     * @param tableData
+     *     The restored columns and the name of the copy, not null
+     * @param dbSupport
+     *     The database support, not null
+     */
+    protected void restoreIdentityColumns(String tableName, TableData tableData, DbSupport dbSupport) {
+        if (!dbSupport.supportsIdentityColumns()) {
+            return;
+        }
+        for (String identityColumnName : tableData.identityColumnNames) {
+            long maxValue = sqlHandler.getItemAsLong("select max(" + dbSupport.quoted(identityColumnName) + ") from " + dbSupport.qualified(tableData.copyTableName));
+            dbSupport.incrementIdentityColumnToValue(tableName, identityColumnName, maxValue + 1);
+        }
+    }
+
+    /**
+     * Copies the records of the copy back into the given table, using one insert-select statement.
+     *
+     * @param tableName
+     *     The table (case-sensitive), not null
+     * @param tableData
+     *     The captured columns and the name of the copy, not null
+     * @param dbSupport
+     *     The database support, not null
+     */
+    protected void restoreTable(String tableName, TableData tableData, DbSupport dbSupport) {
+        logger.debug("Restoring records of table " + tableName + " in database schema " + dbSupport.getSchemaName() + " from table " + tableData.copyTableName);
+
+        StringBuilder columns = new StringBuilder();
+        for (String columnName : tableData.columnNames) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append(dbSupport.quoted(columnName));
+        }
+        // identity columns that are always generated only accept the captured values with the overriding clause
+        String overridingClause = tableData.identityColumnNames.isEmpty() ? null : dbSupport.getOverridingIdentityValueClause();
+        String sql = "insert into " + dbSupport.qualified(tableName) + " (" + columns + ") " + (overridingClause == null ? "" : overridingClause + " ") + "select "
+            + columns + " from " + dbSupport.qualified(tableData.copyTableName);
+        try {
+            sqlHandler.executeUpdate(sql);
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to restore snapshot of table " + tableName + " in database schema " + dbSupport.getSchemaName(), e);
+        }
+    }
+
+    /**
+     * The captured columns of a table and the table containing its records.
+     */
+    protected static class TableData {
+
+        /* The names of the columns, not null */
+        private final List<String> columnNames;
+
+        /* The names of the columns with generated values, such as identity columns, not null */
+        private final Set<String> identityColumnNames;
+
+        /* The name of the table containing the copied records, null if the table was empty */
+        private final String copyTableName;
+
+        public TableData(List<String> columnNames, Set<String> identityColumnNames, String copyTableName) {
+            this.columnNames = columnNames;
+            this.identityColumnNames = identityColumnNames;
+            this.copyTableName = copyTableName;
+        }
+
+        /**
+         * @return The names of the columns, not null
+         */
+        public List<String> getColumnNames() {
+            return columnNames;
+        }
+
+        /**
+         * @return The names of the columns with generated values, such as identity columns, not null
+         */
+        public Set<String> getIdentityColumnNames() {
+            return identityColumnNames;
+        }
+
+        /**
+         * @return The name of the table containing the copied records, null if the table was empty
+         */
+        public String getCopyTableName() {
+            return copyTableName;
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -12,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.unitils.core.UnitilsException;
+import org.unitils.core.util.ClassPathIndex;
 
 import static org.apache.commons.lang3.StringUtils.replace;
 
@@ -41,11 +41,9 @@ public abstract class ClassPathResourceLocator {
 
         try {
             // will also check in external referenced jars.
-            Enumeration<URL> resources = getClass().getClassLoader().getResources(path);
-
-            while (resources.hasMoreElements()) {
-                URL url = resources.nextElement();
+            List<URL> resources = ClassPathIndex.getResources(getClass().getClassLoader(), path);
 
+            for (URL url : resources) {
                 resourceList.add(url);
                 logger.debug(" Resource '" + url.toString() + "' added to resourcelist ");
 
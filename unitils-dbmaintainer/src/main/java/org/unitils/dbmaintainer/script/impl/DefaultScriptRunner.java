@@ -14,6 +14,7 @@ package org.unitils.dbmaintainer.script.impl;
 
 import java.io.Reader;
 
+import org.unitils.core.dbsupport.SQLHandlerSession;
 import org.unitils.dbmaintainer.script.ScriptContentHandle;
 import org.unitils.dbmaintainer.script.ScriptParser;
 import org.unitils.dbmaintainer.script.ScriptRunner;
@@ -35,7 +36,8 @@ public class DefaultScriptRunner
      * Executes the given script.
      * <p/>
      * All statements should be separated with a semicolon (;). The last statement will be
-     * added even if it does not end with a semicolon.
+     * added even if it does not end with a semicolon. The statements are executed and committed one by one, within one
+     * session of the sql handler.
      *
      * @param scriptContentHandle
      *     The script as a string, not null
@@ -43,7 +45,7 @@ public class DefaultScriptRunner
     @Override
     public void execute(ScriptContentHandle scriptContentHandle) {
         Reader scriptContentReader = null;
-        try {
+        try (SQLHandlerSession session = sqlHandler.openSession()) {
             // get content stream
             scriptContentReader = scriptContentHandle.openScriptContentReader();
 
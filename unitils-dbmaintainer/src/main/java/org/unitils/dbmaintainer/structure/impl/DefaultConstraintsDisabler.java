@@ -15,6 +15,7 @@ package org.unitils.dbmaintainer.structure.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.SQLHandlerSession;
 import org.unitils.dbmaintainer.structure.ConstraintsDisabler;
 import org.unitils.dbmaintainer.util.BaseDatabaseAccessor;
 
@@ -39,13 +40,15 @@ public class DefaultConstraintsDisabler
      */
     @Override
     public void disableConstraints() {
-        for (DbSupport dbSupport : dbSupports) {
-            logger.info("Disabling constraints in database schema " + dbSupport.getSchemaName());
+        try (SQLHandlerSession session = sqlHandler.openSession()) {
+            for (DbSupport dbSupport : dbSupports) {
+                logger.info("Disabling constraints in database schema " + dbSupport.getSchemaName());
 
-            // first disable referential constraints to avoid conflicts
-            disableReferentialConstraints(dbSupport);
-            // disable not-null and check constraints
-            disableValueConstraints(dbSupport);
+                // first disable referential constraints to avoid conflicts
+                disableReferentialConstraints(dbSupport);
+                // disable not-null and check constraints
+                disableValueConstraints(dbSupport);
+            }
         }
     }
 
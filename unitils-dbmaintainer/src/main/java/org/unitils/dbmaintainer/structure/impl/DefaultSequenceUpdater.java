@@ -19,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.core.UnitilsException;
 import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.SchemaSnapshot;
 import org.unitils.dbmaintainer.structure.SequenceUpdater;
 import org.unitils.dbmaintainer.util.BaseDatabaseAccessor;
 import org.unitils.util.PropertyUtils;
@@ -107,9 +108,9 @@ public class DefaultSequenceUpdater
         if (!dbSupport.supportsIdentityColumns()) {
             return;
         }
-        Set<String> tableNames = dbSupport.getTableNames();
-        for (String tableName : tableNames) {
-            Set<String> identityColumnNames = dbSupport.getIdentityColumnNames(tableName);
+        SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+        for (String tableName : schemaSnapshot.getTableNames()) {
+            Set<String> identityColumnNames = schemaSnapshot.getIdentityColumnNames(tableName);
             for (String identityColumnName : identityColumnNames) {
                 try {
                     dbSupport.incrementIdentityColumnToValue(tableName, identityColumnName, lowestAcceptableSequenceValue);
@@ -21,6 +21,7 @@ import java.util.Set;
 
 import org.unitils.core.UnitilsException;
 import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.SchemaSnapshot;
 import org.unitils.dbmaintainer.structure.DataSetStructureGenerator;
 import org.unitils.dbmaintainer.util.BaseDatabaseAccessor;
 import org.unitils.util.PropertyUtils;
@@ -137,7 +138,8 @@ public class XsdDataSetStructureGenerator
             writer.write("<xsd:schema xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" elementFormDefault=\"qualified\" xmlns=\"" + dbSupport.getSchemaName()
                 + "\" targetNamespace=\"" + dbSupport.getSchemaName() + "\">\n");
 
-            Set<String> tableNames = dbSupport.getTableNames();
+            SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+            Set<String> tableNames = schemaSnapshot.getTableNames();
             for (String tableName : tableNames) {
                 writer.write("\t<xsd:element name=\"" + tableName + "\" type=\"" + tableName + complexTypeSuffix + "\" />\n");
             }
@@ -145,7 +147,7 @@ public class XsdDataSetStructureGenerator
             for (String tableName : tableNames) {
                 writer.write("\t<xsd:complexType name=\"" + tableName + complexTypeSuffix + "\">\n");
 
-                Set<String> columnNames = dbSupport.getColumnNames(tableName);
+                Set<String> columnNames = schemaSnapshot.getColumnNames(tableName);
                 for (String columnName : columnNames) {
                     writer.write("\t\t<xsd:attribute name=\"" + columnName + "\" use=\"optional\" />\n");
                 }
@@ -27,6 +27,7 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.core.UnitilsException;
+import org.unitils.core.dbsupport.SchemaSnapshotCache;
 import org.unitils.dbmaintainer.script.ExecutedScript;
 import org.unitils.dbmaintainer.script.Script;
 import org.unitils.dbmaintainer.util.BaseDatabaseAccessor;
@@ -414,6 +415,7 @@ public class DefaultExecutedScriptInfoSource
 
         // Create db version table
         sqlHandler.executeUpdateAndCommit(getCreateExecutedScriptsTableStatement());
+        SchemaSnapshotCache.invalidate(sqlHandler.getDataSource());
     }
 
     /**
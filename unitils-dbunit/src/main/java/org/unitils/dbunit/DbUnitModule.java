@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.sql.DataSource;
 
@@ -113,7 +114,7 @@ public class DbUnitModule
      * A different DbUnit connection is used for every database schema. Since DbUnit can only work with a single schema, this is the
      * simplest way to obtain multi-schema support.
      */
-    protected Map<String, DbUnitDatabaseConnection> dbUnitDatabaseConnections = new HashMap<>();
+    protected Map<String, DbUnitDatabaseConnection> dbUnitDatabaseConnections = new ConcurrentHashMap<>();
 
     /**
      * The unitils configuration
@@ -157,7 +158,11 @@ public class DbUnitModule
         DbUnitDatabaseConnection dbUnitDatabaseConnection = dbUnitDatabaseConnections.get(keyInDbUnitConnection);
         if (dbUnitDatabaseConnection == null) {
             dbUnitDatabaseConnection = createDbUnitConnection(schemaName);
-            dbUnitDatabaseConnections.put(keyInDbUnitConnection, dbUnitDatabaseConnection);
+            DbUnitDatabaseConnection existingConnection = dbUnitDatabaseConnections.putIfAbsent(keyInDbUnitConnection, dbUnitDatabaseConnection);
+            if (existingConnection != null) {
+                // created concurrently by a test running in another thread
+                dbUnitDatabaseConnection = existingConnection;
+            }
         }
         return dbUnitDatabaseConnection;
     }
@@ -24,9 +24,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.core.UnitilsException;
 import org.unitils.util.AnnotationUtils;
+import org.unitils.util.OgnlUtils;
 import org.unitils.util.ReflectionUtils;
 
-import ognl.UnitilsMemberAccess;
 import ognl.Ognl;
 import ognl.OgnlContext;
 import ognl.OgnlException;
@@ -69,8 +69,8 @@ public class InjectionUtils {
             throw new UnitilsException("Target for injection should not be null");
         }
         try {
-            OgnlContext ognlContext = new OgnlContext(null, null, new UnitilsMemberAccess());
-            Object ognlExpression = Ognl.parseExpression(property);
+            OgnlContext ognlContext = OgnlUtils.createOgnlContext();
+            Object ognlExpression = OgnlUtils.parseExpression(property);
 
             Object oldValue = null;
             try {
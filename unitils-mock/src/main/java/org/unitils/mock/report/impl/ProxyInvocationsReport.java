@@ -47,12 +47,18 @@ public abstract class ProxyInvocationsReport {
      */
     public static int OBJECT_FORMATTER_MAX_NR_ARRAY_OR_COLLECTION_ELEMENTS = 15;
 
+    /**
+     * The maximum nr of characters of a value to display in the reports
+     */
+    public static int OBJECT_FORMATTER_MAX_LENGTH = 10000;
+
     /**
      * The maximum length of an inline value
      */
     public static int MAX_INLINE_PARAMETER_LENGTH = 20;
 
-    protected ObjectFormatter objectFormatter = new ObjectFormatter(OBJECT_FORMATTER_MAX_RECURSION_DEPT, OBJECT_FORMATTER_MAX_NR_ARRAY_OR_COLLECTION_ELEMENTS);
+    protected ObjectFormatter objectFormatter = new ObjectFormatter(OBJECT_FORMATTER_MAX_RECURSION_DEPT, OBJECT_FORMATTER_MAX_NR_ARRAY_OR_COLLECTION_ELEMENTS,
+        OBJECT_FORMATTER_MAX_LENGTH, true);
 
     protected Map<Object, String> testedObjectFieldValuesAndNames;
 
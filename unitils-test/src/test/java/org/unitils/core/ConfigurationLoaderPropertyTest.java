@@ -181,7 +181,8 @@ public class ConfigurationLoaderPropertyTest
         customProperties.put("yyy", "${xxx}");
         setProperties();
 
-        configurationLoader.loadConfiguration();
+        Properties result = configurationLoader.loadConfiguration();
+        result.getProperty("xxx");
     }
 
     private void setProperties() {
@@ -23,12 +23,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowableOfType;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.unitils.core.ModulesLoader.PROPKEY_MODULES;
 import static org.unitils.core.ModulesLoader.PROPKEY_MODULE_PREFIX;
 import static org.unitils.core.ModulesLoader.PROPKEY_MODULE_SUFFIX_CLASS_NAME;
 import static org.unitils.core.ModulesLoader.PROPKEY_MODULE_SUFFIX_ENABLED;
 import static org.unitils.core.ModulesLoader.PROPKEY_MODULE_SUFFIX_RUN_AFTER;
+import static org.unitils.core.ModulesLoader.PROPKEY_PARALLEL_INIT_ENABLED;
 
 /**
  * Test for {@link ModulesLoader}.
@@ -174,6 +176,63 @@ public class ModulesLoaderTest
         modulesLoader.loadModules(configuration);
     }
 
+    /**
+     * Tests the loading with parallel initialization enabled and an extra core e without dependencies. Core e is
+     * initialized together with d, the order of the modules should not have changed.
+     */
+    @Test
+    public void testLoadModules_parallelInit() {
+        configuration.setProperty(PROPKEY_PARALLEL_INIT_ENABLED, "true");
+        configuration.setProperty(PROPKEY_MODULES, "a, b, c, d, e");
+        configuration.setProperty(PROPKEY_MODULE_PREFIX + "e" + PROPKEY_MODULE_SUFFIX_CLASS_NAME, TestModulePrivate.class.getName());
+
+        List<Module> result = modulesLoader.loadModules(configuration);
+
+        assertNotNull(result);
+        assertEquals(5, result.size());
+        assertTrue(result.get(0) instanceof TestModuleD);
+        assertTrue(result.get(1) instanceof TestModulePrivate);
+        assertTrue(result.get(2) instanceof TestModuleB);
+        assertTrue(result.get(3) instanceof TestModuleA);
+        assertTrue(result.get(4) instanceof TestModuleC);
+    }
+
+    @Test(expected = UnitilsException.class)
+    public void moduleClassInClasspathButCouldNotBeLoaded_parallelInit() {
+        configuration.setProperty(PROPKEY_PARALLEL_INIT_ENABLED, "true");
+        configuration.setProperty(PROPKEY_MODULES, "a, b, c, d, e");
+        configuration.setProperty(PROPKEY_MODULE_PREFIX + "e" + PROPKEY_MODULE_SUFFIX_CLASS_NAME, TestModuleWithFailingInitializer.class.getName());
+        modulesLoader.loadModules(configuration);
+    }
+
+    /**
+     * Modules that are initialized in parallel during the initialization of the singleton instance get the instance
+     * that is being initialized, instead of waiting for the initialization to finish.
+     */
+    @Test(timeout = 30000)
+    public void initSingletonInstance_parallelInitOfModulesAccessingUnitils() {
+        Unitils originalUnitils = Unitils.getInstance();
+        Properties originalSystemProperties = (Properties) System.getProperties().clone();
+        try {
+            System.setProperty(PROPKEY_PARALLEL_INIT_ENABLED, "true");
+            System.setProperty(PROPKEY_MODULES, "x, y");
+            System.setProperty(PROPKEY_MODULE_PREFIX + "x" + PROPKEY_MODULE_SUFFIX_CLASS_NAME, TestModuleAccessingUnitils.class.getName());
+            System.setProperty(PROPKEY_MODULE_PREFIX + "y" + PROPKEY_MODULE_SUFFIX_CLASS_NAME, TestModuleAccessingUnitils.class.getName());
+            Unitils.setInstance(null);
+
+            Unitils.initSingletonInstance();
+
+            List<Module> modules = Unitils.getInstance().getModulesRepository().getModules();
+            assertEquals(2, modules.size());
+            for (Module module : modules) {
+                assertSame(Unitils.getInstance(), ((TestModuleAccessingUnitils) module).unitils);
+            }
+        } finally {
+            System.setProperties(originalSystemProperties);
+            Unitils.setInstance(originalUnitils);
+        }
+    }
+
     /**
      * Tests the loading of modules that contain a circular dependency. a must run after b must run after d must run
      * after a A runtime exception should have been thrown.
@@ -300,6 +359,29 @@ public class ModulesLoaderTest
         }
     }
 
+    /**
+     * A test unitils module that accesses Unitils during its initialization
+     */
+    public static class TestModuleAccessingUnitils
+        implements Module {
+
+        private Unitils unitils;
+
+        @Override
+        public void init(Properties configuration) {
+            unitils = Unitils.getInstance();
+        }
+
+        @Override
+        public void afterInit() {
+        }
+
+        @Override
+        public TestListener getTestListener() {
+            return null;
+        }
+    }
+
     /**
      * A test unitils module that will fail to load
      */
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for the thread scoping of the {@link TestContext} in {@link Unitils}.
+ */
+public class UnitilsTestContextTest {
+
+    /* Class under test */
+    private Unitils unitils;
+
+    @Before
+    public void setUp() {
+        Properties configuration = new Properties();
+        configuration.setProperty("unitils.modules", "");
+        unitils = new Unitils();
+        unitils.init(configuration);
+    }
+
+    /**
+     * Each thread has its own context: the test object of one thread is not visible in another thread.
+     */
+    @Test
+    public void testContextIsBoundToThread()
+        throws Exception {
+        unitils.getTestListener().afterCreateTestObject(this);
+
+        AtomicReference<Object> otherTestObject = new AtomicReference<>();
+        Thread otherThread = new Thread(() -> {
+            unitils.getTestListener().beforeTestClass(String.class);
+            otherTestObject.set(unitils.getTestContext().getTestObject());
+        });
+        otherThread.start();
+        otherThread.join();
+
+        assertNull(otherTestObject.get());
+        assertSame(this, unitils.getTestContext().getTestObject());
+        assertSame(UnitilsTestContextTest.class, unitils.getTestContext().getTestClass());
+    }
+
+    /**
+     * A thread started from within a test does not inherit the context of the test.
+     */
+    @Test
+    public void testContextIsNotInheritedByChildThread()
+        throws Exception {
+        unitils.getTestListener().afterCreateTestObject(this);
+
+        AtomicReference<TestContext> childTestContext = new AtomicReference<>();
+        Thread childThread = new Thread(() -> childTestContext.set(unitils.getTestContext()));
+        childThread.start();
+        childThread.join();
+
+        assertNotSame(unitils.getTestContext(), childTestContext.get());
+        assertNull(childTestContext.get().getTestObject());
+    }
+
+    /**
+     * A thread started from within a test can explicitly be given a copy of the context of the test.
+     */
+    @Test
+    public void testContextIsSetInChildThread()
+        throws Exception {
+        unitils.getTestListener().afterCreateTestObject(this);
+        TestContext testContext = new TestContext(unitils.getTestContext());
+
+        AtomicReference<Object> childTestObject = new AtomicReference<>();
+        Thread childThread = new Thread(() -> {
+            unitils.setTestContext(testContext);
+            childTestObject.set(unitils.getTestContext().getTestObject());
+        });
+        childThread.start();
+        childThread.join();
+
+        assertSame(this, childTestObject.get());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.config;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.core.UnitilsException;
+import org.unitils.util.PropertyUtils;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+
+/**
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ConfigurationPropertiesTest {
+
+    /* Tested object */
+    private ConfigurationProperties configurationProperties;
+
+    @Before
+    public void initialize() {
+        configurationProperties = new ConfigurationProperties();
+        configurationProperties.setProperty("root.dir", "/usr/home");
+        configurationProperties.setProperty("sub.dir", "${root.dir}/subdir");
+        configurationProperties.setProperty("nested.dir", "${sub.dir}/nested");
+        configurationProperties.setProperty("unknown", "${xxx}/subdir");
+        configurationProperties.setProperty("loop", "${loop}");
+        configurationProperties.setProperty("list", "a, b ,c");
+    }
+
+    @Test
+    public void expandedWhenRead() {
+        assertEquals("/usr/home/subdir", configurationProperties.getProperty("sub.dir"));
+        assertEquals("/usr/home/subdir", configurationProperties.get("sub.dir"));
+        assertEquals("/usr/home/subdir/nested", configurationProperties.getProperty("nested.dir"));
+    }
+
+    @Test
+    public void expandedUsingCurrentValues() {
+        configurationProperties.setProperty("root.dir", "/opt");
+        assertEquals("/opt/subdir", configurationProperties.getProperty("sub.dir"));
+    }
+
+    @Test
+    public void expandedWhenDefaultValue() {
+        assertEquals("/usr/home/subdir", configurationProperties.getProperty("sub.dir", "default"));
+        assertEquals("default", configurationProperties.getProperty("xxx", "default"));
+    }
+
+    @Test
+    public void unknownPlaceHolderIsNotExpanded() {
+        assertEquals("${xxx}/subdir", configurationProperties.getProperty("unknown"));
+    }
+
+    @Test(expected = UnitilsException.class)
+    public void infiniteLoop() {
+        configurationProperties.getProperty("loop");
+    }
+
+    @Test
+    public void notFound() {
+        assertNull(configurationProperties.getProperty("xxx"));
+    }
+
+    @Test
+    public void cloneIsAlsoExpanded() {
+        Properties clone = (Properties) configurationProperties.clone();
+        assertEquals("/usr/home/subdir", clone.getProperty("sub.dir"));
+    }
+
+    @Test
+    public void convertedValueIsReused() {
+        Function<String, StringBuilder> converter = StringBuilder::new;
+        Object result1 = configurationProperties.getConvertedValue("value", converter);
+        Object result2 = configurationProperties.getConvertedValue("value", converter);
+        assertSame(result1, result2);
+    }
+
+    @Test
+    public void classWithName() {
+        assertSame(String.class, ConfigurationProperties.getClassWithName("java.lang.String", configurationProperties));
+        assertSame(String.class, ConfigurationProperties.getClassWithName("java.lang.String", new Properties()));
+    }
+
+    @Test(expected = UnitilsException.class)
+    public void classWithNameNotFound() {
+        ConfigurationProperties.getClassWithName("xxx", configurationProperties);
+    }
+
+    @Test
+    public void stringListIsCopied() {
+        List<String> result1 = PropertyUtils.getStringList("list", configurationProperties);
+        result1.add("d");
+        List<String> result2 = PropertyUtils.getStringList("list", configurationProperties);
+        assertReflectionEquals(asList("a", "b", "c"), result2);
+    }
+
+    @Test
+    public void stringListAfterValueChanged() {
+        PropertyUtils.getStringList("list", configurationProperties);
+        configurationProperties.setProperty("list", "x,y");
+        List<String> result = PropertyUtils.getStringList("list", configurationProperties);
+        assertReflectionEquals(asList("x", "y"), result);
+    }
+}
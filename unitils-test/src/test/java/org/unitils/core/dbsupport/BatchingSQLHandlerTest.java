@@ -0,0 +1,223 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.UnitilsException;
+import org.unitils.database.annotations.TestDataSource;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.database.SQLUnitils.executeUpdateQuietly;
+import static org.unitils.database.SQLUnitils.getItemAsLong;
+
+/**
+ * Test for the {@link BatchingSQLHandler}.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class BatchingSQLHandlerTest
+    extends UnitilsJUnit4 {
+
+    /* DataSource for the test database, is injected */
+    @TestDataSource
+    private DataSource dataSource = null;
+
+    /* The data source that counts the nr of connections */
+    private CountingDataSource countingDataSource;
+
+    /* Tested object */
+    private BatchingSQLHandler batchingSQLHandler;
+
+    @Before
+    public void setUp() {
+        countingDataSource = new CountingDataSource(dataSource);
+        batchingSQLHandler = new BatchingSQLHandler(countingDataSource);
+
+        executeUpdateQuietly("drop table test_batch", dataSource);
+        executeUpdate("create table test_batch (id integer)", dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        executeUpdateQuietly("drop table test_batch", dataSource);
+    }
+
+    @Test
+    public void executeBatch() {
+        int[] result = batchingSQLHandler.executeBatch(Arrays.asList("insert into test_batch values (1)", "insert into test_batch values (2)",
+            "delete from test_batch where id = 1"));
+
+        assertArrayEquals(new int[] {1, 1, 1}, result);
+        assertEquals(1, getItemAsLong("select count(*) from test_batch", dataSource));
+        assertEquals(1, countingDataSource.nrOfConnections);
+    }
+
+    @Test
+    public void executeBatchFailingStatement() {
+        try {
+            batchingSQLHandler.executeBatch(Arrays.asList("insert into test_batch values (1)", "insert into xxx values (2)"));
+            fail("UnitilsException expected");
+        } catch (UnitilsException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("insert into xxx values (2)"));
+        }
+    }
+
+    @Test
+    public void executeBatchWithoutUpdates() {
+        batchingSQLHandler = new BatchingSQLHandler(countingDataSource, false);
+
+        int[] result = batchingSQLHandler.executeBatch(Arrays.asList("insert into test_batch values (1)", "insert into test_batch values (2)"));
+
+        assertArrayEquals(new int[] {0, 0}, result);
+        assertEquals(0, getItemAsLong("select count(*) from test_batch", dataSource));
+        assertEquals(0, countingDataSource.nrOfConnections);
+    }
+
+    @Test
+    public void sessionReusesConnection() {
+        try (SQLHandlerSession session = batchingSQLHandler.openSession()) {
+            batchingSQLHandler.executeUpdate("insert into test_batch values (1)");
+            batchingSQLHandler.executeUpdateAndCommit("insert into test_batch values (2)");
+            batchingSQLHandler.executeBatch(Arrays.asList("insert into test_batch values (3)", "insert into test_batch values (4)"));
+            assertEquals(4, batchingSQLHandler.getItemAsLong("select count(*) from test_batch"));
+        }
+        assertEquals(1, countingDataSource.nrOfConnections);
+        assertEquals(0, countingDataSource.nrOfOpenConnections);
+        assertFalse(batchingSQLHandler.isSessionOpen());
+    }
+
+    @Test
+    public void nestedSession() {
+        try (SQLHandlerSession session = batchingSQLHandler.openSession()) {
+            try (SQLHandlerSession nestedSession = batchingSQLHandler.openSession()) {
+                batchingSQLHandler.executeUpdate("insert into test_batch values (1)");
+            }
+            assertTrue(batchingSQLHandler.isSessionOpen());
+            assertEquals(1, countingDataSource.nrOfOpenConnections);
+
+            batchingSQLHandler.executeUpdate("insert into test_batch values (2)");
+        }
+        assertEquals(1, countingDataSource.nrOfConnections);
+        assertEquals(0, countingDataSource.nrOfOpenConnections);
+    }
+
+    @Test
+    public void noSession() {
+        batchingSQLHandler.executeUpdate("insert into test_batch values (1)");
+        batchingSQLHandler.executeUpdate("insert into test_batch values (2)");
+
+        assertEquals(2, countingDataSource.nrOfConnections);
+        assertEquals(0, countingDataSource.nrOfOpenConnections);
+    }
+
+    @Test
+    public void sessionWithoutStatements() {
+        batchingSQLHandler.openSession().close();
+
+        assertEquals(0, countingDataSource.nrOfConnections);
+        assertFalse(batchingSQLHandler.isSessionOpen());
+    }
+
+    @Test
+    public void commitSession() {
+        countingDataSource.autoCommit = false;
+        try (SQLHandlerSession session = batchingSQLHandler.openSession()) {
+            batchingSQLHandler.executeBatch(Arrays.asList("insert into test_batch values (1)", "insert into test_batch values (2)"));
+            session.commit();
+        }
+        assertEquals(1, countingDataSource.nrOfCommits);
+        assertEquals(0, countingDataSource.nrOfOpenConnections);
+    }
+
+    @Test
+    public void commitSessionInAutoCommitMode() {
+        try (SQLHandlerSession session = batchingSQLHandler.openSession()) {
+            batchingSQLHandler.executeUpdate("insert into test_batch values (1)");
+            session.commit();
+        }
+        assertEquals(0, countingDataSource.nrOfCommits);
+    }
+
+    @Test
+    public void commitSessionWithoutStatements() {
+        countingDataSource.autoCommit = false;
+        try (SQLHandlerSession session = batchingSQLHandler.openSession()) {
+            session.commit();
+        }
+        assertEquals(0, countingDataSource.nrOfConnections);
+        assertEquals(0, countingDataSource.nrOfCommits);
+    }
+
+    /**
+     * Data source that counts the connections that were obtained and the connections that are not closed yet.
+     * The connections can pretend to not be in auto-commit mode, the commits are then counted instead of executed.
+     */
+    private static class CountingDataSource
+        extends DelegatingDataSource {
+
+        private int nrOfConnections;
+
+        private int nrOfOpenConnections;
+
+        private int nrOfCommits;
+
+        private boolean autoCommit = true;
+
+        public CountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection()
+            throws SQLException {
+            Connection connection = super.getConnection();
+            nrOfConnections++;
+            nrOfOpenConnections++;
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                if ("close".equals(method.getName())) {
+                    nrOfOpenConnections--;
+                }
+                if (!autoCommit && "getAutoCommit".equals(method.getName())) {
+                    return false;
+                }
+                if (!autoCommit && "commit".equals(method.getName())) {
+                    nrOfCommits++;
+                    return null;
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+        }
+    }
+}
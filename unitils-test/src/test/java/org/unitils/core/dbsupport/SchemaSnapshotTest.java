@@ -0,0 +1,153 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.ConfigurationLoader;
+import org.unitils.database.annotations.TestDataSource;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.core.dbsupport.DbSupportFactory.getDefaultDbSupport;
+import static org.unitils.core.util.SQLTestUtils.dropTestTables;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.reflectionassert.ReflectionAssert.assertLenientEquals;
+
+/**
+ * Test for the {@link SchemaSnapshot} and the {@link SchemaSnapshotCache}.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class SchemaSnapshotTest
+    extends UnitilsJUnit4 {
+
+    /* DataSource for the test database, is injected */
+    @TestDataSource
+    private DataSource dataSource = null;
+
+    /* The configuration */
+    private Properties configuration;
+
+    /* The db support for the test database */
+    private DbSupport dbSupport;
+
+    @Before
+    public void setUp() {
+        configuration = new ConfigurationLoader().loadConfiguration();
+        dbSupport = getDefaultDbSupport(configuration, new DefaultSQLHandler(dataSource), "hsqldb", "PUBLIC");
+        dropTestTables(dbSupport, "TEST_ORDER", "TEST_CUSTOMER");
+        createTestTables(dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        dropTestTables(dbSupport, "TEST_ORDER", "TEST_CUSTOMER");
+        SchemaSnapshotCache.stopCaching(dataSource);
+    }
+
+    @Test
+    public void hsqldb() {
+        assertSnapshot(dbSupport.getSchemaSnapshot());
+    }
+
+    @Test
+    public void h2() {
+        DriverManagerDataSource h2DataSource = new DriverManagerDataSource("jdbc:h2:mem:schemasnapshot;DB_CLOSE_DELAY=-1", "sa", "");
+        DbSupport h2DbSupport = getDefaultDbSupport(configuration, new DefaultSQLHandler(h2DataSource), "h2", "PUBLIC");
+        try {
+            createTestTables(h2DataSource);
+            assertSnapshot(h2DbSupport.getSchemaSnapshot());
+        } finally {
+            dropTestTables(h2DbSupport, "TEST_ORDER", "TEST_CUSTOMER");
+        }
+    }
+
+    @Test
+    public void snapshotEqualsTableMethods() {
+        SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+        for (String tableName : dbSupport.getTableNames()) {
+            assertLenientEquals(dbSupport.getColumnNames(tableName), schemaSnapshot.getColumnNames(tableName));
+            assertLenientEquals(dbSupport.getIdentityColumnNames(tableName), schemaSnapshot.getIdentityColumnNames(tableName));
+        }
+    }
+
+    @Test
+    public void noCaching() {
+        assertNotSame(dbSupport.getSchemaSnapshot(), dbSupport.getSchemaSnapshot());
+    }
+
+    @Test
+    public void caching() {
+        SchemaSnapshotCache.startCaching(dataSource);
+        SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+        DbSupport otherDbSupport = getDefaultDbSupport(configuration, new DefaultSQLHandler(dataSource), "hsqldb", "PUBLIC");
+
+        assertSame(schemaSnapshot, otherDbSupport.getSchemaSnapshot());
+    }
+
+    @Test
+    public void invalidate() {
+        SchemaSnapshotCache.startCaching(dataSource);
+        SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+        schemaSnapshot.getTableNames();
+        executeUpdate("create table TEST_OTHER (id integer)", dataSource);
+        try {
+            SchemaSnapshotCache.invalidate(dataSource);
+
+            SchemaSnapshot result = dbSupport.getSchemaSnapshot();
+            assertNotSame(schemaSnapshot, result);
+            assertTrue(result.getTableNames().contains("TEST_OTHER"));
+        } finally {
+            dropTestTables(dbSupport, "TEST_OTHER");
+        }
+    }
+
+    @Test
+    public void nestedCaching() {
+        SchemaSnapshotCache.startCaching(dataSource);
+        SchemaSnapshotCache.startCaching(dataSource);
+        SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+        SchemaSnapshotCache.stopCaching(dataSource);
+
+        assertSame(schemaSnapshot, dbSupport.getSchemaSnapshot());
+        SchemaSnapshotCache.stopCaching(dataSource);
+        assertNotSame(schemaSnapshot, dbSupport.getSchemaSnapshot());
+    }
+
+    private void createTestTables(DataSource dataSource) {
+        executeUpdate("create table TEST_CUSTOMER (ID integer primary key, NAME varchar(50))", dataSource);
+        executeUpdate("create table TEST_ORDER (ID integer primary key, CUSTOMER_ID integer, constraint FK_TEST_ORDER foreign key (CUSTOMER_ID) references TEST_CUSTOMER (ID))",
+            dataSource);
+    }
+
+    private void assertSnapshot(SchemaSnapshot schemaSnapshot) {
+        assertTrue(schemaSnapshot.getTableNames().contains("TEST_CUSTOMER"));
+        assertTrue(schemaSnapshot.getTableNames().contains("TEST_ORDER"));
+        assertLenientEquals(new String[] {"ID", "NAME"}, schemaSnapshot.getColumnNames("TEST_CUSTOMER"));
+        assertLenientEquals(new String[] {"ID", "CUSTOMER_ID"}, schemaSnapshot.getColumnNames("TEST_ORDER"));
+        assertLenientEquals(new String[] {"ID"}, schemaSnapshot.getPrimaryKeyColumnNames("TEST_ORDER"));
+        assertLenientEquals(new String[] {"TEST_CUSTOMER"}, schemaSnapshot.getReferencedTableNames("TEST_ORDER"));
+        assertTrue(schemaSnapshot.getReferencedTableNames("TEST_CUSTOMER").isEmpty());
+        assertTrue(schemaSnapshot.getColumnNames("XXX").isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link DurationHistogram}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class DurationHistogramTest {
+
+    /* Tested object */
+    private DurationHistogram durationHistogram;
+
+    @Before
+    public void setUp() {
+        durationHistogram = new DurationHistogram();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, durationHistogram.getCount());
+        assertEquals(0, durationHistogram.getMean());
+        assertEquals(0, durationHistogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        for (int i = 1; i <= 5; i++) {
+            durationHistogram.record(i);
+        }
+        assertEquals(5, durationHistogram.getCount());
+        assertEquals(15, durationHistogram.getTotal());
+        assertEquals(3, durationHistogram.getMean());
+        assertEquals(3, durationHistogram.getValueAtPercentile(50));
+        assertEquals(5, durationHistogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testPercentilesWithinPrecision() {
+        for (long i = 1; i <= 1000; i++) {
+            durationHistogram.record(i * 1000000);
+        }
+        assertWithinPrecision(500000000L, durationHistogram.getValueAtPercentile(50));
+        assertWithinPrecision(990000000L, durationHistogram.getValueAtPercentile(99));
+        assertEquals(1000000000L, durationHistogram.getValueAtPercentile(100));
+        assertEquals(1000000000L, durationHistogram.getMax());
+    }
+
+    @Test
+    public void testLargestValue() {
+        durationHistogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, durationHistogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testNegativeValueRecordedAsZero() {
+        durationHistogram.record(-5);
+        assertEquals(0, durationHistogram.getMax());
+        assertEquals(1, durationHistogram.getCount());
+    }
+
+    private void assertWithinPrecision(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual, actual >= expected && actual <= expected + expected / 8);
+    }
+}
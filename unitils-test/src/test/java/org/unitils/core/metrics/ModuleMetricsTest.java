@@ -0,0 +1,196 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.core.Module;
+import org.unitils.core.TestListener;
+import org.unitils.core.UnitilsException;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link ModuleMetrics} and {@link TimedTestListener}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ModuleMetricsTest {
+
+    private static List<String> recordedCallbacks;
+
+    private TestModule testModule;
+
+    private Method testMethod;
+
+    @Before
+    public void setUp()
+        throws Exception {
+        recordedCallbacks = new ArrayList<>();
+        testModule = new TestModule();
+        testMethod = ModuleMetricsTest.class.getMethod("setUp");
+    }
+
+    @Test
+    public void testCreateModuleMetrics_disabledByDefault() {
+        ModuleMetrics result = ModuleMetrics.createModuleMetrics(new Properties());
+        assertSame(ModuleMetrics.DISABLED, result);
+        assertFalse(result.isEnabled());
+    }
+
+    @Test
+    public void testCreateModuleMetrics_enabled() {
+        ModuleMetrics result = ModuleMetrics.createModuleMetrics(createConfiguration());
+        assertTrue(result.isEnabled());
+
+        result.record("module", "callback", null, null, 5);
+        assertEquals(asList("module.callback"), recordedCallbacks);
+    }
+
+    @Test
+    public void testCreateTimedTestListener_disabled() {
+        TestListener testListener = testModule.getTestListener();
+        assertSame(testListener, ModuleMetrics.DISABLED.createTimedTestListener(testModule, testListener));
+    }
+
+    @Test
+    public void testTimedTestListener() {
+        ModuleMetrics moduleMetrics = ModuleMetrics.createModuleMetrics(createConfiguration());
+        TestListener result = moduleMetrics.createTimedTestListener(testModule, testModule.getTestListener());
+
+        result.beforeTestClass(ModuleMetricsTest.class);
+        result.afterCreateTestObject(this);
+        result.beforeTestSetUp(this, testMethod);
+        result.beforeTestMethod(this, testMethod);
+        result.afterTestMethod(this, testMethod, null);
+        result.afterTestTearDown(this, testMethod);
+
+        assertEquals(asList("TestModule.beforeTestClass", "TestModule.afterCreateTestObject", "TestModule.beforeTestSetUp",
+            "TestModule.beforeTestMethod", "TestModule.afterTestMethod", "TestModule.afterTestTearDown"), recordedCallbacks);
+        assertEquals(6, testModule.nrOfCalls);
+    }
+
+    @Test
+    public void testTimedTestListener_recordedWhenCallbackFails() {
+        ModuleMetrics moduleMetrics = ModuleMetrics.createModuleMetrics(createConfiguration());
+        testModule.fail = true;
+        TestListener result = moduleMetrics.createTimedTestListener(testModule, testModule.getTestListener());
+        try {
+            result.beforeTestSetUp(this, testMethod);
+            fail("UnitilsException expected");
+        } catch (UnitilsException e) {
+            assertEquals(asList("TestModule.beforeTestSetUp"), recordedCallbacks);
+        }
+    }
+
+    @Test
+    public void testInitModule() {
+        ModuleMetrics moduleMetrics = ModuleMetrics.createModuleMetrics(createConfiguration());
+        moduleMetrics.initModule(testModule, new Properties());
+        moduleMetrics.afterInitModule(testModule);
+
+        assertEquals(asList("TestModule.init", "TestModule.afterInit"), recordedCallbacks);
+        assertEquals(2, testModule.nrOfCalls);
+    }
+
+    private Properties createConfiguration() {
+        Properties configuration = new Properties();
+        configuration.setProperty(ModuleMetrics.PROPKEY_METRICS_ENABLED, "true");
+        configuration.setProperty(ModuleMetrics.PROPKEY_METRICS_SINKS, RecordingMetricsSink.class.getName());
+        return configuration;
+    }
+
+    public static class RecordingMetricsSink
+        implements MetricsSink {
+
+        @Override
+        public void record(String moduleName, String callbackName, Class<?> testClass, Method testMethod, long durationNanos) {
+            assertTrue(durationNanos >= 0);
+            if (callbackName.startsWith("before") && !"beforeTestClass".equals(callbackName)) {
+                assertSame(ModuleMetricsTest.class, testClass);
+            }
+            if ("init".equals(callbackName)) {
+                assertNull(testClass);
+            }
+            recordedCallbacks.add(moduleName + "." + callbackName);
+        }
+    }
+
+    private static class TestModule
+        implements Module {
+
+        private int nrOfCalls;
+
+        private boolean fail;
+
+        @Override
+        public void init(Properties configuration) {
+            nrOfCalls++;
+        }
+
+        @Override
+        public void afterInit() {
+            nrOfCalls++;
+        }
+
+        @Override
+        public TestListener getTestListener() {
+            return new TestListener() {
+                @Override
+                public void beforeTestClass(Class<?> testClass) {
+                    nrOfCalls++;
+                }
+
+                @Override
+                public void afterCreateTestObject(Object testObject) {
+                    nrOfCalls++;
+                }
+
+                @Override
+                public void beforeTestSetUp(Object testObject, Method testMethod) {
+                    nrOfCalls++;
+                    if (fail) {
+                        throw new UnitilsException("expected");
+                    }
+                }
+
+                @Override
+                public void beforeTestMethod(Object testObject, Method testMethod) {
+                    nrOfCalls++;
+                }
+
+                @Override
+                public void afterTestMethod(Object testObject, Method testMethod, Throwable testThrowable) {
+                    nrOfCalls++;
+                }
+
+                @Override
+                public void afterTestTearDown(Object testObject, Method testMethod) {
+                    nrOfCalls++;
+                }
+            };
+        }
+    }
+}
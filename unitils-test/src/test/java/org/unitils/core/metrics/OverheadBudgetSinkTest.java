@@ -0,0 +1,86 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link OverheadBudgetSink}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class OverheadBudgetSinkTest {
+
+    /* Tested object */
+    private OverheadBudgetSink overheadBudgetSink;
+
+    private Method testMethod;
+
+    @Before
+    public void setUp()
+        throws Exception {
+        OverheadBudgetSink.clear();
+        overheadBudgetSink = new OverheadBudgetSink();
+        overheadBudgetSink.init(createConfiguration());
+        testMethod = OverheadBudgetSinkTest.class.getMethod("setUp");
+    }
+
+    @After
+    public void tearDown() {
+        OverheadBudgetSink.clear();
+    }
+
+    @Test
+    public void testReport() {
+        overheadBudgetSink.record("DbUnitModule", "beforeTestSetUp", OverheadBudgetSinkTest.class, testMethod, 180000000L);
+        overheadBudgetSink.record("DbUnitModule", "beforeTestSetUp", OverheadBudgetSinkTest.class, testMethod, 20000000L);
+        overheadBudgetSink.record("MockModule", "afterCreateTestObject", String.class, null, 1000000L);
+
+        String result = OverheadBudgetSink.getReport();
+        assertTrue(result, result.contains("budget per callback: 100 ms"));
+        assertTrue(result, result.matches("(?s).*DbUnitModule +2 +200\\.0 +1 +180\\.0.*MockModule +1 +1\\.0 +0 +1\\.0.*"));
+        assertTrue(result, result.matches("(?s).*" + OverheadBudgetSinkTest.class.getName() + " +2 +200\\.0 +1 +180\\.0.*java\\.lang\\.String +1.*"));
+    }
+
+    @Test
+    public void testModuleInitializationIsIgnored() {
+        overheadBudgetSink.record("DbUnitModule", "init", null, null, 500000000L);
+
+        String result = OverheadBudgetSink.getReport();
+        assertTrue(result, !result.contains("DbUnitModule"));
+    }
+
+    @Test
+    public void testEnabledByBudgetProperty() {
+        Properties configuration = createConfiguration();
+        ModuleMetrics moduleMetrics = ModuleMetrics.createModuleMetrics(configuration);
+        assertTrue(moduleMetrics.isEnabled());
+
+        moduleMetrics.record("IOModule", "beforeTestMethod", OverheadBudgetSinkTest.class, testMethod, 5000000L);
+        assertTrue(OverheadBudgetSink.getReport().contains("IOModule"));
+    }
+
+    private Properties createConfiguration() {
+        Properties configuration = new Properties();
+        configuration.setProperty(OverheadBudgetSink.PROPKEY_BUDGET_MILLIS, "100");
+        return configuration;
+    }
+}
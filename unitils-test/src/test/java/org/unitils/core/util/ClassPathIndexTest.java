@@ -0,0 +1,79 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.util;
+
+import java.net.URL;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ClassPathIndex}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ClassPathIndexTest {
+
+    private ClassLoader classLoader = getClass().getClassLoader();
+
+    @After
+    public void tearDown() {
+        ClassPathIndex.clear();
+    }
+
+    @Test
+    public void testGetResource() {
+        URL result = ClassPathIndex.getResource(classLoader, "unitils-default.properties");
+        assertEquals(classLoader.getResource("unitils-default.properties"), result);
+        assertSame(result, ClassPathIndex.getResource(classLoader, "unitils-default.properties"));
+    }
+
+    @Test
+    public void testGetResource_notFound() {
+        assertNull(ClassPathIndex.getResource(classLoader, "xxx.properties"));
+        assertNull(ClassPathIndex.getResource(classLoader, "xxx.properties"));
+    }
+
+    @Test
+    public void testGetResource_systemClassLoader() {
+        assertNotNull(ClassPathIndex.getResource(null, "unitils-default.properties"));
+    }
+
+    @Test
+    public void testClassFileExists() {
+        assertTrue(ClassPathIndex.classFileExists(classLoader, ClassPathIndexTest.class.getName()));
+        assertFalse(ClassPathIndex.classFileExists(classLoader, "org.unitils.Xxx"));
+        assertFalse(ClassPathIndex.classFileExists(classLoader, "org.unitils.Xxx"));
+    }
+
+    @Test
+    public void testGetResources() throws Exception {
+        List<URL> result = ClassPathIndex.getResources(classLoader, "org/unitils");
+        assertFalse(result.isEmpty());
+        assertSame(result, ClassPathIndex.getResources(classLoader, "org/unitils"));
+    }
+
+    @Test
+    public void testGetResources_notFound() throws Exception {
+        assertTrue(ClassPathIndex.getResources(classLoader, "xxx/yyy").isEmpty());
+    }
+}
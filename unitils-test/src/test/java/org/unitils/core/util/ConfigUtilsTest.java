@@ -0,0 +1,132 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.util;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.core.UnitilsException;
+import org.unitils.core.config.ConfigurationProperties;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link ConfigUtils}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ConfigUtilsTest {
+
+    private static final String PROPERTY_NAME = Service.class.getName() + ".implClassName";
+
+    private Properties configuration;
+
+    @Before
+    public void setUp() {
+        configuration = new ConfigurationProperties();
+        configuration.setProperty(PROPERTY_NAME, DefaultService.class.getName());
+        configuration.setProperty(PROPERTY_NAME + ".oracle", OracleService.class.getName());
+    }
+
+    @Test
+    public void testGetImplClassPropertyNames() {
+        List<String> result = ConfigUtils.getImplClassPropertyNames(Service.class, "oracle", "v9");
+        assertEquals(asList(PROPERTY_NAME, PROPERTY_NAME + ".oracle", PROPERTY_NAME + ".oracle.v9"), result);
+        assertSame(result, ConfigUtils.getImplClassPropertyNames(Service.class, "oracle", "v9"));
+    }
+
+    @Test
+    public void testGetImplClassPropertyNames_noDiscriminators() {
+        assertEquals(asList(PROPERTY_NAME), ConfigUtils.getImplClassPropertyNames(Service.class));
+        assertEquals(asList(PROPERTY_NAME), ConfigUtils.getImplClassPropertyNames(Service.class, (String[]) null));
+    }
+
+    @Test
+    public void testGetInstanceOf() {
+        assertTrue(ConfigUtils.<Service>getInstanceOf(Service.class, configuration) instanceof DefaultService);
+        assertTrue(ConfigUtils.<Service>getInstanceOf(Service.class, configuration, "oracle") instanceof OracleService);
+        assertTrue(ConfigUtils.<Service>getInstanceOf(Service.class, configuration, "mysql") instanceof DefaultService);
+    }
+
+    @Test
+    public void testGetInstanceOf_newInstanceEachTime() {
+        Service instance1 = ConfigUtils.getInstanceOf(Service.class, configuration);
+        Service instance2 = ConfigUtils.getInstanceOf(Service.class, configuration);
+        assertTrue(instance1 != instance2);
+    }
+
+    @Test
+    public void testGetInstanceOf_configurationChanged() {
+        ConfigUtils.getInstanceOf(Service.class, configuration, "oracle");
+        configuration.setProperty(PROPERTY_NAME + ".oracle", DefaultService.class.getName());
+        assertTrue(ConfigUtils.<Service>getInstanceOf(Service.class, configuration, "oracle") instanceof DefaultService);
+    }
+
+    @Test
+    public void testCreateInstanceOfClass_plainProperties() {
+        assertTrue(ConfigUtils.createInstanceOfClass(DefaultService.class.getName(), new Properties()) instanceof DefaultService);
+    }
+
+    @Test(expected = UnitilsException.class)
+    public void testCreateInstanceOfClass_classNotFound() {
+        ConfigUtils.createInstanceOfClass("xxx", configuration);
+    }
+
+    @Test(expected = UnitilsException.class)
+    public void testCreateInstanceOfClass_noDefaultConstructor() {
+        ConfigUtils.createInstanceOfClass(NoDefaultConstructorService.class.getName(), configuration);
+    }
+
+    @Test
+    public void testCreateInstanceOfClass_constructorThrowsException() {
+        try {
+            ConfigUtils.createInstanceOfClass(FailingService.class.getName(), configuration);
+            fail("UnitilsException expected");
+        } catch (UnitilsException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    public interface Service {
+    }
+
+    public static class DefaultService
+        implements Service {
+    }
+
+    public static class OracleService
+        implements Service {
+    }
+
+    public static class NoDefaultConstructorService
+        implements Service {
+
+        public NoDefaultConstructorService(String value) {
+        }
+    }
+
+    public static class FailingService
+        implements Service {
+
+        public FailingService() {
+            throw new IllegalStateException("expected");
+        }
+    }
+}
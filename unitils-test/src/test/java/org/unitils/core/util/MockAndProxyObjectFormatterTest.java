@@ -57,6 +57,19 @@ public class MockAndProxyObjectFormatterTest
         assertEquals("Mock<mockName>", result);
     }
 
+    @Test
+    public void formatMockWithoutProxyUtils() {
+        ObjectFormatter objectFormatterWithoutProxyUtils = new ObjectFormatter() {
+            @Override
+            protected Class<?> getProxyUtilsClass() {
+                return null;
+            }
+        };
+        Object mockProxy = new MockObject<Collection>("mockName", Collection.class, this).getMock();
+        String result = objectFormatterWithoutProxyUtils.format(mockProxy);
+        assertEquals("Proxy<Collection>", result);
+    }
+
     private Object createByteBuddyProxy() {
         ByteBuddy byteBuddy = new ByteBuddy();
         byteBuddy = byteBuddy
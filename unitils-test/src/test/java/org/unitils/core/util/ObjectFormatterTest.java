@@ -0,0 +1,101 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.unitils.core.util.ObjectFormatter.UNLIMITED;
+
+/**
+ * Test for {@link ObjectFormatter}.
+ */
+public class ObjectFormatterTest {
+
+    @Test
+    public void sharedObjectsAreFormattedAgainByDefault() {
+        Node shared = new Node("shared", null);
+
+        String result = new ObjectFormatter().format(asList(shared, shared));
+
+        assertEquals("[ObjectFormatterTest.Node<name=\"shared\", next=null>, ObjectFormatterTest.Node<name=\"shared\", next=null>]", result);
+    }
+
+    @Test
+    public void backReferenceForSharedObjects() {
+        Node shared = new Node("shared", null);
+
+        String result = new ObjectFormatter(3, 15, UNLIMITED, true).format(asList(shared, shared));
+
+        assertEquals("[ObjectFormatterTest.Node<name=\"shared\", next=null>, ObjectFormatterTest.Node<see above>]", result);
+    }
+
+    @Test
+    public void backReferenceForCycle() {
+        Node node = new Node("a", null);
+        node.next = node;
+
+        String result = new ObjectFormatter(10, 15, UNLIMITED, true).format(node);
+
+        assertEquals("ObjectFormatterTest.Node<name=\"a\", next=ObjectFormatterTest.Node<see above>>", result);
+    }
+
+    @Test
+    public void backReferencesAreOnlyTrackedWithinOneValue() {
+        Node node = new Node("a", null);
+        ObjectFormatter objectFormatter = new ObjectFormatter(3, 15, UNLIMITED, true);
+
+        objectFormatter.format(node);
+        String result = objectFormatter.format(node);
+
+        assertEquals("ObjectFormatterTest.Node<name=\"a\", next=null>", result);
+    }
+
+    @Test
+    public void maxLength() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add("value" + i);
+        }
+
+        String result = new ObjectFormatter(3, 1000, 20, false).format(values);
+
+        assertEquals("[\"value0\", \"value1\",...", result);
+    }
+
+    @Test
+    public void appendToBuilder() {
+        StringBuilder result = new StringBuilder("value: ");
+
+        new ObjectFormatter(3, 15, 5, false).format("abcdefgh", result);
+
+        assertEquals("value: \"abcd...", result.toString());
+    }
+
+    private static class Node {
+
+        private String name;
+
+        private Node next;
+
+        public Node(String name, Node next) {
+            this.name = name;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.database;
+
+import java.lang.reflect.Method;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.ConfigurationLoader;
+import org.unitils.core.TestListener;
+import org.unitils.database.annotations.TestDataSource;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.database.DatabaseModule.PROPERTY_CLEAN_MODIFIED_TABLES_AFTER_TEST;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.database.SQLUnitils.executeUpdateQuietly;
+import static org.unitils.database.SQLUnitils.isEmpty;
+
+/**
+ * Tests for the cleaning of the modified tables after each test by the DatabaseModule.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class DatabaseModuleCleanModifiedTablesTest
+    extends UnitilsJUnit4 {
+
+    /* DataSource for the test database that does not track the modifications, is injected */
+    @TestDataSource
+    private DataSource dataSource = null;
+
+    /* Tested object */
+    private DatabaseModule databaseModule;
+
+    /**
+     * Initializes the test fixture.
+     */
+    @Before
+    public void setUp()
+        throws Exception {
+        Properties configuration = new ConfigurationLoader().loadConfiguration();
+        configuration.setProperty(PROPERTY_CLEAN_MODIFIED_TABLES_AFTER_TEST, "true");
+        databaseModule = new DatabaseModule();
+        databaseModule.init(configuration);
+
+        dropTestTables();
+        executeUpdate("create table TEST_MODIFIED (id integer)", dataSource);
+        executeUpdate("create table TEST_NOT_MODIFIED (id integer)", dataSource);
+    }
+
+    /**
+     * Removes the test database tables from the test database, to avoid inference with other tests
+     */
+    @After
+    public void tearDown()
+        throws Exception {
+        dropTestTables();
+    }
+
+    /**
+     * Tests that after the test only the tables that were modified through the data source of the module are cleaned.
+     */
+    @Test
+    public void testCleanModifiedTablesAfterTest()
+        throws Exception {
+        DbTest dbTest = new DbTest();
+        Method testMethod = DbTest.class.getMethod("test");
+        TestListener testListener = databaseModule.getTestListener();
+
+        testListener.beforeTestSetUp(dbTest, testMethod);
+        executeUpdate("insert into TEST_NOT_MODIFIED values (1)", dataSource);
+        dbTest.test();
+        testListener.afterTestTearDown(dbTest, testMethod);
+
+        assertTrue(isEmpty("TEST_MODIFIED", dataSource));
+        assertFalse(isEmpty("TEST_NOT_MODIFIED", dataSource));
+    }
+
+    private void dropTestTables() {
+        executeUpdateQuietly("drop table TEST_MODIFIED", dataSource);
+        executeUpdateQuietly("drop table TEST_NOT_MODIFIED", dataSource);
+    }
+
+    /**
+     * Object that plays the role of database test object in this class's tests.
+     */
+    public static class DbTest {
+
+        @TestDataSource
+        private DataSource dataSource = null;
+
+        public void test() {
+            executeUpdate("insert into TEST_MODIFIED values (1)", dataSource);
+        }
+    }
+}
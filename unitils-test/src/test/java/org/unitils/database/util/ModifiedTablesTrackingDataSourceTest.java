@@ -0,0 +1,235 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.database.util;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.ConfigurationLoader;
+import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.DefaultSQLHandler;
+import org.unitils.core.dbsupport.SchemaSnapshot;
+import org.unitils.core.dbsupport.SchemaSnapshotCache;
+import org.unitils.database.annotations.TestDataSource;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.core.dbsupport.DbSupportFactory.getDefaultDbSupport;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.database.SQLUnitils.executeUpdateQuietly;
+import static org.unitils.reflectionassert.ReflectionAssert.assertLenientEquals;
+
+/**
+ * Test for the {@link ModifiedTablesTrackingDataSource}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ModifiedTablesTrackingDataSourceTest
+    extends UnitilsJUnit4 {
+
+    /* DataSource for the test database, is injected */
+    @TestDataSource
+    private DataSource dataSource = null;
+
+    /* Tested object */
+    private ModifiedTablesTrackingDataSource modifiedTablesTrackingDataSource;
+
+    @Before
+    public void setUp() {
+        modifiedTablesTrackingDataSource = new ModifiedTablesTrackingDataSource(dataSource);
+        executeUpdateQuietly("drop table TEST_TRACKED", dataSource);
+        executeUpdate("create table TEST_TRACKED (id integer)", dataSource);
+    }
+
+    @After
+    public void tearDown() {
+        executeUpdateQuietly("drop table TEST_TRACKED", dataSource);
+    }
+
+    @Test
+    public void modifyingStatements() {
+        modifiedTablesTrackingDataSource.registerStatement("insert into table1 (col) values (1)");
+        modifiedTablesTrackingDataSource.registerStatement("UPDATE schema1.Table2 set col = 1");
+        modifiedTablesTrackingDataSource.registerStatement(" /* comment */ delete from \"Table 3\" where col = 1");
+        modifiedTablesTrackingDataSource.registerStatement("-- comment\ndelete table4");
+        modifiedTablesTrackingDataSource.registerStatement("merge into table5 using table6 on (1 = 1)");
+        modifiedTablesTrackingDataSource.registerStatement("truncate table table7");
+
+        assertLenientEquals(new String[] {"table1", "schema1.Table2", "\"Table 3\"", "table4", "table5", "table7"},
+            modifiedTablesTrackingDataSource.getModifiedTableNames());
+        assertFalse(modifiedTablesTrackingDataSource.isAllTablesModified());
+    }
+
+    @Test
+    public void modifyingStatementsWithAlias() {
+        modifiedTablesTrackingDataSource.registerStatement("insert into table1 as t (col) values (1)");
+        modifiedTablesTrackingDataSource.registerStatement("update table2 t set col = 1 where col in (select a.col from a join b on a.id = b.id)");
+        modifiedTablesTrackingDataSource.registerStatement("delete from table3 using table4 where table3.id = table4.id");
+
+        assertLenientEquals(new String[] {"table1", "table2", "table3"}, modifiedTablesTrackingDataSource.getModifiedTableNames());
+        assertFalse(modifiedTablesTrackingDataSource.isAllTablesModified());
+    }
+
+    @Test
+    public void onlyStatements() {
+        modifiedTablesTrackingDataSource.registerStatement("UPDATE ONLY table1 set col = 1");
+        assertTrue(modifiedTablesTrackingDataSource.isAllTablesModified());
+
+        modifiedTablesTrackingDataSource.reset();
+        modifiedTablesTrackingDataSource.registerStatement("delete from only table1");
+        assertTrue(modifiedTablesTrackingDataSource.isAllTablesModified());
+    }
+
+    @Test
+    public void multipleTargetTables() {
+        modifiedTablesTrackingDataSource.registerStatement("update table1, table2 set table1.col = table2.col");
+        assertTrue(modifiedTablesTrackingDataSource.isAllTablesModified());
+
+        modifiedTablesTrackingDataSource.reset();
+        modifiedTablesTrackingDataSource.registerStatement("delete t1, t2 from table1 t1 join table2 t2 on t1.id = t2.id");
+        assertTrue(modifiedTablesTrackingDataSource.isAllTablesModified());
+
+        modifiedTablesTrackingDataSource.reset();
+        modifiedTablesTrackingDataSource.registerStatement("update table1 t1 inner join table2 t2 on t1.id = t2.id set t1.col = t2.col");
+        assertTrue(modifiedTablesTrackingDataSource.isAllTablesModified());
+    }
+
+    @Test
+    public void nonModifyingStatements() {
+        modifiedTablesTrackingDataSource.registerStatement("select * from table1");
+        modifiedTablesTrackingDataSource.registerStatement("(select * from table1) union (select * from table2)");
+        modifiedTablesTrackingDataSource.registerStatement("with t as (select * from table1) select * from t");
+        modifiedTablesTrackingDataSource.registerStatement("create table table1 (col integer)");
+        modifiedTablesTrackingDataSource.registerStatement("set schema public");
+        modifiedTablesTrackingDataSource.registerStatement("commit");
+
+        assertTrue(modifiedTablesTrackingDataSource.getModifiedTableNames().isEmpty());
+        assertFalse(modifiedTablesTrackingDataSource.isAllTablesModified());
+    }
+
+    @Test
+    public void unknownStatement() {
+        modifiedTablesTrackingDataSource.registerStatement("call my_procedure()");
+
+        assertTrue(modifiedTablesTrackingDataSource.isAllTablesModified());
+    }
+
+    @Test
+    public void modifyingCommonTableExpression() {
+        modifiedTablesTrackingDataSource.registerStatement("with t as (delete from table1 returning *) select * from t");
+
+        assertTrue(modifiedTablesTrackingDataSource.isAllTablesModified());
+    }
+
+    @Test
+    public void reset() {
+        modifiedTablesTrackingDataSource.registerStatement("insert into table1 (col) values (1)");
+        modifiedTablesTrackingDataSource.registerStatement("call my_procedure()");
+        modifiedTablesTrackingDataSource.reset();
+
+        assertTrue(modifiedTablesTrackingDataSource.getModifiedTableNames().isEmpty());
+        assertFalse(modifiedTablesTrackingDataSource.isAllTablesModified());
+    }
+
+    @Test
+    public void statementsOfConnections()
+        throws Exception {
+        try (Connection connection = modifiedTablesTrackingDataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("insert into TEST_TRACKED values (1)");
+                statement.executeQuery("select * from TEST_TRACKED").close();
+                assertSame(connection, statement.getConnection());
+            }
+            try (PreparedStatement preparedStatement = connection.prepareStatement("update test_tracked set id = ?")) {
+                preparedStatement.setInt(1, 2);
+                preparedStatement.executeUpdate();
+            }
+        }
+        assertLenientEquals(new String[] {"TEST_TRACKED", "test_tracked"}, modifiedTablesTrackingDataSource.getModifiedTableNames());
+    }
+
+    @Test
+    public void unwrappingMarksAllTablesModified()
+        throws Exception {
+        try (Connection connection = modifiedTablesTrackingDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            assertSame(connection, connection.unwrap(Connection.class));
+            assertSame(statement, statement.unwrap(Statement.class));
+            assertSame(modifiedTablesTrackingDataSource, modifiedTablesTrackingDataSource.unwrap(DataSource.class));
+            assertFalse(modifiedTablesTrackingDataSource.isAllTablesModified());
+        }
+        ModifiedTablesTrackingDataSource nativeDataSource = new ModifiedTablesTrackingDataSource(createNativeDataSource());
+        try (Connection connection = nativeDataSource.getConnection()) {
+            assertTrue(connection.isWrapperFor(NativeConnection.class));
+            assertTrue(connection.unwrap(NativeConnection.class) instanceof NativeConnection);
+            assertTrue(nativeDataSource.isAllTablesModified());
+        }
+    }
+
+    @Test
+    public void ddlStatementsInvalidateSchemaSnapshots() {
+        DbSupport dbSupport = getDefaultDbSupport(new ConfigurationLoader().loadConfiguration(), new DefaultSQLHandler(modifiedTablesTrackingDataSource), "hsqldb",
+            "PUBLIC");
+        SchemaSnapshotCache.startCaching(modifiedTablesTrackingDataSource);
+        try {
+            SchemaSnapshot schemaSnapshot = dbSupport.getSchemaSnapshot();
+            assertFalse(schemaSnapshot.getTableNames().contains("TEST_TRACKED_2"));
+            executeUpdate("insert into TEST_TRACKED values (1)", modifiedTablesTrackingDataSource);
+            assertSame(schemaSnapshot, dbSupport.getSchemaSnapshot());
+
+            executeUpdate("create table TEST_TRACKED_2 (id integer)", modifiedTablesTrackingDataSource);
+            assertNotSame(schemaSnapshot, dbSupport.getSchemaSnapshot());
+            assertTrue(dbSupport.getSchemaSnapshot().getTableNames().contains("TEST_TRACKED_2"));
+        } finally {
+            SchemaSnapshotCache.stopCaching(modifiedTablesTrackingDataSource);
+            executeUpdateQuietly("drop table TEST_TRACKED_2", dataSource);
+        }
+    }
+
+    /**
+     * Creates a data source with connections that can be unwrapped to a {@link NativeConnection}.
+     */
+    private DataSource createNativeDataSource() {
+        NativeConnection nativeConnection = (NativeConnection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {NativeConnection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "isWrapperFor":
+                        return ((Class<?>) args[0]).isInstance(proxy);
+                    case "unwrap":
+                        return proxy;
+                    default:
+                        return null;
+                }
+            });
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+            (proxy, method, args) -> "getConnection".equals(method.getName()) ? nativeConnection : null);
+    }
+
+    /**
+     * The vendor specific interface of a connection.
+     */
+    public interface NativeConnection
+        extends Connection {
+    }
+}
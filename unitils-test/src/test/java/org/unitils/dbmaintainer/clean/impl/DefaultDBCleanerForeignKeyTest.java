@@ -0,0 +1,181 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbmaintainer.clean.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.ConfigurationLoader;
+import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.DefaultSQLHandler;
+import org.unitils.core.dbsupport.SQLHandler;
+import org.unitils.database.annotations.TestDataSource;
+import org.unitils.util.PropertyUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.core.dbsupport.DbSupportFactory.getDefaultDbSupport;
+import static org.unitils.core.util.SQLTestUtils.dropTestTables;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.database.SQLUnitils.getItemAsLong;
+import static org.unitils.database.SQLUnitils.isEmpty;
+import static org.unitils.dbmaintainer.clean.impl.DefaultDBCleaner.PROPKEY_NR_OF_THREADS;
+import static org.unitils.dbmaintainer.clean.impl.DefaultDBCleaner.PROPKEY_TRUNCATE_ENABLED;
+
+/**
+ * Test class for the DBCleaner when the foreign key constraints are not disabled.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class DefaultDBCleanerForeignKeyTest
+    extends UnitilsJUnit4 {
+
+    /* DataSource for the test database, is injected */
+    @TestDataSource
+    private DataSource dataSource = null;
+
+    /* The configuration */
+    private Properties configuration;
+
+    /* The DbSupport object */
+    private DbSupport dbSupport;
+
+    private static String dialect = "hsqldb";
+
+    private List<String> schemas;
+
+    /**
+     * Test fixture. Creates a parent, child and grand child table with foreign keys and an independent table with an
+     * identity column and fills them with test data.
+     */
+    @Before
+    public void setUp()
+        throws Exception {
+        configuration = new ConfigurationLoader().loadConfiguration();
+        schemas = PropertyUtils.getStringList("database.schemaNames", configuration);
+        dbSupport = getDefaultDbSupport(configuration, new DefaultSQLHandler(dataSource), dialect, schemas.get(0));
+
+        cleanupTestDatabase();
+        createTestDatabase();
+        insertTestData();
+    }
+
+    /**
+     * Removes the test database tables from the test database, to avoid inference with other tests
+     */
+    @After
+    public void tearDown()
+        throws Exception {
+        cleanupTestDatabase();
+    }
+
+    /**
+     * Tests that referencing tables are cleaned before the tables they reference.
+     */
+    @Test
+    public void testCleanDatabase() {
+        createDbCleaner().cleanSchemas();
+        assertTestTablesEmpty();
+    }
+
+    /**
+     * Tests the truncating of the tables that are not referenced by other tables.
+     */
+    @Test
+    public void testCleanDatabase_truncate() {
+        configuration.setProperty(PROPKEY_TRUNCATE_ENABLED, "true");
+        createDbCleaner().cleanSchemas();
+        assertTestTablesEmpty();
+
+        // truncate resets the identity column
+        executeUpdate("insert into TEST_FK_OTHER (name) values('test')", dataSource);
+        assertEquals(0, getItemAsLong("select id from TEST_FK_OTHER", dataSource));
+    }
+
+    /**
+     * Tests the cleaning of tables using several threads.
+     */
+    @Test
+    public void testCleanDatabase_threads() {
+        configuration.setProperty(PROPKEY_NR_OF_THREADS, "3");
+        configuration.setProperty(PROPKEY_TRUNCATE_ENABLED, "true");
+        createDbCleaner().cleanSchemas();
+        assertTestTablesEmpty();
+    }
+
+    /**
+     * Tests the order of the groups of tables, a table that references itself does not depend on itself.
+     */
+    @Test
+    public void testGetCleanOrder() {
+        DefaultDBCleaner defaultDbCleaner = createDbCleaner();
+        Set<String> tableNames = new TreeSet<>(Arrays.asList("TEST_FK_PARENT", "TEST_FK_CHILD", "TEST_FK_GRAND_CHILD", "TEST_FK_OTHER"));
+
+        List<List<String>> result = defaultDbCleaner.getCleanOrder(tableNames, defaultDbCleaner.getReferencingTableNames(dbSupport));
+        assertEquals(Arrays.asList(Arrays.asList("TEST_FK_GRAND_CHILD", "TEST_FK_OTHER"), Arrays.asList("TEST_FK_CHILD"), Arrays.asList("TEST_FK_PARENT")),
+            result);
+    }
+
+    private DefaultDBCleaner createDbCleaner() {
+        SQLHandler sqlHandler = new DefaultSQLHandler(dataSource);
+        DefaultDBCleaner defaultDbCleaner = new DefaultDBCleaner();
+        defaultDbCleaner.init(configuration, sqlHandler, dialect, schemas);
+        return defaultDbCleaner;
+    }
+
+    private void assertTestTablesEmpty() {
+        assertTrue(isEmpty("TEST_FK_PARENT", dataSource));
+        assertTrue(isEmpty("TEST_FK_CHILD", dataSource));
+        assertTrue(isEmpty("TEST_FK_GRAND_CHILD", dataSource));
+        assertTrue(isEmpty("TEST_FK_OTHER", dataSource));
+    }
+
+    /**
+     * Creates the test tables
+     */
+    private void createTestDatabase() {
+        executeUpdate("create table TEST_FK_PARENT (id integer primary key, parent_id integer references TEST_FK_PARENT(id))", dataSource);
+        executeUpdate("create table TEST_FK_CHILD (id integer primary key, parent_id integer references TEST_FK_PARENT(id))", dataSource);
+        executeUpdate("create table TEST_FK_GRAND_CHILD (id integer primary key, child_id integer references TEST_FK_CHILD(id))", dataSource);
+        executeUpdate("create table TEST_FK_OTHER (id integer generated by default as identity (start with 0), name varchar(10))", dataSource);
+    }
+
+    /**
+     * Removes the test database tables
+     */
+    private void cleanupTestDatabase() {
+        dropTestTables(dbSupport, "TEST_FK_GRAND_CHILD", "TEST_FK_CHILD", "TEST_FK_PARENT", "TEST_FK_OTHER");
+    }
+
+    /**
+     * Inserts test records in each test table
+     */
+    private void insertTestData() {
+        executeUpdate("insert into TEST_FK_PARENT values(1, null)", dataSource);
+        executeUpdate("insert into TEST_FK_PARENT values(2, 1)", dataSource);
+        executeUpdate("insert into TEST_FK_CHILD values(1, 2)", dataSource);
+        executeUpdate("insert into TEST_FK_GRAND_CHILD values(1, 1)", dataSource);
+        executeUpdate("insert into TEST_FK_OTHER (name) values('test')", dataSource);
+        executeUpdate("insert into TEST_FK_OTHER (name) values('test')", dataSource);
+    }
+}
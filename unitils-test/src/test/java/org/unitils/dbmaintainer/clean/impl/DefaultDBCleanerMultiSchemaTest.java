@@ -12,8 +12,11 @@
  */
 package org.unitils.dbmaintainer.clean.impl;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -24,18 +27,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitils.UnitilsJUnit4;
 import org.unitils.core.ConfigurationLoader;
+import org.unitils.core.dbsupport.DbSupport;
 import org.unitils.core.dbsupport.DefaultSQLHandler;
+import org.unitils.core.dbsupport.HsqldbDbSupport;
 import org.unitils.core.dbsupport.SQLHandler;
 import org.unitils.database.annotations.TestDataSource;
 import org.unitils.dbmaintainer.util.DatabaseModuleConfigUtils;
 import org.unitils.util.PropertyUtils;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.unitils.core.dbsupport.DbSupportFactory.PROPKEY_DATABASE_SCHEMA_NAMES;
+import static org.unitils.core.dbsupport.DbSupportFactory.getDefaultDbSupport;
 import static org.unitils.database.SQLUnitils.executeUpdate;
 import static org.unitils.database.SQLUnitils.executeUpdateQuietly;
 import static org.unitils.database.SQLUnitils.isEmpty;
+import static org.unitils.dbmaintainer.clean.impl.DefaultDBCleaner.PROPKEY_TRUNCATE_ENABLED;
 import static org.unitils.dbmaintainer.util.DatabaseModuleConfigUtils.PROPKEY_DATABASE_DIALECT;
 
 /**
@@ -59,6 +67,9 @@ public class DefaultDBCleanerMultiSchemaTest
     /* Tested object */
     private DefaultDBCleaner defaultDbCleaner;
 
+    /* The configuration */
+    private Properties configuration;
+
     /* True if current test is not for the current dialect */
     private boolean disabled;
 
@@ -72,7 +83,7 @@ public class DefaultDBCleanerMultiSchemaTest
     @Before
     public void setUp()
         throws Exception {
-        Properties configuration = new ConfigurationLoader().loadConfiguration();
+        configuration = new ConfigurationLoader().loadConfiguration();
         dialect = PropertyUtils.getString(DatabaseModuleConfigUtils.PROPKEY_DATABASE_DIALECT, configuration);
         this.disabled = !"hsqldb".equals(PropertyUtils.getString(PROPKEY_DATABASE_DIALECT, configuration));
         if (disabled) {
@@ -121,6 +132,57 @@ public class DefaultDBCleanerMultiSchemaTest
         assertTrue(isEmpty("SCHEMA_B.TEST", dataSource));
     }
 
+    /**
+     * Tests that a table that is referenced by a table of another schema is only truncated with cascade if that
+     * other table is cleaned as well.
+     */
+    @Test
+    public void testGetTableNamesToTruncate_referencedFromOtherSchema() {
+        if (disabled) {
+            logger.warn("Test is not for current dialect. Skipping test.");
+            return;
+        }
+        executeUpdate("create table TEST_PARENT (id integer primary key)", dataSource);
+        executeUpdate("create table SCHEMA_A.TEST_CHILD (parent_id integer references PUBLIC.TEST_PARENT(id))", dataSource);
+
+        configuration.setProperty(PROPKEY_TRUNCATE_ENABLED, "true");
+        configuration.setProperty(DbSupport.class.getName() + ".implClassName." + dialect, TruncateCascadeHsqldbDbSupport.class.getName());
+        defaultDbCleaner.init(configuration, new DefaultSQLHandler(dataSource), dialect, schemas);
+        DbSupport dbSupport = getDefaultDbSupport(configuration, new DefaultSQLHandler(dataSource), dialect, "PUBLIC");
+        Set<String> tableNames = new HashSet<>(Arrays.asList("TEST_PARENT"));
+
+        assertEquals(new HashSet<>(Arrays.asList("SCHEMA_A.TEST_CHILD")), dbSupport.getSchemaSnapshot().getReferencingTableNames("TEST_PARENT"));
+        assertTrue(defaultDbCleaner.getTableNamesToTruncate(tableNames, new HashSet<>(Arrays.asList("PUBLIC.TEST_PARENT")), dbSupport).isEmpty());
+        assertEquals(tableNames,
+            defaultDbCleaner.getTableNamesToTruncate(tableNames, new HashSet<>(Arrays.asList("PUBLIC.TEST_PARENT", "SCHEMA_A.TEST_CHILD")), dbSupport));
+    }
+
+    /**
+     * Tests that a table is only truncated with cascade if the tables that indirectly reference it are cleaned as
+     * well, because the truncate also cascades to their data.
+     */
+    @Test
+    public void testGetTableNamesToTruncate_referencedIndirectly() {
+        if (disabled) {
+            logger.warn("Test is not for current dialect. Skipping test.");
+            return;
+        }
+        executeUpdate("create table TEST_PARENT (id integer primary key)", dataSource);
+        executeUpdate("create table SCHEMA_A.TEST_CHILD (id integer primary key, parent_id integer references PUBLIC.TEST_PARENT(id))", dataSource);
+        executeUpdate("create table SCHEMA_B.TEST_GRAND_CHILD (child_id integer references SCHEMA_A.TEST_CHILD(id))", dataSource);
+
+        configuration.setProperty(PROPKEY_TRUNCATE_ENABLED, "true");
+        configuration.setProperty(DbSupport.class.getName() + ".implClassName." + dialect, TruncateCascadeHsqldbDbSupport.class.getName());
+        defaultDbCleaner.init(configuration, new DefaultSQLHandler(dataSource), dialect, schemas);
+        DbSupport dbSupport = getDefaultDbSupport(configuration, new DefaultSQLHandler(dataSource), dialect, "PUBLIC");
+        Set<String> tableNames = new HashSet<>(Arrays.asList("TEST_PARENT"));
+
+        assertTrue(defaultDbCleaner.getTableNamesToTruncate(tableNames, new HashSet<>(Arrays.asList("PUBLIC.TEST_PARENT", "SCHEMA_A.TEST_CHILD")), dbSupport)
+            .isEmpty());
+        assertEquals(tableNames, defaultDbCleaner.getTableNamesToTruncate(tableNames,
+            new HashSet<>(Arrays.asList("PUBLIC.TEST_PARENT", "SCHEMA_A.TEST_CHILD", "SCHEMA_B.TEST_GRAND_CHILD")), dbSupport));
+    }
+
     /**
      * Creates the test tables.
      */
@@ -142,10 +204,25 @@ public class DefaultDBCleanerMultiSchemaTest
      * Removes the test database tables
      */
     private void dropTestTables() {
+        executeUpdateQuietly("drop table SCHEMA_B.TEST_GRAND_CHILD", dataSource);
+        executeUpdateQuietly("drop table SCHEMA_A.TEST_CHILD", dataSource);
+        executeUpdateQuietly("drop table TEST_PARENT", dataSource);
         executeUpdateQuietly("drop table TEST", dataSource);
         executeUpdateQuietly("drop table SCHEMA_A.TEST", dataSource);
         executeUpdateQuietly("drop schema SCHEMA_A", dataSource);
         executeUpdateQuietly("drop table SCHEMA_B.TEST", dataSource);
         executeUpdateQuietly("drop schema SCHEMA_B", dataSource);
     }
+
+    /**
+     * Hsqldb support that pretends that truncate cascades to the referencing tables.
+     */
+    public static class TruncateCascadeHsqldbDbSupport
+        extends HsqldbDbSupport {
+
+        @Override
+        public boolean supportsTruncateCascade() {
+            return true;
+        }
+    }
 }
@@ -12,6 +12,8 @@
  */
 package org.unitils.dbmaintainer.clean.impl;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 
@@ -25,9 +27,12 @@ import org.unitils.core.ConfigurationLoader;
 import org.unitils.core.dbsupport.DbSupport;
 import org.unitils.core.dbsupport.DefaultSQLHandler;
 import org.unitils.core.dbsupport.SQLHandler;
+import org.unitils.core.dbsupport.SchemaSnapshotCache;
 import org.unitils.database.annotations.TestDataSource;
 import org.unitils.util.PropertyUtils;
 
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.unitils.core.dbsupport.DbSupportFactory.getDefaultDbSupport;
@@ -65,6 +70,8 @@ public class DefaultDBCleanerTest
 
     private List<String> schemas;
 
+    private Properties configuration;
+
     /**
      * Test fixture. The DefaultDBCleaner is instantiated and configured. Test tables are created and filled with test
      * data. One of these tables is configured as 'tabletopreserve'.
@@ -72,7 +79,7 @@ public class DefaultDBCleanerTest
     @Before
     public void setUp()
         throws Exception {
-        Properties configuration = new ConfigurationLoader().loadConfiguration();
+        configuration = new ConfigurationLoader().loadConfiguration();
         schemas = PropertyUtils.getStringList("database.schemaNames", configuration);
         SQLHandler sqlHandler = new DefaultSQLHandler(dataSource);
         dbSupport = getDefaultDbSupport(configuration, sqlHandler, dialect, schemas.get(0));
@@ -136,6 +143,82 @@ public class DefaultDBCleanerTest
         assertFalse(isEmpty(dbSupport.quoted("Test_CASE_Table_Preserve"), dataSource));
     }
 
+    /**
+     * Tests that only the given tables are cleaned, unless they are configured as tables to preserve
+     */
+    @Test
+    public void testCleanTables()
+        throws Exception {
+        defaultDbCleaner.cleanTables(new HashSet<>(asList("test_table", "TEST_TABLE_PRESERVE")));
+        assertTrue(isEmpty("TEST_TABLE", dataSource));
+        assertFalse(isEmpty(dbSupport.quoted("Test_CASE_Table"), dataSource));
+        assertFalse(isEmpty("TEST_TABLE_PRESERVE", dataSource));
+
+        defaultDbCleaner.cleanTables(new HashSet<>(asList("public." + dbSupport.quoted("Test_CASE_Table"))));
+        assertTrue(isEmpty(dbSupport.quoted("Test_CASE_Table"), dataSource));
+        assertFalse(isEmpty(dbSupport.quoted("Test_CASE_Table_Preserve"), dataSource));
+        assertFalse(isEmpty(versionTableName, dataSource));
+    }
+
+    /**
+     * Tests cleaning tables when one of the names is not a known table: all tables should be cleaned.
+     */
+    @Test
+    public void testCleanTables_unknownTable()
+        throws Exception {
+        defaultDbCleaner.cleanTables(new HashSet<>(asList("test_table", "XXXX")));
+        assertTrue(isEmpty("TEST_TABLE", dataSource));
+        assertTrue(isEmpty(dbSupport.quoted("Test_CASE_Table"), dataSource));
+        assertFalse(isEmpty("TEST_TABLE_PRESERVE", dataSource));
+        assertFalse(isEmpty(versionTableName, dataSource));
+    }
+
+    /**
+     * Tests cleaning a table that was created after the cached snapshot of the schema was taken: the snapshot
+     * should be refreshed instead of cleaning all tables.
+     */
+    @Test
+    public void testCleanTables_tableCreatedAfterCachedSnapshot()
+        throws Exception {
+        SchemaSnapshotCache.startCaching(dataSource);
+        try {
+            assertFalse(dbSupport.getSchemaSnapshot().getTableNames().contains("TEST_TABLE_NEW"));
+            executeUpdate("create table TEST_TABLE_NEW(testcolumn varchar(10))", dataSource);
+            executeUpdate("insert into TEST_TABLE_NEW values('test')", dataSource);
+
+            defaultDbCleaner.cleanTables(new HashSet<>(asList("TEST_TABLE_NEW")));
+            assertTrue(isEmpty("TEST_TABLE_NEW", dataSource));
+            assertFalse(isEmpty("TEST_TABLE", dataSource));
+        } finally {
+            SchemaSnapshotCache.stopCaching(dataSource);
+            dropTestTables(dbSupport, "TEST_TABLE_NEW");
+        }
+    }
+
+    /**
+     * Tests that an override of the deprecated cleanTable method is still used
+     */
+    @Test
+    public void testCleanDatabase_overriddenCleanTable()
+        throws Exception {
+        List<String> cleanedTableNames = new ArrayList<>();
+        DefaultDBCleaner dbCleaner = new DefaultDBCleaner() {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected void cleanTable(String tableName, DbSupport dbSupport) {
+                cleanedTableNames.add(tableName);
+                super.cleanTable(tableName, dbSupport);
+            }
+        };
+        dbCleaner.init(configuration, new DefaultSQLHandler(dataSource), dialect, schemas);
+
+        dbCleaner.cleanSchemas();
+        assertEquals(asList("TEST_TABLE", "Test_CASE_Table"), cleanedTableNames);
+        assertTrue(isEmpty("TEST_TABLE", dataSource));
+        assertTrue(isEmpty(dbSupport.quoted("Test_CASE_Table"), dataSource));
+        assertFalse(isEmpty("TEST_TABLE_PRESERVE", dataSource));
+    }
+
     /**
      * Creates the test tables
      */
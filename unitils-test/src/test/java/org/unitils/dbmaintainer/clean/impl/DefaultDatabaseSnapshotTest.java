@@ -0,0 +1,334 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbmaintainer.clean.impl;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.ConfigurationLoader;
+import org.unitils.core.UnitilsException;
+import org.unitils.core.dbsupport.BatchingSQLHandler;
+import org.unitils.core.dbsupport.DbSupport;
+import org.unitils.core.dbsupport.DefaultSQLHandler;
+import org.unitils.database.annotations.TestDataSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.core.dbsupport.DbSupportFactory.getDefaultDbSupport;
+import static org.unitils.core.util.SQLTestUtils.dropTestSequences;
+import static org.unitils.core.util.SQLTestUtils.dropTestTables;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.database.SQLUnitils.getItemAsLong;
+import static org.unitils.database.SQLUnitils.getItemAsString;
+import static org.unitils.database.SQLUnitils.isEmpty;
+import static org.unitils.dbmaintainer.clean.impl.DefaultDBCleaner.PROPKEY_PRESERVE_DATA_TABLES;
+import static org.unitils.dbmaintainer.clean.impl.DefaultDBCleaner.PROPKEY_TRUNCATE_ENABLED;
+
+/**
+ * Test class for the {@link DefaultDatabaseSnapshot}.
+ *
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class DefaultDatabaseSnapshotTest
+    extends UnitilsJUnit4 {
+
+    /* DataSource for the test database, is injected */
+    @TestDataSource
+    private DataSource dataSource = null;
+
+    /* The configuration */
+    private Properties configuration;
+
+    /* The DbSupport object */
+    private DbSupport dbSupport;
+
+    /* Tested object */
+    private DefaultDatabaseSnapshot defaultDatabaseSnapshot;
+
+    /**
+     * Test fixture. Creates a parent and child table with a foreign key, an empty table and a table to preserve.
+     */
+    @Before
+    public void setUp() {
+        configuration = new ConfigurationLoader().loadConfiguration();
+        configuration.setProperty(PROPKEY_PRESERVE_DATA_TABLES, "TEST_SNAPSHOT_PRESERVE");
+        dbSupport = getDefaultDbSupport(configuration, new DefaultSQLHandler(dataSource), "hsqldb", "PUBLIC");
+        defaultDatabaseSnapshot = createDatabaseSnapshot(dataSource, "hsqldb");
+
+        cleanupTestDatabase(dbSupport);
+        createTestDatabase(dataSource);
+    }
+
+    /**
+     * Removes the test database tables from the test database, to avoid inference with other tests
+     */
+    @After
+    public void tearDown() {
+        cleanupTestDatabase(dbSupport);
+    }
+
+    @Test
+    public void restoreSnapshot() {
+        defaultDatabaseSnapshot.takeSnapshot();
+        modifyTestData(dataSource);
+
+        defaultDatabaseSnapshot.restoreSnapshot();
+        assertTestDataRestored(dataSource);
+    }
+
+    @Test
+    public void restoreSnapshotTwice() {
+        defaultDatabaseSnapshot.takeSnapshot();
+        modifyTestData(dataSource);
+        defaultDatabaseSnapshot.restoreSnapshot();
+        modifyTestData(dataSource);
+
+        defaultDatabaseSnapshot.restoreSnapshot();
+        assertTestDataRestored(dataSource);
+    }
+
+    @Test
+    public void preservedTableNotRestored() {
+        defaultDatabaseSnapshot.takeSnapshot();
+        executeUpdate("insert into TEST_SNAPSHOT_PRESERVE values (2)", dataSource);
+
+        defaultDatabaseSnapshot.restoreSnapshot();
+        assertEquals(2, getItemAsLong("select count(*) from TEST_SNAPSHOT_PRESERVE", dataSource));
+    }
+
+    @Test
+    public void identityColumn() {
+        executeUpdate("create table TEST_SNAPSHOT_IDENTITY (id integer generated always as identity (start with 1) primary key, name varchar(10))", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_IDENTITY (name) values ('a')", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_IDENTITY (name) values ('b')", dataSource);
+        configuration.setProperty(PROPKEY_TRUNCATE_ENABLED, "true");
+        DefaultDatabaseSnapshot truncatingDatabaseSnapshot = createDatabaseSnapshot(dataSource, "hsqldb");
+        truncatingDatabaseSnapshot.takeSnapshot();
+        executeUpdate("insert into TEST_SNAPSHOT_IDENTITY (name) values ('c')", dataSource);
+
+        truncatingDatabaseSnapshot.restoreSnapshot();
+        assertEquals("b", getItemAsString("select name from TEST_SNAPSHOT_IDENTITY where id = 2", dataSource));
+        executeUpdate("insert into TEST_SNAPSHOT_IDENTITY (name) values ('d')", dataSource);
+        assertEquals(3, getItemAsLong("select id from TEST_SNAPSHOT_IDENTITY where name = 'd'", dataSource));
+    }
+
+    @Test
+    public void sequence() {
+        executeUpdate("create sequence TEST_SNAPSHOT_SEQUENCE start with 1", dataSource);
+        defaultDatabaseSnapshot.takeSnapshot();
+        getItemAsLong("call next value for TEST_SNAPSHOT_SEQUENCE", dataSource);
+        getItemAsLong("call next value for TEST_SNAPSHOT_SEQUENCE", dataSource);
+
+        defaultDatabaseSnapshot.restoreSnapshot();
+        assertEquals(1, getItemAsLong("call next value for TEST_SNAPSHOT_SEQUENCE", dataSource));
+    }
+
+    @Test
+    public void selfReferencingTable() {
+        executeUpdate("create table TEST_SNAPSHOT_SELF (id integer primary key, parent_id integer references TEST_SNAPSHOT_SELF(id))", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_SELF values (1, null)", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_SELF values (2, 1)", dataSource);
+        executeUpdate("update TEST_SNAPSHOT_SELF set parent_id = 2 where id = 1", dataSource);
+        defaultDatabaseSnapshot.takeSnapshot();
+        executeUpdate("insert into TEST_SNAPSHOT_SELF values (3, 1)", dataSource);
+
+        defaultDatabaseSnapshot.restoreSnapshot();
+        assertEquals(2, getItemAsLong("select count(*) from TEST_SNAPSHOT_SELF", dataSource));
+        assertEquals(2, getItemAsLong("select parent_id from TEST_SNAPSHOT_SELF where id = 1", dataSource));
+        assertReferentialIntegrityChecked();
+    }
+
+    @Test
+    public void cycleOfTables() {
+        executeUpdate("create table TEST_SNAPSHOT_CYCLE_A (id integer primary key, b_id integer)", dataSource);
+        executeUpdate("create table TEST_SNAPSHOT_CYCLE_B (id integer primary key, a_id integer references TEST_SNAPSHOT_CYCLE_A(id))", dataSource);
+        executeUpdate("alter table TEST_SNAPSHOT_CYCLE_A add foreign key (b_id) references TEST_SNAPSHOT_CYCLE_B(id)", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_CYCLE_A values (1, null)", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_CYCLE_B values (1, 1)", dataSource);
+        executeUpdate("update TEST_SNAPSHOT_CYCLE_A set b_id = 1", dataSource);
+        defaultDatabaseSnapshot.takeSnapshot();
+        executeUpdate("update TEST_SNAPSHOT_CYCLE_A set b_id = null", dataSource);
+        executeUpdate("delete from TEST_SNAPSHOT_CYCLE_B", dataSource);
+
+        defaultDatabaseSnapshot.restoreSnapshot();
+        assertEquals(1, getItemAsLong("select b_id from TEST_SNAPSHOT_CYCLE_A where id = 1", dataSource));
+        assertEquals(1, getItemAsLong("select a_id from TEST_SNAPSHOT_CYCLE_B where id = 1", dataSource));
+        assertReferentialIntegrityChecked();
+    }
+
+    @Test
+    public void h2() {
+        DriverManagerDataSource h2DataSource = new DriverManagerDataSource("jdbc:h2:mem:databasesnapshot;DB_CLOSE_DELAY=-1", "sa", "");
+        DbSupport h2DbSupport = getDefaultDbSupport(configuration, new DefaultSQLHandler(h2DataSource), "h2", "PUBLIC");
+        try {
+            createTestDatabase(h2DataSource);
+            DefaultDatabaseSnapshot h2DatabaseSnapshot = createDatabaseSnapshot(h2DataSource, "h2");
+            h2DatabaseSnapshot.takeSnapshot();
+            modifyTestData(h2DataSource);
+
+            h2DatabaseSnapshot.restoreSnapshot();
+            assertTestDataRestored(h2DataSource);
+        } finally {
+            cleanupTestDatabase(h2DbSupport);
+        }
+    }
+
+    @Test
+    public void snapshotTablesAreNotCleaned() {
+        defaultDatabaseSnapshot.takeSnapshot();
+        DefaultDBCleaner dbCleaner = new DefaultDBCleaner();
+        dbCleaner.init(configuration, new DefaultSQLHandler(dataSource), "hsqldb", Arrays.asList("PUBLIC"));
+        dbCleaner.cleanSchemas();
+
+        defaultDatabaseSnapshot.restoreSnapshot();
+        assertTestDataRestored(dataSource);
+    }
+
+    @Test
+    public void snapshotTablesReplacedByNewSnapshot() {
+        defaultDatabaseSnapshot.takeSnapshot();
+        modifyTestData(dataSource);
+        defaultDatabaseSnapshot.takeSnapshot();
+
+        // only the parent, child and empty table contain records, the preserved table is not copied
+        assertEquals(3, getSnapshotTableNames().size());
+        defaultDatabaseSnapshot.restoreSnapshot();
+        assertEquals(3, getItemAsLong("select count(*) from TEST_SNAPSHOT_PARENT", dataSource));
+    }
+
+    @Test
+    public void snapshotTablesDropped() {
+        defaultDatabaseSnapshot.takeSnapshot();
+        modifyTestData(dataSource);
+        for (String tableName : getSnapshotTableNames()) {
+            dbSupport.dropTable(tableName);
+        }
+        try {
+            defaultDatabaseSnapshot.restoreSnapshot();
+            throw new AssertionError("Expected UnitilsException");
+        } catch (UnitilsException e) {
+            // the data is not cleaned when the snapshot can no longer be restored
+            assertEquals(3, getItemAsLong("select count(*) from TEST_SNAPSHOT_PARENT", dataSource));
+        }
+    }
+
+    @Test
+    public void restoreSnapshotUsesSessionOfSQLHandler() {
+        AtomicInteger nrOfConnections = new AtomicInteger();
+        DataSource countingDataSource = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+            (proxy, method, args) -> {
+                if ("getConnection".equals(method.getName())) {
+                    nrOfConnections.incrementAndGet();
+                }
+                return method.invoke(dataSource, args);
+            });
+        DefaultDatabaseSnapshot batchingDatabaseSnapshot = new DefaultDatabaseSnapshot();
+        batchingDatabaseSnapshot.init(configuration, new BatchingSQLHandler(countingDataSource), "hsqldb", Arrays.asList("PUBLIC"));
+        batchingDatabaseSnapshot.takeSnapshot();
+        modifyTestData(dataSource);
+
+        nrOfConnections.set(0);
+        batchingDatabaseSnapshot.restoreSnapshot();
+        assertTestDataRestored(dataSource);
+        assertEquals(1, nrOfConnections.get());
+    }
+
+    @Test(expected = UnitilsException.class)
+    public void noSnapshotTaken() {
+        assertFalse(defaultDatabaseSnapshot.isSnapshotTaken());
+        defaultDatabaseSnapshot.restoreSnapshot();
+    }
+
+    private DefaultDatabaseSnapshot createDatabaseSnapshot(DataSource dataSource, String dialect) {
+        DefaultDatabaseSnapshot result = new DefaultDatabaseSnapshot();
+        result.init(configuration, new DefaultSQLHandler(dataSource), dialect, Arrays.asList("PUBLIC"));
+        return result;
+    }
+
+    private void createTestDatabase(DataSource dataSource) {
+        executeUpdate("create table TEST_SNAPSHOT_PARENT (id integer primary key, name varchar(10))", dataSource);
+        executeUpdate("create table TEST_SNAPSHOT_CHILD (id integer primary key, parent_id integer references TEST_SNAPSHOT_PARENT(id))", dataSource);
+        executeUpdate("create table TEST_SNAPSHOT_EMPTY (id integer)", dataSource);
+        executeUpdate("create table TEST_SNAPSHOT_PRESERVE (id integer)", dataSource);
+        executeUpdate("create table TEST_SNAPSHOT_LOB (id integer, text clob, data blob)", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_PARENT values (1, 'parent1')", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_PARENT values (2, null)", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_CHILD values (1, 1)", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_PRESERVE values (1)", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_LOB values (1, 'text', X'0102')", dataSource);
+    }
+
+    private void modifyTestData(DataSource dataSource) {
+        executeUpdate("delete from TEST_SNAPSHOT_CHILD", dataSource);
+        executeUpdate("update TEST_SNAPSHOT_PARENT set name = 'xxx'", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_PARENT values (3, 'parent3')", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_CHILD values (3, 3)", dataSource);
+        executeUpdate("insert into TEST_SNAPSHOT_EMPTY values (1)", dataSource);
+        executeUpdate("delete from TEST_SNAPSHOT_LOB", dataSource);
+    }
+
+    private void assertTestDataRestored(DataSource dataSource) {
+        assertEquals(2, getItemAsLong("select count(*) from TEST_SNAPSHOT_PARENT", dataSource));
+        assertEquals("parent1", getItemAsString("select name from TEST_SNAPSHOT_PARENT where id = 1", dataSource));
+        assertEquals(1, getItemAsLong("select count(*) from TEST_SNAPSHOT_PARENT where id = 2 and name is null", dataSource));
+        assertEquals(1, getItemAsLong("select parent_id from TEST_SNAPSHOT_CHILD where id = 1", dataSource));
+        assertEquals(1, getItemAsLong("select count(*) from TEST_SNAPSHOT_CHILD", dataSource));
+        assertTrue(isEmpty("TEST_SNAPSHOT_EMPTY", dataSource));
+        assertEquals("text", getItemAsString("select text from TEST_SNAPSHOT_LOB where id = 1", dataSource));
+        assertEquals(2, getItemAsLong("select octet_length(data) from TEST_SNAPSHOT_LOB where id = 1", dataSource));
+    }
+
+    private void assertReferentialIntegrityChecked() {
+        try {
+            executeUpdate("insert into TEST_SNAPSHOT_CHILD values (9, 9)", dataSource);
+        } catch (UnitilsException e) {
+            return;
+        }
+        throw new AssertionError("Referential constraints are not checked");
+    }
+
+    private Set<String> getSnapshotTableNames() {
+        Set<String> result = new HashSet<>();
+        for (String tableName : dbSupport.getTableNames()) {
+            if (DefaultDatabaseSnapshot.isSnapshotTable(tableName)) {
+                result.add(tableName);
+            }
+        }
+        return result;
+    }
+
+    private void cleanupTestDatabase(DbSupport dbSupport) {
+        for (String tableName : dbSupport.getTableNames()) {
+            if (DefaultDatabaseSnapshot.isSnapshotTable(tableName)) {
+                dbSupport.dropTable(tableName);
+            }
+        }
+        dropTestTables(dbSupport, "TEST_SNAPSHOT_CHILD", "TEST_SNAPSHOT_PARENT", "TEST_SNAPSHOT_EMPTY", "TEST_SNAPSHOT_PRESERVE", "TEST_SNAPSHOT_LOB",
+            "TEST_SNAPSHOT_IDENTITY",
+            "TEST_SNAPSHOT_SELF", "TEST_SNAPSHOT_CYCLE_A", "TEST_SNAPSHOT_CYCLE_B");
+        dropTestSequences(dbSupport, "TEST_SNAPSHOT_SEQUENCE");
+    }
+}
@@ -12,22 +12,35 @@
  */
 package org.unitils.reflectionassert;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.unitils.core.annotation.UsedForTesting;
+import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.LenientOrderCollectionComparator;
 import org.unitils.reflectionassert.difference.CollectionDifference;
 import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.UnorderedCollectionDifference;
+
+import static java.util.Arrays.asList;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
 import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
 
 /**
@@ -220,6 +233,106 @@ public class ReflectionComparatorCollectionTest {
         assertEquals("XXXXXX", difference2.getRightValue());
     }
 
+    /**
+     * Test for comparing streams and iterators with a collection.
+     */
+    @Test
+    public void testGetAllDifferences_equalsSequences() {
+        assertNull(reflectionComparator.getDifference(Stream.of("a", "b"), asList("a", "b")));
+        assertNull(reflectionComparator.getDifference(asList("a", "b").iterator(), Stream.of("a", "b")));
+        assertNull(reflectionComparator.getDifference(asList("a", "b").iterator(), new String[] {
+            "a", "b"
+        }));
+    }
+
+    /**
+     * Test for iterables that are not collections: they are compared field by field, so other fields are not ignored.
+     */
+    @Test
+    public void testGetAllDifferences_iterableWithOtherFields() {
+        assertNull(reflectionComparator.getDifference(new NamedIterable("name", "a"), new NamedIterable("name", "a")));
+        assertNotNull(reflectionComparator.getDifference(new NamedIterable("name", "a"), new NamedIterable("other", "a")));
+    }
+
+    /**
+     * Test for SQL exceptions. These are iterables that contain themselves, they should not be compared as sequences.
+     */
+    @Test
+    public void testGetAllDifferences_sqlExceptions() {
+        SQLException left = new SQLException("reason", "state", 1);
+        SQLException right = new SQLException("reason", "state", 2);
+
+        assertFalse(new CollectionComparator().canCompare(left, right));
+        assertFalse(new LenientOrderCollectionComparator().canCompare(left, right));
+    }
+
+    /**
+     * Test for a stream that has more elements than needed: only the elements up to the first difference are read.
+     */
+    @Test
+    public void testIsEqual_streamReadUpToFirstDifference() {
+        AtomicInteger nrOfReadElements = new AtomicInteger();
+        Stream<Integer> infiniteStream = Stream.iterate(0, i -> i + 1).peek(i -> nrOfReadElements.incrementAndGet());
+
+        assertFalse(reflectionComparator.isEqual(infiniteStream, asList(0, 2)));
+        assertEquals(2, nrOfReadElements.get());
+    }
+
+    /**
+     * Test for an iterator that is compared ignoring the order. The elements should still be available when the
+     * differences are determined after the first comparison failed.
+     */
+    @Test
+    public void testGetAllDifferences_iteratorLenientOrder() {
+        ReflectionComparator lenientOrderComparator = createRefectionComparator(LENIENT_ORDER);
+        assertNull(lenientOrderComparator.getDifference(asList("a", "b").iterator(), asList("b", "a")));
+
+        UnorderedCollectionDifference result = (UnorderedCollectionDifference) lenientOrderComparator.getDifference(asList("a", "b").iterator(),
+            asList("b", "c"));
+        assertEquals(asList("a", "b"), result.getLeftList());
+        assertEquals(Integer.valueOf(1), result.getBestMatchingIndexes().get(0));
+    }
+
+    /**
+     * Test for a linked list that has more elements: only the different and missing elements are kept in the
+     * difference.
+     */
+    @Test
+    public void testGetAllDifferences_notEqualsLinkedListMissingElements() {
+        CollectionDifference result = (CollectionDifference) reflectionComparator.getDifference(new LinkedList<>(asList("a", "x", "c", "d")),
+            new LinkedList<>(asList("a", "b")));
+
+        assertEquals("x", result.getElementDifferences().get(1).getLeftValue());
+        assertEquals(asList(2, 3), result.getLeftMissingIndexes());
+        assertEquals("d", result.getLeftList().get(3));
+        assertNull(result.getLeftList().get(0));
+    }
+
+    /**
+     * Test for primitive arrays: only the different elements are compared by the comparator chain.
+     */
+    @Test
+    public void testGetAllDifferences_primitiveArrays() {
+        assertNull(reflectionComparator.getDifference(new double[] {
+            1, Double.NaN
+        }, new double[] {
+            1, Double.NaN
+        }));
+        assertNull(createRefectionComparator(IGNORE_DEFAULTS).getDifference(new int[] {
+            0, 2
+        }, new int[] {
+            1, 2
+        }));
+
+        CollectionDifference result = (CollectionDifference) reflectionComparator.getDifference(new int[] {
+            0, 2
+        }, new int[] {
+            1, 2
+        });
+        assertEquals(1, result.getElementDifferences().size());
+        assertEquals(0, result.getElementDifferences().get(0).getLeftValue());
+    }
+
     /**
      * Creates a collection.
      *
@@ -237,6 +350,29 @@ public class ReflectionComparatorCollectionTest {
         return collection;
     }
 
+    /**
+     * Iterable that also has another field.
+     */
+    private static class NamedIterable
+        implements Iterable<String> {
+
+        /* The name */
+        private String name;
+
+        /* The elements */
+        private List<String> elements;
+
+        public NamedIterable(String name, String... elements) {
+            this.name = name;
+            this.elements = asList(elements);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return elements.iterator();
+        }
+    }
+
     /**
      * Test class with failing equals.
      */
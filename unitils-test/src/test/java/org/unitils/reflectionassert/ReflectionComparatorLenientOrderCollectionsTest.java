@@ -12,15 +12,24 @@
  */
 package org.unitils.reflectionassert;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
+import org.unitils.reflectionassert.comparator.impl.LenientOrderCollectionComparator;
 import org.unitils.reflectionassert.difference.UnorderedCollectionDifference;
 
+import static java.util.Arrays.asList;
 import static java.util.Arrays.binarySearch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
 
 /**
@@ -73,6 +82,95 @@ public class ReflectionComparatorLenientOrderCollectionsTest {
         assertBestMatch(expected, "3", actual, "4", difference);
     }
 
+    /**
+     * Large collections with many near-duplicates used to take factorial time.
+     */
+    @Test
+    public void largeCollectionsWithNearDuplicates() {
+        List<Element> expected = new ArrayList<>();
+        List<Element> actual = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            expected.add(new Element(i % 10, "value" + i));
+            actual.add(0, new Element(i % 10, "value" + i));
+        }
+
+        assertNull(reflectionComparator.getDifference(expected, actual));
+    }
+
+    /**
+     * The first equal element is not always the right choice: the null (ignored) left element has to be paired with
+     * the second right element so that the other left element can be paired with the first one.
+     */
+    @Test
+    public void elementsAreRepaired() {
+        ReflectionComparator ignoreDefaultsComparator = createRefectionComparator(LENIENT_ORDER, IGNORE_DEFAULTS);
+        String[] expected = {
+            null, "a"
+        };
+        String[] actual = {
+            "a", "b"
+        };
+
+        assertNull(ignoreDefaultsComparator.getDifference(expected, actual));
+    }
+
+    /**
+     * Only the elements that could not be paired get a best match, the other elements are not compared with each other.
+     */
+    @Test
+    public void bestMatchesOfLargeDifferentCollections() {
+        List<Element> expected = new ArrayList<>();
+        List<Element> actual = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            expected.add(new Element(i % 10, "value" + i));
+            actual.add(0, new Element(i % 10, "value" + i));
+        }
+        actual.set(10, new Element(3, "other"));
+
+        UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator.getDifference(expected, actual);
+        assertEquals(1, difference.getBestMatchingIndexes().size());
+        assertEquals(10, (int) difference.getBestMatchingIndexes().get(4989));
+        assertNotNull(difference.getElementDifference(4989, 10));
+        assertEquals(1, difference.getElementDifferences().size());
+    }
+
+    /**
+     * Nested collections all have the same fingerprint, so their actual differences decide the best match.
+     */
+    @Test
+    public void bestMatchesOfNestedCollections() {
+        List<List<Integer>> expected = asList(asList(1, 2, 3), asList(4, 5, 6), asList(7, 8, 9), asList(10, 11, 12));
+        List<List<Integer>> actual = asList(asList(1, 2, 0), asList(4, 5, 0), asList(7, 8, 0), asList(10, 11, 0));
+
+        UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator.getDifference(expected, actual);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, (int) difference.getBestMatchingIndexes().get(i));
+        }
+    }
+
+    @Test
+    public void differentSizes() {
+        String[] expected = {
+            "a", "a"
+        };
+        String[] actual = {
+            "a"
+        };
+
+        assertNotNull(reflectionComparator.getDifference(expected, actual));
+    }
+
+    @Test
+    public void deprecatedIsEqual() {
+        TestLenientOrderCollectionComparator comparator = new TestLenientOrderCollectionComparator();
+        ArrayList<Object> left = new ArrayList<>(asList("x", "a", "b"));
+
+        assertTrue(comparator.isEqual(left, new ArrayList<>(asList("b", "a")), 1, reflectionComparator));
+        assertFalse(comparator.isEqual(left, new ArrayList<>(asList("b", "x")), 1, reflectionComparator));
+        assertFalse(comparator.isEqual(left, new ArrayList<>(asList("b")), 1, reflectionComparator));
+        assertTrue(comparator.isEqual(left, new ArrayList<>(), 3, reflectionComparator));
+    }
+
     private void assertBestMatch(String[] expected, String expectedValue, String[] actual, String actualValue, UnorderedCollectionDifference difference) {
         int expectedIndex = binarySearch(expected, expectedValue);
         int actualIndex = binarySearch(actual, actualValue);
@@ -81,4 +179,29 @@ public class ReflectionComparatorLenientOrderCollectionsTest {
         assertEquals("Expected (" + expectedValue + "," + actualValue + ") as best match, but found (" + expected[bestMatchingIndex] + "," + actualValue + ").",
             actualIndex, (int) bestMatchingIndex);
     }
+
+    /**
+     * Makes the deprecated protected method available to the test.
+     */
+    private static class TestLenientOrderCollectionComparator
+        extends LenientOrderCollectionComparator {
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public boolean isEqual(ArrayList<Object> leftList, ArrayList<Object> rightList, int leftIndex, ReflectionComparator reflectionComparator) {
+            return super.isEqual(leftList, rightList, leftIndex, reflectionComparator);
+        }
+    }
+
+    private static class Element {
+
+        private int group;
+
+        private String value;
+
+        public Element(int group, String value) {
+            this.group = group;
+            this.value = value;
+        }
+    }
 }
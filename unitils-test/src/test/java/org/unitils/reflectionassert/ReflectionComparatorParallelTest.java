@@ -0,0 +1,138 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.MapDifference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.PARALLEL;
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for the parallel comparison of large collections and maps.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class ReflectionComparatorParallelTest {
+
+    /* Class under test */
+    private ReflectionComparator reflectionComparator;
+
+    @Before
+    public void initialize() {
+        reflectionComparator = createRefectionComparator(PARALLEL);
+    }
+
+    @Test
+    public void equalCollections() {
+        assertNull(reflectionComparator.getDifference(createElements(5000), createElements(5000)));
+    }
+
+    @Test
+    public void allDifferencesAreFound() {
+        List<Element> actual = createElements(5000);
+        actual.get(10).value = "other";
+        actual.get(4000).value = "other";
+
+        CollectionDifference difference = (CollectionDifference) reflectionComparator.getDifference(createElements(5000), actual);
+        assertEquals(2, difference.getElementDifferences().size());
+        assertTrue(difference.getElementDifferences().containsKey(10));
+        assertTrue(difference.getElementDifferences().containsKey(4000));
+    }
+
+    @Test
+    public void firstDifference() {
+        List<Element> actual = createElements(5000);
+        actual.get(4999).value = "other";
+
+        assertFalse(reflectionComparator.isEqual(createElements(5000), actual));
+    }
+
+    @Test
+    public void missingElements() {
+        CollectionDifference difference = (CollectionDifference) reflectionComparator.getDifference(createElements(5000), createElements(4998));
+        assertEquals(2, difference.getLeftMissingIndexes().size());
+    }
+
+    /**
+     * Cycles through the collection are detected by the comparisons in the other threads.
+     */
+    @Test
+    public void cycles() {
+        Element left = new Element("root");
+        left.children = createElements(5000);
+        left.children.forEach(child -> child.children = List.of(left));
+        Element right = new Element("root");
+        right.children = createElements(5000);
+        right.children.forEach(child -> child.children = List.of(right));
+
+        assertNull(reflectionComparator.getDifference(left, right));
+    }
+
+    @Test
+    public void equalMaps() {
+        Map<String, Element> expected = createElementMap();
+        Map<String, Element> actual = createElementMap();
+        assertNull(reflectionComparator.getDifference(expected, actual));
+    }
+
+    @Test
+    public void mapDifferences() {
+        Map<String, Element> expected = createElementMap();
+        Map<String, Element> actual = createElementMap();
+        actual.get("key3000").value = "other";
+        actual.remove("key20");
+        MapDifference difference = (MapDifference) reflectionComparator.getDifference(expected, actual);
+        assertEquals(1, difference.getValueDifferences().size());
+        assertEquals("key20", difference.getLeftMissingKeys().get(0));
+    }
+
+    private List<Element> createElements(int count) {
+        List<Element> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(new Element("value" + i));
+        }
+        return result;
+    }
+
+    private Map<String, Element> createElementMap() {
+        Map<String, Element> result = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            result.put("key" + i, new Element("value" + i));
+        }
+        return result;
+    }
+
+    private static class Element {
+
+        private String value;
+
+        private List<Element> children;
+
+        public Element(String value) {
+            this.value = value;
+        }
+    }
+}
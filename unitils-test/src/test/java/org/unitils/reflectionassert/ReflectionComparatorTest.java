@@ -16,22 +16,31 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.unitils.core.annotation.UsedForTesting;
+import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.Difference;
 
 import static java.lang.Boolean.FALSE;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.getComparatorChain;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.getComparatorDispatchTable;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
 import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
+import static org.unitils.util.CollectionUtils.asSet;
 
 /**
  * Test class for {@link ReflectionComparator}.
@@ -256,6 +265,56 @@ public class ReflectionComparatorTest {
         assertEquals("XXXXXX", difference2.getRightValue());
     }
 
+    /**
+     * Cycles are also detected when no comparison results are cached.
+     */
+    @Test
+    public void testGetAllDifferences_circularDependencyWithoutCachedResults() {
+        ReflectionComparator uncachedReflectionComparator = new ReflectionComparator(getComparatorChain(asSet()), 0);
+        assertNull(uncachedReflectionComparator.getDifference(objectsCircularDependencyA, objectsCircularDependencyB));
+
+        objectsCircularDependencyB.getInner().string1 = "XXXXXX";
+        Difference result = uncachedReflectionComparator.getDifference(objectsCircularDependencyA, objectsCircularDependencyB);
+        assertEquals("XXXXXX", getInnerDifference("string1", getInnerDifference("inner", result)).getRightValue());
+    }
+
+    /**
+     * The comparator chain is only assembled once for the same modes.
+     */
+    @Test
+    public void testComparatorChainIsShared() {
+        assertSame(getComparatorDispatchTable(asSet(IGNORE_DEFAULTS, LENIENT_ORDER)), getComparatorDispatchTable(asSet(LENIENT_ORDER, IGNORE_DEFAULTS)));
+        assertEquals(getComparatorChain(asSet(IGNORE_DEFAULTS, LENIENT_ORDER)), getComparatorChain(asSet(LENIENT_ORDER, IGNORE_DEFAULTS)));
+    }
+
+    /**
+     * The returned comparator chain is a copy, changing it does not change the shared chain.
+     */
+    @Test
+    public void testComparatorChainIsCopy() {
+        List<Comparator> comparatorChain = getComparatorChain(asSet());
+        comparatorChain.clear();
+
+        assertFalse(getComparatorChain(asSet()).isEmpty());
+    }
+
+    /**
+     * The deprecated cache methods use the same cache as the comparisons.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedCacheMethods() {
+        Difference difference = reflectionComparator.getDifference(objectsA, objectsDifferentValue);
+        assertSame(difference, reflectionComparator.getCachedDifference(objectsA, false).get(objectsDifferentValue));
+        assertNull(reflectionComparator.getCachedDifference(objectsA, true));
+
+        Map<Object, Difference> cachedResult = new IdentityHashMap<>();
+        cachedResult.put(objectsB, difference);
+        reflectionComparator.saveResultInCache(objectsA, cachedResult, true);
+        assertSame(cachedResult, reflectionComparator.firstDifferenceCachedResults.get(objectsA));
+        assertSame(difference, reflectionComparator.getDifference(objectsA, objectsB, true));
+    }
+
     /**
      * Test class with failing equals.
      */
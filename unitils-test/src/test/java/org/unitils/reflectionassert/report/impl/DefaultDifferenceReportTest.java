@@ -0,0 +1,153 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.report.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.reflectionassert.difference.Difference;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+import static org.unitils.reflectionassert.ReflectionAssert.setMaxReportSize;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.report.ReportWriter.UNLIMITED;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.DEFAULT_MAX_NR_OF_LINES;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.DEFAULT_MAX_REPORT_LENGTH;
+
+/**
+ * Test for {@link DefaultDifferenceReport}.
+ */
+public class DefaultDifferenceReportTest {
+
+    /* A difference between 2 lists of which all 1000 elements differ */
+    private Difference largeDifference;
+
+    @Before
+    public void setUp() {
+        List<Integer> left = new ArrayList<>();
+        List<Integer> right = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            left.add(i);
+            right.add(-i - 1);
+        }
+        largeDifference = createRefectionComparator().getDifference(left, right);
+    }
+
+    @Test
+    public void smallReportIsNotTruncated() {
+        Difference difference = createRefectionComparator().getDifference("a", "b");
+
+        String report = new DefaultDifferenceReport().createReport(difference);
+
+        assertEquals("Expected: \"a\", actual: \"b\"\n\n--- Found following differences ---\nexpected: \"a\", actual: \"b\"\n", report);
+    }
+
+    @Test
+    public void unlimitedReport() {
+        String report = new DefaultDifferenceReport(UNLIMITED, UNLIMITED).createReport(largeDifference);
+
+        assertTrue(report.contains("[999]: expected: 999, actual: -1000\n"));
+        assertTrue(report.contains("--- Difference detail tree ---"));
+        assertFalse(report.contains("more differences"));
+    }
+
+    @Test
+    public void maxReportLength() {
+        String report = new DefaultDifferenceReport(1000, UNLIMITED).createReport(largeDifference);
+
+        assertTrue(report.length() < 1100);
+        assertFalse(report.contains("--- Difference detail tree ---"));
+        assertTrue(report.endsWith("\n... and 973 more differences\n"));
+    }
+
+    @Test
+    public void maxNrOfLines() {
+        String report = new DefaultDifferenceReport(UNLIMITED, 10).createReport(largeDifference);
+
+        assertEquals(11, report.split("\n").length);
+        assertTrue(report.endsWith("[4]: expected: 4, actual: -5\n... and 995 more differences\n"));
+    }
+
+    @Test
+    public void maxReportLengthOfMaps() {
+        Map<String, Integer> left = new HashMap<>();
+        Map<String, Integer> right = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            left.put("key" + i, i);
+            right.put("key" + i, -i - 1);
+        }
+        Difference difference = createRefectionComparator().getDifference(left, right);
+
+        String report = new DefaultDifferenceReport(1000, UNLIMITED).createReport(difference);
+
+        // the last written difference can be cut off, the differences are not written in a fixed order
+        int nrOfWrittenDifferences = report.split("\n\"").length - 1;
+        assertTrue(report, report.endsWith("\n... and " + (1000 - nrOfWrittenDifferences) + " more differences\n"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedFormatMethods() {
+        DefaultDifferenceView defaultDifferenceView = new DefaultDifferenceView();
+        TreeDifferenceView treeDifferenceView = new TreeDifferenceView();
+
+        assertEquals(defaultDifferenceView.createView(largeDifference), largeDifference.accept(defaultDifferenceView.differenceFormatterVisitor, null));
+        assertEquals(treeDifferenceView.createView(largeDifference), largeDifference.accept(treeDifferenceView.treeDifferenceFormatterVisitor, null));
+    }
+
+    @Test
+    public void overriddenDeprecatedFormatMethodsAreUsed() {
+        Difference difference = createRefectionComparator().getDifference(asList(1, 2), asList(1, 3));
+
+        DefaultDifferenceView defaultDifferenceView = new DefaultDifferenceView() {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected String formatValues(String fieldName, Object leftValue, Object rightValue) {
+                return fieldName + " differs\n";
+            }
+        };
+        TreeDifferenceView treeDifferenceView = new TreeDifferenceView() {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected String formatDifference(Difference difference, String fieldName) {
+                return "custom " + fieldName + "\n";
+            }
+        };
+
+        assertEquals("[1] differs\n", defaultDifferenceView.createView(difference));
+        assertEquals("custom null\ncustom [1]\n", treeDifferenceView.createView(difference));
+    }
+
+    @Test
+    public void maxReportSizeOfReflectionAssert() {
+        setMaxReportSize(UNLIMITED, 10);
+        try {
+            assertReflectionEquals(asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), asList(0, 0, 0, 0, 0, 0, 0, 0, 0, 0));
+            fail("AssertionError expected");
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(" more differences\n"));
+        } finally {
+            setMaxReportSize(DEFAULT_MAX_REPORT_LENGTH, DEFAULT_MAX_NR_OF_LINES);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.unitils.reflectionassert.util.ClassComparisonPlan.FieldAccessor;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionAssert.assertPropertyLenientEquals;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.util.ClassComparisonPlan.getClassComparisonPlan;
+
+/**
+ * Test for {@link ClassComparisonPlan}.
+ */
+public class ClassComparisonPlanTest {
+
+    @Test
+    public void planIsComputedOnce() {
+        assertSame(getClassComparisonPlan(SubClass.class), getClassComparisonPlan(SubClass.class));
+    }
+
+    @Test
+    public void staticAndTransientFieldsAreSkipped() {
+        List<FieldAccessor> fieldAccessors = getClassComparisonPlan(SubClass.class).getFieldAccessors();
+
+        assertPropertyLenientEquals("name", asList("flag", "number", "doubleValue", "value"), fieldAccessors);
+        assertEquals("flag", fieldAccessors.get(0).getName());
+    }
+
+    @Test
+    public void sameValues() {
+        SubClass left = new SubClass(true, 1, Double.NaN, "value");
+        SubClass right = new SubClass(true, 1, Double.NaN, new String("value"));
+
+        List<FieldAccessor> fieldAccessors = getClassComparisonPlan(SubClass.class).getFieldAccessors();
+        assertTrue(fieldAccessors.get(0).isSameValue(left, right));
+        assertTrue(fieldAccessors.get(1).isSameValue(left, right));
+        assertTrue(fieldAccessors.get(2).isSameValue(left, right));
+        assertFalse(fieldAccessors.get(3).isSameValue(left, right));
+        assertEquals(Double.NaN, fieldAccessors.get(2).getValue(left));
+        assertNull(createRefectionComparator().getDifference(left, right));
+    }
+
+    @Test
+    public void differentPrimitiveValues() {
+        SubClass left = new SubClass(true, 1, 0.0, "value");
+        SubClass right = new SubClass(false, 1, -0.0, "value");
+
+        List<FieldAccessor> fieldAccessors = getClassComparisonPlan(SubClass.class).getFieldAccessors();
+        assertFalse(fieldAccessors.get(0).isSameValue(left, right));
+        assertFalse(fieldAccessors.get(2).isSameValue(left, right));
+        assertNotNull(createRefectionComparator().getDifference(left, right));
+    }
+
+    private static class SuperClass {
+
+        private static String staticValue = "static";
+
+        private transient String transientValue;
+
+        private String value;
+
+        public SuperClass(String value) {
+            this.value = value;
+        }
+    }
+
+    private static class SubClass
+        extends SuperClass {
+
+        private boolean flag;
+
+        private int number;
+
+        private double doubleValue;
+
+        public SubClass(boolean flag, int number, double doubleValue, String value) {
+            super(value);
+            this.flag = flag;
+            this.number = number;
+            this.doubleValue = doubleValue;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.HibernateProxyComparator;
+import org.unitils.reflectionassert.comparator.impl.IgnoreDefaultsComparator;
+import org.unitils.reflectionassert.comparator.impl.LenientDatesComparator;
+import org.unitils.reflectionassert.comparator.impl.LenientNumberComparator;
+import org.unitils.reflectionassert.comparator.impl.LenientOrderCollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.MapComparator;
+import org.unitils.reflectionassert.comparator.impl.ObjectComparator;
+import org.unitils.reflectionassert.comparator.impl.SimpleCasesComparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for {@link ComparatorDispatchTable}.
+ */
+public class ComparatorDispatchTableTest {
+
+    private static final Object INSTANCE = new TestObject();
+
+    private static final List<Object> VALUES = asList(null, 0, 5, 5L, 'a', (char) 0, true, false, "text", new Date(), new ArrayList<>(),
+        new int[0], new HashMap<>(), TestEnum.VALUE, INSTANCE, new TestObject(), new TestObject[0]);
+
+    @Test
+    public void sameComparatorsAsChain() {
+        assertSameComparatorsAsChain(new ComparatorDispatchTable(asList(new LenientNumberComparator(), new SimpleCasesComparator(),
+            new CollectionComparator(), new MapComparator(), new HibernateProxyComparator(), new ObjectComparator())));
+        assertSameComparatorsAsChain(new ComparatorDispatchTable(asList(new LenientDatesComparator(), new IgnoreDefaultsComparator(),
+            new LenientNumberComparator(), new SimpleCasesComparator(), new LenientOrderCollectionComparator(), new MapComparator(),
+            new HibernateProxyComparator(), new ObjectComparator())));
+    }
+
+    @Test
+    public void valueDependentComparatorIsAlwaysAsked() {
+        ValueDependentComparator valueDependentComparator = new ValueDependentComparator();
+        ObjectComparator objectComparator = new ObjectComparator();
+        ComparatorDispatchTable dispatchTable = new ComparatorDispatchTable(asList(valueDependentComparator, objectComparator));
+
+        assertSame(valueDependentComparator, dispatchTable.getComparator(INSTANCE, INSTANCE));
+        assertSame(objectComparator, dispatchTable.getComparator(INSTANCE, new TestObject()));
+        assertSame(valueDependentComparator, dispatchTable.getComparator(INSTANCE, INSTANCE));
+        assertEquals(3, valueDependentComparator.nrOfCalls);
+    }
+
+    @Test
+    public void noComparator() {
+        ComparatorDispatchTable dispatchTable = new ComparatorDispatchTable(asList(new ObjectComparator()));
+
+        assertNull(dispatchTable.getComparator(null, INSTANCE));
+    }
+
+    @Test
+    public void classesOfComparedValuesCanBeUnloaded()
+        throws Exception {
+        ObjectComparator objectComparator = new ObjectComparator();
+        ComparatorDispatchTable dispatchTable = new ComparatorDispatchTable(asList(objectComparator));
+
+        Class<?> unloadableClass = new UnloadableObjectClassLoader().loadClass(UnloadableObject.class.getName());
+        Object unloadableObject = unloadableClass.getConstructor().newInstance();
+        assertSame(objectComparator, dispatchTable.getComparator(INSTANCE, unloadableObject));
+        assertSame(objectComparator, dispatchTable.getComparator(unloadableObject, INSTANCE));
+
+        WeakReference<Class<?>> classReference = new WeakReference<>(unloadableClass);
+        unloadableClass = null;
+        unloadableObject = null;
+        for (int i = 0; i < 50 && classReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(classReference.get());
+        assertNotNull(dispatchTable.getComparator(INSTANCE, INSTANCE));
+    }
+
+    private void assertSameComparatorsAsChain(ComparatorDispatchTable dispatchTable) {
+        // twice, the second time the reduced chains are used
+        for (int i = 0; i < 2; i++) {
+            for (Object left : VALUES) {
+                for (Object right : VALUES) {
+                    assertSame("left " + left + ", right " + right, getComparatorFromChain(dispatchTable.getComparators(), left, right),
+                        dispatchTable.getComparator(left, right));
+                }
+            }
+        }
+    }
+
+    private Comparator getComparatorFromChain(List<Comparator> comparators, Object left, Object right) {
+        for (Comparator comparator : comparators) {
+            if (comparator.canCompare(left, right)) {
+                return comparator;
+            }
+        }
+        return null;
+    }
+
+    private enum TestEnum {
+        VALUE
+    }
+
+    private static class TestObject {
+    }
+
+    public static class UnloadableObject {
+    }
+
+    /**
+     * Class loader that loads its own copy of {@link UnloadableObject}.
+     */
+    private static class UnloadableObjectClassLoader
+        extends ClassLoader {
+
+        public UnloadableObjectClassLoader() {
+            super(ComparatorDispatchTableTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve)
+            throws ClassNotFoundException {
+            if (!UnloadableObject.class.getName().equals(name)) {
+                return super.loadClass(name, resolve);
+            }
+            try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                byte[] bytes = in.readAllBytes();
+                return defineClass(name, bytes, 0, bytes.length);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+
+    /**
+     * Comparator that only compares identical instances, without a type based check.
+     */
+    private static class ValueDependentComparator
+        implements Comparator {
+
+        private int nrOfCalls;
+
+        @Override
+        public boolean canCompare(Object left, Object right) {
+            nrOfCalls++;
+            return left == right;
+        }
+
+        @Override
+        public Difference compare(Object left, Object right, boolean onlyFirstDifference, ReflectionComparator reflectionComparator) {
+            return null;
+        }
+    }
+}
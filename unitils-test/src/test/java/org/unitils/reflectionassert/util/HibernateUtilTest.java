@@ -0,0 +1,151 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.lang.reflect.Proxy;
+
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.junit.Test;
+import org.unitils.reflectionassert.difference.Difference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+
+/**
+ * Test for {@link HibernateUtil}, using proxies that are not loaded.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class HibernateUtilTest {
+
+    @Test
+    public void uninitializedProxy() {
+        TestEntityProxy proxy = new TestEntityProxy(1L);
+
+        assertTrue(HibernateUtil.isHibernateProxy(proxy));
+        assertTrue(HibernateUtil.isHibernateProxyType(TestEntityProxy.class));
+        assertTrue(HibernateUtil.isUninitialized(proxy));
+        assertEquals(TestEntity.class.getName(), HibernateUtil.getEntitiyName(proxy));
+        assertEquals(1L, HibernateUtil.getIdentifier(proxy));
+        assertFalse(proxy.initialized);
+    }
+
+    @Test
+    public void getUnproxiedValue() {
+        TestEntityProxy proxy = new TestEntityProxy(1L);
+
+        assertSame(proxy.implementation, HibernateUtil.getUnproxiedValue(proxy));
+        assertTrue(proxy.initialized);
+        assertFalse(HibernateUtil.isUninitialized(proxy));
+    }
+
+    @Test
+    public void noProxy() {
+        TestEntity entity = new TestEntity(1L);
+
+        assertFalse(HibernateUtil.isHibernateProxy(entity));
+        assertFalse(HibernateUtil.isUninitialized(entity));
+        assertEquals(TestEntity.class.getName(), HibernateUtil.getEntitiyName(entity));
+        assertNull(HibernateUtil.getIdentifier(entity));
+        assertSame(entity, HibernateUtil.getUnproxiedValue(entity));
+    }
+
+    @Test
+    public void uninitializedProxiesAreComparedByIdentifier() {
+        TestEntityProxy proxy1 = new TestEntityProxy(1L);
+        TestEntityProxy proxy2 = new TestEntityProxy(1L);
+        TestEntityProxy proxy3 = new TestEntityProxy(2L);
+
+        assertNull(createRefectionComparator().getDifference(proxy1, proxy2));
+        Difference difference = createRefectionComparator().getDifference(proxy1, proxy3);
+        assertNotNull(difference);
+        assertEquals("Different hibernate proxy values", difference.getMessage());
+        assertFalse(proxy1.initialized || proxy2.initialized || proxy3.initialized);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedInvokeLazyInitializerMethod() {
+        TestEntityProxy proxy = new TestEntityProxy(1L);
+
+        assertEquals(true, HibernateUtil.invokeLazyInitializerMethod("isUninitialized", proxy));
+        assertEquals(1L, HibernateUtil.invokeLazyInitializerMethod("getIdentifier", proxy));
+        assertEquals(TestEntity.class.getName(), HibernateUtil.invokeLazyInitializerMethod("getEntityName", proxy));
+    }
+
+    /**
+     * Entity that is proxied.
+     */
+    public static class TestEntity {
+
+        private Long id;
+
+        public TestEntity(Long id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Proxy that is not loaded until its implementation is asked, like a lazily loaded Hibernate proxy.
+     */
+    public static class TestEntityProxy
+        extends TestEntity
+        implements HibernateProxy {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TestEntity implementation;
+
+        private boolean initialized;
+
+        private final LazyInitializer lazyInitializer;
+
+        public TestEntityProxy(Long id) {
+            super(null);
+            implementation = new TestEntity(id);
+            lazyInitializer = (LazyInitializer) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {LazyInitializer.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isUninitialized":
+                            return !initialized;
+                        case "getEntityName":
+                            return TestEntity.class.getName();
+                        case "getIdentifier":
+                            return id;
+                        case "getImplementation":
+                            initialized = true;
+                            return implementation;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        }
+
+        @Override
+        public Object writeReplace() {
+            return this;
+        }
+
+        @Override
+        public LazyInitializer getHibernateLazyInitializer() {
+            return lazyInitializer;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.LenientNumberComparator;
+import org.unitils.reflectionassert.comparator.impl.MapComparator;
+import org.unitils.reflectionassert.comparator.impl.ObjectComparator;
+import org.unitils.reflectionassert.comparator.impl.SimpleCasesComparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link UnorderedCollectionMatcher}.
+ *
+ * @author Tim Ducheyne
+ * @author Filip Neven
+ */
+public class UnorderedCollectionMatcherTest {
+
+    @Test
+    public void fingerprintContainsBoxedNumbersAndDates() {
+        List<Entity> left = asList(new Entity(1, "1.5", 1000));
+        List<Entity> right = asList(new Entity(2, "1.5", 1000), new Entity(1, "2.5", 1000), new Entity(1, "1.5", 2000), new Entity(1, "1.5", 1000));
+        CountingReflectionComparator reflectionComparator = new CountingReflectionComparator();
+        UnorderedCollectionMatcher matcher = new UnorderedCollectionMatcher(left, right, reflectionComparator);
+
+        assertNotEquals(matcher.getLeftFingerprint(0), matcher.getRightFingerprint(0));
+        assertNotEquals(matcher.getLeftFingerprint(0), matcher.getRightFingerprint(1));
+        assertNotEquals(matcher.getLeftFingerprint(0), matcher.getRightFingerprint(2));
+        assertEquals(matcher.getLeftFingerprint(0), matcher.getRightFingerprint(3));
+        assertTrue(matcher.isSimpleType(LocalDate.class));
+    }
+
+    @Test
+    public void objectsWithDifferentFingerprintsAreRankedWithoutFullDifferences() {
+        List<Entity> left = asList(new Entity(1, "1.5", 1000), new Entity(2, "2.5", 2000));
+        List<Entity> right = asList(new Entity(9, "9.5", 9000), new Entity(1, "1.5", 9000));
+        CountingReflectionComparator reflectionComparator = new CountingReflectionComparator();
+        UnorderedCollectionMatcher matcher = new UnorderedCollectionMatcher(left, right, reflectionComparator);
+
+        assertFalse(matcher.isCompleteMatch());
+        matcher.matchMaximal();
+        reflectionComparator.nrOfFullDifferences = 0;
+
+        assertArrayEquals(new int[] {1, 0}, matcher.getBestMatchCandidates(0, 3));
+        assertEquals(0, reflectionComparator.nrOfFullDifferences);
+    }
+
+    @Test
+    public void nrOfFullDifferencesIsLimited() {
+        List<List<Integer>> left = new ArrayList<>();
+        List<List<Integer>> right = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            left.add(asList(i, i));
+            right.add(asList(i, -i - 1));
+        }
+        CountingReflectionComparator reflectionComparator = new CountingReflectionComparator();
+        UnorderedCollectionMatcher matcher = new UnorderedCollectionMatcher(left, right, reflectionComparator);
+
+        assertFalse(matcher.isCompleteMatch());
+        matcher.matchMaximal();
+        reflectionComparator.nrOfFullDifferences = 0;
+
+        int[] candidates = matcher.getBestMatchCandidates(0, 3);
+        assertEquals(3, candidates.length);
+        assertTrue(reflectionComparator.nrOfFullDifferences <= UnorderedCollectionMatcher.MAX_FULL_DIFFERENCES);
+    }
+
+    /**
+     * Reflection comparator that counts the comparisons for all differences of the elements, not of their inner values.
+     */
+    private static class CountingReflectionComparator
+        extends ReflectionComparator {
+
+        private int nrOfFullDifferences;
+
+        private int depth;
+
+        public CountingReflectionComparator() {
+            super(asList(new LenientNumberComparator(), new SimpleCasesComparator(), new CollectionComparator(), new MapComparator(), new ObjectComparator()));
+        }
+
+        @Override
+        public Difference getDifference(Object left, Object right, boolean onlyFirstDifference) {
+            if (!onlyFirstDifference && depth == 0) {
+                nrOfFullDifferences++;
+            }
+            depth++;
+            try {
+                return super.getDifference(left, right, onlyFirstDifference);
+            } finally {
+                depth--;
+            }
+        }
+    }
+
+    private static class Entity {
+
+        private Integer id;
+
+        private BigDecimal amount;
+
+        private Date date;
+
+        public Entity(Integer id, String amount, long time) {
+            this.id = id;
+            this.amount = new BigDecimal(amount);
+            this.date = new Date(time);
+        }
+    }
+}
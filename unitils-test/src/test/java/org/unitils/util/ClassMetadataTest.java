@@ -0,0 +1,141 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.util;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.reflect.Field;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionAssert.assertPropertyLenientEquals;
+import static org.unitils.util.ClassMetadata.getClassMetadata;
+
+/**
+ * Test for {@link ClassMetadata}.
+ */
+public class ClassMetadataTest {
+
+    @Test
+    public void metadataIsComputedOnce() {
+        assertSame(getClassMetadata(TestSubClass.class), getClassMetadata(TestSubClass.class));
+        assertSame(getClassMetadata(TestSubClass.class).getFieldsAnnotatedWith(TestAnnotation.class),
+            getClassMetadata(TestSubClass.class).getFieldsAnnotatedWith(TestAnnotation.class));
+    }
+
+    @Test
+    public void fieldsAndMethodsOfSuperClassesAreIncluded() {
+        ClassMetadata classMetadata = getClassMetadata(TestSubClass.class);
+
+        assertPropertyLenientEquals("name", asList("field", "subField", "number"), classMetadata.getAllFields());
+        assertPropertyLenientEquals("name", asList("field", "subField"), classMetadata.getFieldsAnnotatedWith(TestAnnotation.class));
+        assertPropertyLenientEquals("name", asList("annotatedMethod", "subAnnotatedMethod"), classMetadata.getMethodsAnnotatedWith(TestAnnotation.class, true));
+        assertPropertyLenientEquals("name", asList("subAnnotatedMethod"), classMetadata.getMethodsAnnotatedWith(TestAnnotation.class, false));
+        assertPropertyLenientEquals("name", asList("setNumber"), classMetadata.getSettersAssignableFrom(Integer.class, false));
+        assertPropertyLenientEquals("name", asList("number"), classMetadata.getFieldsOfType(Integer.class, false));
+    }
+
+    @Test
+    public void objectAndInterfacesHaveNoSuperClassMetadata() {
+        assertTrue(getClassMetadata(Object.class).getAllFields().isEmpty());
+        assertTrue(getClassMetadata(Runnable.class).getFieldsAnnotatedWith(TestAnnotation.class).isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cachedSetsAreUnmodifiable() {
+        getClassMetadata(TestSubClass.class).getAllFields().clear();
+    }
+
+    @Test
+    public void utilitiesReturnModifiableCopies() {
+        Set<Field> fields = AnnotationUtils.getFieldsAnnotatedWith(TestSubClass.class, TestAnnotation.class);
+        fields.clear();
+
+        assertPropertyLenientEquals("name", asList("field", "subField"), AnnotationUtils.getFieldsAnnotatedWith(TestSubClass.class, TestAnnotation.class));
+    }
+
+    @Test
+    public void clearCache() {
+        ClassMetadata classMetadata = getClassMetadata(TestSubClass.class);
+
+        ClassMetadata.clearCache();
+
+        assertNotSame(classMetadata, getClassMetadata(TestSubClass.class));
+    }
+
+    @Test
+    public void clearCacheOfClassAlsoClearsSubClasses() {
+        ClassMetadata classMetadata = getClassMetadata(TestClass.class);
+        ClassMetadata subClassMetadata = getClassMetadata(TestSubClass.class);
+
+        ClassMetadata.clearCache(TestClass.class);
+
+        assertNotSame(classMetadata, getClassMetadata(TestClass.class));
+        assertNotSame(subClassMetadata, getClassMetadata(TestSubClass.class));
+        assertSame(getClassMetadata(TestSubClass.class), getClassMetadata(TestSubClass.class));
+    }
+
+    @Test
+    public void clearCacheOfSubClassKeepsSuperClasses() {
+        ClassMetadata classMetadata = getClassMetadata(TestClass.class);
+        ClassMetadata subClassMetadata = getClassMetadata(TestSubClass.class);
+
+        ClassMetadata.clearCache(TestSubClass.class);
+
+        assertSame(classMetadata, getClassMetadata(TestClass.class));
+        assertNotSame(subClassMetadata, getClassMetadata(TestSubClass.class));
+    }
+
+    @Retention(RUNTIME)
+    @Target({
+        FIELD, METHOD
+    })
+    private @interface TestAnnotation {
+    }
+
+    private static class TestClass {
+
+        @TestAnnotation
+        private String field;
+
+        @TestAnnotation
+        public void annotatedMethod() {
+        }
+    }
+
+    private static class TestSubClass
+        extends TestClass {
+
+        @TestAnnotation
+        private String subField;
+
+        private Integer number;
+
+        @TestAnnotation
+        public void subAnnotatedMethod() {
+        }
+
+        public void setNumber(Integer number) {
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2008, Unitils.org
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ognl.OgnlException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for {@link OgnlUtils}.
+ */
+public class OgnlUtilsTest {
+
+    @Before
+    public void setUp() {
+        OgnlUtils.clearCache();
+    }
+
+    @Test
+    public void parsedExpressionIsCached()
+        throws Exception {
+        Object parsedExpression = OgnlUtils.parseExpression("inner.value");
+
+        assertSame(parsedExpression, OgnlUtils.parseExpression("inner.value"));
+        OgnlUtils.clearCache();
+        assertNotSame(parsedExpression, OgnlUtils.parseExpression("inner.value"));
+    }
+
+    @Test
+    public void privateFields()
+        throws Exception {
+        TestObject testObject = new TestObject(new TestObject(null));
+
+        OgnlUtils.setValue("inner.value", testObject, "value");
+        assertEquals("value", OgnlUtils.getValue("inner.value", testObject));
+    }
+
+    @Test(expected = OgnlException.class)
+    public void invalidExpression()
+        throws Exception {
+        OgnlUtils.getValue("inner.", new TestObject(null));
+    }
+
+    private static class TestObject {
+
+        private String value;
+
+        private TestObject inner;
+
+        public TestObject(TestObject inner) {
+            this.inner = inner;
+        }
+    }
+}